@@ -0,0 +1,130 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Login and chat-check throughput of the SQLite, H2 and local JSON backends,
+ * with four threads calling at once like concurrent logins and chat.
+ * <p>
+ * {@code login} does what a join does: the ban check, the IP ban check and
+ * recording the address. {@code chatCheck} is the mute check run on every
+ * chat message. Every player has one expired and one active punishment.
+ * <p>
+ * Run with {@code mvn -P benchmarks test-compile exec:exec -Djmh.args="BackendBenchmark"}.
+ *
+ * @author Hexett
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class BackendBenchmark {
+
+    private static final int PLAYERS = 10_000;
+
+    @Param({"sqlite", "h2", "local"})
+    public String backend;
+
+    private File dataFolder;
+    private Database database;
+    private UUID[] players;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("staffutils-bench").toFile();
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("StaffUtilsPlus"));
+
+        database = "local".equals(backend)
+                ? new LocalDatabase(plugin)
+                : new SQLDatabase(plugin, backend, "localhost", 0, "", "", "");
+        database.connect();
+        database.awaitReady(30, TimeUnit.SECONDS);
+
+        players = new UUID[PLAYERS];
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        AsyncDatabase async = AsyncDatabase.of(database);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+            Punishment expired = new Punishment(players[i], Punishment.Type.TEMP_MUTE, "Benchmark", now - 7_200_000L, now - 3_600_000L, null);
+            Punishment active = new Punishment(players[i], Punishment.Type.TEMP_MUTE, "Benchmark", now, now + 3_600_000L, null);
+            writes.add(async.insertPunishmentAsync(expired));
+            writes.add(async.insertPunishmentAsync(active));
+            writes.add(async.recordPlayerIPAsync(players[i], address(i)));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        deleteRecursively(dataFolder);
+    }
+
+    @Benchmark
+    public boolean login() {
+        int i = ThreadLocalRandom.current().nextInt(PLAYERS);
+        boolean banned = !database.getPunishments(players[i]).isEmpty();
+        banned |= !database.getPunishmentsByIP(address(i)).isEmpty();
+        database.recordPlayerIP(players[i], address(i));
+        return banned;
+    }
+
+    @Benchmark
+    public boolean chatCheck() {
+        UUID player = players[ThreadLocalRandom.current().nextInt(PLAYERS)];
+        long now = System.currentTimeMillis();
+        for (Punishment punishment : database.getPunishments(player)) {
+            if (punishment.getType() == Punishment.Type.TEMP_MUTE && punishment.getExpiresAt() > now) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String address(int player) {
+        return "10." + (player >> 16 & 0xFF) + "." + (player >> 8 & 0xFF) + "." + (player & 0xFF);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,109 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * How long a burst of concurrent lookups takes against H2 in MySQL mode, with
+ * queries run on the fixed pool of query threads and on virtual threads.
+ * <p>
+ * Each invocation submits {@value #LOOKUPS} punishment lookups at once, like
+ * the joins after a restart, and waits for all of them; the pool has
+ * {@value #CONNECTIONS} connections either way. H2 is embedded, so there is
+ * no network round trip and the difference is the cost of handing queries to
+ * the threads and waiting for a connection.
+ * <p>
+ * Run with {@code mvn -P benchmarks test-compile exec:exec -Djmh.args="SQLExecutorBenchmark"}.
+ *
+ * @author Hexett
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SQLExecutorBenchmark {
+
+    private static final int LOOKUPS = 1_000;
+    private static final int CONNECTIONS = 10;
+    private static final int PLAYERS = 1_000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private File dataFolder;
+    private SQLDatabase database;
+    private UUID[] players;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("staffutils-bench").toFile();
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("StaffUtilsPlus"));
+
+        SQLDatabase.PoolSettings settings = new SQLDatabase.PoolSettings(CONNECTIONS, CONNECTIONS, 600_000, 1_800_000, 0, 30_000,
+                64, 100, 5, 10_000, virtualThreads);
+        database = new SQLDatabase(plugin, "h2", "", 0, "", "", "", settings);
+        database.connect();
+
+        players = new UUID[PLAYERS];
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+            writes.add(database.insertPunishmentAsync(new Punishment(players[i], Punishment.Type.TEMP_MUTE, "Benchmark", now, now + 3_600_000L, null)));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        File[] files = dataFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dataFolder.delete();
+    }
+
+    @Benchmark
+    public int burstOfLookups() {
+        List<CompletableFuture<List<Punishment>>> lookups = new ArrayList<>(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups.add(database.getPunishmentsAsync(players[i % PLAYERS]));
+        }
+        int found = 0;
+        for (CompletableFuture<List<Punishment>> lookup : lookups) {
+            found += lookup.join().size();
+        }
+        return found;
+    }
+}
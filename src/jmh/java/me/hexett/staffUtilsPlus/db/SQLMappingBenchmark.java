@@ -0,0 +1,133 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Time to read and map the 10k punishments one staff member has issued, the
+ * worst case for {@code /blame}, against SQLite.
+ * <p>
+ * {@code byName} is the old mapping: {@code SELECT *} and every column looked
+ * up by name. {@code byPosition} selects {@link SQLDatabase#PUNISHMENT_COLUMNS}
+ * and maps rows with {@link SQLDatabase#createPunishmentFromResultSet}. Both run
+ * the same prepared statement on one connection, so the difference is the
+ * mapping.
+ * <p>
+ * Run with {@code mvn -P benchmarks test-compile exec:exec -Djmh.args="SQLMappingBenchmark"}.
+ *
+ * @author Hexett
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SQLMappingBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private File dataFolder;
+    private Connection connection;
+    private PreparedStatement selectAll;
+    private PreparedStatement selectColumns;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        dataFolder = Files.createTempDirectory("staffutils-bench").toFile();
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("StaffUtilsPlus"));
+
+        SQLDatabase database = new SQLDatabase(plugin, "sqlite", "localhost", 0, "", "", "");
+        database.connect();
+        UUID issuer = UUID.randomUUID();
+        CompletableFuture<?>[] inserts = new CompletableFuture[ROWS];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ROWS; i++) {
+            Punishment punishment = new Punishment(UUID.randomUUID(), Punishment.Type.TEMP_BAN, "Benchmark reason " + i,
+                    now, now + 86_400_000L, issuer, "10.0." + (i >> 8 & 0xFF) + "." + (i & 0xFF));
+            inserts[i] = database.insertPunishmentAsync(punishment);
+        }
+        CompletableFuture.allOf(inserts).join();
+        database.close();
+
+        connection = DriverManager.getConnection("jdbc:sqlite:" + dataFolder + "/data.db");
+        selectAll = connection.prepareStatement("SELECT * FROM punishments WHERE issuer_uuid = ?");
+        selectAll.setBytes(1, SQLColumns.uuid(issuer));
+        selectColumns = connection.prepareStatement("SELECT " + SQLDatabase.PUNISHMENT_COLUMNS + " FROM punishments WHERE issuer_uuid = ?");
+        selectColumns.setBytes(1, SQLColumns.uuid(issuer));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        File[] files = dataFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dataFolder.delete();
+    }
+
+    @Benchmark
+    public List<Punishment> byName() throws SQLException {
+        List<Punishment> punishments = new ArrayList<>(ROWS);
+        try (ResultSet rs = selectAll.executeQuery()) {
+            while (rs.next()) {
+                Punishment punishment = new Punishment(
+                        SQLColumns.uuid(rs.getBytes("target_uuid")),
+                        SQLColumns.type(rs.getInt("type")),
+                        rs.getString("reason"),
+                        rs.getLong("issued_at"),
+                        rs.getLong("expires_at"),
+                        rs.getBytes("issuer_uuid") != null ? SQLColumns.uuid(rs.getBytes("issuer_uuid")) : null,
+                        SQLColumns.ip(rs.getBytes("ip_address"))
+                );
+                punishment.setActive(rs.getBoolean("active"));
+                punishments.add(punishment);
+            }
+        }
+        return punishments;
+    }
+
+    @Benchmark
+    public List<Punishment> byPosition() throws SQLException {
+        List<Punishment> punishments = new ArrayList<>(ROWS);
+        try (ResultSet rs = selectColumns.executeQuery()) {
+            while (rs.next()) {
+                punishments.add(SQLDatabase.createPunishmentFromResultSet(rs));
+            }
+        }
+        return punishments;
+    }
+}
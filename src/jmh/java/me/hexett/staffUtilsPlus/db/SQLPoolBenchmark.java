@@ -0,0 +1,110 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Login throughput of SQLDatabase against H2 in MySQL mode, with a single
+ * connection and with a pool, while eight threads log players in at once.
+ * <p>
+ * A pool of one is what SQLDatabase had before pooling: one connection and one
+ * query thread, so every lookup waits for the one before it. {@code login}
+ * does what a join does, as in {@link BackendBenchmark}: the ban check, the IP
+ * ban check and recording the address.
+ * <p>
+ * Run with {@code mvn -P benchmarks test-compile exec:exec -Djmh.args="SQLPoolBenchmark"}.
+ *
+ * @author Hexett
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+public class SQLPoolBenchmark {
+
+    private static final int PLAYERS = 10_000;
+
+    @Param({"1", "10"})
+    public int poolSize;
+
+    private File dataFolder;
+    private SQLDatabase database;
+    private UUID[] players;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("staffutils-bench").toFile();
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("StaffUtilsPlus"));
+
+        SQLDatabase.PoolSettings settings = new SQLDatabase.PoolSettings(poolSize, poolSize, 600_000, 1_800_000, 0, 30_000,
+                64, 100, 5, 10_000, false);
+        database = new SQLDatabase(plugin, "h2", "", 0, "", "", "", settings);
+        database.connect();
+
+        players = new UUID[PLAYERS];
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+            writes.add(database.insertPunishmentAsync(new Punishment(players[i], Punishment.Type.TEMP_MUTE, "Benchmark", now, now + 3_600_000L, null)));
+            writes.add(database.recordPlayerIPAsync(players[i], address(i)));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        File[] files = dataFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dataFolder.delete();
+    }
+
+    @Benchmark
+    public boolean login() {
+        int i = ThreadLocalRandom.current().nextInt(PLAYERS);
+        boolean banned = !database.getPunishments(players[i]).isEmpty();
+        banned |= !database.getPunishmentsByIP(address(i)).isEmpty();
+        database.recordPlayerIP(players[i], address(i));
+        return banned;
+    }
+
+    private static String address(int player) {
+        return "10." + (player >> 16 & 0xFF) + "." + (player >> 8 & 0xFF) + "." + (player & 0xFF);
+    }
+}
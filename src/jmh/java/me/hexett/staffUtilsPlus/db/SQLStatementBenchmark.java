@@ -0,0 +1,116 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-call latency of the hot SQLDatabase queries against SQLite, with the
+ * per-connection statement cache off (0) and on.
+ * <p>
+ * The pool has a single connection, so there is one worker thread and queries
+ * run in the order they are submitted. {@code recordPlayerIP} does not wait for
+ * its write, so its benchmark reads the address back, which waits for the write
+ * to finish; subtract {@code getPlayerIP} to get the cost of the write itself.
+ * <p>
+ * Run with {@code mvn -P benchmarks test-compile exec:exec -Djmh.args="SQLStatementBenchmark"}.
+ *
+ * @author Hexett
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SQLStatementBenchmark {
+
+    private static final int PLAYERS = 1_000;
+
+    @Param({"0", "64"})
+    public int statementCacheSize;
+
+    private File dataFolder;
+    private SQLDatabase database;
+    private UUID[] players;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("staffutils-bench").toFile();
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("StaffUtilsPlus"));
+
+        // Write batching off, so each write is its own statement like the reads
+        SQLDatabase.PoolSettings settings = new SQLDatabase.PoolSettings(1, 1, 600_000, 1_800_000, 0, 30_000, statementCacheSize, 1, 0, 10_000, false);
+        database = new SQLDatabase(plugin, "sqlite", "localhost", 0, "", "", "", settings);
+        database.connect();
+
+        players = new UUID[PLAYERS];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+            database.insertPunishment(new Punishment(players[i], Punishment.Type.TEMP_MUTE, "Benchmark", now, now + 3_600_000L, null));
+            database.recordPlayerIP(players[i], "10.0." + (i >> 8) + "." + (i & 0xFF));
+        }
+        // Queued behind the inserts on the single worker, so this waits for them
+        database.getPlayerIP(players[PLAYERS - 1]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        File[] files = dataFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dataFolder.delete();
+    }
+
+    @Benchmark
+    public List<Punishment> getPunishments() {
+        return database.getPunishments(nextPlayer());
+    }
+
+    @Benchmark
+    public String getPlayerIP() {
+        return database.getPlayerIP(nextPlayer());
+    }
+
+    @Benchmark
+    public String recordPlayerIP() {
+        UUID player = nextPlayer();
+        database.recordPlayerIP(player, "10.1.0.1");
+        return database.getPlayerIP(player);
+    }
+
+    private UUID nextPlayer() {
+        UUID player = players[next];
+        next = (next + 1) % PLAYERS;
+        return player;
+    }
+}
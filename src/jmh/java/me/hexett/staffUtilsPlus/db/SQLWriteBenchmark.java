@@ -0,0 +1,124 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Write throughput of SQLDatabase against SQLite and H2 (in MySQL mode), with
+ * write batching off (1) and on. Each invocation queues a burst of writes,
+ * like the joins after a restart, and waits until all of them are committed.
+ * <p>
+ * Run with {@code mvn -P benchmarks test-compile exec:exec -Djmh.args="SQLWriteBenchmark"}.
+ * To measure a MySQL server instead, add {@code -p type=mysql} to the JMH
+ * arguments and point the {@code STAFFUTILS_BENCH_MYSQL_*} environment
+ * variables at a scratch database; the benchmark writes rows it does not remove.
+ *
+ * @author Hexett
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SQLWriteBenchmark {
+
+    private static final int WRITES = 500;
+    private static final int PLAYERS = 100;
+
+    @Param({"sqlite", "h2"})
+    public String type;
+
+    @Param({"1", "100"})
+    public int writeBatchSize;
+
+    private File dataFolder;
+    private SQLDatabase database;
+    private UUID[] players;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("staffutils-bench").toFile();
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("StaffUtilsPlus"));
+
+        SQLDatabase.PoolSettings settings = new SQLDatabase.PoolSettings(2, 4, 600_000, 1_800_000, 0, 30_000, 64, writeBatchSize, 5, 10_000, false);
+        database = "mysql".equals(type)
+                ? new SQLDatabase(plugin, type, env("HOST", "localhost"), Integer.parseInt(env("PORT", "3306")),
+                        env("DATABASE", "staffutils_bench"), env("USER", "root"), env("PASSWORD", ""), settings)
+                : new SQLDatabase(plugin, type, "localhost", 0, "", "", "", settings);
+        database.connect();
+
+        players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+        }
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv("STAFFUTILS_BENCH_MYSQL_" + name);
+        return value != null ? value : fallback;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        File[] files = dataFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dataFolder.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WRITES)
+    public void insertPunishment() {
+        CompletableFuture<?>[] writes = new CompletableFuture[WRITES];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < WRITES; i++) {
+            Punishment punishment = new Punishment(players[i % PLAYERS], Punishment.Type.KICK, "Benchmark", now, null);
+            writes[i] = database.insertPunishmentAsync(punishment);
+        }
+        CompletableFuture.allOf(writes).join();
+    }
+
+    /**
+     * Every player records an address five times per burst, so batching also
+     * coalesces the repeats into one row write per player.
+     */
+    @Benchmark
+    @OperationsPerInvocation(WRITES)
+    public void recordPlayerIP() {
+        CompletableFuture<?>[] writes = new CompletableFuture[WRITES];
+        for (int i = 0; i < WRITES; i++) {
+            writes[i] = database.recordPlayerIPAsync(players[i % PLAYERS], "10.0.0." + (i & 0xFF));
+        }
+        CompletableFuture.allOf(writes).join();
+    }
+}
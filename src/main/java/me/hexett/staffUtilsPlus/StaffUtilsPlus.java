@@ -12,6 +12,7 @@ import me.hexett.staffUtilsPlus.commands.staff.VanishCommand;
 import me.hexett.staffUtilsPlus.db.Database;
 import me.hexett.staffUtilsPlus.db.LocalDatabase;
 import me.hexett.staffUtilsPlus.db.SQLDatabase;
+import me.hexett.staffUtilsPlus.db.ShardedLocalDatabase;
 import me.hexett.staffUtilsPlus.impl.*;
 import me.hexett.staffUtilsPlus.service.ServiceRegistry;
 import me.hexett.staffUtilsPlus.service.alts.AltAccountService;
@@ -22,8 +23,10 @@ import me.hexett.staffUtilsPlus.utils.MessagesConfig;
 import me.hexett.staffUtilsPlus.commands.*;
 import me.hexett.staffUtilsPlus.listeners.*;
 import me.hexett.staffUtilsPlus.menu.StaffMenuManager;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import me.hexett.staffUtilsPlus.service.notes.NoteService;
 import me.hexett.staffUtilsPlus.service.warnings.WarningService;
@@ -59,6 +62,7 @@ public final class StaffUtilsPlus extends JavaPlugin {
         
         initDatabase();
         initServices();
+        scheduleArchiving();
         displayStartupMessage();
     }
 
@@ -84,7 +88,7 @@ public final class StaffUtilsPlus extends JavaPlugin {
 
         if (!dbEnabled) {
             log.warning(MessagesConfig.get("errors.database.not-enabled"));
-            database = new LocalDatabase(this);
+            database = createLocalDatabase();
             database.connect();
             return;
         }
@@ -94,29 +98,155 @@ public final class StaffUtilsPlus extends JavaPlugin {
                 (type.equalsIgnoreCase("mysql") && (host == null || host.isEmpty() || 
                  name == null || name.isEmpty() || user == null || user.isEmpty()))) {
             log.warning(MessagesConfig.get("errors.database.incomplete-info"));
-            database = new LocalDatabase(this);
+            database = createLocalDatabase();
+            database.connect();
             return;
         }
 
         try {
-            database = new SQLDatabase(this, type, host, port, name, user, pass);
+            database = new SQLDatabase(this, type, host, port, name, user, pass, readPoolSettings(), readReplicaSettings(),
+                    readBreakerSettings());
             database.connect();
             log.info("Database connection established successfully.");
         } catch (Exception e) {
             log.severe("Failed to connect to the database: " + e.getMessage());
             log.warning("Falling back to local storage...");
-            database = new LocalDatabase(this);
+            database = createLocalDatabase();
             database.connect();
         }
     }
 
+    /**
+     * Read the {@code database.pool} settings, falling back to the defaults.
+     *
+     * @return The connection pool settings
+     */
+    private SQLDatabase.PoolSettings readPoolSettings() {
+        SQLDatabase.PoolSettings defaults = SQLDatabase.PoolSettings.DEFAULTS;
+        return new SQLDatabase.PoolSettings(
+                getConfig().getInt("database.pool.minimum-idle", defaults.minimumIdle()),
+                getConfig().getInt("database.pool.maximum-size", defaults.maximumSize()),
+                getConfig().getLong("database.pool.idle-timeout-ms", defaults.idleTimeoutMillis()),
+                getConfig().getLong("database.pool.max-lifetime-ms", defaults.maxLifetimeMillis()),
+                getConfig().getLong("database.pool.validation-interval-ms", defaults.validationIntervalMillis()),
+                getConfig().getLong("database.pool.connection-timeout-ms", defaults.connectionTimeoutMillis()),
+                getConfig().getInt("database.pool.statement-cache-size", defaults.statementCacheSize()),
+                getConfig().getInt("database.pool.write-batch-size", defaults.writeBatchSize()),
+                getConfig().getLong("database.pool.write-flush-interval-ms", defaults.writeFlushIntervalMillis()),
+                getConfig().getLong("database.pool.heartbeat-interval-ms", defaults.heartbeatIntervalMillis()),
+                getConfig().getBoolean("database.pool.virtual-threads", defaults.virtualThreads()));
+    }
+
+    /**
+     * Read the {@code database.replicas} settings, falling back to no replicas.
+     *
+     * @return The read replica settings
+     */
+    private SQLDatabase.ReplicaSettings readReplicaSettings() {
+        SQLDatabase.ReplicaSettings defaults = SQLDatabase.ReplicaSettings.NONE;
+        return new SQLDatabase.ReplicaSettings(
+                getConfig().getStringList("database.replicas.endpoints"),
+                getConfig().getLong("database.replicas.max-lag-ms", defaults.maxLagMillis()),
+                getConfig().getLong("database.replicas.check-interval-ms", defaults.checkIntervalMillis()));
+    }
+
+    /**
+     * Read the {@code database.circuit-breaker} settings, falling back to the defaults.
+     *
+     * @return The outage handling settings
+     */
+    private SQLDatabase.BreakerSettings readBreakerSettings() {
+        SQLDatabase.BreakerSettings defaults = SQLDatabase.BreakerSettings.DEFAULTS;
+        return new SQLDatabase.BreakerSettings(
+                getConfig().getInt("database.circuit-breaker.failure-threshold", defaults.failureThreshold()),
+                getConfig().getLong("database.circuit-breaker.retry-after-ms", defaults.retryAfterMillis()));
+    }
+
+    /**
+     * Create the local database using the {@code database.local} settings.
+     *
+     * @return A new, unconnected local database
+     */
+    private Database createLocalDatabase() {
+        String mode = getConfig().getString("database.local.save-mode", "journal");
+        LocalDatabase.SaveMode saveMode;
+        try {
+            saveMode = LocalDatabase.SaveMode.valueOf(mode.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            log.warning("Unknown database.local.save-mode '" + mode + "', using journal");
+            saveMode = LocalDatabase.SaveMode.JOURNAL;
+        }
+        String format = getConfig().getString("database.local.format", "json");
+        LocalDatabase.SnapshotFormat snapshotFormat;
+        try {
+            snapshotFormat = LocalDatabase.SnapshotFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warning("Unknown database.local.format '" + format + "', using json");
+            snapshotFormat = LocalDatabase.SnapshotFormat.JSON;
+        }
+        int compactAfter = getConfig().getInt("database.local.compact-after", 1000);
+        long flushInterval = getConfig().getLong("database.local.flush-interval-ms", 1000);
+        int flushAfter = getConfig().getInt("database.local.flush-after-changes", 500);
+        LocalDatabase local = new LocalDatabase(this, saveMode, snapshotFormat, compactAfter, flushInterval, flushAfter);
+
+        String layout = getConfig().getString("database.local.layout", "single");
+        if (layout.equalsIgnoreCase("sharded")) {
+            return new ShardedLocalDatabase(this, getConfig().getInt("database.local.cache-size", 10000), local);
+        }
+        if (!layout.equalsIgnoreCase("single")) {
+            log.warning("Unknown database.local.layout '" + layout + "', using single");
+        }
+        return local;
+    }
+
+    /**
+     * Periodically move records that no longer apply into cold storage,
+     * using the {@code database.archive} settings.
+     */
+    private void scheduleArchiving() {
+        if (!getConfig().getBoolean("database.archive.enabled", true)) {
+            return;
+        }
+        long afterMillis = TimeUnit.DAYS.toMillis(Math.max(1, getConfig().getInt("database.archive.after-days", 90)));
+        long intervalTicks = TimeUnit.HOURS.toSeconds(Math.max(1, getConfig().getInt("database.archive.interval-hours", 24))) * 20;
+
+        getServer().getScheduler().runTaskTimerAsynchronously(this, () -> {
+            long start = System.nanoTime();
+            int archived = database.archiveInactive(System.currentTimeMillis() - afterMillis);
+            if (archived > 0) {
+                log.info("Archived " + archived + " inactive records in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+            }
+        }, 20L * 60, intervalTicks);
+    }
+
+    /**
+     * Re-read online players' bans and mutes on a timer when the database is
+     * MySQL, which other servers may share, using
+     * {@code database.online-refresh-seconds}. SQLite, H2 and local storage
+     * belong to this server alone, so what it holds in memory stays current.
+     */
+    private void scheduleOnlineRefresh(PunishmentServiceImpl punishments) {
+        int seconds = getConfig().getInt("database.online-refresh-seconds", 10);
+        if (!(database instanceof SQLDatabase) || !"mysql".equalsIgnoreCase(getConfig().getString("database.type"))
+                || seconds <= 0) {
+            return;
+        }
+        long intervalTicks = seconds * 20L;
+        getServer().getScheduler().runTaskTimerAsynchronously(this, punishments::refreshOnlinePlayers,
+                intervalTicks, intervalTicks);
+    }
+
     /**
      * Initialize and register all services.
      */
     private void initServices() {
         ServiceRegistry.register(Database.class, database);
         
-        punishmentService = new PunishmentServiceImpl(database, this);
+        PunishmentServiceImpl punishments = new PunishmentServiceImpl(database, this);
+        punishmentService = punishments;
+        getServer().getScheduler().runTaskTimerAsynchronously(this, punishments::expirePunishments, 20L, 20L);
+        scheduleOnlineRefresh(punishments);
         menuManager = new StaffMenuManager();
         spyListeners = new CommandSpyListeners();
         
@@ -138,6 +268,12 @@ public final class StaffUtilsPlus extends JavaPlugin {
         
         // Register listeners
         registerListeners();
+
+        // Players still online after a reload never went through pre-login
+        for (Player player : getServer().getOnlinePlayers()) {
+            getServer().getScheduler().runTaskAsynchronously(this,
+                    () -> punishmentService.loadPlayer(player.getUniqueId()));
+        }
     }
 
     /**
@@ -162,6 +298,7 @@ public final class StaffUtilsPlus extends JavaPlugin {
         CommandRegistry.registerCommand("whois", new WhoIsCommand());
         CommandRegistry.registerCommand("history", new HistoryCommand());
         CommandRegistry.registerCommand("blame", new BlameCommand());
+        CommandRegistry.registerCommand("tempbans", new TempBansCommand());
         CommandRegistry.registerCommand("alts", new AltsCommand());
 
         log.info("Registered " + CommandRegistry.getCommandCount() + " commands.");
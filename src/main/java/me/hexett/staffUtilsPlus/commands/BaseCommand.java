@@ -1,15 +1,26 @@
 package me.hexett.staffUtilsPlus.commands;
 
 import me.hexett.staffUtilsPlus.utils.ColorUtils;
+import me.hexett.staffUtilsPlus.utils.MainThread;
 import me.hexett.staffUtilsPlus.utils.MessagesConfig;
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.api.chat.hover.content.Text;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 /**
  * Base command class that provides common functionality for all commands.
@@ -155,6 +166,120 @@ public abstract class BaseCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    /**
+     * Resolve a UUID to a player name.
+     *
+     * @param uuid The player's UUID
+     * @return The player's name, or their UUID if the name can't be resolved
+     */
+    protected String resolvePlayerName(UUID uuid) {
+        OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
+        String name = player.getName();
+        return name != null ? name : uuid.toString();
+    }
+
+    /**
+     * Format a duration in milliseconds to a human-readable string.
+     *
+     * @param millis The duration in milliseconds; negative durations count as zero
+     * @return A formatted string like "2d 5h 30m"
+     */
+    protected String formatDuration(long millis) {
+        long seconds = Math.max(0, millis) / 1000;
+        long minutes = seconds / 60;
+        long hours = minutes / 60;
+        long days = hours / 24;
+
+        if (days > 0) {
+            return String.format("%dd %dh %dm", days, hours % 24, minutes % 60);
+        } else if (hours > 0) {
+            return String.format("%dh %dm", hours, minutes % 60);
+        } else if (minutes > 0) {
+            return String.format("%dm %ds", minutes, seconds % 60);
+        } else {
+            return String.format("%ds", seconds);
+        }
+    }
+
+    /**
+     * Report a failed database lookup that finished after the command
+     * returned: log it and tell the sender, on the main thread, that the
+     * command failed.
+     *
+     * @param sender The command sender
+     * @param action What the command was doing, for the log (e.g. "loading the history of Steve")
+     * @param e The failure
+     * @return null, so this can be handed straight to {@code exceptionally}
+     */
+    protected Void reportFailure(CommandSender sender, String action, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        Plugin plugin = Bukkit.getPluginManager().getPlugin("StaffUtilsPlus");
+        plugin.getLogger().warning("Failed " + action + ": " + cause.getMessage());
+        cause.printStackTrace();
+        MainThread.executor(plugin).execute(() -> sendMessage(sender, MessagesConfig.get("errors.command-error")));
+        return null;
+    }
+
+    /**
+     * Send links to the pages either side of a paged listing. Players get
+     * clickable links; the console gets the commands to type.
+     *
+     * @param sender The command sender
+     * @param newerCommand The command showing the newer page, or null on the newest page
+     * @param olderCommand The command showing the older page, or null on the oldest page
+     */
+    protected void sendPageNavigation(CommandSender sender, String newerCommand, String olderCommand) {
+        sendPageNavigation(sender, "Newer", newerCommand, "Older", olderCommand);
+    }
+
+    /**
+     * Send links to the pages either side of a paged listing that is not
+     * ordered by age, with the given labels (e.g. "Previous" and "Next").
+     *
+     * @param sender The command sender
+     * @param previousLabel The label for the link to the previous page
+     * @param previousCommand The command showing the previous page, or null on the first page
+     * @param nextLabel The label for the link to the next page
+     * @param nextCommand The command showing the next page, or null on the last page
+     */
+    protected void sendPageNavigation(CommandSender sender, String previousLabel, String previousCommand,
+                                      String nextLabel, String nextCommand) {
+        if (previousCommand == null && nextCommand == null) {
+            return;
+        }
+
+        if (!(sender instanceof Player player)) {
+            if (previousCommand != null) {
+                sendMessage(sender, "&7Use &e" + previousCommand + "&7 for " + previousLabel.toLowerCase() + " entries");
+            }
+            if (nextCommand != null) {
+                sendMessage(sender, "&7Use &e" + nextCommand + "&7 for " + nextLabel.toLowerCase() + " entries");
+            }
+            return;
+        }
+
+        TextComponent navigation = new TextComponent("");
+        if (previousCommand != null) {
+            navigation.addExtra(pageLink("\u00ab " + previousLabel, previousCommand));
+        }
+        if (previousCommand != null && nextCommand != null) {
+            navigation.addExtra(new TextComponent("   "));
+        }
+        if (nextCommand != null) {
+            navigation.addExtra(pageLink(nextLabel + " \u00bb", nextCommand));
+        }
+        player.spigot().sendMessage(navigation);
+    }
+
+    private static TextComponent pageLink(String label, String command) {
+        TextComponent link = new TextComponent(label);
+        link.setColor(ChatColor.YELLOW);
+        link.setBold(true);
+        link.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, command));
+        link.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new Text("Click to run " + command)));
+        return link;
+    }
+
     /**
      * Send the usage message to the sender.
      * 
@@ -1,13 +1,17 @@
 package me.hexett.staffUtilsPlus.commands;
 
 import me.hexett.staffUtilsPlus.StaffUtilsPlus;
+import me.hexett.staffUtilsPlus.db.Database;
+import me.hexett.staffUtilsPlus.service.ServiceRegistry;
 import me.hexett.staffUtilsPlus.utils.ColorUtils;
+import me.hexett.staffUtilsPlus.utils.MessagesConfig;
 import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.PluginDescriptionFile;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class StaffUtilsCommand extends BaseCommand {
 
@@ -54,6 +58,24 @@ public class StaffUtilsCommand extends BaseCommand {
                     sender.sendMessage(ColorUtils.translateColorCodes("&aStaffUtilsPlus has been reloaded!"));
                     return true;
                 }
+                if(args[0].equals("status")) {
+                    if(!sender.hasPermission("staffutils.status")) {
+                        sender.sendMessage(ColorUtils.translateColorCodes("&cYou don't have permission to do that!"));
+                        return true;
+                    }
+                    Database database = ServiceRegistry.get(Database.class);
+                    if(database == null) {
+                        sender.sendMessage(MessagesConfig.get("errors.database.not-found"));
+                        return true;
+                    }
+                    sender.sendMessage(ColorUtils.translateColorCodes("&f================================"));
+                    sender.sendMessage(ColorUtils.translateColorCodes("&c&lStaffUtilsPlus &8Database Status"));
+                    for (Map.Entry<String, String> entry : database.getStatus().entrySet()) {
+                        sender.sendMessage(ColorUtils.translateColorCodes("&8" + entry.getKey() + ": &f") + entry.getValue());
+                    }
+                    sender.sendMessage(ColorUtils.translateColorCodes("&f================================"));
+                    return true;
+                }
                 break;
         }
         return true;
@@ -64,6 +86,7 @@ public class StaffUtilsCommand extends BaseCommand {
         List<String> completions = new ArrayList<>();
         if(args.length == 1) {
             completions.add("reload");
+            completions.add("status");
             return completions;
         }
         return completions;
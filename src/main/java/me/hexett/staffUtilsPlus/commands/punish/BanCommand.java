@@ -53,12 +53,8 @@ public class BanCommand extends BaseCommand {
             return true;
         }
 
-        // Check if player is already banned
+        // Get the punishment service
         PunishmentService punishmentService = ServiceRegistry.get(PunishmentService.class);
-        if (punishmentService.isBanned(targetUUID)) {
-            sendMessage(sender, MessagesConfig.get("punishments.ban.already-banned").replace("%target%", targetName));
-            return true;
-        }
 
         // Get issuer UUID
         UUID issuerUUID = null;
@@ -1,9 +1,12 @@
 package me.hexett.staffUtilsPlus.commands.punish;
 
 import me.hexett.staffUtilsPlus.commands.BaseCommand;
+import me.hexett.staffUtilsPlus.db.AsyncDatabase;
 import me.hexett.staffUtilsPlus.db.Database;
+import me.hexett.staffUtilsPlus.db.Page;
 import me.hexett.staffUtilsPlus.service.ServiceRegistry;
 import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.utils.MainThread;
 import me.hexett.staffUtilsPlus.utils.MessagesConfig;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -18,6 +21,7 @@ import java.util.UUID;
 public class BlameCommand extends BaseCommand {
 
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static final int PUNISHMENTS_PER_PAGE = 10;
 
     public BlameCommand() {
         super(
@@ -33,6 +37,16 @@ public class BlameCommand extends BaseCommand {
     protected boolean execute(CommandSender sender, String[] args) {
         String targetPlayer = args[0];
 
+        // Later pages are reached through the links, which pass the page's cursor
+        Page.Cursor cursor = null;
+        if (args.length > 1) {
+            cursor = Page.Cursor.decode(args[1]);
+            if (cursor == null) {
+                sendUsage(sender);
+                return true;
+            }
+        }
+
         // Get the database from ServiceRegistry
         Database database = ServiceRegistry.get(Database.class);
         if (database == null) {
@@ -47,40 +61,40 @@ public class BlameCommand extends BaseCommand {
             return false;
         }
 
-        // Fetch punishments by issuer asynchronously to avoid blocking the main thread
-        Bukkit.getScheduler().runTaskAsynchronously(Bukkit.getPluginManager().getPlugin("StaffUtilsPlus"), () -> {
-            List<Punishment> punishments = database.getPunishmentsByIssuer(issuerUUID);
-
-            // Send results back on the main thread for chat messages
-            Bukkit.getScheduler().runTask(Bukkit.getPluginManager().getPlugin("StaffUtilsPlus"), () -> {
-                if (punishments.isEmpty()) {
-                    sender.sendMessage(MessagesConfig.get("punishments.blame.no-punishments").replace("%player%", targetPlayer));
-                    return;
+        // Fetch one page of punishments by issuer without blocking, then send it on the main thread
+        AsyncDatabase.of(database).getPunishmentsByIssuerPageAsync(issuerUUID, cursor, PUNISHMENTS_PER_PAGE).thenAcceptAsync(page -> {
+            List<Punishment> punishments = page.items();
+            if (punishments.isEmpty()) {
+                sender.sendMessage(MessagesConfig.get("punishments.blame.no-punishments").replace("%player%", targetPlayer));
+                return;
+            }
+
+            sender.sendMessage(ChatColor.GOLD + "=== Punishments by " + targetPlayer + " ===");
+            sender.sendMessage(ChatColor.GRAY + "Newest first, " + punishments.size() + " shown");
+            sender.sendMessage("");
+
+            for (Punishment punishment : punishments) {
+                String timestamp = DATE_FORMAT.format(new Date(punishment.getIssuedAt()));
+                String type = punishment.getType().name();
+                String target = resolvePlayerName(punishment.getTarget());
+                String status = punishment.isActive() ? ChatColor.GREEN + "[ACTIVE]" : ChatColor.GRAY + "[INACTIVE]";
+
+                sender.sendMessage(ChatColor.YELLOW + timestamp + ChatColor.GRAY + " | " +
+                        ChatColor.RED + type + ChatColor.GRAY + " | " +
+                        ChatColor.WHITE + target + " " + status);
+
+                if (punishment.getReason() != null && !punishment.getReason().isEmpty()) {
+                    sender.sendMessage(ChatColor.GRAY + "  Reason: " + ChatColor.ITALIC + punishment.getReason());
                 }
+            }
 
-                sender.sendMessage(ChatColor.GOLD + "=== Punishments by " + targetPlayer + " ===");
-                sender.sendMessage(ChatColor.GRAY + "Total: " + punishments.size());
-                sender.sendMessage("");
-
-                for (Punishment punishment : punishments) {
-                    String timestamp = DATE_FORMAT.format(new Date(punishment.getIssuedAt()));
-                    String type = punishment.getType().name();
-                    String target = resolvePlayerName(punishment.getTarget());
-                    String status = punishment.isActive() ? ChatColor.GREEN + "[ACTIVE]" : ChatColor.GRAY + "[INACTIVE]";
-
-                    sender.sendMessage(ChatColor.YELLOW + timestamp + ChatColor.GRAY + " | " +
-                            ChatColor.RED + type + ChatColor.GRAY + " | " +
-                            ChatColor.WHITE + target + " " + status);
-
-                    if (punishment.getReason() != null && !punishment.getReason().isEmpty()) {
-                        sender.sendMessage(ChatColor.GRAY + "  Reason: " + ChatColor.ITALIC + punishment.getReason());
-                    }
-                }
-
-                sender.sendMessage("");
-                sender.sendMessage(ChatColor.GOLD + "=== End of List ===");
-            });
-        });
+            sender.sendMessage("");
+            sendPageNavigation(sender,
+                    page.newer() != null ? "/blame " + targetPlayer + " " + page.newer().encode() : null,
+                    page.older() != null ? "/blame " + targetPlayer + " " + page.older().encode() : null);
+            sender.sendMessage(ChatColor.GOLD + (page.older() == null ? "=== End of List ===" : "=== End of Page ==="));
+        }, MainThread.executor(Bukkit.getPluginManager().getPlugin("StaffUtilsPlus")))
+                .exceptionally(e -> reportFailure(sender, "loading the punishments issued by " + targetPlayer, e));
 
         return true;
     }
@@ -108,16 +122,4 @@ public class BlameCommand extends BaseCommand {
 
         return null;
     }
-
-    /**
-     * Resolve a UUID to a player name.
-     *
-     * @param uuid The player's UUID
-     * @return The player's name, or their UUID if the name can't be resolved
-     */
-    private String resolvePlayerName(UUID uuid) {
-        OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
-        String name = player.getName();
-        return name != null ? name : uuid.toString();
-    }
 }
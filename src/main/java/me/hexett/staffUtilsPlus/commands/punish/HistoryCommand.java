@@ -1,9 +1,12 @@
 package me.hexett.staffUtilsPlus.commands.punish;
 
 import me.hexett.staffUtilsPlus.commands.BaseCommand;
+import me.hexett.staffUtilsPlus.db.AsyncDatabase;
 import me.hexett.staffUtilsPlus.db.Database;
+import me.hexett.staffUtilsPlus.db.Page;
 import me.hexett.staffUtilsPlus.service.ServiceRegistry;
 import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.utils.MainThread;
 import me.hexett.staffUtilsPlus.utils.MessagesConfig;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -18,6 +21,7 @@ import java.util.UUID;
 public class HistoryCommand extends BaseCommand {
 
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static final int PUNISHMENTS_PER_PAGE = 10;
 
     public HistoryCommand() {
         super(
@@ -33,6 +37,16 @@ public class HistoryCommand extends BaseCommand {
     protected boolean execute(CommandSender sender, String[] args) {
         String targetPlayer = args[0];
 
+        // Later pages are reached through the links, which pass the page's cursor
+        Page.Cursor cursor = null;
+        if (args.length > 1) {
+            cursor = Page.Cursor.decode(args[1]);
+            if (cursor == null) {
+                sendUsage(sender);
+                return true;
+            }
+        }
+
         // Get the database from ServiceRegistry
         Database database = ServiceRegistry.get(Database.class);
         if (database == null) {
@@ -47,71 +61,70 @@ public class HistoryCommand extends BaseCommand {
             return false;
         }
 
-        // Fetch punishment history asynchronously to avoid blocking the main thread
-        Bukkit.getScheduler().runTaskAsynchronously(Bukkit.getPluginManager().getPlugin("StaffUtilsPlus"), () -> {
-            List<Punishment> punishments = database.getPunishments(targetUUID);
-
-            // Send results back on the main thread for chat messages
-            Bukkit.getScheduler().runTask(Bukkit.getPluginManager().getPlugin("StaffUtilsPlus"), () -> {
-                if (punishments.isEmpty()) {
-                    sender.sendMessage(MessagesConfig.get("punishments.history.no-punishments").replace("%player%", targetPlayer));
-                    return;
+        // Fetch one page of the history and its totals without blocking, then send them on the main thread
+        AsyncDatabase async = AsyncDatabase.of(database);
+        async.getPunishmentHistoryPageAsync(targetUUID, cursor, PUNISHMENTS_PER_PAGE).thenAcceptBothAsync(
+                async.countPunishmentHistoryAsync(targetUUID), (page, counts) -> {
+            List<Punishment> punishments = page.items();
+            if (punishments.isEmpty()) {
+                sender.sendMessage(MessagesConfig.get("punishments.history.no-punishments").replace("%player%", targetPlayer));
+                return;
+            }
+
+            sender.sendMessage(ChatColor.GOLD + "=== Punishment History for " + targetPlayer + " ===");
+            sender.sendMessage(ChatColor.GRAY + "Total: " + counts.total() +
+                    ChatColor.GREEN + " (" + counts.active() + " active" +
+                    ChatColor.GRAY + ", " + counts.inactive() + " inactive)" +
+                    ChatColor.DARK_GRAY + " - newest first");
+            sender.sendMessage("");
+
+            for (Punishment punishment : punishments) {
+                String timestamp = DATE_FORMAT.format(new Date(punishment.getIssuedAt()));
+                String type = punishment.getType().name();
+                String issuer = punishment.getIssuer() != null ?
+                        resolvePlayerName(punishment.getIssuer()) : "Console";
+                String status = punishment.isActive() ?
+                        ChatColor.GREEN + "[ACTIVE]" :
+                        ChatColor.GRAY + "[INACTIVE]";
+
+                sender.sendMessage(ChatColor.YELLOW + timestamp + ChatColor.GRAY + " | " +
+                        ChatColor.RED + type + ChatColor.GRAY + " | " +
+                        ChatColor.AQUA + "By: " + issuer + " " + status);
+
+                if (punishment.getReason() != null && !punishment.getReason().isEmpty()) {
+                    sender.sendMessage(ChatColor.GRAY + "  Reason: " + ChatColor.ITALIC + punishment.getReason());
                 }
 
-                // Count active and inactive punishments
-                long activePunishments = punishments.stream().filter(Punishment::isActive).count();
-                long inactivePunishments = punishments.size() - activePunishments;
-
-                sender.sendMessage(ChatColor.GOLD + "=== Punishment History for " + targetPlayer + " ===");
-                sender.sendMessage(ChatColor.GRAY + "Total: " + punishments.size() +
-                        ChatColor.GREEN + " (" + activePunishments + " active" +
-                        ChatColor.GRAY + ", " + inactivePunishments + " inactive)");
-                sender.sendMessage("");
-
-                for (Punishment punishment : punishments) {
-                    String timestamp = DATE_FORMAT.format(new Date(punishment.getIssuedAt()));
-                    String type = punishment.getType().name();
-                    String issuer = punishment.getIssuer() != null ?
-                            resolvePlayerName(punishment.getIssuer()) : "Console";
-                    String status = punishment.isActive() ?
-                            ChatColor.GREEN + "[ACTIVE]" :
-                            ChatColor.GRAY + "[INACTIVE]";
-
-                    sender.sendMessage(ChatColor.YELLOW + timestamp + ChatColor.GRAY + " | " +
-                            ChatColor.RED + type + ChatColor.GRAY + " | " +
-                            ChatColor.AQUA + "By: " + issuer + " " + status);
-
-                    if (punishment.getReason() != null && !punishment.getReason().isEmpty()) {
-                        sender.sendMessage(ChatColor.GRAY + "  Reason: " + ChatColor.ITALIC + punishment.getReason());
-                    }
-
-                    // Show expiration info for temporary punishments
-                    if (punishment.getExpiresAt() > 0) {
-                        long expiresAt = punishment.getExpiresAt();
-                        String expirationDate = DATE_FORMAT.format(new Date(expiresAt));
-
-                        if (punishment.isActive()) {
-                            long timeRemaining = expiresAt - System.currentTimeMillis();
-                            if (timeRemaining > 0) {
-                                String timeRemainingStr = formatDuration(timeRemaining);
-                                sender.sendMessage(ChatColor.GRAY + "  Expires: " + expirationDate +
-                                        ChatColor.DARK_GRAY + " (" + timeRemainingStr + " remaining)");
-                            } else {
-                                sender.sendMessage(ChatColor.GRAY + "  Expired: " + expirationDate);
-                            }
+                // Show expiration info for temporary punishments
+                if (punishment.getExpiresAt() > 0) {
+                    long expiresAt = punishment.getExpiresAt();
+                    String expirationDate = DATE_FORMAT.format(new Date(expiresAt));
+
+                    if (punishment.isActive()) {
+                        long timeRemaining = expiresAt - System.currentTimeMillis();
+                        if (timeRemaining > 0) {
+                            String timeRemainingStr = formatDuration(timeRemaining);
+                            sender.sendMessage(ChatColor.GRAY + "  Expires: " + expirationDate +
+                                    ChatColor.DARK_GRAY + " (" + timeRemainingStr + " remaining)");
                         } else {
                             sender.sendMessage(ChatColor.GRAY + "  Expired: " + expirationDate);
                         }
-                    } else if (punishment.isActive()) {
-                        sender.sendMessage(ChatColor.GRAY + "  Duration: " + ChatColor.RED + "Permanent");
+                    } else {
+                        sender.sendMessage(ChatColor.GRAY + "  Expired: " + expirationDate);
                     }
-
-                    sender.sendMessage(""); // Blank line between punishments
+                } else if (punishment.isActive()) {
+                    sender.sendMessage(ChatColor.GRAY + "  Duration: " + ChatColor.RED + "Permanent");
                 }
 
-                sender.sendMessage(ChatColor.GOLD + "=== End of History ===");
-            });
-        });
+                sender.sendMessage(""); // Blank line between punishments
+            }
+
+            sendPageNavigation(sender,
+                    page.newer() != null ? "/history " + targetPlayer + " " + page.newer().encode() : null,
+                    page.older() != null ? "/history " + targetPlayer + " " + page.older().encode() : null);
+            sender.sendMessage(ChatColor.GOLD + (page.older() == null ? "=== End of History ===" : "=== End of Page ==="));
+        }, MainThread.executor(Bukkit.getPluginManager().getPlugin("StaffUtilsPlus")))
+                .exceptionally(e -> reportFailure(sender, "loading the history of " + targetPlayer, e));
 
         return true;
     }
@@ -139,39 +152,4 @@ public class HistoryCommand extends BaseCommand {
 
         return null;
     }
-
-    /**
-     * Resolve a UUID to a player name.
-     *
-     * @param uuid The player's UUID
-     * @return The player's name, or their UUID if the name can't be resolved
-     */
-    private String resolvePlayerName(UUID uuid) {
-        OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
-        String name = player.getName();
-        return name != null ? name : uuid.toString();
-    }
-
-    /**
-     * Format a duration in milliseconds to a human-readable string.
-     *
-     * @param millis The duration in milliseconds
-     * @return A formatted string like "2d 5h 30m"
-     */
-    private String formatDuration(long millis) {
-        long seconds = millis / 1000;
-        long minutes = seconds / 60;
-        long hours = minutes / 60;
-        long days = hours / 24;
-
-        if (days > 0) {
-            return String.format("%dd %dh %dm", days, hours % 24, minutes % 60);
-        } else if (hours > 0) {
-            return String.format("%dh %dm", hours, minutes % 60);
-        } else if (minutes > 0) {
-            return String.format("%dm %ds", minutes, seconds % 60);
-        } else {
-            return String.format("%ds", seconds);
-        }
-    }
 }
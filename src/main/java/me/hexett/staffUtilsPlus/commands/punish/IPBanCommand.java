@@ -61,12 +61,8 @@ public class IPBanCommand extends BaseCommand {
             return true;
         }
 
-        // Check if IP is already banned
+        // Get the punishment service
         PunishmentService punishmentService = ServiceRegistry.get(PunishmentService.class);
-        if (punishmentService.isIPBanned(ipAddress)) {
-            sendMessage(sender, MessagesConfig.get("punishments.ipban.already-banned").replace("%ip%", ipAddress));
-            return true;
-        }
 
         // Get issuer UUID
         UUID issuerUUID = null;
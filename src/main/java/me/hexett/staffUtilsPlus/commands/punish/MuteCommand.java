@@ -53,12 +53,8 @@ public class MuteCommand extends BaseCommand {
             return true;
         }
 
-        // Check if player is already muted
+        // Get the punishment service
         PunishmentService punishmentService = ServiceRegistry.get(PunishmentService.class);
-        if (punishmentService.isMuted(targetUUID)) {
-            sendMessage(sender, MessagesConfig.get("punishments.mute.already-muted").replace("%target%", targetName));
-            return true;
-        }
 
         // Get issuer UUID
         UUID issuerUUID = null;
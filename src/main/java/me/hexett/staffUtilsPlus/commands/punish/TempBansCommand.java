@@ -0,0 +1,94 @@
+package me.hexett.staffUtilsPlus.commands.punish;
+
+import me.hexett.staffUtilsPlus.commands.BaseCommand;
+import me.hexett.staffUtilsPlus.service.ServiceRegistry;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.punishments.PunishmentService;
+import me.hexett.staffUtilsPlus.utils.MainThread;
+import me.hexett.staffUtilsPlus.utils.MessagesConfig;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Command for listing every active temporary ban, including those of offline
+ * players, a page at a time.
+ *
+ * @author Hexett
+ */
+public class TempBansCommand extends BaseCommand {
+
+    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static final int BANS_PER_PAGE = 10;
+
+    public TempBansCommand() {
+        super(
+                "staffutils.tempbans",
+                "/tempbans [page]",
+                "Lists all active temporary bans.",
+                false,
+                0
+        );
+    }
+
+    @Override
+    protected boolean execute(CommandSender sender, String[] args) {
+        int page = 1;
+        if (args.length > 0) {
+            try {
+                page = Math.max(1, Integer.parseInt(args[0]));
+            } catch (NumberFormatException e) {
+                page = 1;
+            }
+        }
+
+        PunishmentService punishmentService = ServiceRegistry.get(PunishmentService.class);
+        if (punishmentService == null) {
+            sender.sendMessage(MessagesConfig.get("errors.database.not-found"));
+            return false;
+        }
+
+        // Fetch one extra ban to learn whether there is a next page without counting them all
+        int currentPage = page;
+        punishmentService.getActiveTempBansAsync((page - 1) * BANS_PER_PAGE, BANS_PER_PAGE + 1).thenAcceptAsync(bans -> {
+            if (bans.isEmpty()) {
+                sender.sendMessage(MessagesConfig.get(currentPage == 1 ? "punishments.tempbans.none" : "punishments.tempbans.no-page")
+                        .replace("%page%", String.valueOf(currentPage)));
+                return;
+            }
+
+            boolean hasNext = bans.size() > BANS_PER_PAGE;
+            long now = System.currentTimeMillis();
+
+            sender.sendMessage(ChatColor.GOLD + "=== Active Temp Bans (page " + currentPage + ") ===");
+            sender.sendMessage("");
+
+            for (Punishment ban : bans.subList(0, Math.min(bans.size(), BANS_PER_PAGE))) {
+                String target = resolvePlayerName(ban.getTarget());
+                String issuer = ban.getIssuer() != null ? resolvePlayerName(ban.getIssuer()) : "Console";
+                String expires = DATE_FORMAT.format(new Date(ban.getExpiresAt()));
+
+                sender.sendMessage(ChatColor.WHITE + target + ChatColor.GRAY + " | " +
+                        ChatColor.AQUA + "By: " + issuer + ChatColor.GRAY + " | " +
+                        ChatColor.YELLOW + "Expires: " + expires +
+                        ChatColor.DARK_GRAY + " (" + formatDuration(ban.getExpiresAt() - now) + " remaining)");
+
+                if (ban.getReason() != null && !ban.getReason().isEmpty()) {
+                    sender.sendMessage(ChatColor.GRAY + "  Reason: " + ChatColor.ITALIC + ban.getReason());
+                }
+            }
+
+            sender.sendMessage("");
+            sendPageNavigation(sender,
+                    "Previous", currentPage > 1 ? "/tempbans " + (currentPage - 1) : null,
+                    "Next", hasNext ? "/tempbans " + (currentPage + 1) : null);
+            sender.sendMessage(ChatColor.GOLD + "=== End of Page ===");
+        }, MainThread.executor(Bukkit.getPluginManager().getPlugin("StaffUtilsPlus")))
+                .exceptionally(e -> reportFailure(sender, "listing active temp bans", e));
+
+        return true;
+    }
+}
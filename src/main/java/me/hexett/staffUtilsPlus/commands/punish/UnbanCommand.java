@@ -41,12 +41,8 @@ public class UnbanCommand extends BaseCommand {
             return true;
         }
 
-        // Check if player is actually banned
+        // Get the punishment service
         PunishmentService punishmentService = ServiceRegistry.get(PunishmentService.class);
-        if (!punishmentService.isBanned(targetUUID)) {
-            sendMessage(sender, MessagesConfig.get("punishments.unban.not-banned").replace("%target%", targetName));
-            return true;
-        }
 
         // Get issuer UUID
         UUID issuerUUID = null;
@@ -36,12 +36,8 @@ public class UnbanIPCommand extends BaseCommand {
             return true;
         }
 
-        // Check if IP is actually banned
+        // Get the punishment service
         PunishmentService punishmentService = ServiceRegistry.get(PunishmentService.class);
-        if (!punishmentService.isIPBanned(ipAddress)) {
-            sendMessage(sender, MessagesConfig.get("punishments.unbanip.not-banned").replace("%ip%", ipAddress));
-            return true;
-        }
 
         // Get issuer UUID
         java.util.UUID issuerUUID = null;
@@ -41,12 +41,8 @@ public class UnmuteCommand extends BaseCommand {
             return true;
         }
 
-        // Check if player is actually muted
+        // Get the punishment service
         PunishmentService punishmentService = ServiceRegistry.get(PunishmentService.class);
-        if (!punishmentService.isMuted(targetUUID)) {
-            sendMessage(sender, MessagesConfig.get("punishments.unmute.not-muted").replace("%target%", targetName));
-            return true;
-        }
 
         // Get issuer UUID
         UUID issuerUUID = null;
@@ -3,6 +3,7 @@ package me.hexett.staffUtilsPlus.commands.staff;
 import me.hexett.staffUtilsPlus.commands.BaseCommand;
 import me.hexett.staffUtilsPlus.service.ServiceRegistry;
 import me.hexett.staffUtilsPlus.service.alts.AltAccountService;
+import me.hexett.staffUtilsPlus.utils.MainThread;
 import me.hexett.staffUtilsPlus.utils.MessagesConfig;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -11,7 +12,9 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class AltsCommand extends BaseCommand {
 
@@ -43,56 +46,57 @@ public class AltsCommand extends BaseCommand {
             return false;
         }
 
-        // Get the player's IP address
-        String ipAddress = altService.getPlayerIP(targetUUID);
-        if (ipAddress == null) {
-            sender.sendMessage(MessagesConfig.get("alts.no-ip-found").replace("%player%", targetPlayer));
-            return false;
-        }
-
-        // Fetch alt accounts asynchronously
-        Bukkit.getScheduler().runTaskAsynchronously(Bukkit.getPluginManager().getPlugin("StaffUtilsPlus"), () -> {
-            List<UUID> alts = altService.getAltAccounts(targetUUID);
-
-            // Send results back on the main thread
-            Bukkit.getScheduler().runTask(Bukkit.getPluginManager().getPlugin("StaffUtilsPlus"), () -> {
-                if (alts.isEmpty()) {
-                    sender.sendMessage(MessagesConfig.get("alts.no-alts-found").replace("%player%", targetPlayer));
-                    return;
+        // Look up the player's IP address, then every account seen on it, without blocking
+        altService.getPlayerIPAsync(targetUUID).thenCompose(ipAddress -> {
+            if (ipAddress == null) {
+                return CompletableFuture.<Map.Entry<String, List<UUID>>>completedFuture(null);
+            }
+            return altService.getPlayersByIPAsync(ipAddress).thenApply(alts -> Map.entry(ipAddress, alts));
+        }).thenAcceptAsync(result -> {
+            if (result == null) {
+                sender.sendMessage(MessagesConfig.get("alts.no-ip-found").replace("%player%", targetPlayer));
+                return;
+            }
+
+            String ipAddress = result.getKey();
+            List<UUID> alts = result.getValue();
+            if (alts.isEmpty()) {
+                sender.sendMessage(MessagesConfig.get("alts.no-alts-found").replace("%player%", targetPlayer));
+                return;
+            }
+
+            // Display header
+            sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    MessagesConfig.get("alts.header")
+                            .replace("%player%", targetPlayer)
+                            .replace("%ip%", ipAddress)
+                            .replace("%count%", String.valueOf(alts.size()))));
+            sender.sendMessage("");
+
+            // List all alt accounts
+            for (UUID altUUID : alts) {
+                if (altUUID.equals(targetUUID)) {
+                    continue; // Skip the target player themselves
                 }
 
-                // Display header
-                sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
-                        MessagesConfig.get("alts.header")
-                                .replace("%player%", targetPlayer)
-                                .replace("%ip%", ipAddress)
-                                .replace("%count%", String.valueOf(alts.size()))));
-                sender.sendMessage("");
-
-                // List all alt accounts
-                for (UUID altUUID : alts) {
-                    if (altUUID.equals(targetUUID)) {
-                        continue; // Skip the target player themselves
-                    }
-
-                    String altName = resolvePlayerName(altUUID);
-                    Player altPlayer = Bukkit.getPlayer(altUUID);
-                    String status = altPlayer != null ?
-                            ChatColor.GREEN + "[ONLINE]" :
-                            ChatColor.GRAY + "[OFFLINE]";
-
-                    sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
-                            MessagesConfig.get("alts.format")
-                                    .replace("%alt%", altName)
-                                    .replace("%status%", status)
-                                    .replace("%uuid%", altUUID.toString())));
-                }
+                String altName = resolvePlayerName(altUUID);
+                Player altPlayer = Bukkit.getPlayer(altUUID);
+                String status = altPlayer != null ?
+                        ChatColor.GREEN + "[ONLINE]" :
+                        ChatColor.GRAY + "[OFFLINE]";
 
-                sender.sendMessage("");
                 sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
-                        MessagesConfig.get("alts.footer")));
-            });
-        });
+                        MessagesConfig.get("alts.format")
+                                .replace("%alt%", altName)
+                                .replace("%status%", status)
+                                .replace("%uuid%", altUUID.toString())));
+            }
+
+            sender.sendMessage("");
+            sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    MessagesConfig.get("alts.footer")));
+        }, MainThread.executor(Bukkit.getPluginManager().getPlugin("StaffUtilsPlus")))
+                .exceptionally(e -> reportFailure(sender, "looking up the alts of " + targetPlayer, e));
 
         return true;
     }
@@ -119,16 +123,4 @@ public class AltsCommand extends BaseCommand {
 
         return null;
     }
-
-    /**
-     * Resolve a UUID to a player name.
-     *
-     * @param uuid The player's UUID
-     * @return The player's name, or their UUID if the name can't be resolved
-     */
-    private String resolvePlayerName(UUID uuid) {
-        OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
-        String name = player.getName();
-        return name != null ? name : uuid.toString();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,261 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.notes.Note;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.warnings.Warning;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link Database}.
+ * <p>
+ * Every method returns straight away with a future that completes once the
+ * operation has finished, either on a database thread or, for data already in
+ * memory, immediately. Failures are logged by the implementation and complete
+ * the future with the same empty result the blocking method would return, so
+ * callers only compose results. Callbacks may run on a database thread; hop
+ * back to the server thread before touching Bukkit state.
+ * <p>
+ * A read composed after a write's future sees that write.
+ *
+ * @author Hexett
+ */
+public interface AsyncDatabase {
+
+    /**
+     * Get the non-blocking view of a database.
+     *
+     * @param database The database
+     * @return The database itself if it implements this interface, otherwise an
+     *         adapter that calls the blocking methods on the calling thread
+     */
+    static AsyncDatabase of(Database database) {
+        return database instanceof AsyncDatabase async ? async : new BlockingAsyncDatabase(database);
+    }
+
+    /**
+     * Insert a new punishment.
+     *
+     * @param punishment The punishment to insert
+     * @return Completes once the punishment is stored
+     */
+    CompletableFuture<Void> insertPunishmentAsync(Punishment punishment);
+
+    /**
+     * Retrieve the active punishments for a target.
+     *
+     * @param target The UUID of the target player
+     * @return The active punishments for the target
+     */
+    CompletableFuture<List<Punishment>> getPunishmentsAsync(UUID target);
+
+    /**
+     * Retrieve the complete punishment history for a target, including archived
+     * punishments, oldest first.
+     *
+     * @param target The UUID of the target player
+     * @return Every punishment ever recorded for the target
+     */
+    CompletableFuture<List<Punishment>> getPunishmentHistoryAsync(UUID target);
+
+    /**
+     * Retrieve one page of a target's complete punishment history, newest first.
+     *
+     * @param target The UUID of the target player
+     * @param cursor Where to continue from, or null for the newest page
+     * @param limit The maximum number of punishments on the page
+     * @return The page, with cursors for the pages either side
+     */
+    CompletableFuture<Page<Punishment>> getPunishmentHistoryPageAsync(UUID target, Page.Cursor cursor, int limit);
+
+    /**
+     * Count a target's complete punishment history, including archived
+     * punishments, without reading it.
+     *
+     * @param target The UUID of the target player
+     * @return The number of punishments, and how many are active
+     */
+    CompletableFuture<PunishmentCounts> countPunishmentHistoryAsync(UUID target);
+
+    /**
+     * Retrieve every punishment issued by a player.
+     *
+     * @param issuer The UUID of the issuer
+     * @return The punishments the issuer handed out
+     */
+    CompletableFuture<List<Punishment>> getPunishmentsByIssuerAsync(UUID issuer);
+
+    /**
+     * Retrieve one page of the punishments a player has issued, newest first.
+     *
+     * @param issuer The UUID of the issuer
+     * @param cursor Where to continue from, or null for the newest page
+     * @param limit The maximum number of punishments on the page
+     * @return The page, with cursors for the pages either side
+     */
+    CompletableFuture<Page<Punishment>> getPunishmentsByIssuerPageAsync(UUID issuer, Page.Cursor cursor, int limit);
+
+    /**
+     * Retrieve one page of the active, unexpired punishments of the given types.
+     *
+     * @param types The punishment types to include
+     * @param offset The number of matching punishments to skip
+     * @param limit The maximum number of punishments to return
+     * @return The page of active punishments, permanent first, then soonest to expire
+     */
+    CompletableFuture<List<Punishment>> getActivePunishmentsAsync(Set<Punishment.Type> types, int offset, int limit);
+
+    /**
+     * Deactivate the active punishments of a type for a target.
+     *
+     * @param target The UUID of the target player
+     * @param type The type of punishment to deactivate
+     * @return Completes once the punishments are deactivated
+     */
+    CompletableFuture<Void> deactivatePunishmentAsync(UUID target, Punishment.Type type);
+
+    /**
+     * Deactivate every active punishment of a type that has expired, across
+     * all players.
+     *
+     * @param type The type of punishment to deactivate
+     * @param before Punishments expiring at or before this time are deactivated
+     * @return Completes once the punishments are deactivated
+     */
+    CompletableFuture<Void> deactivateExpiredPunishmentsAsync(Punishment.Type type, long before);
+
+    /**
+     * Retrieve the active punishments for an IP address.
+     *
+     * @param ipAddress The IP address to query
+     * @return The active punishments for the IP address
+     */
+    CompletableFuture<List<Punishment>> getPunishmentsByIPAsync(String ipAddress);
+
+    /**
+     * Deactivate the IP ban for an IP address.
+     *
+     * @param ipAddress The IP address to unban
+     * @return Completes once the ban is deactivated
+     */
+    CompletableFuture<Void> deactivateIPBanAsync(String ipAddress);
+
+    /**
+     * Insert a new note.
+     *
+     * @param note The note to insert
+     * @return Completes once the note is stored
+     */
+    CompletableFuture<Void> insertNoteAsync(Note note);
+
+    /**
+     * Remove a note.
+     *
+     * @param target The UUID of the target player
+     * @param noteId The ID of the note to remove
+     * @return Completes once the note is removed
+     */
+    CompletableFuture<Void> removeNoteAsync(UUID target, int noteId);
+
+    /**
+     * Retrieve all notes for a target.
+     *
+     * @param target The UUID of the target player
+     * @return The notes for the target
+     */
+    CompletableFuture<List<Note>> getNotesAsync(UUID target);
+
+    /**
+     * Get a note by ID.
+     *
+     * @param noteId The ID of the note
+     * @return The note, or null if not found
+     */
+    CompletableFuture<Note> getNoteAsync(int noteId);
+
+    /**
+     * Insert a new warning.
+     *
+     * @param warning The warning to insert
+     * @return Completes once the warning is stored
+     */
+    CompletableFuture<Void> insertWarningAsync(Warning warning);
+
+    /**
+     * Remove a warning.
+     *
+     * @param target The UUID of the target player
+     * @param warningId The ID of the warning to remove
+     * @return Completes once the warning is removed
+     */
+    CompletableFuture<Void> removeWarningAsync(UUID target, int warningId);
+
+    /**
+     * Retrieve all warnings for a target.
+     *
+     * @param target The UUID of the target player
+     * @return The warnings for the target
+     */
+    CompletableFuture<List<Warning>> getWarningsAsync(UUID target);
+
+    /**
+     * Get a warning by ID.
+     *
+     * @param warningId The ID of the warning
+     * @return The warning, or null if not found
+     */
+    CompletableFuture<Warning> getWarningAsync(int warningId);
+
+    /**
+     * Get the total severity of a target's active warnings.
+     *
+     * @param target The UUID of the target player
+     * @return The summed severity, or 0 if the target has no active warnings
+     */
+    CompletableFuture<Integer> getActiveWarningSeverityAsync(UUID target);
+
+    /**
+     * Count a target's active warnings issued at or after a given time.
+     *
+     * @param target The UUID of the target player
+     * @param since The earliest issue time to count, or 0 to count every active warning
+     * @return The number of matching warnings
+     */
+    CompletableFuture<Integer> countActiveWarningsAsync(UUID target, long since);
+
+    /**
+     * Retrieve every warning for a target, including archived warnings, oldest first.
+     *
+     * @param target The UUID of the target player
+     * @return Every warning ever recorded for the target
+     */
+    CompletableFuture<List<Warning>> getWarningHistoryAsync(UUID target);
+
+    /**
+     * Get the IP address for a player.
+     *
+     * @param uuid The player's UUID
+     * @return The IP address, or null if not found
+     */
+    CompletableFuture<String> getPlayerIPAsync(UUID uuid);
+
+    /**
+     * Get all players who have joined from an IP address.
+     *
+     * @param ipAddress The IP address
+     * @return The player UUIDs
+     */
+    CompletableFuture<List<UUID>> getPlayersByIPAsync(String ipAddress);
+
+    /**
+     * Record a player's IP address.
+     *
+     * @param uuid The player's UUID
+     * @param ipAddress The IP address
+     * @return Completes once the address is stored
+     */
+    CompletableFuture<Void> recordPlayerIPAsync(UUID uuid, String ipAddress);
+}
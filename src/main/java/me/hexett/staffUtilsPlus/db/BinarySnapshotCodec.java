@@ -0,0 +1,416 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.notes.Note;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.warnings.Warning;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding for the local snapshot files.
+ * <p>
+ * Layout: a header (magic, version, kind, sequence), a string table holding every
+ * distinct string once (reasons, IPs, note contents), then a record count
+ * followed by length-prefixed records. UUIDs are stored as two longs,
+ * {@link Punishment.Type} as its ordinal and strings as table indexes
+ * (-1 for null). Files are read into a heap buffer in one go and decoded
+ * from it without building any intermediate tree; a memory mapping would
+ * keep the file locked until garbage collected, which stops the snapshot
+ * being replaced on Windows. Record lengths let older readers skip fields
+ * appended by newer versions. The sequence number is the one the local
+ * journal is stamped with; files written before it was added read as 0.
+ * Files are forced to disk before the writer is closed.
+ *
+ * @author Hexett
+ */
+final class BinarySnapshotCodec {
+
+    private static final int MAGIC = 0x53555042; // "SUPB"
+    private static final short VERSION = 2;
+    private static final short FIRST_VERSION_WITH_SEQUENCE = 2;
+
+    private static final byte KIND_PUNISHMENTS = 1;
+    private static final byte KIND_NOTES = 2;
+    private static final byte KIND_WARNINGS = 3;
+    private static final byte KIND_PLAYER_IPS = 4;
+
+    private static final int FLAG_HAS_ISSUER = 1;
+    private static final int FLAG_ACTIVE = 1 << 1;
+
+    private static final Punishment.Type[] TYPES = Punishment.Type.values();
+
+    private BinarySnapshotCodec() {
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                          ENCODING                                   │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    static void writePunishments(File file, Map<UUID, List<Punishment>> punishments, long sequence) throws IOException {
+        StringTable strings = new StringTable();
+        int count = 0;
+        for (List<Punishment> list : punishments.values()) {
+            for (Punishment p : list) {
+                strings.add(p.getReason());
+                strings.add(p.getIpAddress());
+                count++;
+            }
+        }
+
+        try (RecordWriter writer = new RecordWriter(file, KIND_PUNISHMENTS, sequence, strings, count)) {
+            for (List<Punishment> list : punishments.values()) {
+                for (Punishment p : list) {
+                    DataOutputStream out = writer.begin();
+                    writeUUID(out, p.getTarget());
+                    out.writeByte(p.getType().ordinal());
+                    out.writeInt(strings.indexOf(p.getReason()));
+                    out.writeLong(p.getIssuedAt());
+                    out.writeLong(p.getExpiresAt());
+                    out.writeByte((p.getIssuer() != null ? FLAG_HAS_ISSUER : 0) | (p.isActive() ? FLAG_ACTIVE : 0));
+                    if (p.getIssuer() != null) {
+                        writeUUID(out, p.getIssuer());
+                    }
+                    out.writeInt(strings.indexOf(p.getIpAddress()));
+                    writer.end();
+                }
+            }
+        }
+    }
+
+    static void writeNotes(File file, Map<UUID, List<Note>> notes, long sequence) throws IOException {
+        StringTable strings = new StringTable();
+        int count = 0;
+        for (List<Note> list : notes.values()) {
+            for (Note note : list) {
+                strings.add(note.content());
+                count++;
+            }
+        }
+
+        try (RecordWriter writer = new RecordWriter(file, KIND_NOTES, sequence, strings, count)) {
+            for (List<Note> list : notes.values()) {
+                for (Note note : list) {
+                    DataOutputStream out = writer.begin();
+                    out.writeInt(note.id());
+                    writeUUID(out, note.target());
+                    out.writeByte(note.issuer() != null ? FLAG_HAS_ISSUER : 0);
+                    if (note.issuer() != null) {
+                        writeUUID(out, note.issuer());
+                    }
+                    out.writeInt(strings.indexOf(note.content()));
+                    out.writeLong(note.timestamp());
+                    writer.end();
+                }
+            }
+        }
+    }
+
+    static void writeWarnings(File file, Map<UUID, List<Warning>> warnings, long sequence) throws IOException {
+        StringTable strings = new StringTable();
+        int count = 0;
+        for (List<Warning> list : warnings.values()) {
+            for (Warning warning : list) {
+                strings.add(warning.getReason());
+                count++;
+            }
+        }
+
+        try (RecordWriter writer = new RecordWriter(file, KIND_WARNINGS, sequence, strings, count)) {
+            for (List<Warning> list : warnings.values()) {
+                for (Warning warning : list) {
+                    DataOutputStream out = writer.begin();
+                    out.writeInt(warning.getId());
+                    writeUUID(out, warning.getTarget());
+                    out.writeByte((warning.getIssuer() != null ? FLAG_HAS_ISSUER : 0) | (warning.isActive() ? FLAG_ACTIVE : 0));
+                    if (warning.getIssuer() != null) {
+                        writeUUID(out, warning.getIssuer());
+                    }
+                    out.writeInt(strings.indexOf(warning.getReason()));
+                    out.writeInt(warning.getSeverity());
+                    out.writeLong(warning.getTimestamp());
+                    writer.end();
+                }
+            }
+        }
+    }
+
+    static void writePlayerIPs(File file, Map<UUID, String> playerIPs, long sequence) throws IOException {
+        StringTable strings = new StringTable();
+        for (String ip : playerIPs.values()) {
+            strings.add(ip);
+        }
+
+        try (RecordWriter writer = new RecordWriter(file, KIND_PLAYER_IPS, sequence, strings, playerIPs.size())) {
+            for (Map.Entry<UUID, String> entry : playerIPs.entrySet()) {
+                DataOutputStream out = writer.begin();
+                writeUUID(out, entry.getKey());
+                out.writeInt(strings.indexOf(entry.getValue()));
+                writer.end();
+            }
+        }
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                          DECODING                                   │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    /**
+     * Read the sequence number from the header of a snapshot file without
+     * decoding its records.
+     *
+     * @param file The snapshot file
+     * @return The sequence number, or 0 if the file predates it
+     * @throws IOException If the file is not a readable snapshot
+     */
+    static long readSequence(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file.getName() + " is not a StaffUtilsPlus binary snapshot");
+            }
+            short version = in.readShort();
+            in.readByte();
+            return version >= FIRST_VERSION_WITH_SEQUENCE ? in.readLong() : 0;
+        } catch (EOFException e) {
+            throw new IOException(file.getName() + " is truncated", e);
+        }
+    }
+
+    // Decoders fill the map they are given, so the caller picks its implementation.
+
+    static Map<UUID, List<Punishment>> readPunishments(File file, Map<UUID, List<Punishment>> result) throws IOException {
+        RecordReader reader = new RecordReader(file, KIND_PUNISHMENTS);
+        while (reader.next()) {
+            ByteBuffer in = reader.buffer;
+            UUID target = readUUID(in);
+            int ordinal = in.get();
+            if (ordinal < 0 || ordinal >= TYPES.length) {
+                throw new IOException("Unknown punishment type " + ordinal + " in " + file.getName());
+            }
+            String reason = reader.string(in.getInt());
+            long issuedAt = in.getLong();
+            long expiresAt = in.getLong();
+            int flags = in.get();
+            UUID issuer = (flags & FLAG_HAS_ISSUER) != 0 ? readUUID(in) : null;
+            String ip = reader.string(in.getInt());
+
+            Punishment punishment = new Punishment(target, TYPES[ordinal], reason, issuedAt, expiresAt, issuer, ip);
+            punishment.setActive((flags & FLAG_ACTIVE) != 0);
+            result.computeIfAbsent(target, k -> new ArrayList<>(2)).add(punishment);
+            reader.skipToEnd();
+        }
+        return result;
+    }
+
+    static Map<UUID, List<Note>> readNotes(File file, Map<UUID, List<Note>> result) throws IOException {
+        RecordReader reader = new RecordReader(file, KIND_NOTES);
+        while (reader.next()) {
+            ByteBuffer in = reader.buffer;
+            int id = in.getInt();
+            UUID target = readUUID(in);
+            int flags = in.get();
+            UUID issuer = (flags & FLAG_HAS_ISSUER) != 0 ? readUUID(in) : null;
+            String content = reader.string(in.getInt());
+            long timestamp = in.getLong();
+
+            result.computeIfAbsent(target, k -> new ArrayList<>(2)).add(new Note(id, target, issuer, content, timestamp));
+            reader.skipToEnd();
+        }
+        return result;
+    }
+
+    static Map<UUID, List<Warning>> readWarnings(File file, Map<UUID, List<Warning>> result) throws IOException {
+        RecordReader reader = new RecordReader(file, KIND_WARNINGS);
+        while (reader.next()) {
+            ByteBuffer in = reader.buffer;
+            int id = in.getInt();
+            UUID target = readUUID(in);
+            int flags = in.get();
+            UUID issuer = (flags & FLAG_HAS_ISSUER) != 0 ? readUUID(in) : null;
+            String reason = reader.string(in.getInt());
+            int severity = in.getInt();
+            long timestamp = in.getLong();
+
+            result.computeIfAbsent(target, k -> new ArrayList<>(2))
+                    .add(new Warning(id, target, issuer, reason, severity, timestamp, (flags & FLAG_ACTIVE) != 0));
+            reader.skipToEnd();
+        }
+        return result;
+    }
+
+    static Map<UUID, String> readPlayerIPs(File file, Map<UUID, String> result) throws IOException {
+        RecordReader reader = new RecordReader(file, KIND_PLAYER_IPS);
+        while (reader.next()) {
+            ByteBuffer in = reader.buffer;
+            UUID uuid = readUUID(in);
+            result.put(uuid, reader.string(in.getInt()));
+            reader.skipToEnd();
+        }
+        return result;
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                          INTERNALS                                  │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    private static void writeUUID(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUUID(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    /**
+     * Distinct strings in first-seen order.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new LinkedHashMap<>();
+
+        void add(String value) {
+            if (value != null) {
+                indexes.putIfAbsent(value, indexes.size());
+            }
+        }
+
+        int indexOf(String value) {
+            return value == null ? -1 : indexes.get(value);
+        }
+    }
+
+    /**
+     * Writes the header and string table up front, then one length-prefixed record per begin/end pair.
+     */
+    private static final class RecordWriter implements AutoCloseable {
+        private final FileOutputStream stream;
+        private final DataOutputStream file;
+        private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(64);
+        private final DataOutputStream record = new DataOutputStream(recordBytes);
+
+        RecordWriter(File target, byte kind, long sequence, StringTable strings, int count) throws IOException {
+            this.stream = new FileOutputStream(target);
+            this.file = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            file.writeInt(MAGIC);
+            file.writeShort(VERSION);
+            file.writeByte(kind);
+            file.writeLong(sequence);
+            file.writeInt(strings.indexes.size());
+            for (String value : strings.indexes.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                file.writeInt(bytes.length);
+                file.write(bytes);
+            }
+            file.writeInt(count);
+        }
+
+        DataOutputStream begin() {
+            recordBytes.reset();
+            return record;
+        }
+
+        void end() throws IOException {
+            file.writeInt(recordBytes.size());
+            recordBytes.writeTo(file);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                file.flush();
+                stream.getChannel().force(false);
+            } finally {
+                file.close();
+            }
+        }
+    }
+
+    /**
+     * Streams records out of a snapshot file read into memory.
+     */
+    private static final class RecordReader {
+        private final File file;
+        private final ByteBuffer buffer;
+        private final String[] strings;
+        private final int count;
+        private int read;
+        private int recordEnd;
+
+        RecordReader(File file, byte kind) throws IOException {
+            this.file = file;
+            this.buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            try {
+                if (buffer.getInt() != MAGIC) {
+                    throw new IOException(file.getName() + " is not a StaffUtilsPlus binary snapshot");
+                }
+                short version = buffer.getShort();
+                if (version > VERSION) {
+                    throw new IOException(file.getName() + " was written by a newer version (format " + version + ")");
+                }
+                if (buffer.get() != kind) {
+                    throw new IOException(file.getName() + " holds a different kind of data");
+                }
+                if (version >= FIRST_VERSION_WITH_SEQUENCE) {
+                    buffer.getLong();
+                }
+
+                strings = new String[buffer.getInt()];
+                for (int i = 0; i < strings.length; i++) {
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    strings[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                count = buffer.getInt();
+            } catch (BufferUnderflowException e) {
+                throw new IOException(file.getName() + " is truncated", e);
+            }
+        }
+
+        boolean next() throws IOException {
+            if (read == count) {
+                return false;
+            }
+            if (buffer.remaining() < Integer.BYTES) {
+                throw new IOException(file.getName() + " is truncated after " + read + " records");
+            }
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException(file.getName() + " has a corrupt record at " + read);
+            }
+            recordEnd = buffer.position() + length;
+            read++;
+            return true;
+        }
+
+        void skipToEnd() {
+            buffer.position(recordEnd);
+        }
+
+        String string(int index) throws IOException {
+            if (index == -1) {
+                return null;
+            }
+            if (index < 0 || index >= strings.length) {
+                throw new IOException(file.getName() + " references missing string " + index);
+            }
+            return strings[index];
+        }
+    }
+}
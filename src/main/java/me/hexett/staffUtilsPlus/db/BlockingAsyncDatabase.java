@@ -0,0 +1,165 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.notes.Note;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.warnings.Warning;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncDatabase} for a {@link Database} without a native implementation.
+ * Each call runs the blocking method on the calling thread and returns a
+ * completed future, so it behaves exactly like the wrapped database.
+ *
+ * @author Hexett
+ */
+final class BlockingAsyncDatabase implements AsyncDatabase {
+
+    private final Database database;
+
+    BlockingAsyncDatabase(Database database) {
+        this.database = database;
+    }
+
+    @Override
+    public CompletableFuture<Void> insertPunishmentAsync(Punishment punishment) {
+        database.insertPunishment(punishment);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsAsync(UUID target) {
+        return CompletableFuture.completedFuture(database.getPunishments(target));
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentHistoryAsync(UUID target) {
+        return CompletableFuture.completedFuture(database.getPunishmentHistory(target));
+    }
+
+    @Override
+    public CompletableFuture<Page<Punishment>> getPunishmentHistoryPageAsync(UUID target, Page.Cursor cursor, int limit) {
+        return CompletableFuture.completedFuture(database.getPunishmentHistoryPage(target, cursor, limit));
+    }
+
+    @Override
+    public CompletableFuture<PunishmentCounts> countPunishmentHistoryAsync(UUID target) {
+        return CompletableFuture.completedFuture(database.countPunishmentHistory(target));
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsByIssuerAsync(UUID issuer) {
+        return CompletableFuture.completedFuture(database.getPunishmentsByIssuer(issuer));
+    }
+
+    @Override
+    public CompletableFuture<Page<Punishment>> getPunishmentsByIssuerPageAsync(UUID issuer, Page.Cursor cursor, int limit) {
+        return CompletableFuture.completedFuture(database.getPunishmentsByIssuerPage(issuer, cursor, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getActivePunishmentsAsync(Set<Punishment.Type> types, int offset, int limit) {
+        return CompletableFuture.completedFuture(database.getActivePunishments(types, offset, limit));
+    }
+
+    @Override
+    public CompletableFuture<Void> deactivatePunishmentAsync(UUID target, Punishment.Type type) {
+        database.deactivatePunishment(target, type);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deactivateExpiredPunishmentsAsync(Punishment.Type type, long before) {
+        database.deactivateExpiredPunishments(type, before);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsByIPAsync(String ipAddress) {
+        return CompletableFuture.completedFuture(database.getPunishmentsByIP(ipAddress));
+    }
+
+    @Override
+    public CompletableFuture<Void> deactivateIPBanAsync(String ipAddress) {
+        database.deactivateIPBan(ipAddress);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> insertNoteAsync(Note note) {
+        database.insertNote(note);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeNoteAsync(UUID target, int noteId) {
+        database.removeNote(target, noteId);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<List<Note>> getNotesAsync(UUID target) {
+        return CompletableFuture.completedFuture(database.getNotes(target));
+    }
+
+    @Override
+    public CompletableFuture<Note> getNoteAsync(int noteId) {
+        return CompletableFuture.completedFuture(database.getNote(noteId));
+    }
+
+    @Override
+    public CompletableFuture<Void> insertWarningAsync(Warning warning) {
+        database.insertWarning(warning);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeWarningAsync(UUID target, int warningId) {
+        database.removeWarning(target, warningId);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<List<Warning>> getWarningsAsync(UUID target) {
+        return CompletableFuture.completedFuture(database.getWarnings(target));
+    }
+
+    @Override
+    public CompletableFuture<Warning> getWarningAsync(int warningId) {
+        return CompletableFuture.completedFuture(database.getWarning(warningId));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getActiveWarningSeverityAsync(UUID target) {
+        return CompletableFuture.completedFuture(database.getActiveWarningSeverity(target));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countActiveWarningsAsync(UUID target, long since) {
+        return CompletableFuture.completedFuture(database.countActiveWarnings(target, since));
+    }
+
+    @Override
+    public CompletableFuture<List<Warning>> getWarningHistoryAsync(UUID target) {
+        return CompletableFuture.completedFuture(database.getWarningHistory(target));
+    }
+
+    @Override
+    public CompletableFuture<String> getPlayerIPAsync(UUID uuid) {
+        return CompletableFuture.completedFuture(database.getPlayerIP(uuid));
+    }
+
+    @Override
+    public CompletableFuture<List<UUID>> getPlayersByIPAsync(String ipAddress) {
+        return CompletableFuture.completedFuture(database.getPlayersByIP(ipAddress));
+    }
+
+    @Override
+    public CompletableFuture<Void> recordPlayerIPAsync(UUID uuid, String ipAddress) {
+        database.recordPlayerIP(uuid, ipAddress);
+        return CompletableFuture.completedFuture(null);
+    }
+}
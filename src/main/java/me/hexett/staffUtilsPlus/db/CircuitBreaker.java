@@ -0,0 +1,135 @@
+package me.hexett.staffUtilsPlus.db;
+
+/**
+ * Stops queries from waiting on a database that is down.
+ * <p>
+ * While closed every query runs. Once enough queries in a row fail because
+ * the server could not be reached, the breaker opens and queries fail at once
+ * instead of each waiting out the connection timeout. After the retry delay
+ * one query is let through as a trial: if it reaches the server the breaker
+ * closes, if not it stays open for another delay. Any answer from the server,
+ * even an error, counts as reaching it.
+ *
+ * @author Hexett
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Told about every change of state.
+     */
+    @FunctionalInterface
+    interface Listener {
+        void changed(State from, State to);
+    }
+
+    private final int failureThreshold;
+    private final long retryAfterMillis;
+    private final Listener listener;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private long openSince;
+
+    /**
+     * @param failureThreshold Failed queries in a row that open the breaker
+     * @param retryAfterMillis How long the breaker stays open before letting a trial query through
+     * @param listener Told about every change of state, outside the breaker's lock
+     */
+    CircuitBreaker(int failureThreshold, long retryAfterMillis, Listener listener) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.retryAfterMillis = Math.max(0, retryAfterMillis);
+        this.listener = listener;
+    }
+
+    /**
+     * Ask whether a query may run now. While open this lets one trial query
+     * through once the retry delay has passed; a trial that never reports back
+     * is replaced by another after the same delay.
+     *
+     * @return true if the query may run, false if it should fail at once
+     */
+    boolean allowRequest() {
+        State from;
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            long now = System.currentTimeMillis();
+            if (now - openedAt < retryAfterMillis) {
+                return false;
+            }
+            from = state;
+            state = State.HALF_OPEN;
+            openedAt = now;
+        }
+        if (from != State.HALF_OPEN) {
+            listener.changed(from, State.HALF_OPEN);
+        }
+        return true;
+    }
+
+    /**
+     * Check whether queries are failing at once, without taking a trial.
+     *
+     * @return true while open and the retry delay has not passed
+     */
+    synchronized boolean isOpen() {
+        return state != State.CLOSED && System.currentTimeMillis() - openedAt < retryAfterMillis;
+    }
+
+    /**
+     * Record a query that reached the server.
+     */
+    void success() {
+        State from;
+        synchronized (this) {
+            failures = 0;
+            if (state == State.CLOSED) {
+                return;
+            }
+            from = state;
+            state = State.CLOSED;
+        }
+        listener.changed(from, State.CLOSED);
+    }
+
+    /**
+     * Record a query that could not reach the server.
+     */
+    void failure() {
+        State from;
+        synchronized (this) {
+            failures++;
+            if (state == State.OPEN || (state == State.CLOSED && failures < failureThreshold)) {
+                return;
+            }
+            from = state;
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            if (from == State.CLOSED) {
+                openSince = openedAt;
+            }
+        }
+        listener.changed(from, State.OPEN);
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    /**
+     * Get how long queries have been failing for.
+     *
+     * @return Milliseconds since the breaker opened, or 0 while closed
+     */
+    synchronized long openForMillis() {
+        return state == State.CLOSED ? 0 : System.currentTimeMillis() - openSince;
+    }
+}
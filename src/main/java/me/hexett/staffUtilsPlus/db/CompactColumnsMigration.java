@@ -0,0 +1,542 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Schema version 2: stores UUIDs as {@code BINARY(16)}, punishment types as
+ * small integer codes and IP addresses as {@code VARBINARY(16)} instead of
+ * text (see {@link SQLColumns}), which makes the UUID and IP indexes roughly
+ * a third of their size.
+ * <p>
+ * Each table is copied into a new {@code _compact} table in batches of
+ * {@value #BATCH_SIZE} rows, one transaction per batch, so a large table never
+ * holds a long lock. The old table is then dropped and the copy renamed into
+ * its place. Every step checks what is already there, so a migration that was
+ * interrupted picks up where it stopped. Rows that cannot be converted (an
+ * unknown type, or a malformed UUID or IP) are left out of the copy; if the
+ * copy is short of any rows, the old table is kept as {@code <table>_legacy}
+ * rather than dropped, so those records can still be recovered by hand.
+ * <p>
+ * Index size and the time taken to look up a player's active punishments are
+ * logged before and after.
+ *
+ * @author Hexett
+ */
+final class CompactColumnsMigration implements SchemaMigrator.Step {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int LOOKUP_SAMPLES = 100;
+    private static final String SUFFIX = "_compact";
+    private static final String LEGACY_SUFFIX = "_legacy";
+
+    private enum Kind { PLAIN, UUID, TYPE, IP }
+
+    /**
+     * A table to convert.
+     *
+     * @param name The table name
+     * @param key The column batches are read in order of; unique
+     * @param uuidColumn A UUID column, checked to tell whether the table is already converted
+     * @param columns The columns, in the order of {@code kinds}
+     * @param kinds How each column is converted
+     * @param sqlite The SQLite definition, with %s for the table name
+     * @param mysql The MySQL definition, with %s for the table name
+     * @param sqliteIndexes SQLite and H2 index definitions, created once the copy has its final name
+     */
+    private record Table(String name, String key, String uuidColumn, String[] columns, Kind[] kinds,
+                         String sqlite, String mysql, String... sqliteIndexes) {
+    }
+
+    private static final String[] PUNISHMENT_COLUMNS =
+            {"id", "target_uuid", "type", "reason", "issuer_uuid", "issued_at", "expires_at", "ip_address", "active"};
+    private static final Kind[] PUNISHMENT_KINDS =
+            {Kind.PLAIN, Kind.UUID, Kind.TYPE, Kind.PLAIN, Kind.UUID, Kind.PLAIN, Kind.PLAIN, Kind.IP, Kind.PLAIN};
+    private static final String[] NOTE_COLUMNS = {"id", "target_uuid", "issuer_uuid", "content", "timestamp"};
+    private static final Kind[] NOTE_KINDS = {Kind.PLAIN, Kind.UUID, Kind.UUID, Kind.PLAIN, Kind.PLAIN};
+    private static final String[] WARNING_COLUMNS =
+            {"id", "target_uuid", "issuer_uuid", "reason", "severity", "timestamp", "active"};
+    private static final Kind[] WARNING_KINDS =
+            {Kind.PLAIN, Kind.UUID, Kind.UUID, Kind.PLAIN, Kind.PLAIN, Kind.PLAIN, Kind.PLAIN};
+    private static final String[] PLAYER_IP_COLUMNS = {"uuid", "ip_address", "last_updated"};
+    private static final Kind[] PLAYER_IP_KINDS = {Kind.UUID, Kind.IP, Kind.PLAIN};
+
+    private static final List<Table> TABLES = List.of(
+            new Table("punishments", "id", "target_uuid", PUNISHMENT_COLUMNS, PUNISHMENT_KINDS, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    target_uuid BLOB NOT NULL,
+                    type INTEGER NOT NULL,
+                    reason TEXT,
+                    issuer_uuid BLOB,
+                    issued_at BIGINT,
+                    expires_at BIGINT,
+                    ip_address BLOB,
+                    active BOOLEAN DEFAULT 1
+                )
+                """, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    id INTEGER PRIMARY KEY AUTO_INCREMENT,
+                    target_uuid BINARY(16) NOT NULL,
+                    type TINYINT NOT NULL,
+                    reason TEXT,
+                    issuer_uuid BINARY(16),
+                    issued_at BIGINT,
+                    expires_at BIGINT,
+                    ip_address VARBINARY(16),
+                    active BOOLEAN DEFAULT 1,
+                    INDEX idx_target_active (target_uuid, active),
+                    INDEX idx_issuer (issuer_uuid),
+                    INDEX idx_ip_active (ip_address, active)
+                )
+                """,
+                    "CREATE INDEX IF NOT EXISTS idx_punishments_target_active ON punishments(target_uuid, active)",
+                    "CREATE INDEX IF NOT EXISTS idx_punishments_issuer ON punishments(issuer_uuid)",
+                    "CREATE INDEX IF NOT EXISTS idx_punishments_ip_active ON punishments(ip_address, active)"),
+            new Table("notes", "id", "target_uuid", NOTE_COLUMNS, NOTE_KINDS, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    target_uuid BLOB NOT NULL,
+                    issuer_uuid BLOB,
+                    content TEXT,
+                    timestamp BIGINT
+                )
+                """, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    id INTEGER PRIMARY KEY AUTO_INCREMENT,
+                    target_uuid BINARY(16) NOT NULL,
+                    issuer_uuid BINARY(16),
+                    content TEXT,
+                    timestamp BIGINT,
+                    INDEX idx_target (target_uuid)
+                )
+                """,
+                    "CREATE INDEX IF NOT EXISTS idx_notes_target ON notes(target_uuid)"),
+            new Table("warnings", "id", "target_uuid", WARNING_COLUMNS, WARNING_KINDS, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    target_uuid BLOB NOT NULL,
+                    issuer_uuid BLOB,
+                    reason TEXT,
+                    severity INTEGER,
+                    timestamp BIGINT,
+                    active BOOLEAN DEFAULT 1
+                )
+                """, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    id INTEGER PRIMARY KEY AUTO_INCREMENT,
+                    target_uuid BINARY(16) NOT NULL,
+                    issuer_uuid BINARY(16),
+                    reason TEXT,
+                    severity INTEGER,
+                    timestamp BIGINT,
+                    active BOOLEAN DEFAULT 1,
+                    INDEX idx_target (target_uuid)
+                )
+                """,
+                    "CREATE INDEX IF NOT EXISTS idx_warnings_target ON warnings(target_uuid)"),
+            new Table("player_ips", "uuid", "uuid", PLAYER_IP_COLUMNS, PLAYER_IP_KINDS, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    uuid BLOB PRIMARY KEY,
+                    ip_address BLOB NOT NULL,
+                    last_updated BIGINT NOT NULL
+                )
+                """, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    uuid BINARY(16) PRIMARY KEY,
+                    ip_address VARBINARY(16) NOT NULL,
+                    last_updated BIGINT NOT NULL,
+                    INDEX idx_ip_address (ip_address)
+                )
+                """,
+                    "CREATE INDEX IF NOT EXISTS idx_player_ips_ip ON player_ips(ip_address)"),
+            new Table("punishments_archive", "id", "target_uuid", PUNISHMENT_COLUMNS, PUNISHMENT_KINDS, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    id INTEGER PRIMARY KEY,
+                    target_uuid BLOB NOT NULL,
+                    type INTEGER NOT NULL,
+                    reason TEXT,
+                    issuer_uuid BLOB,
+                    issued_at BIGINT,
+                    expires_at BIGINT,
+                    ip_address BLOB,
+                    active BOOLEAN
+                )
+                """, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    id INTEGER PRIMARY KEY,
+                    target_uuid BINARY(16) NOT NULL,
+                    type TINYINT NOT NULL,
+                    reason TEXT,
+                    issuer_uuid BINARY(16),
+                    issued_at BIGINT,
+                    expires_at BIGINT,
+                    ip_address VARBINARY(16),
+                    active BOOLEAN,
+                    INDEX idx_target (target_uuid)
+                )
+                """,
+                    "CREATE INDEX IF NOT EXISTS idx_punishments_archive_target ON punishments_archive(target_uuid)"),
+            new Table("warnings_archive", "id", "target_uuid", WARNING_COLUMNS, WARNING_KINDS, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    id INTEGER PRIMARY KEY,
+                    target_uuid BLOB NOT NULL,
+                    issuer_uuid BLOB,
+                    reason TEXT,
+                    severity INTEGER,
+                    timestamp BIGINT,
+                    active BOOLEAN
+                )
+                """, """
+                CREATE TABLE IF NOT EXISTS %s (
+                    id INTEGER PRIMARY KEY,
+                    target_uuid BINARY(16) NOT NULL,
+                    issuer_uuid BINARY(16),
+                    reason TEXT,
+                    severity INTEGER,
+                    timestamp BIGINT,
+                    active BOOLEAN,
+                    INDEX idx_target (target_uuid)
+                )
+                """,
+                    "CREATE INDEX IF NOT EXISTS idx_warnings_archive_target ON warnings_archive(target_uuid)")
+    );
+
+    private final Plugin plugin;
+    private final String type;
+
+    /**
+     * @param plugin The plugin, for logging
+     * @param type The database type ("mysql", "sqlite" or "h2")
+     */
+    CompactColumnsMigration(Plugin plugin, String type) {
+        this.plugin = plugin;
+        this.type = type;
+    }
+
+    @Override
+    public void apply(Connection connection) throws SQLException {
+        List<UUID> samples = sampleTargets(connection);
+        long indexBytesBefore = indexBytes(connection);
+        long lookupBefore = lookupNanos(connection, samples, false);
+
+        for (Table table : TABLES) {
+            convert(connection, table);
+        }
+
+        long indexBytesAfter = indexBytes(connection);
+        long lookupAfter = lookupNanos(connection, samples, true);
+        plugin.getLogger().info("Index size: " + formatBytes(indexBytesBefore) + " -> " + formatBytes(indexBytesAfter));
+        if (!samples.isEmpty()) {
+            plugin.getLogger().info("Active punishment lookup (average of " + samples.size() + " players): "
+                    + lookupBefore / 1000 + "us -> " + lookupAfter / 1000 + "us");
+        }
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                          CONVERSION                                 │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    private void convert(Connection connection, Table table) throws SQLException {
+        String copy = table.name() + SUFFIX;
+        boolean original = tableExists(connection, table.name());
+        boolean copied = tableExists(connection, copy);
+
+        if (original && !copied && isConverted(connection, table)) {
+            createIndexes(connection, table);
+            return;
+        }
+
+        if (original) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(String.format(definition(table), copy));
+            }
+            copyRows(connection, table, copy);
+            // Counted rather than tracked while copying, so rows skipped by an interrupted run count too
+            long missing = count(connection, table.name()) - count(connection, copy);
+            if (missing > 0) {
+                String legacy = table.name() + LEGACY_SUFFIX;
+                dropIndexes(connection, table.name());
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("ALTER TABLE " + table.name() + " RENAME TO " + legacy);
+                }
+                plugin.getLogger().warning(missing + " rows of " + table.name() + " could not be converted; the old table"
+                        + " is kept as " + legacy);
+            } else {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("DROP TABLE " + table.name());
+                }
+            }
+        }
+
+        // Also reached if a previous run stopped between the drop and the rename
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("ALTER TABLE " + copy + " RENAME TO " + table.name());
+        }
+        createIndexes(connection, table);
+    }
+
+    /**
+     * Copy every row not yet in the copy, one batch per transaction, leaving
+     * out rows that cannot be converted.
+     */
+    private void copyRows(Connection connection, Table table, String copy) throws SQLException {
+        String columns = String.join(", ", table.columns());
+        String placeholders = String.join(", ", Collections.nCopies(table.columns().length, "?"));
+        String select = "SELECT " + columns + " FROM " + table.name() + " WHERE " + table.key() + " > ? ORDER BY "
+                + table.key() + " LIMIT " + BATCH_SIZE;
+        String insert = ("sqlite".equals(type) ? "INSERT OR IGNORE" : "INSERT IGNORE") + " INTO " + copy + " (" + columns
+                + ") VALUES (" + placeholders + ")";
+        boolean numericKey = "id".equals(table.key());
+
+        // Resume after the last copied id; tables keyed by UUID are small and start over, ignoring duplicates
+        Object last = numericKey ? maxId(connection, copy) : "";
+        int copiedRows = 0;
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement read = connection.prepareStatement(select);
+             PreparedStatement write = connection.prepareStatement(insert)) {
+            while (true) {
+                read.setObject(1, last);
+                int rows = 0;
+                try (ResultSet rs = read.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        last = numericKey ? (Object) rs.getLong(table.key()) : rs.getString(table.key());
+                        if (bindConverted(rs, write, table)) {
+                            write.addBatch();
+                        }
+                    }
+                }
+                if (rows == 0) {
+                    break;
+                }
+                write.executeBatch();
+                connection.commit();
+                copiedRows += rows;
+                if (copiedRows % (BATCH_SIZE * 50) == 0) {
+                    plugin.getLogger().info("Converted " + copiedRows + " rows of " + table.name() + "...");
+                }
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Read one legacy row and bind its converted values.
+     *
+     * @return False if the row cannot be converted
+     */
+    private static boolean bindConverted(ResultSet rs, PreparedStatement write, Table table) throws SQLException {
+        for (int i = 0; i < table.columns().length; i++) {
+            int index = i + 1;
+            switch (table.kinds()[i]) {
+                case PLAIN -> write.setObject(index, rs.getObject(index));
+                case UUID -> {
+                    String value = rs.getString(index);
+                    try {
+                        write.setBytes(index, value != null ? SQLColumns.uuid(UUID.fromString(value)) : null);
+                    } catch (IllegalArgumentException e) {
+                        return false;
+                    }
+                }
+                case TYPE -> {
+                    try {
+                        write.setInt(index, SQLColumns.type(Punishment.Type.valueOf(rs.getString(index))));
+                    } catch (IllegalArgumentException | NullPointerException e) {
+                        return false;
+                    }
+                }
+                case IP -> {
+                    String value = rs.getString(index);
+                    byte[] address = SQLColumns.ip(value);
+                    if (value != null && address == null) {
+                        return false;
+                    }
+                    write.setBytes(index, address);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drop the indexes of a table that is being kept under another name.
+     * SQLite and H2 index names are global, so they would otherwise stop the
+     * converted table's indexes from being created.
+     */
+    private void dropIndexes(Connection connection, String table) throws SQLException {
+        if ("mysql".equals(type)) {
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getIndexInfo(connection.getCatalog(), null, table, false, false)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                if (name != null && name.toLowerCase().startsWith("idx_") && !names.contains(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String name : names) {
+                statement.execute("DROP INDEX IF EXISTS " + name);
+            }
+        }
+    }
+
+    private void createIndexes(Connection connection, Table table) throws SQLException {
+        if ("mysql".equals(type)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String index : table.sqliteIndexes()) {
+                statement.execute(index);
+            }
+        }
+    }
+
+    private String definition(Table table) {
+        return switch (type) {
+            case "sqlite" -> table.sqlite();
+            case "h2" -> SchemaMigrator.forH2(table.mysql());
+            default -> table.mysql();
+        };
+    }
+
+    private boolean isConverted(Connection connection, Table table) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getColumns(connection.getCatalog(), null, table.name(), table.uuidColumn())) {
+            return rs.next() && !rs.getString("TYPE_NAME").toUpperCase().contains("CHAR");
+        }
+    }
+
+    private static boolean tableExists(Connection connection, String name) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private static long count(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MAX(id) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                          REPORTING                                  │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    private List<UUID> sampleTargets(Connection connection) throws SQLException {
+        List<UUID> samples = new ArrayList<>();
+        if (!tableExists(connection, "punishments") || isConverted(connection, TABLES.get(0))) {
+            return samples;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT DISTINCT target_uuid FROM punishments LIMIT " + LOOKUP_SAMPLES)) {
+            while (rs.next()) {
+                try {
+                    samples.add(UUID.fromString(rs.getString(1)));
+                } catch (IllegalArgumentException ignored) {
+                    // Skipped by the conversion as well
+                }
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Time the active punishment lookup for each sample player.
+     *
+     * @return The average time per lookup in nanoseconds
+     */
+    private static long lookupNanos(Connection connection, List<UUID> samples, boolean compact) throws SQLException {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        try (PreparedStatement ps = connection.prepareStatement("SELECT id FROM punishments WHERE target_uuid = ? AND active = 1")) {
+            long start = System.nanoTime();
+            for (UUID target : samples) {
+                if (compact) {
+                    ps.setBytes(1, SQLColumns.uuid(target));
+                } else {
+                    ps.setString(1, target.toString());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getLong(1);
+                    }
+                }
+            }
+            return (System.nanoTime() - start) / samples.size();
+        }
+    }
+
+    /**
+     * Get the total size of every index in the database.
+     *
+     * @return The size in bytes, or -1 if the database cannot tell
+     */
+    private long indexBytes(Connection connection) {
+        if ("h2".equals(type)) {
+            // H2 keeps everything in one MVStore file and does not report sizes per index
+            return -1;
+        }
+        boolean sqlite = "sqlite".equals(type);
+        String sql = sqlite
+                ? "SELECT SUM(pgsize) FROM dbstat WHERE name IN (SELECT name FROM sqlite_master WHERE type = 'index')"
+                : "SELECT SUM(index_length) FROM information_schema.TABLES WHERE table_schema = DATABASE()";
+        try (Statement statement = connection.createStatement()) {
+            if (!sqlite) {
+                // InnoDB only refreshes these figures now and then
+                for (Table table : TABLES) {
+                    if (tableExists(connection, table.name())) {
+                        statement.execute("ANALYZE TABLE " + table.name());
+                    }
+                }
+            }
+            try (ResultSet rs = statement.executeQuery(sql)) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
+        } catch (SQLException e) {
+            // SQLite builds without the dbstat table
+            return -1;
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 0) {
+            return "unknown";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
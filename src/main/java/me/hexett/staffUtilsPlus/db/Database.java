@@ -5,7 +5,10 @@ import me.hexett.staffUtilsPlus.service.notes.Note;
 import me.hexett.staffUtilsPlus.service.warnings.Warning;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Database interface for storing and retrieving punishments.
@@ -26,6 +29,35 @@ public interface Database {
      * This method should clean up resources and save any pending data.
      */
     void close();
+
+    /**
+     * Check whether the database has finished loading after {@link #connect()}.
+     * Queries made before then block until loading completes.
+     *
+     * @return true if queries will not wait for startup loading
+     */
+    default boolean isReady() {
+        return true;
+    }
+
+    /**
+     * Wait until the database has finished loading after {@link #connect()}.
+     *
+     * @param timeout The maximum time to wait
+     * @param unit The unit of the timeout
+     * @return true if the database is ready, false if the timeout elapsed first
+     */
+    default boolean awaitReady(long timeout, TimeUnit unit) {
+        return true;
+    }
+
+    /**
+     * Describe the backend's current state for the status command, such as
+     * connection pool usage.
+     *
+     * @return Labels and values in display order
+     */
+    Map<String, String> getStatus();
     
     /**
      * Insert a new punishment into the database.
@@ -41,6 +73,36 @@ public interface Database {
      * @return List of punishments for the target
      */
     List<Punishment> getPunishments(UUID target);
+
+    /**
+     * Retrieve the complete punishment history for a target: active, inactive
+     * and archived punishments, oldest first. Slower than
+     * {@link #getPunishments(UUID)} because it also reads cold storage.
+     *
+     * @param target The UUID of the target player
+     * @return Every punishment ever recorded for the target
+     */
+    List<Punishment> getPunishmentHistory(UUID target);
+
+    /**
+     * Retrieve one page of a target's complete punishment history, including
+     * archived punishments, newest first.
+     *
+     * @param target The UUID of the target player
+     * @param cursor Where to continue from, or null for the newest page
+     * @param limit The maximum number of punishments on the page
+     * @return The page, with cursors for the pages either side
+     */
+    Page<Punishment> getPunishmentHistoryPage(UUID target, Page.Cursor cursor, int limit);
+
+    /**
+     * Count a target's complete punishment history, including archived
+     * punishments, without reading it.
+     *
+     * @param target The UUID of the target player
+     * @return The number of punishments, and how many are active
+     */
+    PunishmentCounts countPunishmentHistory(UUID target);
     
     /**
      * Deactivate a punishment for a specific target and type.
@@ -49,6 +111,15 @@ public interface Database {
      * @param type The type of punishment to deactivate
      */
     void deactivatePunishment(UUID target, Punishment.Type type);
+
+    /**
+     * Deactivate every active punishment of a type that has expired, across
+     * all players.
+     *
+     * @param type The type of punishment to deactivate
+     * @param before Punishments expiring at or before this time are deactivated
+     */
+    void deactivateExpiredPunishments(Punishment.Type type, long before);
     
     /**
      * Retrieve all punishments for a specific IP address.
@@ -127,8 +198,67 @@ public interface Database {
      */
     Warning getWarning(int warningId);
 
+    /**
+     * Get the total severity of a target's active warnings, without loading
+     * the warnings themselves.
+     *
+     * @param target The UUID of the target player
+     * @return The summed severity, or 0 if the target has no active warnings
+     */
+    int getActiveWarningSeverity(UUID target);
+
+    /**
+     * Count a target's active warnings issued at or after a given time.
+     *
+     * @param target The UUID of the target player
+     * @param since The earliest issue time to count, or 0 to count every active warning
+     * @return The number of matching warnings
+     */
+    int countActiveWarnings(UUID target, long since);
+
+    /**
+     * Retrieve every warning for a target, including removed warnings that
+     * have been archived, oldest first.
+     *
+     * @param target The UUID of the target player
+     * @return Every warning ever recorded for the target
+     */
+    List<Warning> getWarningHistory(UUID target);
+
+    /**
+     * Move records that stopped applying before the cutoff into cold storage:
+     * inactive or expired punishments, kicks and removed warnings. Archived
+     * records are only returned by the history methods.
+     *
+     * @param cutoff Records that stopped applying before this timestamp are archived
+     * @return The number of records archived
+     */
+    int archiveInactive(long cutoff);
+
     List<Punishment> getPunishmentsByIssuer(UUID issuer);
 
+    /**
+     * Retrieve one page of the punishments a player has issued, newest first.
+     *
+     * @param issuer The UUID of the issuer
+     * @param cursor Where to continue from, or null for the newest page
+     * @param limit The maximum number of punishments on the page
+     * @return The page, with cursors for the pages either side
+     */
+    Page<Punishment> getPunishmentsByIssuerPage(UUID issuer, Page.Cursor cursor, int limit);
+
+    /**
+     * Retrieve one page of the active punishments of the given types that have
+     * not expired, across all players. Permanent punishments come first, then
+     * temporary ones in the order they expire.
+     *
+     * @param types The punishment types to include
+     * @param offset The number of matching punishments to skip
+     * @param limit The maximum number of punishments to return
+     * @return The page of active punishments
+     */
+    List<Punishment> getActivePunishments(Set<Punishment.Type> types, int offset, int limit);
+
     /**
      * Get the IP address for a player.
      *
@@ -0,0 +1,109 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.notes.Note;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.warnings.Warning;
+
+import java.util.UUID;
+
+/**
+ * A single mutation recorded in a {@link LocalJournal}.
+ * Only the fields relevant to the operation are set; the rest stay null so
+ * each entry serializes to one short JSON line.
+ *
+ * @author Hexett
+ */
+final class JournalEntry {
+
+    /**
+     * Mutations that can be replayed against the local store.
+     */
+    enum Op {
+        INSERT_PUNISHMENT,
+        DEACTIVATE_PUNISHMENT,
+        DEACTIVATE_EXPIRED,
+        DEACTIVATE_IP_BAN,
+        INSERT_NOTE,
+        REMOVE_NOTE,
+        INSERT_WARNING,
+        REMOVE_WARNING,
+        RECORD_IP
+    }
+
+    Op op;
+    UUID target;
+    Punishment.Type type;
+    String ip;
+    Integer id;
+    Long before;
+    Punishment punishment;
+    Note note;
+    Warning warning;
+
+    private JournalEntry() {
+        // Used by Gson when replaying
+    }
+
+    private JournalEntry(Op op) {
+        this.op = op;
+    }
+
+    static JournalEntry insertPunishment(Punishment punishment) {
+        JournalEntry entry = new JournalEntry(Op.INSERT_PUNISHMENT);
+        entry.punishment = punishment;
+        return entry;
+    }
+
+    static JournalEntry deactivatePunishment(UUID target, Punishment.Type type) {
+        JournalEntry entry = new JournalEntry(Op.DEACTIVATE_PUNISHMENT);
+        entry.target = target;
+        entry.type = type;
+        return entry;
+    }
+
+    static JournalEntry deactivateExpired(Punishment.Type type, long before) {
+        JournalEntry entry = new JournalEntry(Op.DEACTIVATE_EXPIRED);
+        entry.type = type;
+        entry.before = before;
+        return entry;
+    }
+
+    static JournalEntry deactivateIPBan(String ipAddress) {
+        JournalEntry entry = new JournalEntry(Op.DEACTIVATE_IP_BAN);
+        entry.ip = ipAddress;
+        return entry;
+    }
+
+    static JournalEntry insertNote(Note note) {
+        JournalEntry entry = new JournalEntry(Op.INSERT_NOTE);
+        entry.note = note;
+        return entry;
+    }
+
+    static JournalEntry removeNote(UUID target, int noteId) {
+        JournalEntry entry = new JournalEntry(Op.REMOVE_NOTE);
+        entry.target = target;
+        entry.id = noteId;
+        return entry;
+    }
+
+    static JournalEntry insertWarning(Warning warning) {
+        JournalEntry entry = new JournalEntry(Op.INSERT_WARNING);
+        entry.warning = warning;
+        return entry;
+    }
+
+    static JournalEntry removeWarning(UUID target, int warningId) {
+        JournalEntry entry = new JournalEntry(Op.REMOVE_WARNING);
+        entry.target = target;
+        entry.id = warningId;
+        return entry;
+    }
+
+    static JournalEntry recordIP(UUID uuid, String ipAddress) {
+        JournalEntry entry = new JournalEntry(Op.RECORD_IP);
+        entry.target = uuid;
+        entry.ip = ipAddress;
+        return entry;
+    }
+}
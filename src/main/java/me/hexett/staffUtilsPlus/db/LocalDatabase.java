@@ -2,40 +2,164 @@ package me.hexett.staffUtilsPlus.db;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import me.hexett.staffUtilsPlus.service.punishments.Punishment;
 import org.bukkit.plugin.Plugin;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.OutputStreamWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 import me.hexett.staffUtilsPlus.service.notes.Note;
 import me.hexett.staffUtilsPlus.service.warnings.Warning;
 
 /**
  * Local JSON-based database for punishments.
  * Thread-safe and provides a fallback when external databases are unavailable.
+ * In {@link SaveMode#JOURNAL} mode mutations are appended to a per-file journal
+ * and the JSON snapshots are only rewritten on compaction. In
+ * {@link SaveMode#WRITE_BEHIND} mode mutations only mark their file dirty and a
+ * background flusher rewrites dirty files periodically. Snapshots are stored as
+ * JSON or, with {@link SnapshotFormat#BINARY}, in the compact format of
+ * {@link BinarySnapshotCodec}; whichever file is newer is loaded, so switching
+ * formats imports the existing data on the next start.
+ * <p>
+ * Each data set has its own {@link StampedLock}, so a warning insert never
+ * blocks a punishment lookup. Mutators hold the write lock only for the
+ * in-memory change and downgrade to a read lock while persisting. The hot
+ * login/chat lookups ({@link #getPunishments}, {@link #getPunishmentsByIP},
+ * {@link #getPlayerIP}) read optimistically; the structures they touch
+ * tolerate a concurrent writer and hold immutable lists, so an optimistic
+ * read never throws or sees a half-modified list.
+ * <p>
+ * The per-player stores are {@link UUIDMap}s keyed by the UUID's two longs.
+ * Their lists keep one or two elements inline, since most players only have
+ * a record or two.
+ * <p>
+ * {@link #connect()} returns immediately and loads the four files in parallel
+ * on background threads while holding every write lock, so any query made
+ * before loading finishes simply waits for it; {@link #awaitReady} lets
+ * callers bound that wait.
+ * <p>
+ * {@link #archiveInactive} moves records that no longer apply into a
+ * {@link RecordArchive}, shrinking the maps and snapshots; only the history
+ * methods read it.
+ * <p>
+ * The {@link AsyncDatabase} reads answer from memory on the calling thread
+ * once loading has finished; mutations and archive reads run in order on a
+ * single I/O thread, so the caller never waits for a file write.
  *
  * @author Hexett
  */
-public class LocalDatabase implements Database {
+public class LocalDatabase implements Database, AsyncDatabase {
+
+    /**
+     * How mutations are persisted to disk.
+     */
+    public enum SaveMode {
+        /** Rewrite the affected JSON file on every mutation. */
+        IMMEDIATE,
+        /** Append mutations to a journal and rewrite the JSON file on compaction. */
+        JOURNAL,
+        /** Mark the JSON file dirty and let a background flusher rewrite it. */
+        WRITE_BEHIND
+    }
+
+    /**
+     * How snapshot files are encoded.
+     */
+    public enum SnapshotFormat {
+        /** Pretty-printed JSON ({@code punishments.json}, ...). */
+        JSON,
+        /** Compact binary records ({@code punishments.bin}, ...). */
+        BINARY
+    }
+
+    /**
+     * The independently persisted data sets, one file each.
+     */
+    private enum Domain {
+        PUNISHMENTS,
+        NOTES,
+        WARNINGS,
+        PLAYER_IPS
+    }
+
+    /**
+     * Running totals of a player's active warnings.
+     */
+    private static final class WarningTotals {
+        private int count;
+        private int severity;
+    }
+
+    private static final int DEFAULT_COMPACT_THRESHOLD = 1000;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    // Leading key of a JSON snapshot; '#' can never start a UUID
+    private static final String SEQUENCE_KEY = "#sequence";
+    private static final int DEFAULT_FLUSH_AFTER_MUTATIONS = 500;
 
     private final Plugin plugin;
     private final File punishmentsFile;
     private final File notesFile;
     private final File warningsFile;
     private final File playerIPsFile;
+    private final File punishmentsBinaryFile;
+    private final File notesBinaryFile;
+    private final File warningsBinaryFile;
+    private final File playerIPsBinaryFile;
     private final Gson gson;
-    private final Type punishmentsType;
-    private final Type notesType;
-    private final Type warningsType;
-    private final Type playerIPsType;
-    private final ReadWriteLock lock;
+    private final TypeToken<List<Punishment>> punishmentListType;
+    private final TypeToken<List<Note>> noteListType;
+    private final TypeToken<List<Warning>> warningListType;
+    private final TypeToken<String> ipType;
+    private final StampedLock punishmentsLock = new StampedLock();
+    private final StampedLock notesLock = new StampedLock();
+    private final StampedLock warningsLock = new StampedLock();
+    private final StampedLock playerIPsLock = new StampedLock();
+    private final SaveMode saveMode;
+    private final SnapshotFormat snapshotFormat;
+    private final Map<Domain, File> loadedSnapshots = new ConcurrentHashMap<>();
+    // Sequence number of each domain's latest snapshot, matched against its journal's header
+    private final AtomicLongArray sequences = new AtomicLongArray(Domain.values().length);
+    private final int compactThreshold;
+    private final LocalJournal punishmentsJournal;
+    private final LocalJournal notesJournal;
+    private final LocalJournal warningsJournal;
+    private final LocalJournal playerIPsJournal;
+    private final long flushIntervalMillis;
+    private final int flushAfterMutations;
+    private final Set<Domain> dirtyDomains = ConcurrentHashMap.newKeySet();
+    // One per domain; snapshots are written under a read lock, which two writers may hold at once
+    private final Object[] saveLocks = {new Object(), new Object(), new Object(), new Object()};
+    private final AtomicInteger pendingMutations = new AtomicInteger();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final RecordArchive archive;
+    private final ExecutorService io;
+    private ScheduledExecutorService flusher;
 
     private Map<UUID, List<Punishment>> punishments;
     private Map<UUID, List<Note>> notes;
@@ -43,95 +167,245 @@ public class LocalDatabase implements Database {
     private Map<UUID, String> playerIPs;
     private Map<String, Set<UUID>> ipToPlayers;
 
+    // Secondary indexes, rebuilt on load and kept current by the apply* methods
+    private final Map<UUID, List<Punishment>> punishmentsByIssuer = new HashMap<>();
+    private final Map<String, List<Punishment>> activePunishmentsByIP = new ConcurrentHashMap<>();
+    private final Map<Punishment.Type, NavigableMap<Long, List<Punishment>>> activeByTypeAndExpiry = new EnumMap<>(Punishment.Type.class);
+    private final Map<Integer, Note> notesById = new HashMap<>();
+    private final Map<Integer, Warning> warningsById = new HashMap<>();
+    private final Map<UUID, WarningTotals> activeWarningTotals = new HashMap<>();
+    private int nextNoteId = 1;
+    private int nextWarningId = 1;
+
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
     private volatile boolean isDirty = false;
 
     /**
-     * Create a new LocalDatabase instance.
+     * Create a new LocalDatabase instance that rewrites files on every mutation.
      *
      * @param plugin The plugin instance
      */
     public LocalDatabase(Plugin plugin) {
+        this(plugin, SaveMode.IMMEDIATE, SnapshotFormat.JSON, DEFAULT_COMPACT_THRESHOLD, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_FLUSH_AFTER_MUTATIONS);
+    }
+
+    /**
+     * Create a new LocalDatabase instance.
+     *
+     * @param plugin The plugin instance
+     * @param saveMode How mutations are persisted
+     * @param snapshotFormat How snapshot files are encoded
+     * @param compactThreshold Journal entries per file before the snapshot is rewritten (journal mode only)
+     * @param flushIntervalMillis How often dirty files are written (write-behind mode only)
+     * @param flushAfterMutations Mutations after which a flush is started early (write-behind mode only)
+     */
+    public LocalDatabase(Plugin plugin, SaveMode saveMode, SnapshotFormat snapshotFormat, int compactThreshold,
+                         long flushIntervalMillis, int flushAfterMutations) {
         this.plugin = plugin;
+        this.saveMode = saveMode;
+        this.snapshotFormat = snapshotFormat;
+        this.compactThreshold = Math.max(1, compactThreshold);
+        this.flushIntervalMillis = Math.max(50, flushIntervalMillis);
+        this.flushAfterMutations = Math.max(1, flushAfterMutations);
         this.punishmentsFile = new File(plugin.getDataFolder(), "punishments.json");
         this.notesFile = new File(plugin.getDataFolder(), "notes.json");
         this.warningsFile = new File(plugin.getDataFolder(), "warnings.json");
         this.playerIPsFile = new File(plugin.getDataFolder(), "player-ips.json");
+        this.punishmentsBinaryFile = new File(plugin.getDataFolder(), "punishments.bin");
+        this.notesBinaryFile = new File(plugin.getDataFolder(), "notes.bin");
+        this.warningsBinaryFile = new File(plugin.getDataFolder(), "warnings.bin");
+        this.playerIPsBinaryFile = new File(plugin.getDataFolder(), "player-ips.bin");
         this.gson = new GsonBuilder().setPrettyPrinting().create();
-        this.punishmentsType = new TypeToken<Map<UUID, List<Punishment>>>() {}.getType();
-        this.notesType = new TypeToken<Map<UUID, List<Note>>>() {}.getType();
-        this.warningsType = new TypeToken<Map<UUID, List<Warning>>>() {}.getType();
-        this.playerIPsType = new TypeToken<Map<UUID, String>>() {}.getType();
-        this.lock = new ReentrantReadWriteLock();
-        this.punishments = new HashMap<>();
-        this.notes = new HashMap<>();
-        this.warnings = new HashMap<>();
-        this.playerIPs = new HashMap<>();
+        this.punishmentListType = new TypeToken<List<Punishment>>() {};
+        this.noteListType = new TypeToken<List<Note>>() {};
+        this.warningListType = new TypeToken<List<Warning>>() {};
+        this.ipType = TypeToken.get(String.class);
+
+        Gson journalGson = new Gson();
+        this.punishmentsJournal = new LocalJournal(new File(plugin.getDataFolder(), "punishments.journal"), journalGson, plugin.getLogger());
+        this.notesJournal = new LocalJournal(new File(plugin.getDataFolder(), "notes.journal"), journalGson, plugin.getLogger());
+        this.warningsJournal = new LocalJournal(new File(plugin.getDataFolder(), "warnings.journal"), journalGson, plugin.getLogger());
+        this.playerIPsJournal = new LocalJournal(new File(plugin.getDataFolder(), "player-ips.journal"), journalGson, plugin.getLogger());
+        this.archive = new RecordArchive(new File(plugin.getDataFolder(), "archive"), plugin.getLogger());
+        this.io = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "StaffUtilsPlus-LocalIO");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.punishments = new UUIDMap<>();
+        this.notes = new UUIDMap<>();
+        this.warnings = new UUIDMap<>();
+        this.playerIPs = new UUIDMap<>();
         this.ipToPlayers = new HashMap<>();
     }
 
     @Override
     public void connect() {
-        lock.writeLock().lock();
-        try {
-            // Ensure data folder exists
-            if (!plugin.getDataFolder().exists()) {
-                plugin.getDataFolder().mkdirs();
-            }
+        // Ensure data folder exists
+        if (!plugin.getDataFolder().exists()) {
+            plugin.getDataFolder().mkdirs();
+        }
 
-            // Load or create punishments file
-            if (!punishmentsFile.exists()) {
-                punishmentsFile.createNewFile();
-                savePunishments();
-            } else {
-                loadPunishments();
+        // Held until loading finishes so early queries wait for the data instead of
+        // seeing empty maps. StampedLock stamps may be released by any thread.
+        long[] stamps = writeLockAll();
+        Thread loader = new Thread(() -> {
+            try {
+                initialize();
+            } finally {
+                unlockAll(stamps);
+                loaded.complete(null);
             }
+        }, "StaffUtilsPlus-LocalLoad");
+        loader.setDaemon(true);
+        loader.start();
+    }
 
-            // Load or create notes file
-            if (!notesFile.exists()) {
-                notesFile.createNewFile();
-                saveNotes();
-            } else {
-                loadNotes();
+    @Override
+    public boolean isReady() {
+        return loaded.isDone();
+    }
+
+    @Override
+    public boolean awaitReady(long timeout, TimeUnit unit) {
+        try {
+            loaded.get(timeout, unit);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Map<String, String> getStatus() {
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("Backend", "Local (" + saveMode.name().toLowerCase().replace('_', '-') + ", "
+                + snapshotFormat.name().toLowerCase() + ")");
+        status.put("Loaded", isReady() ? "yes" : "loading");
+        if (saveMode == SaveMode.WRITE_BEHIND) {
+            status.put("Unsaved changes", String.valueOf(pendingMutations.get()));
+        }
+        return status;
+    }
+
+    /**
+     * Load every file, replay journals and start background work.
+     * Runs on the loader thread with all write locks held.
+     */
+    private void initialize() {
+        long start = System.nanoTime();
+        try {
+            loadAll();
+            rebuildIndexes();
+
+            if (saveMode == SaveMode.JOURNAL) {
+                for (Domain domain : Domain.values()) {
+                    openJournal(domain);
+                }
+            } else if (saveMode == SaveMode.WRITE_BEHIND) {
+                startFlusher();
             }
 
-            // Load or create warnings file
-            if (!warningsFile.exists()) {
-                warningsFile.createNewFile();
-                saveWarnings();
-            } else {
-                loadWarnings();
+            // Older versions stored every local note and warning with id -1
+            if (assignMissingNoteIds()) {
+                rewriteSnapshot(Domain.NOTES);
+            }
+            if (assignMissingWarningIds()) {
+                rewriteSnapshot(Domain.WARNINGS);
             }
 
-            // Load or create player IPs file
-            if (!playerIPsFile.exists()) {
-                playerIPsFile.createNewFile();
-                savePlayerIPs();
-            } else {
-                loadPlayerIPs();
+            // Data loaded from the other format is written out in the configured one
+            for (Domain domain : Domain.values()) {
+                if (!loadedSnapshots.get(domain).equals(snapshotFile(domain))) {
+                    plugin.getLogger().info("Converting " + loadedSnapshots.get(domain).getName() + " to " + snapshotFile(domain).getName());
+                    rewriteSnapshot(domain);
+                }
             }
 
-            plugin.getLogger().info("Local database connected successfully");
-        } catch (IOException e) {
+            plugin.getLogger().info("Local database connected successfully (" + saveMode.name().toLowerCase().replace('_', '-')
+                    + " mode) in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (Exception e) {
             plugin.getLogger().severe("Failed to initialize local database: " + e.getMessage());
             e.printStackTrace();
+        }
+    }
+
+    /**
+     * Load the four files in parallel, each from whichever format was written
+     * last, creating any that do not exist yet.
+     */
+    private void loadAll() {
+        Domain[] domains = Domain.values();
+        ExecutorService loaders = Executors.newFixedThreadPool(domains.length, runnable -> {
+            Thread thread = new Thread(runnable, "StaffUtilsPlus-LocalLoad");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture<?>[] loads = new CompletableFuture<?>[domains.length];
+            for (Domain domain : domains) {
+                loads[domain.ordinal()] = CompletableFuture.runAsync(() -> loadDomain(domain), loaders);
+            }
+            CompletableFuture.allOf(loads).join();
         } finally {
-            lock.writeLock().unlock();
+            loaders.shutdown();
+        }
+    }
+
+    private void loadDomain(Domain domain) {
+        File source = newestSnapshot(domain);
+        if (source == null) {
+            save(domain);
+            source = snapshotFile(domain);
+        } else {
+            long start = System.nanoTime();
+            load(domain, source);
+            sequences.set(domain.ordinal(), readSequence(domain, source));
+            plugin.getLogger().info("Loaded " + recordCount(domain) + " records from " + source.getName()
+                    + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
         }
+        loadedSnapshots.put(domain, source);
+    }
+
+    private int recordCount(Domain domain) {
+        return switch (domain) {
+            case PUNISHMENTS -> punishments.values().stream().mapToInt(List::size).sum();
+            case NOTES -> notes.values().stream().mapToInt(List::size).sum();
+            case WARNINGS -> warnings.values().stream().mapToInt(List::size).sum();
+            case PLAYER_IPS -> playerIPs.size();
+        };
     }
 
     @Override
     public void close() {
-        lock.writeLock().lock();
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for queued local writes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stopFlusher();
+
+        long[] stamps = writeLockAll();
         try {
             if (isDirty) {
                 saveAll();
             }
+            // A journal whose snapshot was just rewritten no longer matches its header
+            // and is discarded on the next start, so closing is all that is left to do.
+            closeJournals();
+            archive.close();
             plugin.getLogger().info("Local database closed successfully");
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to save data on shutdown: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            lock.writeLock().unlock();
+            unlockAll(stamps);
         }
     }
 
@@ -145,16 +419,17 @@ public class LocalDatabase implements Database {
             return;
         }
 
-        lock.writeLock().lock();
+        long stamp = punishmentsLock.writeLock();
         try {
-            punishments.computeIfAbsent(punishment.getTarget(), k -> new ArrayList<>()).add(punishment);
+            applyInsertPunishment(punishment);
             isDirty = true;
-            savePunishments();
+            stamp = punishmentsLock.tryConvertToReadLock(stamp);
+            persist(Domain.PUNISHMENTS, JournalEntry.insertPunishment(punishment));
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to insert punishment: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            lock.writeLock().unlock();
+            punishmentsLock.unlock(stamp);
         }
     }
 
@@ -164,23 +439,87 @@ public class LocalDatabase implements Database {
             return Collections.emptyList();
         }
 
-        lock.readLock().lock();
-        try {
-            List<Punishment> all = punishments.get(target);
-            if (all == null) {
-                return Collections.emptyList();
+        long stamp = punishmentsLock.tryOptimisticRead();
+        List<Punishment> activeOnly = activePunishments(target);
+        if (!punishmentsLock.validate(stamp)) {
+            stamp = punishmentsLock.readLock();
+            try {
+                activeOnly = activePunishments(target);
+            } finally {
+                punishmentsLock.unlockRead(stamp);
             }
+        }
+        return activeOnly;
+    }
 
-            List<Punishment> activeOnly = new ArrayList<>();
-            for (Punishment p : all) {
-                if (p.isActive()) {
-                    activeOnly.add(p);
-                }
+    private List<Punishment> activePunishments(UUID target) {
+        List<Punishment> all = punishments.get(target);
+        if (all == null) {
+            return Collections.emptyList();
+        }
+
+        List<Punishment> activeOnly = new ArrayList<>();
+        for (Punishment p : all) {
+            if (p.isActive()) {
+                activeOnly.add(p);
             }
-            return activeOnly;
+        }
+        return activeOnly;
+    }
+
+    @Override
+    public List<Punishment> getPunishmentHistory(UUID target) {
+        if (target == null) {
+            return Collections.emptyList();
+        }
+
+        List<Punishment> live;
+        long stamp = punishmentsLock.readLock();
+        try {
+            live = punishments.getOrDefault(target, Collections.emptyList());
+        } finally {
+            punishmentsLock.unlockRead(stamp);
+        }
+        return RecordArchive.mergePunishments(live, archived(target).punishments);
+    }
+
+    /**
+     * Live punishments are kept in page order, and the page is read from them
+     * and the target's archived punishments from the cursor on, without
+     * merging the two first.
+     */
+    @Override
+    public Page<Punishment> getPunishmentHistoryPage(UUID target, Page.Cursor cursor, int limit) {
+        if (target == null) {
+            return Page.slice(List.of(), Punishment::getIssuedAt, Page::localId, cursor, limit);
+        }
+
+        List<Punishment> live;
+        long stamp = punishmentsLock.readLock();
+        try {
+            live = punishments.getOrDefault(target, Collections.emptyList());
+        } finally {
+            punishmentsLock.unlockRead(stamp);
+        }
+        List<Punishment> archived = new ArrayList<>(archived(target).punishments);
+        archived.sort(Page.LOCAL_ORDER);
+        return Page.slice(List.of(live, archived), Punishment::getIssuedAt, Page::localId, cursor, limit);
+    }
+
+    @Override
+    public PunishmentCounts countPunishmentHistory(UUID target) {
+        if (target == null) {
+            return PunishmentCounts.NONE;
+        }
+
+        List<Punishment> live;
+        long stamp = punishmentsLock.readLock();
+        try {
+            live = punishments.getOrDefault(target, Collections.emptyList());
         } finally {
-            lock.readLock().unlock();
+            punishmentsLock.unlockRead(stamp);
         }
+        return RecordArchive.countPunishments(live, archived(target).punishments);
     }
 
     @Override
@@ -189,20 +528,63 @@ public class LocalDatabase implements Database {
             return Collections.emptyList();
         }
 
-        lock.readLock().lock();
+        long stamp = punishmentsLock.readLock();
         try {
-            List<Punishment> result = new ArrayList<>();
-            for (List<Punishment> punishmentList : punishments.values()) {
-                for (Punishment p : punishmentList) {
-                    if (issuer.equals(p.getIssuer())) {
-                        result.add(p);
-                    }
+            List<Punishment> issued = punishmentsByIssuer.get(issuer);
+            return issued != null ? new ArrayList<>(issued) : Collections.emptyList();
+        } finally {
+            punishmentsLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Pages straight from the issuer index, which is kept in page order, so
+     * the cursor is found by binary search and only the page itself is copied.
+     */
+    @Override
+    public Page<Punishment> getPunishmentsByIssuerPage(UUID issuer, Page.Cursor cursor, int limit) {
+        if (issuer == null) {
+            return Page.slice(List.of(), Punishment::getIssuedAt, Page::localId, cursor, limit);
+        }
+
+        long stamp = punishmentsLock.readLock();
+        try {
+            List<Punishment> issued = punishmentsByIssuer.getOrDefault(issuer, Collections.emptyList());
+            return Page.slice(List.of(issued), Punishment::getIssuedAt, Page::localId, cursor, limit);
+        } finally {
+            punishmentsLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<Punishment> getActivePunishments(Set<Punishment.Type> types, int offset, int limit) {
+        if (types == null || types.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        long now = System.currentTimeMillis();
+        List<Punishment> matching = new ArrayList<>();
+        long stamp = punishmentsLock.readLock();
+        try {
+            for (Punishment.Type type : types) {
+                NavigableMap<Long, List<Punishment>> byExpiry = activeByTypeAndExpiry.get(type);
+                if (byExpiry == null) {
+                    continue;
                 }
+                // Permanent punishments (expiry -1) first, then the ones still running in expiry order
+                byExpiry.headMap(0L, true).values().forEach(matching::addAll);
+                byExpiry.tailMap(now, false).values().forEach(matching::addAll);
             }
-            return result;
         } finally {
-            lock.readLock().unlock();
+            punishmentsLock.unlockRead(stamp);
+        }
+
+        if (types.size() > 1) {
+            matching.sort(Comparator.comparingLong(Punishment::getExpiresAt));
         }
+        int from = Math.min(Math.max(0, offset), matching.size());
+        int to = (int) Math.min(matching.size(), (long) from + limit);
+        return new ArrayList<>(matching.subList(from, to));
     }
 
     @Override
@@ -211,20 +593,17 @@ public class LocalDatabase implements Database {
             return Collections.emptyList();
         }
 
-        lock.readLock().lock();
-        try {
-            List<Punishment> ipPunishments = new ArrayList<>();
-            for (List<Punishment> targetPunishments : punishments.values()) {
-                for (Punishment punishment : targetPunishments) {
-                    if (ipAddress.equals(punishment.getIpAddress()) && punishment.isActive()) {
-                        ipPunishments.add(punishment);
-                    }
-                }
+        long stamp = punishmentsLock.tryOptimisticRead();
+        List<Punishment> ipPunishments = activePunishmentsByIP.get(ipAddress);
+        if (!punishmentsLock.validate(stamp)) {
+            stamp = punishmentsLock.readLock();
+            try {
+                ipPunishments = activePunishmentsByIP.get(ipAddress);
+            } finally {
+                punishmentsLock.unlockRead(stamp);
             }
-            return ipPunishments;
-        } finally {
-            lock.readLock().unlock();
         }
+        return ipPunishments != null ? new ArrayList<>(ipPunishments) : Collections.emptyList();
     }
 
     @Override
@@ -233,30 +612,39 @@ public class LocalDatabase implements Database {
             return;
         }
 
-        lock.writeLock().lock();
+        long stamp = punishmentsLock.writeLock();
         try {
-            List<Punishment> targetPunishments = punishments.get(target);
-            if (targetPunishments == null) {
-                return;
+            if (applyDeactivatePunishment(target, type)) {
+                isDirty = true;
+                stamp = punishmentsLock.tryConvertToReadLock(stamp);
+                persist(Domain.PUNISHMENTS, JournalEntry.deactivatePunishment(target, type));
             }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to deactivate punishment: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            punishmentsLock.unlock(stamp);
+        }
+    }
 
-            boolean modified = false;
-            for (Punishment punishment : targetPunishments) {
-                if (punishment.getType() == type && punishment.isActive()) {
-                    punishment.setActive(false);
-                    modified = true;
-                }
-            }
+    @Override
+    public void deactivateExpiredPunishments(Punishment.Type type, long before) {
+        if (type == null) {
+            return;
+        }
 
-            if (modified) {
+        long stamp = punishmentsLock.writeLock();
+        try {
+            if (applyDeactivateExpired(type, before)) {
                 isDirty = true;
-                savePunishments();
+                stamp = punishmentsLock.tryConvertToReadLock(stamp);
+                persist(Domain.PUNISHMENTS, JournalEntry.deactivateExpired(type, before));
             }
         } catch (Exception e) {
-            plugin.getLogger().warning("Failed to deactivate punishment: " + e.getMessage());
+            plugin.getLogger().warning("Failed to deactivate expired punishments: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            lock.writeLock().unlock();
+            punishmentsLock.unlock(stamp);
         }
     }
 
@@ -266,29 +654,18 @@ public class LocalDatabase implements Database {
             return;
         }
 
-        lock.writeLock().lock();
+        long stamp = punishmentsLock.writeLock();
         try {
-            boolean modified = false;
-            for (List<Punishment> targetPunishments : punishments.values()) {
-                for (Punishment punishment : targetPunishments) {
-                    if (ipAddress.equals(punishment.getIpAddress()) &&
-                            punishment.getType() == Punishment.Type.IP_BAN &&
-                            punishment.isActive()) {
-                        punishment.setActive(false);
-                        modified = true;
-                    }
-                }
-            }
-
-            if (modified) {
+            if (applyDeactivateIPBan(ipAddress)) {
                 isDirty = true;
-                savePunishments();
+                stamp = punishmentsLock.tryConvertToReadLock(stamp);
+                persist(Domain.PUNISHMENTS, JournalEntry.deactivateIPBan(ipAddress));
             }
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to deactivate IP ban: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            lock.writeLock().unlock();
+            punishmentsLock.unlock(stamp);
         }
     }
 
@@ -299,64 +676,56 @@ public class LocalDatabase implements Database {
     @Override
     public void insertNote(Note note) {
         if (note == null) return;
-        lock.writeLock().lock();
+        long stamp = notesLock.writeLock();
         try {
-            notes.computeIfAbsent(note.target(), k -> new ArrayList<>()).add(note);
+            Note stored = note.id() > 0 ? note : new Note(nextNoteId, note.target(), note.issuer(), note.content(), note.timestamp());
+            applyInsertNote(stored);
             isDirty = true;
-            saveNotes();
+            stamp = notesLock.tryConvertToReadLock(stamp);
+            persist(Domain.NOTES, JournalEntry.insertNote(stored));
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to insert note: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            lock.writeLock().unlock();
+            notesLock.unlock(stamp);
         }
     }
 
     @Override
     public void removeNote(UUID target, int noteId) {
-        lock.writeLock().lock();
+        long stamp = notesLock.writeLock();
         try {
-            List<Note> targetNotes = notes.get(target);
-            if (targetNotes != null) {
-                boolean removed = targetNotes.removeIf(n -> n.id() == noteId);
-                if (removed) {
-                    isDirty = true;
-                    saveNotes();
-                }
+            if (applyRemoveNote(target, noteId)) {
+                isDirty = true;
+                stamp = notesLock.tryConvertToReadLock(stamp);
+                persist(Domain.NOTES, JournalEntry.removeNote(target, noteId));
             }
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to remove note: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            lock.writeLock().unlock();
+            notesLock.unlock(stamp);
         }
     }
 
     @Override
     public List<Note> getNotes(UUID target) {
-        lock.readLock().lock();
+        long stamp = notesLock.readLock();
         try {
             List<Note> targetNotes = notes.get(target);
             return targetNotes != null ? new ArrayList<>(targetNotes) : Collections.emptyList();
         } finally {
-            lock.readLock().unlock();
+            notesLock.unlockRead(stamp);
         }
     }
 
     @Override
     public Note getNote(int noteId) {
-        lock.readLock().lock();
+        long stamp = notesLock.readLock();
         try {
-            for (List<Note> noteList : notes.values()) {
-                for (Note note : noteList) {
-                    if (note.id() == noteId) {
-                        return note;
-                    }
-                }
-            }
-            return null;
+            return notesById.get(noteId);
         } finally {
-            lock.readLock().unlock();
+            notesLock.unlockRead(stamp);
         }
     }
 
@@ -367,71 +736,105 @@ public class LocalDatabase implements Database {
     @Override
     public void insertWarning(Warning warning) {
         if (warning == null) return;
-        lock.writeLock().lock();
+        long stamp = warningsLock.writeLock();
         try {
-            warnings.computeIfAbsent(warning.getTarget(), k -> new ArrayList<>()).add(warning);
+            Warning stored = warning.getId() > 0 ? warning : new Warning(nextWarningId, warning.getTarget(), warning.getIssuer(),
+                    warning.getReason(), warning.getSeverity(), warning.getTimestamp(), warning.isActive());
+            applyInsertWarning(stored);
             isDirty = true;
-            saveWarnings();
+            stamp = warningsLock.tryConvertToReadLock(stamp);
+            persist(Domain.WARNINGS, JournalEntry.insertWarning(stored));
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to insert warning: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            lock.writeLock().unlock();
+            warningsLock.unlock(stamp);
         }
     }
 
     @Override
     public void removeWarning(UUID target, int warningId) {
-        lock.writeLock().lock();
+        long stamp = warningsLock.writeLock();
         try {
-            List<Warning> targetWarnings = warnings.get(target);
-            if (targetWarnings != null) {
-                boolean modified = false;
-                for (Warning w : targetWarnings) {
-                    if (w.getId() == warningId && w.isActive()) {
-                        w.setActive(false);
-                        modified = true;
-                    }
-                }
-                if (modified) {
-                    isDirty = true;
-                    saveWarnings();
-                }
+            if (applyRemoveWarning(target, warningId)) {
+                isDirty = true;
+                stamp = warningsLock.tryConvertToReadLock(stamp);
+                persist(Domain.WARNINGS, JournalEntry.removeWarning(target, warningId));
             }
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to remove warning: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            lock.writeLock().unlock();
+            warningsLock.unlock(stamp);
         }
     }
 
     @Override
     public List<Warning> getWarnings(UUID target) {
-        lock.readLock().lock();
+        long stamp = warningsLock.readLock();
         try {
             List<Warning> targetWarnings = warnings.get(target);
             return targetWarnings != null ? new ArrayList<>(targetWarnings) : Collections.emptyList();
         } finally {
-            lock.readLock().unlock();
+            warningsLock.unlockRead(stamp);
         }
     }
 
     @Override
     public Warning getWarning(int warningId) {
-        lock.readLock().lock();
+        long stamp = warningsLock.readLock();
         try {
-            for (List<Warning> warningList : warnings.values()) {
-                for (Warning warning : warningList) {
-                    if (warning.getId() == warningId) {
-                        return warning;
-                    }
+            return warningsById.get(warningId);
+        } finally {
+            warningsLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int getActiveWarningSeverity(UUID target) {
+        long stamp = warningsLock.readLock();
+        try {
+            WarningTotals totals = activeWarningTotals.get(target);
+            return totals != null ? totals.severity : 0;
+        } finally {
+            warningsLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int countActiveWarnings(UUID target, long since) {
+        long stamp = warningsLock.readLock();
+        try {
+            WarningTotals totals = activeWarningTotals.get(target);
+            if (totals == null || since <= 0) {
+                return totals != null ? totals.count : 0;
+            }
+            int count = 0;
+            for (Warning warning : warnings.getOrDefault(target, Collections.emptyList())) {
+                if (warning.isActive() && warning.getTimestamp() >= since) {
+                    count++;
                 }
             }
-            return null;
+            return count;
+        } finally {
+            warningsLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<Warning> getWarningHistory(UUID target) {
+        if (target == null) {
+            return Collections.emptyList();
+        }
+
+        List<Warning> live;
+        long stamp = warningsLock.readLock();
+        try {
+            live = warnings.getOrDefault(target, Collections.emptyList());
         } finally {
-            lock.readLock().unlock();
+            warningsLock.unlockRead(stamp);
         }
+        return RecordArchive.mergeWarnings(live, archived(target).warnings);
     }
 
     // ┌─────────────────────────────────────────────────────────────────────┐
@@ -444,12 +847,17 @@ public class LocalDatabase implements Database {
             return null;
         }
 
-        lock.readLock().lock();
-        try {
-            return playerIPs.get(uuid);
-        } finally {
-            lock.readLock().unlock();
+        long stamp = playerIPsLock.tryOptimisticRead();
+        String ipAddress = playerIPs.get(uuid);
+        if (!playerIPsLock.validate(stamp)) {
+            stamp = playerIPsLock.readLock();
+            try {
+                ipAddress = playerIPs.get(uuid);
+            } finally {
+                playerIPsLock.unlockRead(stamp);
+            }
         }
+        return ipAddress;
     }
 
     @Override
@@ -458,12 +866,12 @@ public class LocalDatabase implements Database {
             return Collections.emptyList();
         }
 
-        lock.readLock().lock();
+        long stamp = playerIPsLock.readLock();
         try {
             Set<UUID> players = ipToPlayers.get(ipAddress);
             return players != null ? new ArrayList<>(players) : Collections.emptyList();
         } finally {
-            lock.readLock().unlock();
+            playerIPsLock.unlockRead(stamp);
         }
     }
 
@@ -473,224 +881,1312 @@ public class LocalDatabase implements Database {
             return;
         }
 
-        lock.writeLock().lock();
+        long stamp = playerIPsLock.writeLock();
         try {
-            // Update player -> IP mapping
-            String oldIP = playerIPs.put(uuid, ipAddress);
-
-            // Remove from old IP's player set if IP changed
-            if (oldIP != null && !oldIP.equals(ipAddress)) {
-                Set<UUID> oldSet = ipToPlayers.get(oldIP);
-                if (oldSet != null) {
-                    oldSet.remove(uuid);
-                    if (oldSet.isEmpty()) {
-                        ipToPlayers.remove(oldIP);
-                    }
-                }
+            if (applyRecordIP(uuid, ipAddress)) {
+                isDirty = true;
+                stamp = playerIPsLock.tryConvertToReadLock(stamp);
+                persist(Domain.PLAYER_IPS, JournalEntry.recordIP(uuid, ipAddress));
             }
-
-            // Add to new IP's player set
-            ipToPlayers.computeIfAbsent(ipAddress, k -> new HashSet<>()).add(uuid);
-
-            isDirty = true;
-            savePlayerIPs();
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to record player IP: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            lock.writeLock().unlock();
+            playerIPsLock.unlock(stamp);
         }
     }
 
     // ┌─────────────────────────────────────────────────────────────────────┐
-    // │                    DATA LOADING METHODS                             │
+    // │                      ASYNC OPERATIONS                               │
     // └─────────────────────────────────────────────────────────────────────┘
 
-    /**
-     * Load punishments from the JSON file.
-     */
-    private void loadPunishments() {
-        if (!punishmentsFile.exists() || punishmentsFile.length() == 0) {
-            punishments = new HashMap<>();
-            return;
-        }
+    @Override
+    public CompletableFuture<Void> insertPunishmentAsync(Punishment punishment) {
+        return mutate(() -> insertPunishment(punishment));
+    }
 
-        try (FileReader reader = new FileReader(punishmentsFile)) {
-            Map<UUID, List<Punishment>> loaded = gson.fromJson(reader, punishmentsType);
-            if (loaded != null) {
-                punishments = loaded;
-            } else {
-                punishments = new HashMap<>();
-            }
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to load punishments from file: " + e.getMessage());
-            e.printStackTrace();
-            punishments = new HashMap<>();
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to parse punishments file (corrupted?): " + e.getMessage());
-            e.printStackTrace();
-            punishments = new HashMap<>();
-        }
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsAsync(UUID target) {
+        return query(() -> getPunishments(target));
     }
 
-    /**
-     * Load notes from the JSON file.
-     */
-    private void loadNotes() {
-        if (!notesFile.exists() || notesFile.length() == 0) {
-            notes = new HashMap<>();
-            return;
-        }
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentHistoryAsync(UUID target) {
+        return CompletableFuture.supplyAsync(() -> getPunishmentHistory(target), io);
+    }
 
-        try (FileReader reader = new FileReader(notesFile)) {
-            Map<UUID, List<Note>> loaded = gson.fromJson(reader, notesType);
-            if (loaded != null) {
-                notes = loaded;
-            } else {
-                notes = new HashMap<>();
-            }
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to load notes from file: " + e.getMessage());
-            e.printStackTrace();
-            notes = new HashMap<>();
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to parse notes file (corrupted?): " + e.getMessage());
-            e.printStackTrace();
-            notes = new HashMap<>();
-        }
+    @Override
+    public CompletableFuture<Page<Punishment>> getPunishmentHistoryPageAsync(UUID target, Page.Cursor cursor, int limit) {
+        return CompletableFuture.supplyAsync(() -> getPunishmentHistoryPage(target, cursor, limit), io);
     }
 
-    /**
-     * Load warnings from the JSON file.
-     */
-    private void loadWarnings() {
-        if (!warningsFile.exists() || warningsFile.length() == 0) {
-            warnings = new HashMap<>();
-            return;
-        }
+    @Override
+    public CompletableFuture<PunishmentCounts> countPunishmentHistoryAsync(UUID target) {
+        return CompletableFuture.supplyAsync(() -> countPunishmentHistory(target), io);
+    }
 
-        try (FileReader reader = new FileReader(warningsFile)) {
-            Map<UUID, List<Warning>> loaded = gson.fromJson(reader, warningsType);
-            if (loaded != null) {
-                warnings = loaded;
-            } else {
-                warnings = new HashMap<>();
-            }
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to load warnings from file: " + e.getMessage());
-            e.printStackTrace();
-            warnings = new HashMap<>();
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to parse warnings file (corrupted?): " + e.getMessage());
-            e.printStackTrace();
-            warnings = new HashMap<>();
-        }
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsByIssuerAsync(UUID issuer) {
+        return query(() -> getPunishmentsByIssuer(issuer));
     }
 
-    /**
-     * Load player IPs from the JSON file.
-     */
-    private void loadPlayerIPs() {
-        if (!playerIPsFile.exists() || playerIPsFile.length() == 0) {
-            playerIPs = new HashMap<>();
-            ipToPlayers = new HashMap<>();
-            return;
-        }
+    @Override
+    public CompletableFuture<Page<Punishment>> getPunishmentsByIssuerPageAsync(UUID issuer, Page.Cursor cursor, int limit) {
+        return query(() -> getPunishmentsByIssuerPage(issuer, cursor, limit));
+    }
 
-        try (FileReader reader = new FileReader(playerIPsFile)) {
-            Map<UUID, String> loaded = gson.fromJson(reader, playerIPsType);
-            if (loaded != null) {
-                playerIPs = loaded;
+    @Override
+    public CompletableFuture<List<Punishment>> getActivePunishmentsAsync(Set<Punishment.Type> types, int offset, int limit) {
+        return query(() -> getActivePunishments(types, offset, limit));
+    }
+
+    @Override
+    public CompletableFuture<Void> deactivatePunishmentAsync(UUID target, Punishment.Type type) {
+        return mutate(() -> deactivatePunishment(target, type));
+    }
+
+    @Override
+    public CompletableFuture<Void> deactivateExpiredPunishmentsAsync(Punishment.Type type, long before) {
+        return mutate(() -> deactivateExpiredPunishments(type, before));
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsByIPAsync(String ipAddress) {
+        return query(() -> getPunishmentsByIP(ipAddress));
+    }
+
+    @Override
+    public CompletableFuture<Void> deactivateIPBanAsync(String ipAddress) {
+        return mutate(() -> deactivateIPBan(ipAddress));
+    }
+
+    @Override
+    public CompletableFuture<Void> insertNoteAsync(Note note) {
+        return mutate(() -> insertNote(note));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeNoteAsync(UUID target, int noteId) {
+        return mutate(() -> removeNote(target, noteId));
+    }
+
+    @Override
+    public CompletableFuture<List<Note>> getNotesAsync(UUID target) {
+        return query(() -> getNotes(target));
+    }
+
+    @Override
+    public CompletableFuture<Note> getNoteAsync(int noteId) {
+        return query(() -> getNote(noteId));
+    }
+
+    @Override
+    public CompletableFuture<Void> insertWarningAsync(Warning warning) {
+        return mutate(() -> insertWarning(warning));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeWarningAsync(UUID target, int warningId) {
+        return mutate(() -> removeWarning(target, warningId));
+    }
+
+    @Override
+    public CompletableFuture<List<Warning>> getWarningsAsync(UUID target) {
+        return query(() -> getWarnings(target));
+    }
+
+    @Override
+    public CompletableFuture<Warning> getWarningAsync(int warningId) {
+        return query(() -> getWarning(warningId));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getActiveWarningSeverityAsync(UUID target) {
+        return query(() -> getActiveWarningSeverity(target));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countActiveWarningsAsync(UUID target, long since) {
+        return query(() -> countActiveWarnings(target, since));
+    }
+
+    @Override
+    public CompletableFuture<List<Warning>> getWarningHistoryAsync(UUID target) {
+        return CompletableFuture.supplyAsync(() -> getWarningHistory(target), io);
+    }
+
+    @Override
+    public CompletableFuture<String> getPlayerIPAsync(UUID uuid) {
+        return query(() -> getPlayerIP(uuid));
+    }
+
+    @Override
+    public CompletableFuture<List<UUID>> getPlayersByIPAsync(String ipAddress) {
+        return query(() -> getPlayersByIP(ipAddress));
+    }
+
+    @Override
+    public CompletableFuture<Void> recordPlayerIPAsync(UUID uuid, String ipAddress) {
+        return mutate(() -> recordPlayerIP(uuid, ipAddress));
+    }
+
+    /**
+     * Answer an in-memory read. Once loading has finished the read runs on the
+     * calling thread, since it only takes a read lock that mutators hold for
+     * the in-memory change alone; before then it is queued until the data is in.
+     */
+    private <T> CompletableFuture<T> query(Supplier<T> read) {
+        if (loaded.isDone()) {
+            return CompletableFuture.completedFuture(read.get());
+        }
+        return loaded.thenApplyAsync(ignored -> read.get(), io);
+    }
+
+    /**
+     * Queue a mutation on the I/O thread, which applies mutations in the order
+     * they were submitted and persists each before its future completes.
+     */
+    private CompletableFuture<Void> mutate(Runnable mutation) {
+        return CompletableFuture.runAsync(mutation, io);
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                      ARCHIVE OPERATIONS                             │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    /**
+     * Archive in three steps: collect candidates under read locks, append them
+     * to the archive with no lock held, then drop exactly those instances from
+     * the maps and rewrite the affected snapshots. Lookups and saves keep
+     * running while the archive is written.
+     */
+    @Override
+    public int archiveInactive(long cutoff) {
+        Map<UUID, List<Punishment>> archivedPunishments = new HashMap<>();
+        long stamp = punishmentsLock.readLock();
+        try {
+            for (Map.Entry<UUID, List<Punishment>> entry : punishments.entrySet()) {
+                for (Punishment punishment : entry.getValue()) {
+                    if (RecordArchive.isArchivable(punishment, cutoff)) {
+                        archivedPunishments.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(punishment);
+                    }
+                }
+            }
+        } finally {
+            punishmentsLock.unlockRead(stamp);
+        }
+
+        Map<UUID, List<Warning>> archivedWarnings = new HashMap<>();
+        stamp = warningsLock.readLock();
+        try {
+            for (Map.Entry<UUID, List<Warning>> entry : warnings.entrySet()) {
+                for (Warning warning : entry.getValue()) {
+                    if (RecordArchive.isArchivable(warning, cutoff)) {
+                        archivedWarnings.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(warning);
+                    }
+                }
+            }
+        } finally {
+            warningsLock.unlockRead(stamp);
+        }
+
+        if (archivedPunishments.isEmpty() && archivedWarnings.isEmpty()) {
+            return 0;
+        }
+
+        Set<UUID> players = new HashSet<>(archivedPunishments.keySet());
+        players.addAll(archivedWarnings.keySet());
+        Map<UUID, PlayerRecords> batch = new HashMap<>(players.size() * 4 / 3 + 1);
+        int count = 0;
+        for (UUID uuid : players) {
+            PlayerRecords records = new PlayerRecords(null, archivedPunishments.getOrDefault(uuid, List.of()), List.of(),
+                    archivedWarnings.getOrDefault(uuid, List.of()));
+            batch.put(uuid, records);
+            count += records.punishments.size() + records.warnings.size();
+        }
+        try {
+            archive.append(batch);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to archive records: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+
+        removeArchivedPunishments(archivedPunishments);
+        removeArchivedWarnings(archivedWarnings);
+        return count;
+    }
+
+    private void removeArchivedPunishments(Map<UUID, List<Punishment>> archived) {
+        if (archived.isEmpty()) {
+            return;
+        }
+        Set<Punishment> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        archived.values().forEach(removed::addAll);
+
+        long stamp = punishmentsLock.writeLock();
+        try {
+            for (UUID target : archived.keySet()) {
+                List<Punishment> current = punishments.get(target);
+                if (current == null) {
+                    continue;
+                }
+                List<Punishment> kept = new ArrayList<>(current);
+                kept.removeIf(removed::contains);
+                if (kept.isEmpty()) {
+                    punishments.remove(target);
+                } else {
+                    punishments.put(target, List.copyOf(kept));
+                }
+            }
+
+            Set<UUID> issuers = new HashSet<>();
+            for (Punishment punishment : removed) {
+                if (punishment.getIssuer() != null) {
+                    issuers.add(punishment.getIssuer());
+                }
+                if (punishment.isActive()) {
+                    unindexActive(punishment);
+                }
+            }
+            for (UUID issuer : issuers) {
+                List<Punishment> issued = punishmentsByIssuer.get(issuer);
+                if (issued != null) {
+                    issued.removeIf(removed::contains);
+                    if (issued.isEmpty()) {
+                        punishmentsByIssuer.remove(issuer);
+                    }
+                }
+            }
+
+            isDirty = true;
+            if (saveMode == SaveMode.WRITE_BEHIND) {
+                // Left to the flusher, which would otherwise write the same file alongside this
+                markDirty(Domain.PUNISHMENTS);
+            } else {
+                stamp = punishmentsLock.tryConvertToReadLock(stamp);
+                rewriteSnapshot(Domain.PUNISHMENTS);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to remove archived punishments: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            punishmentsLock.unlock(stamp);
+        }
+    }
+
+    private void removeArchivedWarnings(Map<UUID, List<Warning>> archived) {
+        if (archived.isEmpty()) {
+            return;
+        }
+        Set<Warning> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        archived.values().forEach(removed::addAll);
+
+        long stamp = warningsLock.writeLock();
+        try {
+            for (UUID target : archived.keySet()) {
+                List<Warning> current = warnings.get(target);
+                if (current == null) {
+                    continue;
+                }
+                List<Warning> kept = new ArrayList<>(current);
+                kept.removeIf(removed::contains);
+                if (kept.isEmpty()) {
+                    warnings.remove(target);
+                } else {
+                    warnings.put(target, List.copyOf(kept));
+                }
+            }
+            for (Warning warning : removed) {
+                warningsById.remove(warning.getId(), warning);
+            }
+
+            isDirty = true;
+            if (saveMode == SaveMode.WRITE_BEHIND) {
+                // Left to the flusher, which would otherwise write the same file alongside this
+                markDirty(Domain.WARNINGS);
+            } else {
+                stamp = warningsLock.tryConvertToReadLock(stamp);
+                rewriteSnapshot(Domain.WARNINGS);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to remove archived warnings: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            warningsLock.unlock(stamp);
+        }
+    }
+
+    /**
+     * Read a player's archived records, treating an unreadable archive as empty.
+     */
+    private PlayerRecords archived(UUID target) {
+        try {
+            return archive.read(target);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to read archived records for " + target + ": " + e.getMessage());
+            return PlayerRecords.EMPTY;
+        }
+    }
+
+    /**
+     * Group every stored record by player. Used to import this store into
+     * {@link ShardedLocalDatabase}; waits for startup loading to finish.
+     *
+     * @return Each player's records, keyed by UUID
+     */
+    Map<UUID, PlayerRecords> exportPlayers() {
+        long[] stamps = writeLockAll();
+        try {
+            Set<UUID> players = new HashSet<>(punishments.keySet());
+            players.addAll(notes.keySet());
+            players.addAll(warnings.keySet());
+            players.addAll(playerIPs.keySet());
+
+            Map<UUID, PlayerRecords> exported = new HashMap<>(players.size() * 4 / 3 + 1);
+            for (UUID uuid : players) {
+                exported.put(uuid, new PlayerRecords(playerIPs.get(uuid),
+                        punishments.getOrDefault(uuid, Collections.emptyList()),
+                        notes.getOrDefault(uuid, Collections.emptyList()),
+                        warnings.getOrDefault(uuid, Collections.emptyList())));
+            }
+            return exported;
+        } finally {
+            unlockAll(stamps);
+        }
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                  IN-MEMORY MUTATIONS                                │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    // Shared by the public mutators and journal replay so both paths
+    // produce exactly the same in-memory state. Callers hold the write lock.
+    // Per-player lists are immutable and replaced on change, so optimistic
+    // readers never see a half-modified list.
+
+    private void applyInsertPunishment(Punishment punishment) {
+        punishments.put(punishment.getTarget(), insertCopy(punishments.get(punishment.getTarget()), punishment));
+        indexIssuer(punishment);
+        indexPunishment(punishment);
+    }
+
+    private boolean applyDeactivatePunishment(UUID target, Punishment.Type type) {
+        List<Punishment> targetPunishments = punishments.get(target);
+        if (targetPunishments == null) {
+            return false;
+        }
+
+        boolean modified = false;
+        for (Punishment punishment : targetPunishments) {
+            if (punishment.getType() == type && punishment.isActive()) {
+                punishment.setActive(false);
+                unindexActive(punishment);
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    /**
+     * Only walks the expired part of the type's expiry index.
+     */
+    private boolean applyDeactivateExpired(Punishment.Type type, long before) {
+        NavigableMap<Long, List<Punishment>> byExpiry = activeByTypeAndExpiry.get(type);
+        if (byExpiry == null) {
+            return false;
+        }
+
+        List<Punishment> expired = new ArrayList<>();
+        byExpiry.subMap(0L, false, before, true).values().forEach(expired::addAll);
+        for (Punishment punishment : expired) {
+            punishment.setActive(false);
+            unindexActive(punishment);
+        }
+        return !expired.isEmpty();
+    }
+
+    private boolean applyDeactivateIPBan(String ipAddress) {
+        List<Punishment> ipPunishments = activePunishmentsByIP.get(ipAddress);
+        if (ipPunishments == null) {
+            return false;
+        }
+
+        boolean modified = false;
+        for (Punishment punishment : new ArrayList<>(ipPunishments)) {
+            if (punishment.getType() == Punishment.Type.IP_BAN && punishment.isActive()) {
+                punishment.setActive(false);
+                unindexActive(punishment);
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    private void applyInsertNote(Note note) {
+        notes.put(note.target(), appendCopy(notes.get(note.target()), note));
+        indexNote(note);
+    }
+
+    private boolean applyRemoveNote(UUID target, int noteId) {
+        Note note = notesById.get(noteId);
+        if (note == null || !note.target().equals(target)) {
+            return false;
+        }
+
+        notesById.remove(noteId);
+        List<Note> targetNotes = notes.get(target);
+        if (targetNotes == null || !targetNotes.contains(note)) {
+            return false;
+        }
+        List<Note> remaining = new ArrayList<>(targetNotes);
+        remaining.remove(note);
+        if (remaining.isEmpty()) {
+            notes.remove(target);
+        } else {
+            notes.put(target, List.copyOf(remaining));
+        }
+        return true;
+    }
+
+    private void applyInsertWarning(Warning warning) {
+        warnings.put(warning.getTarget(), appendCopy(warnings.get(warning.getTarget()), warning));
+        indexWarning(warning);
+        countWarning(warning, 1);
+    }
+
+    private boolean applyRemoveWarning(UUID target, int warningId) {
+        Warning warning = warningsById.get(warningId);
+        if (warning == null || !warning.getTarget().equals(target) || !warning.isActive()) {
+            return false;
+        }
+
+        warning.setActive(false);
+        countWarning(warning, -1);
+        return true;
+    }
+
+    private boolean applyRecordIP(UUID uuid, String ipAddress) {
+        // Update player -> IP mapping
+        String oldIP = playerIPs.put(uuid, ipAddress);
+        if (ipAddress.equals(oldIP)) {
+            return false;
+        }
+
+        // Remove from old IP's player set if IP changed
+        if (oldIP != null) {
+            Set<UUID> oldSet = ipToPlayers.get(oldIP);
+            if (oldSet != null) {
+                oldSet.remove(uuid);
+                if (oldSet.isEmpty()) {
+                    ipToPlayers.remove(oldIP);
+                }
+            }
+        }
+
+        // Add to new IP's player set
+        ipToPlayers.computeIfAbsent(ipAddress, k -> new HashSet<>()).add(uuid);
+        return true;
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                    SECONDARY INDEXES                                │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    /**
+     * Rebuild every secondary index from the primary maps after a load.
+     */
+    private void rebuildIndexes() {
+        punishmentsByIssuer.clear();
+        activePunishmentsByIP.clear();
+        activeByTypeAndExpiry.clear();
+        notesById.clear();
+        warningsById.clear();
+        activeWarningTotals.clear();
+        nextNoteId = 1;
+        nextWarningId = 1;
+
+        for (List<Punishment> targetPunishments : punishments.values()) {
+            for (Punishment punishment : targetPunishments) {
+                if (punishment.getIssuer() != null) {
+                    punishmentsByIssuer.computeIfAbsent(punishment.getIssuer(), k -> new ArrayList<>()).add(punishment);
+                }
+                indexPunishment(punishment);
+            }
+        }
+        // Loaded per target, so put each issuer's punishments back in page order
+        for (List<Punishment> issued : punishmentsByIssuer.values()) {
+            issued.sort(Page.LOCAL_ORDER);
+        }
+        for (List<Note> targetNotes : notes.values()) {
+            for (Note note : targetNotes) {
+                indexNote(note);
+            }
+        }
+        for (List<Warning> targetWarnings : warnings.values()) {
+            for (Warning warning : targetWarnings) {
+                indexWarning(warning);
+                countWarning(warning, 1);
+            }
+        }
+    }
+
+    /**
+     * Add a punishment to its issuer's list, keeping the list in page order.
+     */
+    private void indexIssuer(Punishment punishment) {
+        if (punishment.getIssuer() == null) {
+            return;
+        }
+        List<Punishment> issued = punishmentsByIssuer.computeIfAbsent(punishment.getIssuer(), k -> new ArrayList<>());
+        int at = Collections.binarySearch(issued, punishment, Page.LOCAL_ORDER);
+        issued.add(at < 0 ? -at - 1 : at, punishment);
+    }
+
+    private void indexPunishment(Punishment punishment) {
+        if (punishment.getIpAddress() != null && punishment.isActive()) {
+            activePunishmentsByIP.put(punishment.getIpAddress(), appendCopy(activePunishmentsByIP.get(punishment.getIpAddress()), punishment));
+        }
+        if (punishment.getType() != null && punishment.isActive()) {
+            activeByTypeAndExpiry.computeIfAbsent(punishment.getType(), k -> new TreeMap<>())
+                    .computeIfAbsent(punishment.getExpiresAt(), k -> new ArrayList<>(1))
+                    .add(punishment);
+        }
+    }
+
+    /**
+     * Drop a punishment that is no longer active from the active-only indexes.
+     */
+    private void unindexActive(Punishment punishment) {
+        NavigableMap<Long, List<Punishment>> byExpiry = activeByTypeAndExpiry.get(punishment.getType());
+        if (byExpiry != null) {
+            List<Punishment> expiring = byExpiry.get(punishment.getExpiresAt());
+            if (expiring != null && expiring.remove(punishment) && expiring.isEmpty()) {
+                byExpiry.remove(punishment.getExpiresAt());
+            }
+        }
+
+        if (punishment.getIpAddress() == null) {
+            return;
+        }
+        List<Punishment> ipPunishments = activePunishmentsByIP.get(punishment.getIpAddress());
+        if (ipPunishments != null) {
+            List<Punishment> remaining = new ArrayList<>(ipPunishments);
+            remaining.remove(punishment);
+            if (remaining.isEmpty()) {
+                activePunishmentsByIP.remove(punishment.getIpAddress());
+            } else {
+                activePunishmentsByIP.put(punishment.getIpAddress(), remaining);
+            }
+        }
+    }
+
+    /**
+     * Return an immutable copy of the list with the element appended.
+     * Lists of one or two elements hold them inline, without a backing array.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> appendCopy(List<T> list, T element) {
+        if (list == null || list.isEmpty()) {
+            return List.of(element);
+        }
+        if (list.size() == 1) {
+            return List.of(list.get(0), element);
+        }
+        Object[] elements = list.toArray(new Object[list.size() + 1]);
+        elements[list.size()] = element;
+        return (List<T>) List.of(elements);
+    }
+
+    /**
+     * Return an immutable copy of a punishment list, kept in page order, with
+     * the punishment inserted. New punishments are almost always the newest,
+     * so they are appended without searching.
+     */
+    private static List<Punishment> insertCopy(List<Punishment> list, Punishment punishment) {
+        if (list == null || list.isEmpty() || Page.LOCAL_ORDER.compare(list.get(list.size() - 1), punishment) <= 0) {
+            return appendCopy(list, punishment);
+        }
+        List<Punishment> inserted = new ArrayList<>(list.size() + 1);
+        inserted.addAll(list);
+        int at = Collections.binarySearch(list, punishment, Page.LOCAL_ORDER);
+        inserted.add(at < 0 ? -at - 1 : at, punishment);
+        return List.copyOf(inserted);
+    }
+
+    /**
+     * Replace every loaded list with a compact immutable copy, dropping null
+     * elements and empty lists.
+     */
+    private static <T> void compactLists(Map<UUID, List<T>> loaded) {
+        List<UUID> empty = new ArrayList<>();
+        for (Map.Entry<UUID, List<T>> entry : loaded.entrySet()) {
+            List<T> list = new ArrayList<>(entry.getValue());
+            list.removeIf(Objects::isNull);
+            if (list.isEmpty()) {
+                empty.add(entry.getKey());
+            } else {
+                entry.setValue(List.copyOf(list));
+            }
+        }
+        for (UUID uuid : empty) {
+            loaded.remove(uuid);
+        }
+    }
+
+    private void indexNote(Note note) {
+        if (note.id() > 0) {
+            notesById.put(note.id(), note);
+            nextNoteId = Math.max(nextNoteId, note.id() + 1);
+        }
+    }
+
+    private void indexWarning(Warning warning) {
+        if (warning.getId() > 0) {
+            warningsById.put(warning.getId(), warning);
+            nextWarningId = Math.max(nextWarningId, warning.getId() + 1);
+        }
+    }
+
+    /**
+     * Add an active warning to, or with {@code sign} -1 take it from, its
+     * player's running totals. Inactive warnings are only ever counted out.
+     */
+    private void countWarning(Warning warning, int sign) {
+        if (sign > 0 && !warning.isActive()) {
+            return;
+        }
+        WarningTotals totals = activeWarningTotals.computeIfAbsent(warning.getTarget(), k -> new WarningTotals());
+        totals.count += sign;
+        totals.severity += sign * warning.getSeverity();
+        if (totals.count <= 0) {
+            activeWarningTotals.remove(warning.getTarget());
+        }
+    }
+
+    /**
+     * Give every note stored without an id a fresh one.
+     *
+     * @return true if any note was changed
+     */
+    private boolean assignMissingNoteIds() {
+        boolean changed = false;
+        for (Map.Entry<UUID, List<Note>> entry : notes.entrySet()) {
+            List<Note> targetNotes = new ArrayList<>(entry.getValue());
+            boolean listChanged = false;
+            for (ListIterator<Note> it = targetNotes.listIterator(); it.hasNext(); ) {
+                Note note = it.next();
+                if (note.id() <= 0) {
+                    Note withId = new Note(nextNoteId, note.target(), note.issuer(), note.content(), note.timestamp());
+                    it.set(withId);
+                    indexNote(withId);
+                    listChanged = true;
+                }
+            }
+            if (listChanged) {
+                entry.setValue(List.copyOf(targetNotes));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Give every warning stored without an id a fresh one.
+     *
+     * @return true if any warning was changed
+     */
+    private boolean assignMissingWarningIds() {
+        boolean changed = false;
+        for (Map.Entry<UUID, List<Warning>> entry : warnings.entrySet()) {
+            List<Warning> targetWarnings = new ArrayList<>(entry.getValue());
+            boolean listChanged = false;
+            for (ListIterator<Warning> it = targetWarnings.listIterator(); it.hasNext(); ) {
+                Warning warning = it.next();
+                if (warning.getId() <= 0) {
+                    Warning withId = new Warning(nextWarningId, warning.getTarget(), warning.getIssuer(),
+                            warning.getReason(), warning.getSeverity(), warning.getTimestamp(), warning.isActive());
+                    it.set(withId);
+                    indexWarning(withId);
+                    listChanged = true;
+                }
+            }
+            if (listChanged) {
+                entry.setValue(List.copyOf(targetWarnings));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                   PERSISTENCE METHODS                               │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    /**
+     * Persist a mutation according to the save mode.
+     * In journal mode the entry is appended, and the snapshot is rewritten once
+     * the journal reaches the compaction threshold. If the journal cannot be
+     * written the snapshot is rewritten instead so no change is lost.
+     */
+    private void persist(Domain domain, JournalEntry entry) {
+        switch (saveMode) {
+            case IMMEDIATE -> save(domain);
+            case WRITE_BEHIND -> markDirty(domain);
+            case JOURNAL -> appendToJournal(domain, entry);
+        }
+    }
+
+    private StampedLock lock(Domain domain) {
+        return switch (domain) {
+            case PUNISHMENTS -> punishmentsLock;
+            case NOTES -> notesLock;
+            case WARNINGS -> warningsLock;
+            case PLAYER_IPS -> playerIPsLock;
+        };
+    }
+
+    /**
+     * Take every domain's write lock, always in declaration order.
+     */
+    private long[] writeLockAll() {
+        Domain[] domains = Domain.values();
+        long[] stamps = new long[domains.length];
+        for (Domain domain : domains) {
+            stamps[domain.ordinal()] = lock(domain).writeLock();
+        }
+        return stamps;
+    }
+
+    private void unlockAll(long[] stamps) {
+        for (Domain domain : Domain.values()) {
+            lock(domain).unlock(stamps[domain.ordinal()]);
+        }
+    }
+
+    private File snapshotFile(Domain domain) {
+        return snapshotFormat == SnapshotFormat.BINARY ? binaryFile(domain) : jsonFile(domain);
+    }
+
+    private File jsonFile(Domain domain) {
+        return switch (domain) {
+            case PUNISHMENTS -> punishmentsFile;
+            case NOTES -> notesFile;
+            case WARNINGS -> warningsFile;
+            case PLAYER_IPS -> playerIPsFile;
+        };
+    }
+
+    private File binaryFile(Domain domain) {
+        return switch (domain) {
+            case PUNISHMENTS -> punishmentsBinaryFile;
+            case NOTES -> notesBinaryFile;
+            case WARNINGS -> warningsBinaryFile;
+            case PLAYER_IPS -> playerIPsBinaryFile;
+        };
+    }
+
+    /**
+     * Pick the most recently written snapshot for a domain across both formats,
+     * preferring the configured format on a tie.
+     *
+     * @return The file to load, or null if neither exists
+     */
+    private File newestSnapshot(Domain domain) {
+        File preferred = snapshotFile(domain);
+        File other = snapshotFormat == SnapshotFormat.BINARY ? jsonFile(domain) : binaryFile(domain);
+        if (!other.exists()) {
+            return preferred.exists() ? preferred : null;
+        }
+        if (!preferred.exists() || other.lastModified() > preferred.lastModified()) {
+            return other;
+        }
+        return preferred;
+    }
+
+    private void load(Domain domain, File source) {
+        switch (domain) {
+            case PUNISHMENTS -> loadPunishments(source);
+            case NOTES -> loadNotes(source);
+            case WARNINGS -> loadWarnings(source);
+            case PLAYER_IPS -> loadPlayerIPs(source);
+        }
+    }
+
+    private LocalJournal journal(Domain domain) {
+        return switch (domain) {
+            case PUNISHMENTS -> punishmentsJournal;
+            case NOTES -> notesJournal;
+            case WARNINGS -> warningsJournal;
+            case PLAYER_IPS -> playerIPsJournal;
+        };
+    }
+
+    /**
+     * Rewrite a snapshot outside the normal mutation path and, in journal
+     * mode, restart its journal against the new snapshot.
+     */
+    private void rewriteSnapshot(Domain domain) throws IOException {
+        if (!save(domain)) {
+            return;
+        }
+        loadedSnapshots.put(domain, snapshotFile(domain));
+        if (saveMode == SaveMode.JOURNAL) {
+            journal(domain).reset(sequences.get(domain.ordinal()));
+        }
+    }
+
+    /**
+     * Write a domain's snapshot. Writes of the same domain are serialized, as
+     * they share its temp file and sequence number.
+     */
+    private boolean save(Domain domain) {
+        synchronized (saveLocks[domain.ordinal()]) {
+            return switch (domain) {
+                case PUNISHMENTS -> savePunishments();
+                case NOTES -> saveNotes();
+                case WARNINGS -> saveWarnings();
+                case PLAYER_IPS -> savePlayerIPs();
+            };
+        }
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                      JOURNAL METHODS                                │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    /**
+     * Replay a journal on top of its freshly loaded snapshot, fold the result
+     * back into the snapshot if anything was replayed, and start a new journal.
+     */
+    private void openJournal(Domain domain) throws IOException {
+        LocalJournal journal = journal(domain);
+        File loaded = loadedSnapshots.get(domain);
+        int replayed = journal.replay(sequences.get(domain.ordinal()), this::replay);
+        if (replayed > 0) {
+            plugin.getLogger().info("Replayed " + replayed + " journal entries onto " + loaded.getName());
+            if (!save(domain)) {
+                throw new IOException("Could not compact " + loaded.getName() + " after replay");
+            }
+            loadedSnapshots.put(domain, snapshotFile(domain));
+        }
+        journal.reset(sequences.get(domain.ordinal()));
+    }
+
+    /**
+     * Apply a journaled mutation to the in-memory maps.
+     */
+    private void replay(JournalEntry entry) {
+        switch (entry.op) {
+            case INSERT_PUNISHMENT -> applyInsertPunishment(entry.punishment);
+            case DEACTIVATE_PUNISHMENT -> applyDeactivatePunishment(entry.target, entry.type);
+            case DEACTIVATE_EXPIRED -> applyDeactivateExpired(entry.type, entry.before);
+            case DEACTIVATE_IP_BAN -> applyDeactivateIPBan(entry.ip);
+            case INSERT_NOTE -> applyInsertNote(entry.note);
+            case REMOVE_NOTE -> applyRemoveNote(entry.target, entry.id);
+            case INSERT_WARNING -> applyInsertWarning(entry.warning);
+            case REMOVE_WARNING -> applyRemoveWarning(entry.target, entry.id);
+            case RECORD_IP -> applyRecordIP(entry.target, entry.ip);
+        }
+    }
+
+    /**
+     * Append an entry, compacting once the journal reaches the threshold.
+     */
+    private void appendToJournal(Domain domain, JournalEntry entry) {
+        LocalJournal journal = journal(domain);
+        File snapshot = snapshotFile(domain);
+        try {
+            journal.append(entry);
+            if (journal.size() >= compactThreshold && save(domain)) {
+                journal.reset(sequences.get(domain.ordinal()));
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to append to " + snapshot.getName() + " journal, rewriting snapshot: " + e.getMessage());
+            if (save(domain)) {
+                try {
+                    journal.reset(sequences.get(domain.ordinal()));
+                } catch (IOException resetError) {
+                    plugin.getLogger().severe("Failed to reset journal for " + snapshot.getName() + ": " + resetError.getMessage());
+                }
+            }
+        }
+    }
+
+    private void closeJournals() {
+        for (LocalJournal journal : List.of(punishmentsJournal, notesJournal, warningsJournal, playerIPsJournal)) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to close journal: " + e.getMessage());
+            }
+        }
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                   WRITE-BEHIND METHODS                              │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    /**
+     * Record that a file needs rewriting. A flush is started early once
+     * enough mutations have piled up since the last one.
+     */
+    private void markDirty(Domain domain) {
+        dirtyDomains.add(domain);
+        if (pendingMutations.incrementAndGet() >= flushAfterMutations && flushQueued.compareAndSet(false, true)) {
+            ScheduledExecutorService executor = flusher;
+            if (executor != null && !executor.isShutdown()) {
+                executor.execute(this::flushDirty);
+            } else {
+                flushQueued.set(false);
+            }
+        }
+    }
+
+    private void startFlusher() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "StaffUtilsPlus-LocalFlush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushDirty, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopFlusher() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
 
-                // Rebuild the IP -> players mapping
-                ipToPlayers.clear();
-                for (Map.Entry<UUID, String> entry : playerIPs.entrySet()) {
-                    ipToPlayers.computeIfAbsent(entry.getValue(), k -> new HashSet<>())
-                            .add(entry.getKey());
+    /**
+     * Rewrite every dirty file. Runs on the flusher thread and holds the
+     * domain's read lock while serializing, so readers are never blocked by a flush.
+     */
+    private void flushDirty() {
+        flushQueued.set(false);
+        pendingMutations.set(0);
+        for (Domain domain : Domain.values()) {
+            if (!dirtyDomains.remove(domain)) {
+                continue;
+            }
+            StampedLock lock = lock(domain);
+            long stamp = lock.readLock();
+            try {
+                if (!save(domain)) {
+                    dirtyDomains.add(domain);
                 }
+            } catch (Exception e) {
+                dirtyDomains.add(domain);
+                plugin.getLogger().warning("Failed to flush " + snapshotFile(domain).getName() + ": " + e.getMessage());
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                    DATA LOADING METHODS                             │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    /**
+     * Load punishments from a JSON or binary snapshot file.
+     */
+    private void loadPunishments(File source) {
+        if (!source.exists() || source.length() == 0) {
+            punishments = new UUIDMap<>();
+            return;
+        }
+
+        try {
+            Map<UUID, List<Punishment>> loaded = new UUIDMap<>();
+            if (source.equals(punishmentsFile)) {
+                readJson(source, punishmentListType, loaded);
             } else {
-                playerIPs = new HashMap<>();
-                ipToPlayers = new HashMap<>();
+                BinarySnapshotCodec.readPunishments(source, loaded);
             }
+            compactLists(loaded);
+            // Kept in page order from here on, so history pages can be read without sorting
+            loaded.replaceAll((target, list) -> list.stream().sorted(Page.LOCAL_ORDER).toList());
+            punishments = loaded;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to load punishments from file: " + e.getMessage());
+            e.printStackTrace();
+            punishments = new UUIDMap<>();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to parse punishments file (corrupted?): " + e.getMessage());
+            e.printStackTrace();
+            punishments = new UUIDMap<>();
+        }
+    }
 
-            plugin.getLogger().info("Loaded " + playerIPs.size() + " player IP records");
+    /**
+     * Load notes from a JSON or binary snapshot file.
+     */
+    private void loadNotes(File source) {
+        if (!source.exists() || source.length() == 0) {
+            notes = new UUIDMap<>();
+            return;
+        }
+
+        try {
+            Map<UUID, List<Note>> loaded = new UUIDMap<>();
+            if (source.equals(notesFile)) {
+                readJson(source, noteListType, loaded);
+            } else {
+                BinarySnapshotCodec.readNotes(source, loaded);
+            }
+            compactLists(loaded);
+            notes = loaded;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to load notes from file: " + e.getMessage());
+            e.printStackTrace();
+            notes = new UUIDMap<>();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to parse notes file (corrupted?): " + e.getMessage());
+            e.printStackTrace();
+            notes = new UUIDMap<>();
+        }
+    }
+
+    /**
+     * Load warnings from a JSON or binary snapshot file.
+     */
+    private void loadWarnings(File source) {
+        if (!source.exists() || source.length() == 0) {
+            warnings = new UUIDMap<>();
+            return;
+        }
+
+        try {
+            Map<UUID, List<Warning>> loaded = new UUIDMap<>();
+            if (source.equals(warningsFile)) {
+                readJson(source, warningListType, loaded);
+            } else {
+                BinarySnapshotCodec.readWarnings(source, loaded);
+            }
+            compactLists(loaded);
+            warnings = loaded;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to load warnings from file: " + e.getMessage());
+            e.printStackTrace();
+            warnings = new UUIDMap<>();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to parse warnings file (corrupted?): " + e.getMessage());
+            e.printStackTrace();
+            warnings = new UUIDMap<>();
+        }
+    }
+
+    /**
+     * Load player IPs from a JSON or binary snapshot file.
+     */
+    private void loadPlayerIPs(File source) {
+        if (!source.exists() || source.length() == 0) {
+            playerIPs = new UUIDMap<>();
+            ipToPlayers = new HashMap<>();
+            return;
+        }
+
+        try {
+            Map<UUID, String> loaded = new UUIDMap<>();
+            if (source.equals(playerIPsFile)) {
+                readJson(source, ipType, loaded);
+            } else {
+                BinarySnapshotCodec.readPlayerIPs(source, loaded);
+            }
+            playerIPs = loaded;
+
+            // Rebuild the IP -> players mapping
+            Map<String, Set<UUID>> byIP = new HashMap<>();
+            for (Map.Entry<UUID, String> entry : playerIPs.entrySet()) {
+                byIP.computeIfAbsent(entry.getValue(), k -> new HashSet<>())
+                        .add(entry.getKey());
+            }
+            ipToPlayers = byIP;
         } catch (IOException e) {
             plugin.getLogger().warning("Failed to load player IPs from file: " + e.getMessage());
             e.printStackTrace();
-            playerIPs = new HashMap<>();
+            playerIPs = new UUIDMap<>();
             ipToPlayers = new HashMap<>();
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to parse player IPs file (corrupted?): " + e.getMessage());
             e.printStackTrace();
-            playerIPs = new HashMap<>();
+            playerIPs = new UUIDMap<>();
             ipToPlayers = new HashMap<>();
         }
     }
 
+    /**
+     * Stream a JSON object keyed by UUID straight into the target map, decoding
+     * one value at a time without building a tree of the whole file.
+     */
+    private <V> void readJson(File source, TypeToken<V> valueType, Map<UUID, V> target) throws IOException {
+        TypeAdapter<V> adapter = gson.getAdapter(valueType);
+        try (JsonReader reader = new JsonReader(new BufferedReader(new FileReader(source)))) {
+            if (reader.peek() == JsonToken.NULL) {
+                return;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.startsWith("#")) {
+                    reader.skipValue();
+                    continue;
+                }
+                UUID key = UUID.fromString(name);
+                V value = adapter.read(reader);
+                if (value != null) {
+                    target.put(key, value);
+                }
+            }
+            reader.endObject();
+        }
+    }
+
+    /**
+     * Read the sequence number a snapshot was written with, or 0 if it has none
+     * or cannot be read, in which case any journal against it is discarded.
+     */
+    private long readSequence(Domain domain, File source) {
+        if (!source.exists() || source.length() == 0) {
+            return 0;
+        }
+        try {
+            if (!source.equals(jsonFile(domain))) {
+                return BinarySnapshotCodec.readSequence(source);
+            }
+            try (JsonReader reader = new JsonReader(new BufferedReader(new FileReader(source)))) {
+                if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    return 0;
+                }
+                reader.beginObject();
+                return reader.hasNext() && reader.nextName().equals(SEQUENCE_KEY) ? reader.nextLong() : 0;
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to read the sequence number of " + source.getName() + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
     // ┌─────────────────────────────────────────────────────────────────────┐
     // │                    DATA SAVING METHODS                              │
     // └─────────────────────────────────────────────────────────────────────┘
 
     /**
-     * Save punishments to the JSON file.
+     * Save punishments to the snapshot file.
      */
-    private void savePunishments() {
-        try (FileWriter writer = new FileWriter(punishmentsFile)) {
-            gson.toJson(punishments, writer);
-            writer.flush();
+    private boolean savePunishments() {
+        try {
+            writeSnapshot(Domain.PUNISHMENTS, punishments, punishmentListType, BinarySnapshotCodec::writePunishments);
+            return true;
         } catch (IOException e) {
             plugin.getLogger().severe("Failed to save punishments to file: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
     }
 
     /**
-     * Save notes to the JSON file.
+     * Save notes to the snapshot file.
      */
-    private void saveNotes() {
-        try (FileWriter writer = new FileWriter(notesFile)) {
-            gson.toJson(notes, writer);
-            writer.flush();
+    private boolean saveNotes() {
+        try {
+            writeSnapshot(Domain.NOTES, notes, noteListType, BinarySnapshotCodec::writeNotes);
+            return true;
         } catch (IOException e) {
             plugin.getLogger().severe("Failed to save notes to file: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
     }
 
     /**
-     * Save warnings to the JSON file.
+     * Save warnings to the snapshot file.
      */
-    private void saveWarnings() {
-        try (FileWriter writer = new FileWriter(warningsFile)) {
-            gson.toJson(warnings, writer);
-            writer.flush();
+    private boolean saveWarnings() {
+        try {
+            writeSnapshot(Domain.WARNINGS, warnings, warningListType, BinarySnapshotCodec::writeWarnings);
+            return true;
         } catch (IOException e) {
             plugin.getLogger().severe("Failed to save warnings to file: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
     }
 
     /**
-     * Save player IPs to the JSON file.
+     * Save player IPs to the snapshot file.
      */
-    private void savePlayerIPs() {
-        try (FileWriter writer = new FileWriter(playerIPsFile)) {
-            gson.toJson(playerIPs, writer);
-            writer.flush();
+    private boolean savePlayerIPs() {
+        try {
+            writeSnapshot(Domain.PLAYER_IPS, playerIPs, ipType, BinarySnapshotCodec::writePlayerIPs);
+            return true;
         } catch (IOException e) {
             plugin.getLogger().severe("Failed to save player IPs to file: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
     }
 
+    /**
+     * Write data under the next sequence number to a temporary file, force it
+     * to disk and move it over the target, so a crash mid-write never leaves a
+     * half-written snapshot behind.
+     */
+    private <V> void writeSnapshot(Domain domain, Map<UUID, V> data, TypeToken<V> valueType,
+                                   BinaryEncoder<Map<UUID, V>> binaryEncoder) throws IOException {
+        File file = snapshotFile(domain);
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        long sequence = sequences.incrementAndGet(domain.ordinal());
+        if (snapshotFormat == SnapshotFormat.BINARY) {
+            binaryEncoder.write(temp, data, sequence);
+        } else {
+            TypeAdapter<V> adapter = gson.getAdapter(valueType);
+            try (FileOutputStream stream = new FileOutputStream(temp);
+                 JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(stream))) {
+                writer.beginObject();
+                writer.name(SEQUENCE_KEY).value(sequence);
+                for (Map.Entry<UUID, V> entry : data.entrySet()) {
+                    writer.name(entry.getKey().toString());
+                    adapter.write(writer, entry.getValue());
+                }
+                writer.endObject();
+                writer.flush();
+                stream.getChannel().force(false);
+            }
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes one domain's data in the binary snapshot format.
+     */
+    @FunctionalInterface
+    private interface BinaryEncoder<T> {
+        void write(File file, T data, long sequence) throws IOException;
+    }
+
     /**
      * Save all data (punishments, notes, warnings, player IPs).
      */
     private void saveAll() {
-        savePunishments();
-        saveNotes();
-        saveWarnings();
-        savePlayerIPs();
+        for (Domain domain : Domain.values()) {
+            save(domain);
+        }
+        dirtyDomains.clear();
         isDirty = false;
     }
 }
\ No newline at end of file
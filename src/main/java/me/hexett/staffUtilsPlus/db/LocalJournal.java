@@ -0,0 +1,160 @@
+package me.hexett.staffUtilsPlus.db;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Append-only write-ahead log for one local data file.
+ * Mutations are written as one JSON line each, so the cost of a write does not
+ * depend on how much data is stored. Every snapshot carries a sequence number
+ * that goes up each time it is written, and the first line of the journal
+ * records the sequence of the snapshot it was started against. A journal whose
+ * sequence no longer matches its snapshot has already been folded into it (the
+ * process stopped between writing the snapshot and truncating the journal) and
+ * is discarded instead of replayed. Each entry is forced to disk before
+ * {@link #append} returns, so an acknowledged write survives a power loss.
+ *
+ * @author Hexett
+ */
+final class LocalJournal implements Closeable {
+
+    private static final String HEADER_PREFIX = "#seq ";
+
+    private final File file;
+    private final Gson gson;
+    private final Logger logger;
+
+    private FileOutputStream stream;
+    private Writer writer;
+    private int size;
+
+    /**
+     * Create a journal backed by the given file.
+     *
+     * @param file The journal file
+     * @param gson The Gson instance used to encode entries (should not pretty-print)
+     * @param logger The logger for replay warnings
+     */
+    LocalJournal(File file, Gson gson, Logger logger) {
+        this.file = file;
+        this.gson = gson;
+        this.logger = logger;
+    }
+
+    /**
+     * Replay every entry recorded against the current snapshot.
+     * Replay stops at the first line that cannot be parsed, which is
+     * what a write interrupted by a crash looks like.
+     *
+     * @param sequence The sequence number of the loaded snapshot
+     * @param consumer Receives each entry in the order it was written
+     * @return The number of entries replayed
+     * @throws IOException If the journal cannot be read
+     */
+    int replay(long sequence, Consumer<JournalEntry> consumer) throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return 0;
+        }
+
+        int replayed = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null || !header.equals(HEADER_PREFIX + sequence)) {
+                // Already folded into the snapshot by a clean shutdown or an interrupted compaction
+                return 0;
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JournalEntry entry;
+                try {
+                    entry = gson.fromJson(line, JournalEntry.class);
+                } catch (JsonParseException e) {
+                    logger.warning("Stopped replaying " + file.getName() + " at a torn entry: " + e.getMessage());
+                    break;
+                }
+                if (entry != null && entry.op != null) {
+                    consumer.accept(entry);
+                    replayed++;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Truncate the journal and start a new one against the given snapshot.
+     * Call this after the snapshot has been written and forced to disk.
+     *
+     * @param sequence The sequence number of the snapshot that now contains every journaled change
+     * @throws IOException If the journal cannot be written
+     */
+    void reset(long sequence) throws IOException {
+        closeWriter();
+        stream = new FileOutputStream(file, false);
+        writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        writer.write(HEADER_PREFIX + sequence);
+        writer.write('\n');
+        sync();
+        size = 0;
+    }
+
+    /**
+     * Append a single entry and force it to disk.
+     *
+     * @param entry The entry to append
+     * @throws IOException If the entry cannot be written
+     */
+    void append(JournalEntry entry) throws IOException {
+        if (writer == null) {
+            throw new IOException("Journal " + file.getName() + " is not open");
+        }
+        writer.write(gson.toJson(entry));
+        writer.write('\n');
+        sync();
+        size++;
+    }
+
+    /**
+     * Get the number of entries appended since the last reset.
+     *
+     * @return The journal length in entries
+     */
+    int size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeWriter();
+    }
+
+    private void sync() throws IOException {
+        writer.flush();
+        stream.getChannel().force(false);
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            stream = null;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * One page of a listing ordered newest first, with cursors for the pages on
+ * either side of it.
+ * <p>
+ * Pages are keyset-paginated: a cursor holds the issue time and id of the
+ * record a page stopped at, and the next page starts just past that record in
+ * index order. Fetching a page costs the same however deep into the listing
+ * it is, and records added while staff are paging do not shift later pages.
+ *
+ * @param items The records on this page, newest first
+ * @param newer The cursor for the page of newer records, or null if this is the newest page
+ * @param older The cursor for the page of older records, or null if this is the oldest page
+ * @param <T> The record type
+ * @author Hexett
+ */
+public record Page<T>(List<T> items, Cursor newer, Cursor older) {
+
+    /**
+     * Orders punishments held in memory the way their pages are read: by issue
+     * time, then by {@link #localId}.
+     */
+    static final Comparator<Punishment> LOCAL_ORDER =
+            Comparator.comparingLong(Punishment::getIssuedAt).thenComparingLong(Page::localId);
+
+    /**
+     * A position in a listing, and the direction to read from it.
+     *
+     * @param issuedAt The issue time of the record the cursor is at
+     * @param id The record's id, breaking ties between records issued at the same time
+     * @param towardsNewer Whether the page holds records newer than the cursor, rather than older
+     */
+    public record Cursor(long issuedAt, long id, boolean towardsNewer) {
+
+        /**
+         * Encode the cursor for use as a command argument.
+         *
+         * @return The cursor, e.g. "older:1700000000000:42"
+         */
+        public String encode() {
+            return (towardsNewer ? "newer:" : "older:") + issuedAt + ":" + id;
+        }
+
+        /**
+         * Read a cursor encoded by {@link #encode()}.
+         *
+         * @param encoded The encoded cursor
+         * @return The cursor, or null if the argument is not a cursor
+         */
+        public static Cursor decode(String encoded) {
+            String[] parts = encoded != null ? encoded.split(":") : new String[0];
+            if (parts.length != 3 || !(parts[0].equals("newer") || parts[0].equals("older"))) {
+                return null;
+            }
+            try {
+                return new Cursor(Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[0].equals("newer"));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A record fetched for a page, with the key it is ordered by.
+     */
+    record Keyed<T>(T item, long issuedAt, long id) {}
+
+    /**
+     * Build a page from records fetched in the cursor's direction: newest first
+     * for the first page and older pages, oldest first for newer pages. Fetch
+     * one record more than the limit, so whether there is a page beyond this
+     * one is known without a second query.
+     *
+     * @param fetched Up to {@code limit + 1} records, in the cursor's direction
+     * @param cursor The cursor the records were fetched from, or null for the newest page
+     * @param limit The page size
+     * @return The page
+     */
+    static <T> Page<T> assemble(List<Keyed<T>> fetched, Cursor cursor, int limit) {
+        boolean towardsNewer = cursor != null && cursor.towardsNewer();
+        boolean beyond = fetched.size() > limit;
+        List<Keyed<T>> page = new ArrayList<>(beyond ? fetched.subList(0, limit) : fetched);
+        if (page.isEmpty()) {
+            return new Page<>(Collections.emptyList(), null, null);
+        }
+        if (towardsNewer) {
+            Collections.reverse(page);
+        }
+
+        List<T> items = new ArrayList<>(page.size());
+        for (Keyed<T> keyed : page) {
+            items.add(keyed.item());
+        }
+        Keyed<T> newest = page.get(0);
+        Keyed<T> oldest = page.get(page.size() - 1);
+        // The side the cursor came from always has records
+        boolean hasNewer = towardsNewer ? beyond : cursor != null;
+        boolean hasOlder = towardsNewer || beyond;
+        return new Page<>(items,
+                hasNewer ? new Cursor(newest.issuedAt(), newest.id(), true) : null,
+                hasOlder ? new Cursor(oldest.issuedAt(), oldest.id(), false) : null);
+    }
+
+    /**
+     * The id a punishment held in memory is paged by. Local stores keep no
+     * punishment ids, so ties between punishments issued at the same time are
+     * broken by a hash of the fields that tell them apart (the same fields
+     * {@link RecordArchive#mergePunishments} treats as one record). Unlike a
+     * position in a list, it stays the same when records around it are added
+     * or archived.
+     *
+     * @param punishment The punishment
+     * @return A non-negative id
+     */
+    static long localId(Punishment punishment) {
+        long hash = punishment.getTarget().getMostSignificantBits() * 31 + punishment.getTarget().getLeastSignificantBits();
+        hash = hash * 31 + (punishment.getType() != null ? punishment.getType().ordinal() : -1);
+        hash = hash * 31 + punishment.getExpiresAt();
+        hash = hash * 31 + Objects.hashCode(punishment.getIssuer());
+        hash = hash * 31 + Objects.hashCode(punishment.getReason());
+        // SplitMix64 finalizer, so fields that differ slightly still spread over the whole range
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return (hash ^ (hash >>> 31)) & Long.MAX_VALUE;
+    }
+
+    /**
+     * Page through lists held in memory, each ordered oldest first by issue
+     * time and id. Each list is searched for the cursor and only the page is
+     * read from it, merging the lists as it goes; a record found in more than
+     * one list is listed once.
+     *
+     * @param sources The lists, each ordered by issue time and then id
+     * @param issuedAt Gets a record's issue time
+     * @param id Gets a record's id
+     * @param cursor The cursor to read from, or null for the newest page
+     * @param limit The page size
+     * @return The page
+     */
+    static <T> Page<T> slice(List<? extends List<T>> sources, ToLongFunction<T> issuedAt, ToLongFunction<T> id,
+                             Cursor cursor, int limit) {
+        boolean towardsNewer = cursor != null && cursor.towardsNewer();
+        int[] next = new int[sources.size()];
+        for (int s = 0; s < next.length; s++) {
+            List<T> source = sources.get(s);
+            if (cursor == null) {
+                next[s] = source.size() - 1;
+            } else if (towardsNewer) {
+                next[s] = firstAfter(source, issuedAt, id, cursor.issuedAt(), cursor.id(), true);
+            } else {
+                next[s] = firstAfter(source, issuedAt, id, cursor.issuedAt(), cursor.id(), false) - 1;
+            }
+        }
+
+        List<Keyed<T>> fetched = new ArrayList<>(Math.min(limit + 1, 16));
+        Keyed<T> last = null;
+        while (fetched.size() <= limit) {
+            // The source whose next record comes first in the cursor's direction
+            int best = -1;
+            Keyed<T> bestKeyed = null;
+            for (int s = 0; s < next.length; s++) {
+                List<T> source = sources.get(s);
+                if (next[s] < 0 || next[s] >= source.size()) {
+                    continue;
+                }
+                T item = source.get(next[s]);
+                Keyed<T> keyed = new Keyed<>(item, issuedAt.applyAsLong(item), id.applyAsLong(item));
+                if (bestKeyed == null || (towardsNewer ? compare(keyed, bestKeyed) < 0 : compare(keyed, bestKeyed) > 0)) {
+                    best = s;
+                    bestKeyed = keyed;
+                }
+            }
+            if (bestKeyed == null) {
+                break;
+            }
+            next[best] += towardsNewer ? 1 : -1;
+            if (last == null || compare(bestKeyed, last) != 0) {
+                fetched.add(bestKeyed);
+                last = bestKeyed;
+            }
+        }
+        return assemble(fetched, cursor, limit);
+    }
+
+    private static int compare(Keyed<?> a, Keyed<?> b) {
+        int byTime = Long.compare(a.issuedAt(), b.issuedAt());
+        return byTime != 0 ? byTime : Long.compare(a.id(), b.id());
+    }
+
+    /**
+     * Find the first position whose record comes after the key, or is at the
+     * key unless {@code strictly} is set.
+     */
+    private static <T> int firstAfter(List<T> ordered, ToLongFunction<T> issuedAt, ToLongFunction<T> id,
+                                      long time, long key, boolean strictly) {
+        int low = 0;
+        int high = ordered.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            T record = ordered.get(mid);
+            long midTime = issuedAt.applyAsLong(record);
+            int order = midTime != time ? Long.compare(midTime, time) : Long.compare(id.applyAsLong(record), key);
+            if (order < 0 || (order == 0 && strictly)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
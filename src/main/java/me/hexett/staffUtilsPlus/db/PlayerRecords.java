@@ -0,0 +1,298 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.notes.Note;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.warnings.Warning;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Everything stored about one player: last IP, punishments, notes and warnings.
+ * Instances are never modified; the {@code with*} methods return copies, and
+ * deactivating a punishment or warning replaces it with an inactive copy, so
+ * a record handed out by the cache can be read without locking and stays as
+ * it was if writing its replacement fails.
+ * Encoded as one self-contained blob in a {@link ShardSegment}.
+ *
+ * @author Hexett
+ */
+final class PlayerRecords {
+
+    static final PlayerRecords EMPTY = new PlayerRecords(null, List.of(), List.of(), List.of());
+
+    private static final byte ENCODING_VERSION = 1;
+    private static final int FLAG_HAS_ISSUER = 1;
+    private static final int FLAG_ACTIVE = 1 << 1;
+    private static final Punishment.Type[] TYPES = Punishment.Type.values();
+
+    final String ip;
+    final List<Punishment> punishments;
+    final List<Note> notes;
+    final List<Warning> warnings;
+
+    PlayerRecords(String ip, List<Punishment> punishments, List<Note> notes, List<Warning> warnings) {
+        this.ip = ip;
+        this.punishments = Collections.unmodifiableList(punishments);
+        this.notes = Collections.unmodifiableList(notes);
+        this.warnings = Collections.unmodifiableList(warnings);
+    }
+
+    boolean isEmpty() {
+        return ip == null && punishments.isEmpty() && notes.isEmpty() && warnings.isEmpty();
+    }
+
+    PlayerRecords withIP(String ipAddress) {
+        return new PlayerRecords(ipAddress, punishments, notes, warnings);
+    }
+
+    PlayerRecords withPunishment(Punishment punishment) {
+        return new PlayerRecords(ip, append(punishments, punishment), notes, warnings);
+    }
+
+    PlayerRecords withNote(Note note) {
+        return new PlayerRecords(ip, punishments, append(notes, note), warnings);
+    }
+
+    PlayerRecords withoutNote(int noteId) {
+        List<Note> remaining = new ArrayList<>(notes.size());
+        for (Note note : notes) {
+            if (note.id() != noteId) {
+                remaining.add(note);
+            }
+        }
+        return new PlayerRecords(ip, punishments, remaining, warnings);
+    }
+
+    PlayerRecords withWarning(Warning warning) {
+        return new PlayerRecords(ip, punishments, notes, append(warnings, warning));
+    }
+
+    /**
+     * A copy in which the active punishments matching the filter are replaced
+     * by inactive copies of themselves.
+     *
+     * @return The copy, or this instance if no active punishment matched
+     */
+    PlayerRecords withDeactivated(Predicate<Punishment> filter) {
+        List<Punishment> updated = null;
+        for (int i = 0; i < punishments.size(); i++) {
+            Punishment p = punishments.get(i);
+            if (p.isActive() && filter.test(p)) {
+                if (updated == null) {
+                    updated = new ArrayList<>(punishments);
+                }
+                Punishment inactive = new Punishment(p.getTarget(), p.getType(), p.getReason(), p.getIssuedAt(),
+                        p.getExpiresAt(), p.getIssuer(), p.getIpAddress());
+                inactive.setActive(false);
+                updated.set(i, inactive);
+            }
+        }
+        return updated != null ? new PlayerRecords(ip, updated, notes, warnings) : this;
+    }
+
+    /**
+     * A copy in which the warning is replaced by an inactive copy of itself.
+     *
+     * @return The copy, or this instance if the warning is missing or already inactive
+     */
+    PlayerRecords withWarningDeactivated(int warningId) {
+        for (int i = 0; i < warnings.size(); i++) {
+            Warning warning = warnings.get(i);
+            if (warning.getId() == warningId && warning.isActive()) {
+                List<Warning> updated = new ArrayList<>(warnings);
+                updated.set(i, new Warning(warning.getId(), warning.getTarget(), warning.getIssuer(), warning.getReason(),
+                        warning.getSeverity(), warning.getTimestamp(), false));
+                return new PlayerRecords(ip, punishments, notes, updated);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * The punishments and warnings that {@link RecordArchive} would archive at the cutoff.
+     */
+    PlayerRecords archivable(long cutoff) {
+        List<Punishment> archivedPunishments = new ArrayList<>();
+        for (Punishment p : punishments) {
+            if (RecordArchive.isArchivable(p, cutoff)) {
+                archivedPunishments.add(p);
+            }
+        }
+        List<Warning> archivedWarnings = new ArrayList<>();
+        for (Warning warning : warnings) {
+            if (RecordArchive.isArchivable(warning, cutoff)) {
+                archivedWarnings.add(warning);
+            }
+        }
+        return new PlayerRecords(null, archivedPunishments, List.of(), archivedWarnings);
+    }
+
+    /**
+     * A copy without the punishments and warnings returned by {@link #archivable}.
+     */
+    PlayerRecords withoutArchivable(long cutoff) {
+        List<Punishment> keptPunishments = new ArrayList<>(punishments);
+        keptPunishments.removeIf(p -> RecordArchive.isArchivable(p, cutoff));
+        List<Warning> keptWarnings = new ArrayList<>(warnings);
+        keptWarnings.removeIf(warning -> RecordArchive.isArchivable(warning, cutoff));
+        return new PlayerRecords(ip, keptPunishments, notes, keptWarnings);
+    }
+
+    private static <T> List<T> append(List<T> list, T element) {
+        List<T> copy = new ArrayList<>(list.size() + 1);
+        copy.addAll(list);
+        copy.add(element);
+        return copy;
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                          ENCODING                                   │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    /**
+     * Encode this record. The player's UUID is not included; it is stored
+     * next to the blob and passed back to {@link #decode}.
+     */
+    byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(ENCODING_VERSION);
+        writeString(out, ip);
+
+        out.writeInt(punishments.size());
+        for (Punishment p : punishments) {
+            out.writeByte(p.getType().ordinal());
+            writeString(out, p.getReason());
+            out.writeLong(p.getIssuedAt());
+            out.writeLong(p.getExpiresAt());
+            out.writeByte((p.getIssuer() != null ? FLAG_HAS_ISSUER : 0) | (p.isActive() ? FLAG_ACTIVE : 0));
+            writeUUID(out, p.getIssuer());
+            writeString(out, p.getIpAddress());
+        }
+
+        out.writeInt(notes.size());
+        for (Note note : notes) {
+            out.writeInt(note.id());
+            out.writeByte(note.issuer() != null ? FLAG_HAS_ISSUER : 0);
+            writeUUID(out, note.issuer());
+            writeString(out, note.content());
+            out.writeLong(note.timestamp());
+        }
+
+        out.writeInt(warnings.size());
+        for (Warning warning : warnings) {
+            out.writeInt(warning.getId());
+            out.writeByte((warning.getIssuer() != null ? FLAG_HAS_ISSUER : 0) | (warning.isActive() ? FLAG_ACTIVE : 0));
+            writeUUID(out, warning.getIssuer());
+            writeString(out, warning.getReason());
+            out.writeInt(warning.getSeverity());
+            out.writeLong(warning.getTimestamp());
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a record written by {@link #encode}.
+     *
+     * @param owner The player the record belongs to
+     * @param in The encoded blob
+     * @return The decoded record
+     * @throws IOException If the blob is truncated or malformed
+     */
+    static PlayerRecords decode(UUID owner, ByteBuffer in) throws IOException {
+        try {
+            byte version = in.get();
+            if (version > ENCODING_VERSION) {
+                throw new IOException("Record for " + owner + " was written by a newer version (encoding " + version + ")");
+            }
+            String ip = readString(in);
+
+            int punishmentCount = in.getInt();
+            List<Punishment> punishments = new ArrayList<>(punishmentCount);
+            for (int i = 0; i < punishmentCount; i++) {
+                int ordinal = in.get();
+                if (ordinal < 0 || ordinal >= TYPES.length) {
+                    throw new IOException("Unknown punishment type " + ordinal + " for " + owner);
+                }
+                String reason = readString(in);
+                long issuedAt = in.getLong();
+                long expiresAt = in.getLong();
+                int flags = in.get();
+                UUID issuer = (flags & FLAG_HAS_ISSUER) != 0 ? readUUID(in) : null;
+                String punishmentIP = readString(in);
+                Punishment punishment = new Punishment(owner, TYPES[ordinal], reason, issuedAt, expiresAt, issuer, punishmentIP);
+                punishment.setActive((flags & FLAG_ACTIVE) != 0);
+                punishments.add(punishment);
+            }
+
+            int noteCount = in.getInt();
+            List<Note> notes = new ArrayList<>(noteCount);
+            for (int i = 0; i < noteCount; i++) {
+                int id = in.getInt();
+                int flags = in.get();
+                UUID issuer = (flags & FLAG_HAS_ISSUER) != 0 ? readUUID(in) : null;
+                String content = readString(in);
+                notes.add(new Note(id, owner, issuer, content, in.getLong()));
+            }
+
+            int warningCount = in.getInt();
+            List<Warning> warnings = new ArrayList<>(warningCount);
+            for (int i = 0; i < warningCount; i++) {
+                int id = in.getInt();
+                int flags = in.get();
+                UUID issuer = (flags & FLAG_HAS_ISSUER) != 0 ? readUUID(in) : null;
+                String reason = readString(in);
+                int severity = in.getInt();
+                long timestamp = in.getLong();
+                warnings.add(new Warning(id, owner, issuer, reason, severity, timestamp, (flags & FLAG_ACTIVE) != 0));
+            }
+            return new PlayerRecords(ip, punishments, notes, warnings);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Record for " + owner + " is corrupt", e);
+        }
+    }
+
+    private static void writeUUID(DataOutputStream out, UUID uuid) throws IOException {
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUUID(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,27 @@
+package me.hexett.staffUtilsPlus.db;
+
+/**
+ * How many punishments a player has had, and how many of them still apply.
+ * Counted by the database, so a history shown a page at a time can still give
+ * its totals without reading every page.
+ *
+ * @param active The punishments still active
+ * @param total Every punishment, including archived ones
+ * @author Hexett
+ */
+public record PunishmentCounts(long active, long total) {
+
+    /**
+     * Counts for a player with no punishments.
+     */
+    public static final PunishmentCounts NONE = new PunishmentCounts(0, 0);
+
+    /**
+     * Get the number of punishments that no longer apply.
+     *
+     * @return The inactive punishments
+     */
+    public long inactive() {
+        return total - active;
+    }
+}
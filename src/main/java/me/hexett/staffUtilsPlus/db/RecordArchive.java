@@ -0,0 +1,295 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.warnings.Warning;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Append-only cold storage for punishments and warnings that no longer apply.
+ * <p>
+ * Archived records are appended as {@code [int length][long msb][long lsb][payload]}
+ * blobs, the payload being a {@link PlayerRecords} holding only that player's
+ * archived punishments and warnings. Files are never rewritten; a new one is
+ * started once the current one passes {@link #SEGMENT_BYTES}. Nothing is read
+ * until the archive is first used, at which point the blob headers are scanned
+ * into a small per-player index.
+ *
+ * @author Hexett
+ */
+final class RecordArchive implements Closeable {
+
+    private static final int BLOB_HEADER_BYTES = Integer.BYTES + 2 * Long.BYTES;
+    private static final long SEGMENT_BYTES = 64L << 20;
+
+    private record Blob(int segment, long offset, int length) {
+    }
+
+    private final File directory;
+    private final Logger logger;
+    private final List<FileChannel> channels = new ArrayList<>();
+    private final Map<UUID, List<Blob>> index = new HashMap<>();
+    private boolean opened;
+
+    RecordArchive(File directory, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                       ARCHIVE RULES                                 │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    /**
+     * Check whether a punishment stopped applying before the cutoff. Kicks
+     * never apply after they are issued; other punishments qualify once they
+     * are inactive or expired and were issued (and would have expired) before
+     * the cutoff.
+     *
+     * @param punishment The punishment
+     * @param cutoff Records that stopped applying before this timestamp qualify
+     * @return true if the punishment should be archived
+     */
+    static boolean isArchivable(Punishment punishment, long cutoff) {
+        if (punishment.getType() == Punishment.Type.KICK) {
+            return punishment.getIssuedAt() < cutoff;
+        }
+        if (punishment.isActive() && punishment.getExpiresAt() <= 0) {
+            return false;
+        }
+        return punishment.getIssuedAt() < cutoff && punishment.getExpiresAt() < cutoff;
+    }
+
+    /**
+     * Check whether a warning was removed and issued before the cutoff.
+     *
+     * @param warning The warning
+     * @param cutoff Warnings issued before this timestamp qualify
+     * @return true if the warning should be archived
+     */
+    static boolean isArchivable(Warning warning, long cutoff) {
+        return !warning.isActive() && warning.getTimestamp() < cutoff;
+    }
+
+    /**
+     * Combine live and archived punishments, oldest first. A record present in
+     * both (archived, but the live removal was interrupted) is listed once.
+     */
+    static List<Punishment> mergePunishments(List<Punishment> live, List<Punishment> archived) {
+        Set<List<Object>> seen = new HashSet<>();
+        List<Punishment> merged = new ArrayList<>(live.size() + archived.size());
+        for (List<Punishment> source : List.of(archived, live)) {
+            for (Punishment p : source) {
+                if (seen.add(key(p))) {
+                    merged.add(p);
+                }
+            }
+        }
+        merged.sort(Comparator.comparingLong(Punishment::getIssuedAt));
+        return merged;
+    }
+
+    /**
+     * Count live and archived punishments the way {@link #mergePunishments}
+     * lists them, without building the merged list.
+     */
+    static PunishmentCounts countPunishments(List<Punishment> live, List<Punishment> archived) {
+        Set<List<Object>> liveKeys = new HashSet<>();
+        long active = 0;
+        for (Punishment p : live) {
+            if (liveKeys.add(key(p)) && p.isActive()) {
+                active++;
+            }
+        }
+        long total = liveKeys.size();
+        Set<List<Object>> archivedKeys = new HashSet<>();
+        for (Punishment p : archived) {
+            if (!liveKeys.contains(key(p)) && archivedKeys.add(key(p))) {
+                total++;
+                if (p.isActive()) {
+                    active++;
+                }
+            }
+        }
+        return new PunishmentCounts(active, total);
+    }
+
+    /**
+     * The fields that tell a player's punishments apart.
+     */
+    private static List<Object> key(Punishment p) {
+        return Arrays.asList(p.getType(), p.getIssuedAt(), p.getExpiresAt(), p.getIssuer(), p.getReason());
+    }
+
+    /**
+     * Combine live and archived warnings, oldest first, listing each id once.
+     */
+    static List<Warning> mergeWarnings(List<Warning> live, List<Warning> archived) {
+        Set<Integer> seen = new HashSet<>();
+        List<Warning> merged = new ArrayList<>(live.size() + archived.size());
+        for (List<Warning> source : List.of(archived, live)) {
+            for (Warning warning : source) {
+                if (warning.getId() <= 0 || seen.add(warning.getId())) {
+                    merged.add(warning);
+                }
+            }
+        }
+        merged.sort(Comparator.comparingLong(Warning::getTimestamp));
+        return merged;
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                       READING AND WRITING                           │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    /**
+     * Append archived records and force them to disk. Only the punishments and
+     * warnings of each record are stored.
+     *
+     * @param records The records to archive, by player
+     * @throws IOException If the records cannot be written
+     */
+    synchronized void append(Map<UUID, PlayerRecords> records) throws IOException {
+        open();
+        FileChannel channel = channels.get(channels.size() - 1);
+        if (channel.size() >= SEGMENT_BYTES) {
+            channel = openSegment(channels.size());
+        }
+        int segment = channels.size() - 1;
+
+        for (Map.Entry<UUID, PlayerRecords> entry : records.entrySet()) {
+            PlayerRecords archived = new PlayerRecords(null, entry.getValue().punishments, List.of(), entry.getValue().warnings);
+            if (archived.isEmpty()) {
+                continue;
+            }
+            byte[] payload = archived.encode();
+            UUID uuid = entry.getKey();
+            ByteBuffer blob = ByteBuffer.allocate(BLOB_HEADER_BYTES + payload.length);
+            blob.putInt(payload.length);
+            blob.putLong(uuid.getMostSignificantBits());
+            blob.putLong(uuid.getLeastSignificantBits());
+            blob.put(payload);
+            blob.flip();
+            long position = channel.size();
+            while (blob.hasRemaining()) {
+                channel.write(blob, position + blob.position());
+            }
+            index.computeIfAbsent(uuid, k -> new ArrayList<>(1)).add(new Blob(segment, position + BLOB_HEADER_BYTES, payload.length));
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Read every archived punishment and warning of a player.
+     *
+     * @param uuid The player
+     * @return The archived records, or {@link PlayerRecords#EMPTY} if there are none
+     * @throws IOException If the archive cannot be read
+     */
+    synchronized PlayerRecords read(UUID uuid) throws IOException {
+        open();
+        List<Blob> blobs = index.get(uuid);
+        if (blobs == null) {
+            return PlayerRecords.EMPTY;
+        }
+
+        List<Punishment> punishments = new ArrayList<>();
+        List<Warning> warnings = new ArrayList<>();
+        for (Blob blob : blobs) {
+            ByteBuffer payload = ByteBuffer.allocate(blob.length());
+            readFully(channels.get(blob.segment()), payload, blob.offset());
+            payload.flip();
+            PlayerRecords records = PlayerRecords.decode(uuid, payload);
+            punishments.addAll(records.punishments);
+            warnings.addAll(records.warnings);
+        }
+        return new PlayerRecords(null, punishments, List.of(), warnings);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+        channels.clear();
+        index.clear();
+        opened = false;
+    }
+
+    /**
+     * Open every segment and index its blobs. A torn blob at the end of a
+     * segment (an interrupted append) is cut off.
+     */
+    private void open() throws IOException {
+        if (opened) {
+            return;
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory.getPath());
+        }
+
+        int segment = 0;
+        while (segmentFile(segment).exists()) {
+            FileChannel channel = openSegment(segment);
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(BLOB_HEADER_BYTES);
+            while (position + BLOB_HEADER_BYTES <= size) {
+                header.clear();
+                readFully(channel, header, position);
+                header.flip();
+                int length = header.getInt();
+                UUID uuid = new UUID(header.getLong(), header.getLong());
+                long payload = position + BLOB_HEADER_BYTES;
+                if (length <= 0 || payload + length > size) {
+                    break;
+                }
+                index.computeIfAbsent(uuid, k -> new ArrayList<>(1)).add(new Blob(segment, payload, length));
+                position = payload + length;
+            }
+            if (position < size) {
+                logger.warning("Truncating " + segmentFile(segment).getName() + " at a torn record (" + (size - position) + " bytes)");
+                channel.truncate(position);
+            }
+            segment++;
+        }
+        if (channels.isEmpty()) {
+            openSegment(0);
+        }
+        opened = true;
+    }
+
+    private FileChannel openSegment(int segment) throws IOException {
+        FileChannel channel = FileChannel.open(segmentFile(segment).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channels.add(channel);
+        return channel;
+    }
+
+    private File segmentFile(int segment) {
+        return new File(directory, String.format("%04d.seg", segment));
+    }
+
+    private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Archive segment ended unexpectedly");
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package me.hexett.staffUtilsPlus.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.bukkit.plugin.Plugin;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the connection pool each read runs on: a read replica when one is
+ * close enough behind the primary, the primary otherwise.
+ * <p>
+ * Replica lag is measured with a heartbeat row: every check writes the time
+ * to {@code replication_heartbeat} on the primary and reads it back from each
+ * replica. A replica holding a heartbeat written at time T has every change
+ * committed before T, so it is at most now - T behind. Each server writes and
+ * reads its own row, keyed by an id picked at startup, so servers sharing the
+ * database never measure against each other's heartbeats or clocks; rows left
+ * by servers that stopped are removed on the first check. Replicas more than the
+ * allowed lag behind, or that cannot be reached, are skipped until a later
+ * check finds them caught up; between checks a replica may fall up to one
+ * check interval further behind.
+ * <p>
+ * Reads about a player or address written to recently go to the primary, so
+ * staff always see the punishment they just issued; reads not tied to one
+ * player or address go to the primary after any recent write.
+ *
+ * @author Hexett
+ */
+final class ReplicaRouter {
+
+    private static final String READ_HEARTBEAT = "SELECT written_at FROM replication_heartbeat WHERE id = ?";
+    private static final String WRITE_HEARTBEAT = "INSERT INTO replication_heartbeat (id, written_at) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE written_at = VALUES(written_at)";
+    private static final String DELETE_STALE_HEARTBEATS = "DELETE FROM replication_heartbeat WHERE id <> ? AND written_at < ?";
+    private static final long STALE_HEARTBEAT_MILLIS = 24 * 60 * 60 * 1000L;
+
+    /**
+     * A replica's pool and its last measured lag.
+     */
+    static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile long lagMillis = -1;
+        private volatile boolean usable;
+
+        Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final Plugin plugin;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final long readYourWritesMillis;
+    private final Map<Object, Long> recentWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final int heartbeatId = ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE);
+    private volatile long lastWrite;
+    private boolean staleHeartbeatsRemoved;
+
+    /**
+     * @param plugin The plugin, for logging
+     * @param replicas The replica pools
+     * @param maxLagMillis How far behind the primary a replica may be and still serve reads
+     * @param checkIntervalMillis How often {@link #check} runs
+     */
+    ReplicaRouter(Plugin plugin, List<Replica> replicas, long maxLagMillis, long checkIntervalMillis) {
+        this.plugin = plugin;
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLagMillis;
+        // The longest a usable replica can be missing a write
+        this.readYourWritesMillis = maxLagMillis + checkIntervalMillis;
+    }
+
+    /**
+     * Record a write, so reads about the same keys go to the primary until
+     * every usable replica has it.
+     *
+     * @param keys The players (UUID) and addresses (see {@link #ipKey}) the write is about; nulls are ignored
+     */
+    void wrote(Object... keys) {
+        long now = System.currentTimeMillis();
+        lastWrite = now;
+        for (Object key : keys) {
+            if (key != null) {
+                recentWrites.put(key, now + readYourWritesMillis);
+            }
+        }
+    }
+
+    /**
+     * Pick the pool to read from.
+     *
+     * @param key The player or address the read is about, or null if it is not about one
+     * @return A replica's pool, or null to read from the primary
+     */
+    HikariDataSource route(Object key) {
+        long now = System.currentTimeMillis();
+        if (key == null) {
+            if (now - lastWrite < readYourWritesMillis) {
+                return null;
+            }
+        } else {
+            Long until = recentWrites.get(key);
+            if (until != null && until > now) {
+                return null;
+            }
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.usable) {
+                return replica.dataSource;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stop reading from a replica that failed a query until it passes a check again.
+     */
+    void failed(HikariDataSource dataSource, SQLException e) {
+        for (Replica replica : replicas) {
+            if (replica.dataSource == dataSource && replica.usable) {
+                replica.usable = false;
+                replica.lagMillis = -1;
+                plugin.getLogger().warning("Read replica " + replica.name + " failed a query, reading from the primary: "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write a heartbeat to the primary and measure how far behind each replica is.
+     * Runs on the heartbeat thread.
+     *
+     * @param primary The primary's pool
+     */
+    void check(HikariDataSource primary) {
+        long now = System.currentTimeMillis();
+        recentWrites.values().removeIf(until -> until <= now);
+
+        try (Connection connection = primary.getConnection();
+             PreparedStatement ps = connection.prepareStatement(WRITE_HEARTBEAT)) {
+            ps.setInt(1, heartbeatId);
+            ps.setLong(2, now);
+            ps.executeUpdate();
+            if (!staleHeartbeatsRemoved) {
+                try (PreparedStatement delete = connection.prepareStatement(DELETE_STALE_HEARTBEATS)) {
+                    delete.setInt(1, heartbeatId);
+                    delete.setLong(2, now - STALE_HEARTBEAT_MILLIS);
+                    delete.executeUpdate();
+                }
+                staleHeartbeatsRemoved = true;
+            }
+        } catch (SQLException e) {
+            // The connection heartbeat reports the primary being down
+            return;
+        }
+
+        for (Replica replica : replicas) {
+            long lag;
+            try (Connection connection = replica.dataSource.getConnection();
+                 PreparedStatement ps = connection.prepareStatement(READ_HEARTBEAT)) {
+                ps.setInt(1, heartbeatId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    lag = rs.next() ? System.currentTimeMillis() - rs.getLong(1) : -1;
+                }
+            } catch (SQLException e) {
+                lag = -1;
+            }
+            if (lag < -1) {
+                // Written and read by this server's clock, so it was set back; measure again next check
+                plugin.getLogger().warning("Read replica " + replica.name + " holds a heartbeat from the future ("
+                        + -lag + "ms), the system clock was set back");
+                lag = -1;
+            }
+            update(replica, lag);
+        }
+    }
+
+    private void update(Replica replica, long lag) {
+        boolean usable = lag >= 0 && lag <= maxLagMillis;
+        replica.lagMillis = lag;
+        if (usable != replica.usable) {
+            replica.usable = usable;
+            if (usable) {
+                plugin.getLogger().info("Read replica " + replica.name + " is caught up (" + lag + "ms behind), reading from it");
+            } else {
+                plugin.getLogger().warning("Read replica " + replica.name + " is "
+                        + (lag < 0 ? "unreachable" : lag + "ms behind") + ", reading from the primary");
+            }
+        }
+    }
+
+    /**
+     * Describe each replica for the status command.
+     *
+     * @return One entry per replica, e.g. "db2:3306 (in use, 40ms behind)"
+     */
+    List<String> status() {
+        List<String> status = new ArrayList<>();
+        for (Replica replica : replicas) {
+            String lag = replica.lagMillis < 0 ? "unreachable" : replica.lagMillis + "ms behind";
+            status.add(replica.name + " (" + (replica.usable ? "in use" : "skipped") + ", " + lag + ")");
+        }
+        return status;
+    }
+
+    void close() {
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    /**
+     * Get the key reads and writes about an IP address are tracked under.
+     */
+    static Object ipKey(byte[] address) {
+        return address == null ? null : ByteBuffer.wrap(address);
+    }
+}
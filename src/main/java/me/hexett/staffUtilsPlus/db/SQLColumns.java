@@ -0,0 +1,114 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Conversions between model values and the compact SQL column formats.
+ * <p>
+ * UUIDs are stored as 16 big-endian bytes, {@link Punishment.Type} as its
+ * ordinal (new types must only ever be appended to the enum) and IP addresses
+ * as their 4 or 16 address bytes.
+ *
+ * @author Hexett
+ */
+final class SQLColumns {
+
+    private static final Punishment.Type[] TYPES = Punishment.Type.values();
+
+    private SQLColumns() {
+    }
+
+    static byte[] uuid(UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    static UUID uuid(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("UUID column has " + bytes.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    static int type(Punishment.Type type) {
+        return type.ordinal();
+    }
+
+    static Punishment.Type type(int code) {
+        if (code < 0 || code >= TYPES.length) {
+            throw new IllegalArgumentException("Unknown punishment type " + code);
+        }
+        return TYPES[code];
+    }
+
+    /**
+     * Parse a textual IPv4 or IPv6 address. Never does a DNS lookup.
+     *
+     * @param address The address, as given by {@code InetAddress.getHostAddress()}
+     * @return The address bytes, or null if the text is not an IP address
+     */
+    static byte[] ip(String address) {
+        if (address == null || address.isEmpty()) {
+            return null;
+        }
+        if (address.indexOf(':') >= 0) {
+            // A colon can only be an IPv6 literal, so getByName() will not resolve it
+            int scope = address.indexOf('%');
+            try {
+                return InetAddress.getByName(scope >= 0 ? address.substring(0, scope) : address).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+        return ipv4(address);
+    }
+
+    static String ip(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return InetAddress.getByAddress(bytes).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("IP column has " + bytes.length + " bytes");
+        }
+    }
+
+    private static byte[] ipv4(String address) {
+        byte[] bytes = new byte[4];
+        int part = 0;
+        int value = -1;
+        for (int i = 0; i <= address.length(); i++) {
+            char c = i < address.length() ? address.charAt(i) : '.';
+            if (c == '.') {
+                if (value < 0 || part == 4) {
+                    return null;
+                }
+                bytes[part++] = (byte) value;
+                value = -1;
+            } else if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        }
+        return part == 4 ? bytes : null;
+    }
+}
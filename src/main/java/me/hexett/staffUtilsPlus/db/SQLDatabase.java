@@ -1,26 +1,100 @@
 package me.hexett.staffUtilsPlus.db;
 
+import com.google.gson.Gson;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import me.hexett.staffUtilsPlus.service.punishments.Punishment;
 import me.hexett.staffUtilsPlus.service.notes.Note;
 import me.hexett.staffUtilsPlus.service.warnings.Warning;
+import org.bukkit.ChatColor;
+import org.bukkit.Server;
 import org.bukkit.plugin.Plugin;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
 /**
  * SQL database implementation for punishments.
- * Supports both MySQL and SQLite databases.
+ * Supports MySQL, SQLite and embedded H2 databases. H2 runs in MySQL mode and
+ * shares the MySQL statements; unlike SQLite it locks rows rather than the
+ * whole file, so writes run in parallel like they do on MySQL.
+ * Every query borrows a connection from a HikariCP pool for its duration and
+ * runs on a worker thread; there is one worker per pooled connection, so
+ * lookups from logins, chat and commands run side by side instead of queueing
+ * behind a single shared connection. With {@code virtual-threads} enabled each
+ * query runs on its own virtual thread instead, and a semaphore sized to the
+ * pool keeps the same cap on how many run at once.
+ * Each pooled connection keeps its prepared statements open (see
+ * {@link StatementCache}), and MySQL prepares them on the server, so the hot
+ * queries are parsed and planned once per connection rather than per call.
+ * The {@link AsyncDatabase} methods return as soon as the query is queued; the
+ * blocking {@link Database} methods wait on them, writes included, so a
+ * blocking write is committed before the next read runs.
+ * A background heartbeat checks the server, and a query that fails because
+ * its connection died is retried once on a fresh one. Hikari's own check of a
+ * connection borrowed after sitting unused is bounded per pool by a short
+ * validation timeout; the setting that skips it is JVM-wide and would change
+ * every other plugin's pools, so it is left alone.
+ * Inserts and IP upserts go through a {@link WriteQueue} and are written in
+ * batches, one transaction per batch; updates and deletes wait for the queued
+ * inserts first so they always apply after them.
+ * If the database stops answering, a {@link CircuitBreaker} opens after a few
+ * failed queries: reads then fail at once, returning the last result read for
+ * the same player or address where there is one, and writes are kept in a
+ * {@link WriteSpool} file and replayed in order once the database is back.
+ * With read replicas configured, reads go to a replica that is close enough
+ * behind the primary (see {@link ReplicaRouter}), except reads about a player
+ * or address that was just written to.
+ * Archived punishments and warnings are moved to {@code punishments_archive}
+ * and {@code warnings_archive}, which only the history queries read.
+ * The schema is versioned and brought up to date on connect by
+ * {@link SchemaMigrator}; UUIDs, punishment types and IPs are stored in the
+ * binary forms described in {@link SQLColumns}.
  *
  * @author Hexett
  */
-public class SQLDatabase implements Database {
+public class SQLDatabase implements Database, AsyncDatabase {
+
+    private static final Page<Punishment> EMPTY_PAGE = new Page<>(Collections.emptyList(), null, null);
+    // Every read names its columns, in the order the create...FromResultSet methods read them by position
+    static final String PUNISHMENT_COLUMNS = "id, target_uuid, type, reason, issuer_uuid, issued_at, expires_at, ip_address, active";
+    static final String NOTE_COLUMNS = "id, target_uuid, issuer_uuid, content, timestamp";
+    static final String WARNING_COLUMNS = "id, target_uuid, issuer_uuid, reason, severity, timestamp, active";
+    // Same rules as RecordArchive.isArchivable; every parameter is the cutoff
+    private static final String ARCHIVABLE_PUNISHMENTS =
+            "(type = " + SQLColumns.type(Punishment.Type.KICK) + " AND issued_at < ?) OR ((active = 0 OR expires_at > 0) AND issued_at < ? AND expires_at < ?)";
+    private static final String ARCHIVABLE_WARNINGS = "active = 0 AND timestamp < ?";
+    private static final int ARCHIVE_BATCH_SIZE = 500;
+    private static final int HEARTBEAT_TIMEOUT_SECONDS = 2;
+    // Results kept for answering reads while the database is unreachable
+    private static final int CACHED_READS = 10_000;
+    private static final String READ_PUNISHMENTS = "get punishments";
+    private static final String READ_PUNISHMENTS_BY_IP = "get punishments by IP";
+    private static final String READ_PLAYER_IP = "get player IP";
+    private static final Object READ_FAILED = new Object();
 
     private final Plugin plugin;
     private final String type;
@@ -30,22 +104,136 @@ public class SQLDatabase implements Database {
     private final String pass;
     private final int port;
 
-    private Connection connection;
-    private final ExecutorService executor;
-    private final Object connectionLock = new Object();
+    private final PoolSettings poolSettings;
+    private final ReplicaSettings replicaSettings;
+    private final ExecutorService workers;
+    private final Executor executor;
+    private final Semaphore queryPermits;
+    private final StatementCache statements;
+    private final CircuitBreaker breaker;
+    private final WriteSpool spool;
+    private final Map<Object, Object> lastReads;
+    private final WriteQueue writes;
+    private HikariDataSource dataSource;
+    private ReplicaRouter replicas;
+    private ScheduledExecutorService heartbeat;
+    private volatile boolean connectionUp = true;
+    private volatile long downSince;
+    private volatile long lastHeartbeat;
 
     /**
-     * Create a new SQLDatabase instance.
+     * Connection pool settings, read from {@code database.pool}.
+     *
+     * @param minimumIdle Connections kept open while idle
+     * @param maximumSize Most connections open at once, and the number of query threads
+     * @param idleTimeoutMillis How long a connection above the minimum may sit idle before it is closed
+     * @param maxLifetimeMillis How long a connection is used before it is replaced
+     * @param validationIntervalMillis How often idle connections are tested (0 disables)
+     * @param connectionTimeoutMillis How long a query waits for a free connection
+     * @param statementCacheSize Prepared statements kept open per connection (0 disables)
+     * @param writeBatchSize Most inserts written in one batch (1 writes each on its own)
+     * @param writeFlushIntervalMillis How long an insert waits for others to join its batch
+     * @param heartbeatIntervalMillis How often the connection is checked in the background (0 disables)
+     * @param virtualThreads Run each query on its own virtual thread instead of a fixed pool of threads
+     */
+    public record PoolSettings(int minimumIdle, int maximumSize, long idleTimeoutMillis, long maxLifetimeMillis,
+                               long validationIntervalMillis, long connectionTimeoutMillis, int statementCacheSize,
+                               int writeBatchSize, long writeFlushIntervalMillis, long heartbeatIntervalMillis,
+                               boolean virtualThreads) {
+
+        public static final PoolSettings DEFAULTS = new PoolSettings(2, 10, 600_000, 1_800_000, 120_000, 5_000, 64, 100, 5, 10_000, false);
+    }
+
+    /**
+     * Read replica settings, read from {@code database.replicas}. Replicas use
+     * the primary's database name, credentials and pool settings.
+     *
+     * @param endpoints Replica addresses as {@code host} or {@code host:port}, or full JDBC URLs
+     * @param maxLagMillis How far behind the primary a replica may be and still serve reads
+     * @param checkIntervalMillis How often replica lag is measured
+     */
+    public record ReplicaSettings(List<String> endpoints, long maxLagMillis, long checkIntervalMillis) {
+
+        public static final ReplicaSettings NONE = new ReplicaSettings(List.of(), 3_000, 1_000);
+    }
+
+    /**
+     * Outage handling settings, read from {@code database.circuit-breaker}.
+     *
+     * @param failureThreshold Failed queries in a row before queries start failing at once
+     * @param retryAfterMillis How long to wait before trying the database again
+     */
+    public record BreakerSettings(int failureThreshold, long retryAfterMillis) {
+
+        public static final BreakerSettings DEFAULTS = new BreakerSettings(5, 10_000);
+    }
+
+    /**
+     * Create a new SQLDatabase instance with the default pool settings.
      *
      * @param plugin The plugin instance
-     * @param type The database type ("mysql" or "sqlite")
-     * @param host The database host (ignored for SQLite)
-     * @param port The database port (ignored for SQLite)
-     * @param dbName The database name (ignored for SQLite)
-     * @param user The database username (ignored for SQLite)
-     * @param pass The database password (ignored for SQLite)
+     * @param type The database type ("mysql", "sqlite" or "h2")
+     * @param host The database host (MySQL only)
+     * @param port The database port (MySQL only)
+     * @param dbName The database name (MySQL only)
+     * @param user The database username (MySQL only)
+     * @param pass The database password (MySQL only)
      */
     public SQLDatabase(Plugin plugin, String type, String host, int port, String dbName, String user, String pass) {
+        this(plugin, type, host, port, dbName, user, pass, PoolSettings.DEFAULTS);
+    }
+
+    /**
+     * Create a new SQLDatabase instance.
+     *
+     * @param plugin The plugin instance
+     * @param type The database type ("mysql", "sqlite" or "h2")
+     * @param host The database host (MySQL only)
+     * @param port The database port (MySQL only)
+     * @param dbName The database name (MySQL only)
+     * @param user The database username (MySQL only)
+     * @param pass The database password (MySQL only)
+     * @param poolSettings The connection pool settings
+     */
+    public SQLDatabase(Plugin plugin, String type, String host, int port, String dbName, String user, String pass,
+                       PoolSettings poolSettings) {
+        this(plugin, type, host, port, dbName, user, pass, poolSettings, ReplicaSettings.NONE);
+    }
+
+    /**
+     * Create a new SQLDatabase instance that reads from replicas where it can.
+     *
+     * @param plugin The plugin instance
+     * @param type The database type ("mysql", "sqlite" or "h2")
+     * @param host The database host (MySQL only)
+     * @param port The database port (MySQL only)
+     * @param dbName The database name (MySQL only)
+     * @param user The database username (MySQL only)
+     * @param pass The database password (MySQL only)
+     * @param poolSettings The connection pool settings
+     * @param replicaSettings The read replicas (MySQL and H2 only)
+     */
+    public SQLDatabase(Plugin plugin, String type, String host, int port, String dbName, String user, String pass,
+                       PoolSettings poolSettings, ReplicaSettings replicaSettings) {
+        this(plugin, type, host, port, dbName, user, pass, poolSettings, replicaSettings, BreakerSettings.DEFAULTS);
+    }
+
+    /**
+     * Create a new SQLDatabase instance.
+     *
+     * @param plugin The plugin instance
+     * @param type The database type ("mysql", "sqlite" or "h2")
+     * @param host The database host (MySQL only)
+     * @param port The database port (MySQL only)
+     * @param dbName The database name (MySQL only)
+     * @param user The database username (MySQL only)
+     * @param pass The database password (MySQL only)
+     * @param poolSettings The connection pool settings
+     * @param replicaSettings The read replicas (MySQL and H2 only)
+     * @param breakerSettings When to stop waiting on the database during an outage
+     */
+    public SQLDatabase(Plugin plugin, String type, String host, int port, String dbName, String user, String pass,
+                       PoolSettings poolSettings, ReplicaSettings replicaSettings, BreakerSettings breakerSettings) {
         this.plugin = plugin;
         this.type = type.toLowerCase();
         this.host = host;
@@ -53,91 +241,238 @@ public class SQLDatabase implements Database {
         this.dbName = dbName;
         this.user = user;
         this.pass = pass;
-        this.executor = Executors.newFixedThreadPool(2, r -> {
-            Thread thread = new Thread(r, "StaffUtilsPlus-DB");
-            thread.setDaemon(true);
-            return thread;
+        this.poolSettings = poolSettings;
+        this.replicaSettings = replicaSettings;
+        this.statements = new StatementCache(poolSettings.statementCacheSize());
+        int threads = Math.max(1, poolSettings.maximumSize());
+        if (poolSettings.virtualThreads()) {
+            // A parked virtual thread costs almost nothing, so queries past the pool size wait on the
+            // permits in their own thread rather than in a queue, and never time out waiting on Hikari
+            this.queryPermits = new Semaphore(threads, true);
+            this.workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("StaffUtilsPlus-DB-", 1).factory());
+            this.executor = task -> workers.execute(() -> {
+                queryPermits.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    queryPermits.release();
+                }
+            });
+        } else {
+            // One query thread per pooled connection, so no thread ever waits on the pool for long
+            this.queryPermits = null;
+            this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "StaffUtilsPlus-DB");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = workers;
+        }
+        this.breaker = new CircuitBreaker(breakerSettings.failureThreshold(), breakerSettings.retryAfterMillis(), this::breakerChanged);
+        this.spool = new WriteSpool(new File(plugin.getDataFolder(), "sql-spool.journal"), new Gson(), plugin.getLogger());
+        this.lastReads = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                return size() > CACHED_READS;
+            }
         });
+        this.writes = new WriteQueue(plugin, () -> dataSource.getConnection(), statements, breaker, executor,
+                poolSettings.writeBatchSize(), poolSettings.writeFlushIntervalMillis());
     }
 
     @Override
     public void connect() {
         try {
+            HikariConfig config;
             if ("sqlite".equals(type)) {
-                connectSQLite();
+                config = sqliteConfig();
             } else if ("mysql".equals(type)) {
-                connectMySQL();
+                config = mysqlConfig(host, port);
+            } else if ("h2".equals(type)) {
+                config = h2Config();
             } else {
                 throw new IllegalArgumentException("Unsupported database type: " + type);
             }
 
+            config.setPoolName("StaffUtilsPlus-Pool");
+            applyPoolSettings(config);
+            dataSource = new HikariDataSource(config);
+
             setupTables();
-            plugin.getLogger().info("Database connected (" + type.toUpperCase() + ")");
+            openReplicas();
+            startHeartbeat();
+            plugin.getLogger().info("Database connected (" + type.toUpperCase() + ", pool of "
+                    + poolSettings.minimumIdle() + "-" + poolSettings.maximumSize() + " connections)");
+
+            int spooled = spool.open();
+            if (spooled > 0) {
+                plugin.getLogger().info("Replaying " + spooled + " write(s) spooled while the database was unreachable");
+                replaySpool();
+            }
         } catch (Exception e) {
             plugin.getLogger().severe("Failed to connect to database: " + e.getMessage());
             throw new RuntimeException("Database connection failed", e);
         }
     }
 
+    private void applyPoolSettings(HikariConfig config) {
+        config.setMinimumIdle(Math.min(poolSettings.minimumIdle(), poolSettings.maximumSize()));
+        config.setMaximumPoolSize(Math.max(1, poolSettings.maximumSize()));
+        config.setIdleTimeout(poolSettings.idleTimeoutMillis());
+        config.setMaxLifetime(poolSettings.maxLifetimeMillis());
+        config.setKeepaliveTime(poolSettings.validationIntervalMillis());
+        config.setConnectionTimeout(poolSettings.connectionTimeoutMillis());
+        // A dead connection found when borrowed is replaced after this, not Hikari's default 5s
+        config.setValidationTimeout(TimeUnit.SECONDS.toMillis(HEARTBEAT_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Open a pool per configured read replica. A replica that cannot be
+     * reached yet is still opened; reads skip it until a check finds it.
+     */
+    private void openReplicas() throws SQLException {
+        if (replicaSettings.endpoints().isEmpty()) {
+            return;
+        }
+        if ("sqlite".equals(type)) {
+            plugin.getLogger().warning("Read replicas are not supported with SQLite, ignoring database.replicas");
+            return;
+        }
+
+        List<ReplicaRouter.Replica> pools = new ArrayList<>();
+        for (String endpoint : replicaSettings.endpoints()) {
+            HikariConfig config;
+            if (endpoint.startsWith("jdbc:")) {
+                config = new HikariConfig();
+                config.setJdbcUrl(endpoint);
+                if (user != null && !user.isEmpty()) {
+                    config.setUsername(user);
+                    config.setPassword(pass);
+                }
+            } else {
+                int colon = endpoint.lastIndexOf(':');
+                config = colon > 0
+                        ? mysqlConfig(endpoint.substring(0, colon), Integer.parseInt(endpoint.substring(colon + 1)))
+                        : mysqlConfig(endpoint, port);
+            }
+            config.setPoolName("StaffUtilsPlus-Replica-" + (pools.size() + 1));
+            config.setReadOnly(true);
+            // Do not wait at startup for a replica that is down; the checks pick it up later
+            config.setInitializationFailTimeout(-1);
+            applyPoolSettings(config);
+            String name = endpoint.startsWith("jdbc:") ? "#" + (pools.size() + 1) : endpoint;
+            pools.add(new ReplicaRouter.Replica(name, new HikariDataSource(config)));
+        }
+        replicas = new ReplicaRouter(plugin, pools, replicaSettings.maxLagMillis(), replicaSettings.checkIntervalMillis());
+        plugin.getLogger().info("Reading from " + pools.size() + " replica(s) while they are at most "
+                + replicaSettings.maxLagMillis() + "ms behind");
+    }
+
     /**
-     * Connect to SQLite database.
+     * Pool configuration for the SQLite database file.
      */
-    private void connectSQLite() throws SQLException {
+    private HikariConfig sqliteConfig() throws SQLException {
         try {
             Class.forName("org.sqlite.JDBC");
         } catch (ClassNotFoundException e) {
             throw new SQLException("SQLite JDBC driver not found", e);
         }
-        String dbPath = plugin.getDataFolder() + "/data.db";
-        connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setJdbcUrl("jdbc:sqlite:" + plugin.getDataFolder() + "/data.db");
 
-        // Enable SQLite optimizations
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute("PRAGMA journal_mode=WAL");
-            stmt.execute("PRAGMA synchronous=NORMAL");
-            stmt.execute("PRAGMA cache_size=10000");
-            stmt.execute("PRAGMA temp_store=MEMORY");
-        }
+        // Enable SQLite optimizations on every pooled connection; WAL lets readers
+        // run alongside the single writer, and writers wait briefly instead of failing
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("synchronous", "NORMAL");
+        config.addDataSourceProperty("cache_size", "10000");
+        config.addDataSourceProperty("temp_store", "MEMORY");
+        config.addDataSourceProperty("busy_timeout", String.valueOf(poolSettings.connectionTimeoutMillis()));
+        return config;
     }
 
     /**
-     * Connect to MySQL database.
+     * Pool configuration for the MySQL server.
      */
-    private void connectMySQL() throws SQLException {
+    private HikariConfig mysqlConfig(String host, int port) throws SQLException {
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
         } catch (ClassNotFoundException e) {
             throw new SQLException("MySQL JDBC driver not found", e);
         }
-        String url = String.format("jdbc:mysql://%s:%d/%s?autoReconnect=true&useSSL=false&allowPublicKeyRetrieval=true",
-                host, port, dbName);
-        connection = DriverManager.getConnection(url, user, pass);
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s?useSSL=false&allowPublicKeyRetrieval=true", host, port, dbName));
+        config.setUsername(user);
+        config.setPassword(pass);
+
+        // Prepare statements on the server so the plan is reused for as long as
+        // the statement cache keeps them open; the driver's own cache covers the
+        // statements that ours does not keep (archiving, or a cache size of 0)
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        // Send each batch the write queue flushes as one multi-row statement
+        // instead of a round trip per row
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        return config;
     }
 
     /**
-     * Ensure connection is alive, reconnect if necessary.
+     * Pool configuration for the embedded H2 database file.
      */
-    private void ensureConnection() throws SQLException {
-        synchronized (connectionLock) {
-            if (connection == null || connection.isClosed() || !connection.isValid(2)) {
-                plugin.getLogger().warning("Database connection lost, reconnecting...");
-                if ("sqlite".equals(type)) {
-                    connectSQLite();
-                } else if ("mysql".equals(type)) {
-                    connectMySQL();
-                }
-            }
+    private HikariConfig h2Config() throws SQLException {
+        try {
+            Class.forName("org.h2.Driver");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("H2 JDBC driver not found", e);
         }
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName("org.h2.Driver");
+
+        // MySQL mode, so the queries are shared with MySQL; lower-case names, so
+        // metadata lookups find the tables; the pool closes the database, not the JVM.
+        // Rows are locked individually, so writers only wait for writers of the same row
+        String path = new File(plugin.getDataFolder(), "data-h2").getAbsolutePath();
+        config.setJdbcUrl("jdbc:h2:file:" + path + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE"
+                + ";LOCK_TIMEOUT=" + poolSettings.connectionTimeoutMillis());
+        config.setUsername("sa");
+        config.setPassword("");
+        return config;
     }
 
     /**
-     * Set up the database tables.
+     * Create the tables, or bring existing ones up to the current schema.
      */
     private void setupTables() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            new SchemaMigrator(plugin).migrate(connection, List.of(
+                    new SchemaMigrator.Migration(1, "create tables", this::createTables),
+                    new SchemaMigrator.Migration(2, "store UUIDs, punishment types and IPs as binary",
+                            new CompactColumnsMigration(plugin, type)),
+                    new SchemaMigrator.Migration(3, "cover player lookups by IP", this::coverIPLookups),
+                    new SchemaMigrator.Migration(4, "add the replication heartbeat", this::createReplicationHeartbeat),
+                    new SchemaMigrator.Migration(5, "index active punishments by type and expiry", this::indexActiveByType),
+                    new SchemaMigrator.Migration(6, "index history and blame by issue time", this::indexByIssueTime),
+                    new SchemaMigrator.Migration(7, "index warnings by player and status", this::indexActiveWarnings),
+                    new SchemaMigrator.Migration(8, "index archived punishments by issuer", this::indexArchiveByIssuer)
+            ));
+        }
+    }
+
+    /**
+     * Create the original tables, with UUIDs, types and IPs stored as text.
+     * Schema version 1; {@link CompactColumnsMigration} converts them.
+     */
+    private void createTables(Connection connection) throws SQLException {
         String createPunishmentsTable;
         String createNotesTable;
         String createWarningsTable;
         String createPlayerIPsTable;
+        String createPunishmentsArchiveTable;
+        String createWarningsArchiveTable;
 
         if ("sqlite".equals(type)) {
             createPunishmentsTable = """
@@ -180,6 +515,30 @@ public class SQLDatabase implements Database {
                 last_updated BIGINT NOT NULL
             )
             """;
+            createPunishmentsArchiveTable = """
+                CREATE TABLE IF NOT EXISTS punishments_archive (
+                    id INTEGER PRIMARY KEY,
+                    target_uuid VARCHAR(36) NOT NULL,
+                    type VARCHAR(20) NOT NULL,
+                    reason TEXT,
+                    issuer_uuid VARCHAR(36),
+                    issued_at BIGINT,
+                    expires_at BIGINT,
+                    ip_address VARCHAR(45),
+                    active BOOLEAN
+                )
+                """;
+            createWarningsArchiveTable = """
+                CREATE TABLE IF NOT EXISTS warnings_archive (
+                    id INTEGER PRIMARY KEY,
+                    target_uuid VARCHAR(36) NOT NULL,
+                    issuer_uuid VARCHAR(36),
+                    reason TEXT,
+                    severity INTEGER,
+                    timestamp BIGINT,
+                    active BOOLEAN
+                )
+                """;
         } else {
             createPunishmentsTable = """
                 CREATE TABLE IF NOT EXISTS punishments (
@@ -227,6 +586,41 @@ public class SQLDatabase implements Database {
                     INDEX idx_ip_address (ip_address)
                 )
                 """;
+            createPunishmentsArchiveTable = """
+                CREATE TABLE IF NOT EXISTS punishments_archive (
+                    id INTEGER PRIMARY KEY,
+                    target_uuid VARCHAR(36) NOT NULL,
+                    type VARCHAR(20) NOT NULL,
+                    reason TEXT,
+                    issuer_uuid VARCHAR(36),
+                    issued_at BIGINT,
+                    expires_at BIGINT,
+                    ip_address VARCHAR(45),
+                    active BOOLEAN,
+                    INDEX idx_target (target_uuid)
+                )
+                """;
+            createWarningsArchiveTable = """
+                CREATE TABLE IF NOT EXISTS warnings_archive (
+                    id INTEGER PRIMARY KEY,
+                    target_uuid VARCHAR(36) NOT NULL,
+                    issuer_uuid VARCHAR(36),
+                    reason TEXT,
+                    severity INTEGER,
+                    timestamp BIGINT,
+                    active BOOLEAN,
+                    INDEX idx_target (target_uuid)
+                )
+                """;
+        }
+
+        if ("h2".equals(type)) {
+            createPunishmentsTable = SchemaMigrator.forH2(createPunishmentsTable);
+            createNotesTable = SchemaMigrator.forH2(createNotesTable);
+            createWarningsTable = SchemaMigrator.forH2(createWarningsTable);
+            createPlayerIPsTable = SchemaMigrator.forH2(createPlayerIPsTable);
+            createPunishmentsArchiveTable = SchemaMigrator.forH2(createPunishmentsArchiveTable);
+            createWarningsArchiveTable = SchemaMigrator.forH2(createWarningsArchiveTable);
         }
 
         try (Statement statement = connection.createStatement()) {
@@ -234,10 +628,12 @@ public class SQLDatabase implements Database {
             statement.executeUpdate(createNotesTable);
             statement.executeUpdate(createWarningsTable);
             statement.executeUpdate(createPlayerIPsTable);
+            statement.executeUpdate(createPunishmentsArchiveTable);
+            statement.executeUpdate(createWarningsArchiveTable);
         }
 
-        // Create indexes for SQLite (MySQL has them in CREATE TABLE)
-        if ("sqlite".equals(type)) {
+        // Create indexes for SQLite and H2 (MySQL has them in CREATE TABLE)
+        if (!"mysql".equals(type)) {
             try (Statement statement = connection.createStatement()) {
                 statement.execute("CREATE INDEX IF NOT EXISTS idx_punishments_target_active ON punishments(target_uuid, active)");
                 statement.execute("CREATE INDEX IF NOT EXISTS idx_punishments_issuer ON punishments(issuer_uuid)");
@@ -245,308 +641,1129 @@ public class SQLDatabase implements Database {
                 statement.execute("CREATE INDEX IF NOT EXISTS idx_notes_target ON notes(target_uuid)");
                 statement.execute("CREATE INDEX IF NOT EXISTS idx_warnings_target ON warnings(target_uuid)");
                 statement.execute("CREATE INDEX IF NOT EXISTS idx_player_ips_ip ON player_ips(ip_address)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_punishments_archive_target ON punishments_archive(target_uuid)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_warnings_archive_target ON warnings_archive(target_uuid)");
             }
         }
     }
 
-    @Override
-    public void close() {
-        try {
-            executor.shutdown();
-            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
+    /**
+     * Let {@code SELECT uuid FROM player_ips WHERE ip_address = ?} be answered
+     * from the index alone. InnoDB secondary indexes already carry the primary
+     * key, so only SQLite and H2 need the wider index.
+     */
+    private void coverIPLookups(Connection connection) throws SQLException {
+        if ("mysql".equals(type)) {
+            return;
         }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_player_ips_ip_uuid ON player_ips(ip_address, uuid)");
+            statement.execute("DROP INDEX IF EXISTS idx_player_ips_ip");
+        }
+    }
 
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to close database connection: " + e.getMessage());
+    /**
+     * The rows {@link ReplicaRouter} measures replica lag with, one per server.
+     * Created even without replicas, so adding one later needs no schema change.
+     */
+    private void createReplicationHeartbeat(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS replication_heartbeat (id INTEGER PRIMARY KEY, written_at BIGINT NOT NULL)");
         }
     }
 
-    @Override
-    public void insertPunishment(Punishment punishment) {
-        if (punishment == null) {
-            return;
+    /**
+     * Let listings such as {@code /tempbans} find the active punishments of a
+     * type in expiry order without scanning every player's punishments.
+     */
+    private void indexActiveByType(Connection connection) throws SQLException {
+        createIndex(connection, "punishments", "type_active_expires", "type, active, expires_at");
+    }
+
+    /**
+     * Let history and blame pages be read in issue order straight from an
+     * index, replacing the indexes on the player alone.
+     */
+    private void indexByIssueTime(Connection connection) throws SQLException {
+        createIndex(connection, "punishments", "target_issued", "target_uuid, issued_at");
+        createIndex(connection, "punishments", "issuer_issued", "issuer_uuid, issued_at");
+        dropIndex(connection, "punishments", "issuer");
+        createIndex(connection, "punishments_archive", "target_issued", "target_uuid, issued_at");
+        dropIndex(connection, "punishments_archive", "target");
+    }
+
+    /**
+     * Let warning levels and counts be summed from a player's active warnings
+     * alone, replacing the index on the player.
+     */
+    private void indexActiveWarnings(Connection connection) throws SQLException {
+        createIndex(connection, "warnings", "target_active", "target_uuid, active, timestamp");
+        dropIndex(connection, "warnings", "target");
+    }
+
+    /**
+     * Let blame read archived punishments in issue order, as it does live ones.
+     */
+    private void indexArchiveByIssuer(Connection connection) throws SQLException {
+        createIndex(connection, "punishments_archive", "issuer_issued", "issuer_uuid, issued_at");
+    }
+
+    /**
+     * Create an index unless it already exists. MySQL has no {@code IF NOT
+     * EXISTS} for indexes and commits each statement on its own, so a
+     * migration that fails part way only stays safe to repeat if every step
+     * checks first. SQLite and H2 index names are global, so there the name
+     * is prefixed with the table.
+     *
+     * @param name The index name, without the {@code idx_} prefix
+     */
+    private void createIndex(Connection connection, String table, String name, String columns) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (!"mysql".equals(type)) {
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_" + name + " ON " + table + "(" + columns + ")");
+            } else if (!hasIndex(connection, table, "idx_" + name)) {
+                statement.execute("CREATE INDEX idx_" + name + " ON " + table + " (" + columns + ")");
+            }
         }
+    }
 
-        CompletableFuture.runAsync(() -> {
-            String sql = """
-                INSERT INTO punishments (target_uuid, type, reason, issuer_uuid, issued_at, expires_at, active) 
-                VALUES (?, ?, ?, ?, ?, ?, 1)
-                """;
+    /**
+     * Drop an index if it exists; see {@link #createIndex}.
+     *
+     * @param name The index name, without the {@code idx_} prefix
+     */
+    private void dropIndex(Connection connection, String table, String name) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (!"mysql".equals(type)) {
+                statement.execute("DROP INDEX IF EXISTS idx_" + table + "_" + name);
+            } else if (hasIndex(connection, table, "idx_" + name)) {
+                statement.execute("DROP INDEX idx_" + name + " ON " + table);
+            }
+        }
+    }
 
-            try {
-                ensureConnection();
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, punishment.getTarget().toString());
-                    ps.setString(2, punishment.getType().name());
-                    ps.setString(3, punishment.getReason());
-                    ps.setString(4, punishment.getIssuer() != null ? punishment.getIssuer().toString() : null);
-                    ps.setLong(5, punishment.getIssuedAt());
-                    ps.setLong(6, punishment.getExpiresAt());
-                    ps.executeUpdate();
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to insert punishment: " + e.getMessage());
-                e.printStackTrace();
+    private static boolean hasIndex(Connection connection, String table, String index) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? LIMIT 1")) {
+            ps.setString(1, table);
+            ps.setString(2, index);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
             }
-        }, executor).exceptionally(throwable -> {
-            plugin.getLogger().severe("Unexpected error inserting punishment: " + throwable.getMessage());
-            throwable.printStackTrace();
-            return null;
-        });
+        }
     }
 
     @Override
-    public List<Punishment> getPunishments(UUID target) {
-        if (target == null) {
-            return new ArrayList<>();
+    public void close() {
+        try {
+            writes.flush().get(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            plugin.getLogger().warning("Timed out writing queued changes: " + e.getMessage());
         }
 
         try {
-            return CompletableFuture.supplyAsync(() -> {
-                List<Punishment> punishments = new ArrayList<>();
-                String sql = "SELECT * FROM punishments WHERE target_uuid = ? AND active = 1";
+            workers.shutdown();
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
 
-                try {
-                    ensureConnection();
-                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                        ps.setString(1, target.toString());
-                        try (ResultSet rs = ps.executeQuery()) {
-                            while (rs.next()) {
-                                punishments.add(createPunishmentFromResultSet(rs));
-                            }
-                        }
-                    }
-                } catch (SQLException e) {
-                    plugin.getLogger().warning("Failed to get punishments: " + e.getMessage());
-                    e.printStackTrace();
-                }
-                return punishments;
-            }, executor).get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error getting punishments: " + e.getMessage());
-            return new ArrayList<>();
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
         }
-    }
 
-    @Override
-    public List<Punishment> getPunishmentsByIssuer(UUID target) {
-        if (target == null) {
-            return new ArrayList<>();
+        if (replicas != null) {
+            replicas.close();
         }
 
         try {
-            return CompletableFuture.supplyAsync(() -> {
-                List<Punishment> punishments = new ArrayList<>();
-                String sql = "SELECT * FROM punishments WHERE issuer_uuid = ?";
+            spool.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to close the write spool: " + e.getMessage());
+        }
 
-                try {
-                    ensureConnection();
-                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                        ps.setString(1, target.toString());
-                        try (ResultSet rs = ps.executeQuery()) {
-                            while (rs.next()) {
-                                punishments.add(createPunishmentFromResultSet(rs));
-                            }
-                        }
-                    }
-                } catch (SQLException e) {
-                    plugin.getLogger().warning("Failed to get punishments: " + e.getMessage());
-                    e.printStackTrace();
-                }
-                return punishments;
-            }, executor).get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error getting punishments by issuer: " + e.getMessage());
-            return new ArrayList<>();
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
         }
     }
 
     @Override
-    public void deactivatePunishment(UUID target, Punishment.Type type) {
-        if (target == null || type == null) {
-            return;
+    public Map<String, String> getStatus() {
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("Backend", switch (type) {
+            case "sqlite" -> "SQLite";
+            case "h2" -> "H2";
+            default -> "MySQL";
+        });
+        HikariPoolMXBean pool = dataSource != null ? dataSource.getHikariPoolMXBean() : null;
+        if (pool == null) {
+            status.put("Pool", "not started");
+            return status;
         }
+        status.put("Connections", pool.getActiveConnections() + " in use, " + pool.getIdleConnections() + " idle, "
+                + pool.getTotalConnections() + "/" + poolSettings.maximumSize() + " open");
+        status.put("Waiting for a connection", String.valueOf(pool.getThreadsAwaitingConnection()));
+        if (heartbeat != null && poolSettings.heartbeatIntervalMillis() > 0) {
+            long now = System.currentTimeMillis();
+            status.put("Connection", connectionUp ? "up" : "down for " + (now - downSince) / 1000 + "s, reconnecting");
+            status.put("Last heartbeat", lastHeartbeat == 0 ? "never" : (now - lastHeartbeat) / 1000 + "s ago");
+        }
+        status.put("Circuit breaker", switch (breaker.state()) {
+            case CLOSED -> "closed";
+            case OPEN -> "open for " + breaker.openForMillis() / 1000 + "s, failing queries at once";
+            case HALF_OPEN -> "half-open for " + breaker.openForMillis() / 1000 + "s, trying the database again";
+        });
+        status.put("Spooled writes", String.valueOf(spool.size()));
+        if (replicas != null) {
+            status.put("Read replicas", String.join(", ", replicas.status()));
+        }
+        if (workers instanceof ThreadPoolExecutor threadPool) {
+            status.put("Queued queries", String.valueOf(threadPool.getQueue().size()));
+            status.put("Queued writes", String.valueOf(writes.size()));
+            status.put("Completed queries", String.valueOf(threadPool.getCompletedTaskCount()));
+        } else {
+            int running = Math.max(1, poolSettings.maximumSize()) - queryPermits.availablePermits();
+            status.put("Query threads", "virtual, " + running + " running");
+            status.put("Queued queries", String.valueOf(queryPermits.getQueueLength()));
+            status.put("Queued writes", String.valueOf(writes.size()));
+        }
+        return status;
+    }
 
-        CompletableFuture.runAsync(() -> {
-            String sql = "UPDATE punishments SET active = 0 WHERE target_uuid = ? AND type = ? AND active = 1";
+    // --- Connection Health ---
+    /**
+     * Work done on a pooled connection.
+     */
+    @FunctionalInterface
+    private interface ConnectionWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
 
-            try {
-                ensureConnection();
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, target.toString());
-                    ps.setString(2, type.name());
-                    ps.executeUpdate();
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to deactivate punishment: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }, executor).exceptionally(throwable -> {
-            plugin.getLogger().severe("Unexpected error deactivating punishment: " + throwable.getMessage());
-            return null;
-        });
+    /**
+     * Run work on a pooled connection. If the connection turns out to be dead
+     * (MySQL closed it, the network dropped), it is evicted and the work runs
+     * once more on a fresh connection, so callers never see the reconnect.
+     * Any other failure is logged and the fallback returned. While the
+     * circuit breaker is open the work is not run and the fallback is
+     * returned at once.
+     *
+     * @param action What the work does, for the log (e.g. "get punishments")
+     * @param fallback Returned if the work fails
+     * @param work The work; may run twice, so it must not keep state between runs
+     * @return The result of the work, or the fallback
+     */
+    private <T> T withConnection(String action, T fallback, ConnectionWork<T> work) {
+        return withConnection(action, fallback, null, work);
     }
 
-    @Override
-    public String getPlayerIP(UUID uuid) {
-        if (uuid == null) {
-            return null;
+    /**
+     * Run work on a pooled connection like {@link #withConnection(String, Object, ConnectionWork)},
+     * handing it to {@code lost} instead of logging it if the database cannot be reached.
+     *
+     * @param lost Run if the database is unreachable or the circuit breaker is open, or null to log
+     */
+    private <T> T withConnection(String action, T fallback, Runnable lost, ConnectionWork<T> work) {
+        if (!breaker.allowRequest()) {
+            if (lost != null) {
+                lost.run();
+            }
+            return fallback;
         }
 
-        try {
-            return CompletableFuture.supplyAsync(() -> {
-                String sql = "SELECT ip_address FROM player_ips WHERE uuid = ?";
-
+        for (int attempt = 1; ; attempt++) {
+            try (Connection connection = dataSource.getConnection()) {
                 try {
-                    ensureConnection();
-                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                        ps.setString(1, uuid.toString());
-                        try (ResultSet rs = ps.executeQuery()) {
-                            if (rs.next()) {
-                                return rs.getString("ip_address");
-                            }
-                        }
-                    }
+                    T result = work.run(connection);
+                    breaker.success();
+                    return result;
                 } catch (SQLException e) {
-                    plugin.getLogger().warning("Failed to get player IP: " + e.getMessage());
-                    e.printStackTrace();
+                    if (attempt > 1 || !isConnectionFailure(e)) {
+                        throw e;
+                    }
+                    dataSource.evictConnection(connection);
+                    if (heartbeat != null && !heartbeat.isShutdown()) {
+                        // Find out now whether it was one connection or the whole server
+                        heartbeat.execute(this::checkConnection);
+                    }
                 }
-                return null;
-            }, executor).get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error getting player IP: " + e.getMessage());
-            return null;
+            } catch (SQLException e) {
+                if (!isConnectionFailure(e)) {
+                    // The server answered, so it is up even though the work failed
+                    breaker.success();
+                } else {
+                    breaker.failure();
+                    if (lost != null) {
+                        lost.run();
+                        return fallback;
+                    }
+                }
+                plugin.getLogger().warning("Failed to " + action + ": " + e.getMessage());
+                e.printStackTrace();
+                return fallback;
+            }
+        }
+    }
+
+    /**
+     * Run a read on a replica if one may serve it, otherwise, or if the
+     * replica fails, on the primary like {@link #withConnection}.
+     *
+     * @param key The player (UUID) or address ({@link ReplicaRouter#ipKey}) the read is about, or null
+     */
+    private <T> T withReadConnection(Object key, String action, T fallback, ConnectionWork<T> work) {
+        HikariDataSource replica = replicas != null ? replicas.route(key) : null;
+        if (replica != null) {
+            try (Connection connection = replica.getConnection()) {
+                return work.run(connection);
+            } catch (SQLException e) {
+                replicas.failed(replica, e);
+            }
+        }
+        return withConnection(action, fallback, work);
+    }
+
+    /**
+     * Run a read like {@link #withReadConnection}, keeping its result. If the
+     * read fails, the result last read for the same action and key is
+     * returned instead of the fallback, so logins and chat keep seeing the
+     * punishments already known while the database is unreachable. Lists
+     * are kept and returned as unmodifiable copies, so callers cannot change
+     * what the next caller is given.
+     *
+     * @param key The player or address the read is about; never null
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T withCachedRead(Object key, String action, T fallback, ConnectionWork<T> work) {
+        List<Object> cacheKey = List.of(action, key);
+        Object result = withReadConnection(key, action, READ_FAILED, work::run);
+        if (result != READ_FAILED) {
+            if (result instanceof List<?> list) {
+                result = List.copyOf(list);
+            }
+            lastReads.put(cacheKey, result);
+            return (T) result;
+        }
+        return lastReads.containsKey(cacheKey) ? (T) lastReads.get(cacheKey) : fallback;
+    }
+
+    /**
+     * Bring the reads kept by {@link #withCachedRead} up to date with a write,
+     * so a ban issued while the database is unreachable (and only spooled) is
+     * seen at the player's next login, and a lifted one is not.
+     *
+     * @param entry The write
+     */
+    private void updateCachedReads(JournalEntry entry) {
+        switch (entry.op) {
+            case INSERT_PUNISHMENT -> {
+                Punishment punishment = entry.punishment;
+                lastReads.compute(List.of(READ_PUNISHMENTS, punishment.getTarget()),
+                        (key, cached) -> withPunishment(cached, punishment));
+                Object address = ReplicaRouter.ipKey(SQLColumns.ip(punishment.getIpAddress()));
+                if (address != null) {
+                    lastReads.compute(List.of(READ_PUNISHMENTS_BY_IP, address),
+                            (key, cached) -> withPunishment(cached, punishment));
+                }
+            }
+            case DEACTIVATE_PUNISHMENT -> removeCachedPunishments(punishment ->
+                    punishment.getType() == entry.type && entry.target.equals(punishment.getTarget()));
+            case DEACTIVATE_EXPIRED -> removeCachedPunishments(punishment -> punishment.getType() == entry.type
+                    && punishment.getExpiresAt() > 0 && punishment.getExpiresAt() <= entry.before);
+            case DEACTIVATE_IP_BAN -> {
+                byte[] address = SQLColumns.ip(entry.ip);
+                removeCachedPunishments(punishment -> punishment.getType() == Punishment.Type.IP_BAN
+                        && address != null && Arrays.equals(address, SQLColumns.ip(punishment.getIpAddress())));
+            }
+            case RECORD_IP -> {
+                byte[] address = SQLColumns.ip(entry.ip);
+                if (address != null) {
+                    lastReads.put(List.of(READ_PLAYER_IP, entry.target), SQLColumns.ip(address));
+                }
+            }
+            default -> {
+                // Notes and warnings are not kept for outages.
+            }
+        }
+    }
+
+    /**
+     * Drop punishments matching {@code filter} from every kept punishment read.
+     */
+    @SuppressWarnings("unchecked")
+    private void removeCachedPunishments(Predicate<Punishment> filter) {
+        lastReads.replaceAll((key, cached) -> {
+            Object action = ((List<?>) key).get(0);
+            if (!READ_PUNISHMENTS.equals(action) && !READ_PUNISHMENTS_BY_IP.equals(action)) {
+                return cached;
+            }
+            return ((List<Punishment>) cached).stream().filter(filter.negate()).toList();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object withPunishment(Object cached, Punishment punishment) {
+        List<Punishment> punishments = cached == null ? new ArrayList<>() : new ArrayList<>((List<Punishment>) cached);
+        punishments.add(punishment);
+        return List.copyOf(punishments);
+    }
+
+    /**
+     * Send reads about these players and addresses to the primary until the
+     * replicas have the write.
+     */
+    private void wrote(Object... keys) {
+        if (replicas != null) {
+            replicas.wrote(keys);
+        }
+    }
+
+    /**
+     * Measure replica lag now instead of waiting for the next scheduled check.
+     */
+    void checkReplicas() {
+        if (replicas != null) {
+            replicas.check(dataSource);
+        }
+    }
+
+    /**
+     * Check whether an error means the connection itself is unusable, as
+     * opposed to a problem with the statement.
+     */
+    static boolean isConnectionFailure(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLRecoverableException
+                    || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+            // SQLState class 08 is "connection exception"; MySQL's CommunicationsException is 08S01
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void startHeartbeat() {
+        boolean checkServer = poolSettings.heartbeatIntervalMillis() > 0;
+        if (!checkServer && replicas == null) {
+            return;
         }
+
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "StaffUtilsPlus-DB-Heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (checkServer) {
+            heartbeat.scheduleWithFixedDelay(this::checkConnection, poolSettings.heartbeatIntervalMillis(),
+                    poolSettings.heartbeatIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (replicas != null) {
+            heartbeat.scheduleWithFixedDelay(this::checkReplicas, 0, replicaSettings.checkIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Check one pooled connection with a round trip and track whether the
+     * server is reachable. Runs on the heartbeat thread, never before a query.
+     */
+    private void checkConnection() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (connection.isValid(HEARTBEAT_TIMEOUT_SECONDS)) {
+                connectionRestored();
+                breaker.success();
+                replaySpool();
+            } else {
+                dataSource.evictConnection(connection);
+                connectionLost("connection did not respond");
+                breaker.failure();
+            }
+        } catch (SQLException e) {
+            connectionLost(e.getMessage());
+            breaker.failure();
+        } finally {
+            lastHeartbeat = System.currentTimeMillis();
+        }
+    }
+
+    private void connectionLost(String reason) {
+        if (!connectionUp) {
+            return;
+        }
+        connectionUp = false;
+        downSince = System.currentTimeMillis();
+        plugin.getLogger().warning("Lost connection to the database (" + reason + "), reconnecting");
+
+        // The other idle connections are most likely dead too; replace them instead of failing on each
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            pool.softEvictConnections();
+        }
+    }
+
+    private void connectionRestored() {
+        if (connectionUp) {
+            return;
+        }
+        connectionUp = true;
+        plugin.getLogger().info("Reconnected to the database after " + (System.currentTimeMillis() - downSince) / 1000 + "s");
+    }
+
+    // --- Outages ---
+    private void breakerChanged(CircuitBreaker.State from, CircuitBreaker.State to) {
+        if (to == CircuitBreaker.State.OPEN && from == CircuitBreaker.State.CLOSED) {
+            announce("The database is unreachable; using known punishments and spooling changes until it is back", true);
+        } else if (to == CircuitBreaker.State.CLOSED) {
+            announce("The database is reachable again"
+                    + (spool.size() > 0 ? "; replaying " + spool.size() + " spooled change(s)" : ""), false);
+            replaySpool();
+        }
+        // Failed trials while half-open are not announced; the status command shows them
+    }
+
+    /**
+     * Log an outage state change and tell staff who can see the database status.
+     */
+    private void announce(String message, boolean problem) {
+        if (problem) {
+            plugin.getLogger().warning(message);
+        } else {
+            plugin.getLogger().info(message);
+        }
+        Server server = plugin.getServer();
+        if (server != null && plugin.isEnabled()) {
+            String text = (problem ? ChatColor.RED : ChatColor.GREEN) + "[StaffUtils] " + message;
+            server.getScheduler().runTask(plugin, () -> server.broadcast(text, "staffutils.status"));
+        }
+    }
+
+    /**
+     * Send a write to the database, or to the spool while the database is
+     * unreachable or earlier writes are still waiting there. Either way the
+     * reads kept for outages are updated first.
+     */
+    private CompletableFuture<Void> submit(JournalEntry entry) {
+        updateCachedReads(entry);
+        if (spool.offer(entry, breaker.isOpen())) {
+            if (!breaker.isOpen()) {
+                replaySpool();
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        return apply(entry, () -> spill(entry));
+    }
+
+    /**
+     * Spool a write that could not reach the database. If that was a one-off
+     * and the breaker stayed closed, replay it straight away.
+     */
+    private void spill(JournalEntry entry) {
+        spool.append(entry);
+        if (!breaker.isOpen()) {
+            replaySpool();
+        }
+    }
+
+    /**
+     * Write a spooled or submitted change to the database.
+     *
+     * @param entry The change
+     * @param lost Run if the database cannot be reached, instead of logging the failure
+     * @return Completes once the change is written, has failed, or has been handed to {@code lost}
+     */
+    private CompletableFuture<Void> apply(JournalEntry entry, Runnable lost) {
+        return switch (entry.op) {
+            case INSERT_PUNISHMENT -> writeInsertPunishment(entry.punishment, lost);
+            case DEACTIVATE_PUNISHMENT -> writeDeactivatePunishment(entry.target, entry.type, lost);
+            case DEACTIVATE_EXPIRED -> writeDeactivateExpired(entry.type, entry.before, lost);
+            case DEACTIVATE_IP_BAN -> writeDeactivateIPBan(entry.ip, lost);
+            case INSERT_NOTE -> writeInsertNote(entry.note, lost);
+            case REMOVE_NOTE -> writeRemoveNote(entry.target, entry.id, lost);
+            case INSERT_WARNING -> writeInsertWarning(entry.warning, lost);
+            case REMOVE_WARNING -> writeRemoveWarning(entry.target, entry.id, lost);
+            case RECORD_IP -> writeRecordPlayerIP(entry.target, entry.ip, lost);
+        };
+    }
+
+    /**
+     * Replay the spool against the database, one change at a time and in the
+     * order they were made. Stops, keeping the change that failed, if the
+     * database becomes unreachable again. Does nothing if a replay is already running.
+     */
+    private void replaySpool() {
+        if (spool.startReplay()) {
+            executor.execute(() -> replayNext(0));
+        }
+    }
+
+    private void replayNext(int replayed) {
+        JournalEntry entry = spool.next();
+        if (entry == null) {
+            if (replayed > 0) {
+                announce("Replayed " + replayed + " change(s) spooled during the database outage", false);
+            }
+            return;
+        }
+
+        AtomicBoolean lost = new AtomicBoolean();
+        apply(entry, () -> lost.set(true)).whenCompleteAsync((ignored, error) -> {
+            if (lost.get()) {
+                spool.pause();
+                plugin.getLogger().warning("Stopped replaying spooled changes, the database is unreachable again ("
+                        + spool.size() + " left)");
+                return;
+            }
+            spool.replayed();
+            replayNext(replayed + 1);
+        }, executor);
+    }
+
+    // --- Blocking API, waiting on the async queries ---
+    @Override
+    public void insertPunishment(Punishment punishment) {
+        await(insertPunishmentAsync(punishment), "inserting punishment", null);
+    }
+
+    @Override
+    public List<Punishment> getPunishments(UUID target) {
+        return await(getPunishmentsAsync(target), "getting punishments", new ArrayList<>());
+    }
+
+    @Override
+    public List<Punishment> getPunishmentHistory(UUID target) {
+        return await(getPunishmentHistoryAsync(target), "getting punishment history", new ArrayList<>());
+    }
+
+    @Override
+    public List<Punishment> getPunishmentsByIssuer(UUID target) {
+        return await(getPunishmentsByIssuerAsync(target), "getting punishments by issuer", new ArrayList<>());
+    }
+
+    @Override
+    public Page<Punishment> getPunishmentHistoryPage(UUID target, Page.Cursor cursor, int limit) {
+        return await(getPunishmentHistoryPageAsync(target, cursor, limit), "getting punishment history", EMPTY_PAGE);
+    }
+
+    @Override
+    public PunishmentCounts countPunishmentHistory(UUID target) {
+        return await(countPunishmentHistoryAsync(target), "counting punishment history", PunishmentCounts.NONE);
+    }
+
+    @Override
+    public Page<Punishment> getPunishmentsByIssuerPage(UUID issuer, Page.Cursor cursor, int limit) {
+        return await(getPunishmentsByIssuerPageAsync(issuer, cursor, limit), "getting punishments by issuer", EMPTY_PAGE);
+    }
+
+    @Override
+    public List<Punishment> getActivePunishments(Set<Punishment.Type> types, int offset, int limit) {
+        return await(getActivePunishmentsAsync(types, offset, limit), "getting active punishments", new ArrayList<>());
+    }
+
+    @Override
+    public void deactivatePunishment(UUID target, Punishment.Type type) {
+        await(deactivatePunishmentAsync(target, type), "deactivating punishment", null);
+    }
+
+    @Override
+    public void deactivateExpiredPunishments(Punishment.Type type, long before) {
+        await(deactivateExpiredPunishmentsAsync(type, before), "deactivating expired punishments", null);
+    }
+
+    @Override
+    public String getPlayerIP(UUID uuid) {
+        return await(getPlayerIPAsync(uuid), "getting player IP", null);
     }
 
     @Override
     public List<UUID> getPlayersByIP(String ipAddress) {
-        if (ipAddress == null) {
-            return new ArrayList<>();
-        }
+        return await(getPlayersByIPAsync(ipAddress), "getting players by IP", new ArrayList<>());
+    }
+
+    @Override
+    public void recordPlayerIP(UUID uuid, String ipAddress) {
+        await(recordPlayerIPAsync(uuid, ipAddress), "recording player IP", null);
+    }
+
+    @Override
+    public List<Punishment> getPunishmentsByIP(String ipAddress) {
+        return await(getPunishmentsByIPAsync(ipAddress), "getting punishments by IP", new ArrayList<>());
+    }
+
+    @Override
+    public void deactivateIPBan(String ipAddress) {
+        await(deactivateIPBanAsync(ipAddress), "deactivating IP ban", null);
+    }
+
+    @Override
+    public void insertNote(Note note) {
+        await(insertNoteAsync(note), "inserting note", null);
+    }
+
+    @Override
+    public void removeNote(UUID target, int noteId) {
+        await(removeNoteAsync(target, noteId), "removing note", null);
+    }
+
+    @Override
+    public List<Note> getNotes(UUID target) {
+        return await(getNotesAsync(target), "getting notes", new ArrayList<>());
+    }
 
+    @Override
+    public Note getNote(int noteId) {
+        return await(getNoteAsync(noteId), "getting note", null);
+    }
+
+    @Override
+    public void insertWarning(Warning warning) {
+        await(insertWarningAsync(warning), "inserting warning", null);
+    }
+
+    @Override
+    public void removeWarning(UUID target, int warningId) {
+        await(removeWarningAsync(target, warningId), "removing warning", null);
+    }
+
+    @Override
+    public List<Warning> getWarnings(UUID target) {
+        return await(getWarningsAsync(target), "getting warnings", new ArrayList<>());
+    }
+
+    @Override
+    public Warning getWarning(int warningId) {
+        return await(getWarningAsync(warningId), "getting warning", null);
+    }
+
+    @Override
+    public int getActiveWarningSeverity(UUID target) {
+        return await(getActiveWarningSeverityAsync(target), "getting warning level", 0);
+    }
+
+    @Override
+    public int countActiveWarnings(UUID target, long since) {
+        return await(countActiveWarningsAsync(target, since), "counting warnings", 0);
+    }
+
+    @Override
+    public List<Warning> getWarningHistory(UUID target) {
+        return await(getWarningHistoryAsync(target), "getting warning history", new ArrayList<>());
+    }
+
+    /**
+     * Wait for a query started by one of the async methods, giving up after five seconds.
+     *
+     * @param query The running query
+     * @param action What the query does, for the log
+     * @param fallback Returned if the query does not finish in time
+     * @return The query result, or the fallback
+     */
+    private <T> T await(CompletableFuture<T> query, String action, T fallback) {
         try {
-            return CompletableFuture.supplyAsync(() -> {
-                List<UUID> players = new ArrayList<>();
-                String sql = "SELECT uuid FROM player_ips WHERE ip_address = ?";
+            return query.get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            plugin.getLogger().severe("Interrupted while " + action);
+            return fallback;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error " + action + ": " + e.getMessage());
+            return fallback;
+        }
+    }
 
-                try {
-                    ensureConnection();
-                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                        ps.setString(1, ipAddress);
-                        try (ResultSet rs = ps.executeQuery()) {
-                            while (rs.next()) {
-                                players.add(UUID.fromString(rs.getString("uuid")));
-                            }
-                        }
+    // --- Punishments Implementation ---
+    @Override
+    public CompletableFuture<Void> insertPunishmentAsync(Punishment punishment) {
+        if (punishment == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(JournalEntry.insertPunishment(punishment));
+    }
+
+    private CompletableFuture<Void> writeInsertPunishment(Punishment punishment, Runnable lost) {
+        String sql = """
+            INSERT INTO punishments (target_uuid, type, reason, issuer_uuid, issued_at, expires_at, ip_address, active) 
+            VALUES (?, ?, ?, ?, ?, ?, ?, 1)
+            """;
+
+        wrote(punishment.getTarget(), punishment.getIssuer(), ReplicaRouter.ipKey(SQLColumns.ip(punishment.getIpAddress())));
+        return writes.enqueue(sql, null, "insert punishment", ps -> {
+            ps.setBytes(1, SQLColumns.uuid(punishment.getTarget()));
+            ps.setInt(2, SQLColumns.type(punishment.getType()));
+            ps.setString(3, punishment.getReason());
+            ps.setBytes(4, SQLColumns.uuid(punishment.getIssuer()));
+            ps.setLong(5, punishment.getIssuedAt());
+            ps.setLong(6, punishment.getExpiresAt());
+            ps.setBytes(7, SQLColumns.ip(punishment.getIpAddress()));
+        }, lost);
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsAsync(UUID target) {
+        if (target == null) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT " + PUNISHMENT_COLUMNS + " FROM punishments WHERE target_uuid = ? AND active = 1";
+            return withCachedRead(target, READ_PUNISHMENTS, new ArrayList<>(), connection -> {
+                List<Punishment> punishments = new ArrayList<>();
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, SQLColumns.uuid(target));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        punishments.add(createPunishmentFromResultSet(rs));
                     }
-                } catch (SQLException e) {
-                    plugin.getLogger().warning("Failed to get players by IP: " + e.getMessage());
-                    e.printStackTrace();
                 }
-                return players;
-            }, executor).get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error getting players by IP: " + e.getMessage());
-            return new ArrayList<>();
+                return punishments;
+            });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentHistoryAsync(UUID target) {
+        if (target == null) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
         }
+
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT " + PUNISHMENT_COLUMNS + " FROM punishments WHERE target_uuid = ? " +
+                    "UNION SELECT " + PUNISHMENT_COLUMNS + " FROM punishments_archive WHERE target_uuid = ? ORDER BY issued_at";
+            return withReadConnection(target, "get punishment history", new ArrayList<>(), connection -> {
+                List<Punishment> punishments = new ArrayList<>();
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, SQLColumns.uuid(target));
+                ps.setBytes(2, SQLColumns.uuid(target));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        punishments.add(createPunishmentFromResultSet(rs));
+                    }
+                }
+                return punishments;
+            });
+        }, executor);
     }
 
     @Override
-    public void recordPlayerIP(UUID uuid, String ipAddress) {
-        if (uuid == null || ipAddress == null) {
-            return;
+    public CompletableFuture<Page<Punishment>> getPunishmentHistoryPageAsync(UUID target, Page.Cursor cursor, int limit) {
+        return punishmentPageAsync("get punishment history", "target_uuid", target, cursor, limit,
+                "punishments", "punishments_archive");
+    }
+
+    /**
+     * Counted by the database from the target's rows in both tables, so only
+     * the two totals are sent back.
+     */
+    @Override
+    public CompletableFuture<PunishmentCounts> countPunishmentHistoryAsync(UUID target) {
+        if (target == null) {
+            return CompletableFuture.completedFuture(PunishmentCounts.NONE);
         }
 
-        CompletableFuture.runAsync(() -> {
-            String sql;
-            if ("sqlite".equals(type)) {
-                sql = "INSERT OR REPLACE INTO player_ips (uuid, ip_address, last_updated) VALUES (?, ?, ?)";
-            } else {
-                sql = "INSERT INTO player_ips (uuid, ip_address, last_updated) VALUES (?, ?, ?) " +
-                        "ON DUPLICATE KEY UPDATE ip_address = VALUES(ip_address), last_updated = VALUES(last_updated)";
+        String sql = "SELECT COUNT(*), COUNT(CASE WHEN active = 1 THEN 1 END) FROM (" +
+                "SELECT active FROM punishments WHERE target_uuid = ? " +
+                "UNION ALL SELECT active FROM punishments_archive WHERE target_uuid = ?) history";
+        return CompletableFuture.supplyAsync(() ->
+                withReadConnection(target, "count punishment history", PunishmentCounts.NONE, connection -> {
+                    PreparedStatement ps = statements.prepare(connection, sql);
+                    ps.setBytes(1, SQLColumns.uuid(target));
+                    ps.setBytes(2, SQLColumns.uuid(target));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return rs.next() ? new PunishmentCounts(rs.getLong(2), rs.getLong(1)) : PunishmentCounts.NONE;
+                    }
+                }), executor);
+    }
+
+    @Override
+    public CompletableFuture<Page<Punishment>> getPunishmentsByIssuerPageAsync(UUID issuer, Page.Cursor cursor, int limit) {
+        return punishmentPageAsync("get punishments by issuer", "issuer_uuid", issuer, cursor, limit,
+                "punishments", "punishments_archive");
+    }
+
+    /**
+     * Read one page of the punishments whose {@code column} is the player,
+     * newest first. Each table is read from its (column, issued_at) index,
+     * starting at the cursor and stopping after one page, and the tables'
+     * rows are merged; a page costs the same however far back it is.
+     */
+    private CompletableFuture<Page<Punishment>> punishmentPageAsync(String action, String column, UUID player,
+                                                                     Page.Cursor cursor, int limit, String... tables) {
+        if (player == null || limit <= 0) {
+            return CompletableFuture.completedFuture(EMPTY_PAGE);
+        }
+
+        boolean towardsNewer = cursor != null && cursor.towardsNewer();
+        String compare = towardsNewer ? ">" : "<";
+        String order = towardsNewer ? " ORDER BY issued_at, id" : " ORDER BY issued_at DESC, id DESC";
+        StringBuilder query = new StringBuilder();
+        for (String table : tables) {
+            if (query.length() > 0) {
+                query.append(" UNION ");
             }
+            query.append("SELECT * FROM (SELECT ").append(PUNISHMENT_COLUMNS).append(" FROM ").append(table)
+                    .append(" WHERE ").append(column).append(" = ? AND issued_at ").append(compare).append("= ?")
+                    .append(" AND (issued_at ").append(compare).append(" ? OR id ").append(compare).append(" ?)")
+                    .append(order).append(" LIMIT ?) ").append(table).append("_page");
+        }
+        String sql = query.append(order).append(" LIMIT ?").toString();
 
-            try {
-                ensureConnection();
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, uuid.toString());
-                    ps.setString(2, ipAddress);
-                    ps.setLong(3, System.currentTimeMillis());
-                    ps.executeUpdate();
+        // The newest page starts past every row
+        long issuedAt = cursor != null ? cursor.issuedAt() : Long.MAX_VALUE;
+        long id = cursor != null ? cursor.id() : Long.MAX_VALUE;
+        return CompletableFuture.supplyAsync(() ->
+                withReadConnection(player, action, EMPTY_PAGE, connection -> {
+                    PreparedStatement ps = statements.prepare(connection, sql);
+                    int index = 1;
+                    for (int i = 0; i < tables.length; i++) {
+                        ps.setBytes(index++, SQLColumns.uuid(player));
+                        ps.setLong(index++, issuedAt);
+                        ps.setLong(index++, issuedAt);
+                        ps.setLong(index++, id);
+                        ps.setInt(index++, limit + 1);
+                    }
+                    ps.setInt(index, limit + 1);
+
+                    List<Page.Keyed<Punishment>> fetched = new ArrayList<>(limit + 1);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            Punishment punishment = createPunishmentFromResultSet(rs);
+                            fetched.add(new Page.Keyed<>(punishment, punishment.getIssuedAt(), rs.getLong(1)));
+                        }
+                    }
+                    return Page.assemble(fetched, cursor, limit);
+                }), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getActivePunishmentsAsync(Set<Punishment.Type> types, int offset, int limit) {
+        if (types == null || types.isEmpty() || limit <= 0) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        // Permanent punishments are stored with an expiry of -1
+        String sql = "SELECT " + PUNISHMENT_COLUMNS + " FROM punishments WHERE type IN ("
+                + "?, ".repeat(types.size() - 1) + "?) AND active = 1 AND (expires_at <= 0 OR expires_at > ?) "
+                + "ORDER BY expires_at, id LIMIT ? OFFSET ?";
+        return CompletableFuture.supplyAsync(() ->
+                withReadConnection(null, "get active punishments", new ArrayList<>(), connection -> {
+                    List<Punishment> punishments = new ArrayList<>();
+                    PreparedStatement ps = statements.prepare(connection, sql);
+                    int index = 1;
+                    for (Punishment.Type type : types) {
+                        ps.setInt(index++, SQLColumns.type(type));
+                    }
+                    ps.setLong(index++, System.currentTimeMillis());
+                    ps.setInt(index++, limit);
+                    ps.setInt(index, Math.max(0, offset));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            punishments.add(createPunishmentFromResultSet(rs));
+                        }
+                    }
+                    return punishments;
+                }), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsByIssuerAsync(UUID target) {
+        if (target == null) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT " + PUNISHMENT_COLUMNS + " FROM punishments WHERE issuer_uuid = ? " +
+                    "UNION SELECT " + PUNISHMENT_COLUMNS + " FROM punishments_archive WHERE issuer_uuid = ? ORDER BY issued_at";
+            return withReadConnection(target, "get punishments", new ArrayList<>(), connection -> {
+                List<Punishment> punishments = new ArrayList<>();
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, SQLColumns.uuid(target));
+                ps.setBytes(2, SQLColumns.uuid(target));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        punishments.add(createPunishmentFromResultSet(rs));
+                    }
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to record player IP: " + e.getMessage());
-                e.printStackTrace();
-            }
+                return punishments;
+            });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> deactivatePunishmentAsync(UUID target, Punishment.Type type) {
+        if (target == null || type == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(JournalEntry.deactivatePunishment(target, type));
+    }
+
+    private CompletableFuture<Void> writeDeactivatePunishment(UUID target, Punishment.Type type, Runnable lost) {
+        wrote(target);
+        return writes.flush().thenRunAsync(() -> {
+            String sql = "UPDATE punishments SET active = 0 WHERE target_uuid = ? AND type = ? AND active = 1";
+            withConnection("deactivate punishment", null, lost, connection -> {
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, SQLColumns.uuid(target));
+                ps.setInt(2, SQLColumns.type(type));
+                ps.executeUpdate();
+                return null;
+            });
         }, executor).exceptionally(throwable -> {
-            plugin.getLogger().severe("Unexpected error recording player IP: " + throwable.getMessage());
-            throwable.printStackTrace();
+            plugin.getLogger().severe("Unexpected error deactivating punishment: " + throwable.getMessage());
             return null;
         });
     }
 
     @Override
-    public List<Punishment> getPunishmentsByIP(String ipAddress) {
-        if (ipAddress == null) {
-            return new ArrayList<>();
+    public CompletableFuture<Void> deactivateExpiredPunishmentsAsync(Punishment.Type type, long before) {
+        if (type == null) {
+            return CompletableFuture.completedFuture(null);
         }
+        return submit(JournalEntry.deactivateExpired(type, before));
+    }
 
-        try {
-            return CompletableFuture.supplyAsync(() -> {
-                List<Punishment> punishments = new ArrayList<>();
-                String sql = "SELECT * FROM punishments WHERE ip_address = ? AND active = 1";
+    /**
+     * One range update on (type, active, expires_at), so it only touches the
+     * rows that have expired.
+     */
+    private CompletableFuture<Void> writeDeactivateExpired(Punishment.Type type, long before, Runnable lost) {
+        return writes.flush().thenRunAsync(() -> {
+            String sql = "UPDATE punishments SET active = 0 WHERE type = ? AND active = 1 AND expires_at > 0 AND expires_at <= ?";
+            withConnection("deactivate expired punishments", null, lost, connection -> {
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setInt(1, SQLColumns.type(type));
+                ps.setLong(2, before);
+                ps.executeUpdate();
+                return null;
+            });
+        }, executor).exceptionally(throwable -> {
+            plugin.getLogger().severe("Unexpected error deactivating expired punishments: " + throwable.getMessage());
+            return null;
+        });
+    }
 
-                try {
-                    ensureConnection();
-                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                        ps.setString(1, ipAddress);
-                        try (ResultSet rs = ps.executeQuery()) {
-                            while (rs.next()) {
-                                punishments.add(createPunishmentFromResultSet(rs));
-                            }
-                        }
+    @Override
+    public CompletableFuture<String> getPlayerIPAsync(UUID uuid) {
+        if (uuid == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT ip_address FROM player_ips WHERE uuid = ?";
+            return withCachedRead(uuid, READ_PLAYER_IP, null, connection -> {
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, SQLColumns.uuid(uuid));
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return SQLColumns.ip(rs.getBytes(1));
                     }
-                } catch (SQLException e) {
-                    plugin.getLogger().warning("Failed to get punishments by IP: " + e.getMessage());
-                    e.printStackTrace();
                 }
-                return punishments;
-            }, executor).get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error getting punishments by IP: " + e.getMessage());
-            return new ArrayList<>();
+                return null;
+            });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<UUID>> getPlayersByIPAsync(String ipAddress) {
+        byte[] address = SQLColumns.ip(ipAddress);
+        if (address == null) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
         }
+
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT uuid FROM player_ips WHERE ip_address = ?";
+            return withReadConnection(ReplicaRouter.ipKey(address), "get players by IP", new ArrayList<>(), connection -> {
+                List<UUID> players = new ArrayList<>();
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, address);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        players.add(SQLColumns.uuid(rs.getBytes(1)));
+                    }
+                }
+                return players;
+            });
+        }, executor);
     }
 
     @Override
-    public void deactivateIPBan(String ipAddress) {
-        if (ipAddress == null) {
-            return;
+    public CompletableFuture<Void> recordPlayerIPAsync(UUID uuid, String ipAddress) {
+        byte[] address = SQLColumns.ip(ipAddress);
+        if (uuid == null || address == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(JournalEntry.recordIP(uuid, ipAddress));
+    }
+
+    private CompletableFuture<Void> writeRecordPlayerIP(UUID uuid, String ipAddress, Runnable lost) {
+        byte[] address = SQLColumns.ip(ipAddress);
+        String sql;
+        if ("sqlite".equals(type)) {
+            sql = "INSERT OR REPLACE INTO player_ips (uuid, ip_address, last_updated) VALUES (?, ?, ?)";
+        } else {
+            sql = "INSERT INTO player_ips (uuid, ip_address, last_updated) VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE ip_address = VALUES(ip_address), last_updated = VALUES(last_updated)";
         }
 
-        CompletableFuture.runAsync(() -> {
-            String sql = "UPDATE punishments SET active = 0 WHERE ip_address = ? AND type = 'IP_BAN' AND active = 1";
+        // Keyed by player, so repeated joins before the next batch only write the latest address
+        long now = System.currentTimeMillis();
+        wrote(uuid, ReplicaRouter.ipKey(address));
+        return writes.enqueue(sql, uuid, "record player IP", ps -> {
+            ps.setBytes(1, SQLColumns.uuid(uuid));
+            ps.setBytes(2, address);
+            ps.setLong(3, now);
+        }, lost);
+    }
 
-            try {
-                ensureConnection();
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, ipAddress);
-                    ps.executeUpdate();
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsByIPAsync(String ipAddress) {
+        byte[] address = SQLColumns.ip(ipAddress);
+        if (address == null) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT " + PUNISHMENT_COLUMNS + " FROM punishments WHERE ip_address = ? AND active = 1";
+            return withCachedRead(ReplicaRouter.ipKey(address), READ_PUNISHMENTS_BY_IP, new ArrayList<>(), connection -> {
+                List<Punishment> punishments = new ArrayList<>();
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, address);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        punishments.add(createPunishmentFromResultSet(rs));
+                    }
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to deactivate IP ban: " + e.getMessage());
-                e.printStackTrace();
-            }
+                return punishments;
+            });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> deactivateIPBanAsync(String ipAddress) {
+        byte[] address = SQLColumns.ip(ipAddress);
+        if (address == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(JournalEntry.deactivateIPBan(ipAddress));
+    }
+
+    private CompletableFuture<Void> writeDeactivateIPBan(String ipAddress, Runnable lost) {
+        byte[] address = SQLColumns.ip(ipAddress);
+        wrote(ReplicaRouter.ipKey(address));
+        return writes.flush().thenRunAsync(() -> {
+            String sql = "UPDATE punishments SET active = 0 WHERE ip_address = ? AND type = ? AND active = 1";
+            withConnection("deactivate IP ban", null, lost, connection -> {
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, address);
+                ps.setInt(2, SQLColumns.type(Punishment.Type.IP_BAN));
+                ps.executeUpdate();
+                return null;
+            });
         }, executor).exceptionally(throwable -> {
             plugin.getLogger().severe("Unexpected error deactivating IP ban: " + throwable.getMessage());
             return null;
@@ -554,234 +1771,332 @@ public class SQLDatabase implements Database {
     }
 
     /**
-     * Create a Punishment object from a database result set.
+     * Create a Punishment object from a row selected with {@link #PUNISHMENT_COLUMNS}.
+     * Columns are read by position, in order, and each one only once.
      *
      * @param rs The result set
      * @return The Punishment object
      * @throws SQLException If an error occurs reading the result set
      */
-    private Punishment createPunishmentFromResultSet(ResultSet rs) throws SQLException {
-        return new Punishment(
-                UUID.fromString(rs.getString("target_uuid")),
-                Punishment.Type.valueOf(rs.getString("type")),
-                rs.getString("reason"),
-                rs.getLong("issued_at"),
-                rs.getLong("expires_at"),
-                rs.getString("issuer_uuid") != null ? UUID.fromString(rs.getString("issuer_uuid")) : null
-        );
+    static Punishment createPunishmentFromResultSet(ResultSet rs) throws SQLException {
+        UUID target = SQLColumns.uuid(rs.getBytes(2));
+        Punishment.Type type = SQLColumns.type(rs.getInt(3));
+        String reason = rs.getString(4);
+        UUID issuer = SQLColumns.uuid(rs.getBytes(5));
+        long issuedAt = rs.getLong(6);
+        long expiresAt = rs.getLong(7);
+        String ipAddress = SQLColumns.ip(rs.getBytes(8));
+        boolean active = rs.getBoolean(9);
+
+        Punishment punishment = new Punishment(target, type, reason, issuedAt, expiresAt, issuer, ipAddress);
+        punishment.setActive(active);
+        return punishment;
     }
 
     // --- Notes Implementation ---
     @Override
-    public void insertNote(Note note) {
-        if (note == null) return;
-        CompletableFuture.runAsync(() -> {
-            String sql = "INSERT INTO notes (target_uuid, issuer_uuid, content, timestamp) VALUES (?, ?, ?, ?)";
-            try {
-                ensureConnection();
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, note.target().toString());
-                    ps.setString(2, note.issuer() != null ? note.issuer().toString() : null);
-                    ps.setString(3, note.content());
-                    ps.setLong(4, note.timestamp());
-                    ps.executeUpdate();
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to insert note: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }, executor);
+    public CompletableFuture<Void> insertNoteAsync(Note note) {
+        if (note == null) return CompletableFuture.completedFuture(null);
+        return submit(JournalEntry.insertNote(note));
+    }
+
+    private CompletableFuture<Void> writeInsertNote(Note note, Runnable lost) {
+        String sql = "INSERT INTO notes (target_uuid, issuer_uuid, content, timestamp) VALUES (?, ?, ?, ?)";
+        wrote(note.target());
+        return writes.enqueue(sql, null, "insert note", ps -> {
+            ps.setBytes(1, SQLColumns.uuid(note.target()));
+            ps.setBytes(2, SQLColumns.uuid(note.issuer()));
+            ps.setString(3, note.content());
+            ps.setLong(4, note.timestamp());
+        }, lost);
     }
 
     @Override
-    public void removeNote(UUID target, int noteId) {
-        CompletableFuture.runAsync(() -> {
+    public CompletableFuture<Void> removeNoteAsync(UUID target, int noteId) {
+        return submit(JournalEntry.removeNote(target, noteId));
+    }
+
+    private CompletableFuture<Void> writeRemoveNote(UUID target, int noteId, Runnable lost) {
+        wrote(target);
+        return writes.flush().thenRunAsync(() -> {
             String sql = "DELETE FROM notes WHERE id = ? AND target_uuid = ?";
-            try {
-                ensureConnection();
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setInt(1, noteId);
-                    ps.setString(2, target.toString());
-                    ps.executeUpdate();
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to remove note: " + e.getMessage());
-                e.printStackTrace();
-            }
+            withConnection("remove note", null, lost, connection -> {
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setInt(1, noteId);
+                ps.setBytes(2, SQLColumns.uuid(target));
+                ps.executeUpdate();
+                return null;
+            });
         }, executor);
     }
 
     @Override
-    public List<Note> getNotes(UUID target) {
-        try {
-            return CompletableFuture.supplyAsync(() -> {
+    public CompletableFuture<List<Note>> getNotesAsync(UUID target) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT " + NOTE_COLUMNS + " FROM notes WHERE target_uuid = ?";
+            return withReadConnection(target, "get notes", new ArrayList<>(), connection -> {
                 List<Note> notes = new ArrayList<>();
-                String sql = "SELECT * FROM notes WHERE target_uuid = ?";
-                try {
-                    ensureConnection();
-                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                        ps.setString(1, target.toString());
-                        try (ResultSet rs = ps.executeQuery()) {
-                            while (rs.next()) {
-                                notes.add(createNoteFromResultSet(rs));
-                            }
-                        }
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, SQLColumns.uuid(target));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(createNoteFromResultSet(rs));
                     }
-                } catch (SQLException e) {
-                    plugin.getLogger().warning("Failed to get notes: " + e.getMessage());
-                    e.printStackTrace();
                 }
                 return notes;
-            }, executor).get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error getting notes: " + e.getMessage());
-            return new ArrayList<>();
-        }
+            });
+        }, executor);
     }
 
     @Override
-    public Note getNote(int noteId) {
-        try {
-            return CompletableFuture.supplyAsync(() -> {
-                String sql = "SELECT * FROM notes WHERE id = ?";
-                try {
-                    ensureConnection();
-                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                        ps.setInt(1, noteId);
-                        try (ResultSet rs = ps.executeQuery()) {
-                            if (rs.next()) {
-                                return createNoteFromResultSet(rs);
-                            }
-                        }
+    public CompletableFuture<Note> getNoteAsync(int noteId) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT " + NOTE_COLUMNS + " FROM notes WHERE id = ?";
+            return withReadConnection(null, "get note", null, connection -> {
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setInt(1, noteId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return createNoteFromResultSet(rs);
                     }
-                } catch (SQLException e) {
-                    plugin.getLogger().warning("Failed to get note: " + e.getMessage());
-                    e.printStackTrace();
                 }
                 return null;
-            }, executor).get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error getting note: " + e.getMessage());
-            return null;
-        }
+            });
+        }, executor);
     }
 
-    private Note createNoteFromResultSet(ResultSet rs) throws SQLException {
+    /**
+     * Create a Note from a row selected with {@link #NOTE_COLUMNS}, reading columns by position.
+     */
+    static Note createNoteFromResultSet(ResultSet rs) throws SQLException {
         return new Note(
-                rs.getInt("id"),
-                UUID.fromString(rs.getString("target_uuid")),
-                rs.getString("issuer_uuid") != null ? UUID.fromString(rs.getString("issuer_uuid")) : null,
-                rs.getString("content"),
-                rs.getLong("timestamp")
+                rs.getInt(1),
+                SQLColumns.uuid(rs.getBytes(2)),
+                SQLColumns.uuid(rs.getBytes(3)),
+                rs.getString(4),
+                rs.getLong(5)
         );
     }
 
     // --- Warnings Implementation ---
     @Override
-    public void insertWarning(Warning warning) {
-        if (warning == null) return;
-        CompletableFuture.runAsync(() -> {
-            String sql = "INSERT INTO warnings (target_uuid, issuer_uuid, reason, severity, timestamp, active) VALUES (?, ?, ?, ?, ?, ?)";
-            try {
-                ensureConnection();
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, warning.getTarget().toString());
-                    ps.setString(2, warning.getIssuer() != null ? warning.getIssuer().toString() : null);
-                    ps.setString(3, warning.getReason());
-                    ps.setInt(4, warning.getSeverity());
-                    ps.setLong(5, warning.getTimestamp());
-                    ps.setBoolean(6, warning.isActive());
-                    ps.executeUpdate();
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to insert warning: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }, executor);
+    public CompletableFuture<Void> insertWarningAsync(Warning warning) {
+        if (warning == null) return CompletableFuture.completedFuture(null);
+        return submit(JournalEntry.insertWarning(warning));
+    }
+
+    private CompletableFuture<Void> writeInsertWarning(Warning warning, Runnable lost) {
+        String sql = "INSERT INTO warnings (target_uuid, issuer_uuid, reason, severity, timestamp, active) VALUES (?, ?, ?, ?, ?, ?)";
+        wrote(warning.getTarget());
+        return writes.enqueue(sql, null, "insert warning", ps -> {
+            ps.setBytes(1, SQLColumns.uuid(warning.getTarget()));
+            ps.setBytes(2, SQLColumns.uuid(warning.getIssuer()));
+            ps.setString(3, warning.getReason());
+            ps.setInt(4, warning.getSeverity());
+            ps.setLong(5, warning.getTimestamp());
+            ps.setBoolean(6, warning.isActive());
+        }, lost);
     }
 
     @Override
-    public void removeWarning(UUID target, int warningId) {
-        CompletableFuture.runAsync(() -> {
+    public CompletableFuture<Void> removeWarningAsync(UUID target, int warningId) {
+        return submit(JournalEntry.removeWarning(target, warningId));
+    }
+
+    private CompletableFuture<Void> writeRemoveWarning(UUID target, int warningId, Runnable lost) {
+        wrote(target);
+        return writes.flush().thenRunAsync(() -> {
             String sql = "UPDATE warnings SET active = 0 WHERE id = ? AND target_uuid = ?";
-            try {
-                ensureConnection();
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setInt(1, warningId);
-                    ps.setString(2, target.toString());
-                    ps.executeUpdate();
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to remove warning: " + e.getMessage());
-                e.printStackTrace();
-            }
+            withConnection("remove warning", null, lost, connection -> {
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setInt(1, warningId);
+                ps.setBytes(2, SQLColumns.uuid(target));
+                ps.executeUpdate();
+                return null;
+            });
         }, executor);
     }
 
     @Override
-    public List<Warning> getWarnings(UUID target) {
-        try {
-            return CompletableFuture.supplyAsync(() -> {
+    public CompletableFuture<List<Warning>> getWarningsAsync(UUID target) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT " + WARNING_COLUMNS + " FROM warnings WHERE target_uuid = ?";
+            return withReadConnection(target, "get warnings", new ArrayList<>(), connection -> {
                 List<Warning> warnings = new ArrayList<>();
-                String sql = "SELECT * FROM warnings WHERE target_uuid = ?";
-                try {
-                    ensureConnection();
-                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                        ps.setString(1, target.toString());
-                        try (ResultSet rs = ps.executeQuery()) {
-                            while (rs.next()) {
-                                warnings.add(createWarningFromResultSet(rs));
-                            }
-                        }
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, SQLColumns.uuid(target));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        warnings.add(createWarningFromResultSet(rs));
                     }
-                } catch (SQLException e) {
-                    plugin.getLogger().warning("Failed to get warnings: " + e.getMessage());
-                    e.printStackTrace();
                 }
                 return warnings;
-            }, executor).get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error getting warnings: " + e.getMessage());
-            return new ArrayList<>();
-        }
+            });
+        }, executor);
     }
 
     @Override
-    public Warning getWarning(int warningId) {
-        try {
-            return CompletableFuture.supplyAsync(() -> {
-                String sql = "SELECT * FROM warnings WHERE id = ?";
-                try {
-                    ensureConnection();
-                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                        ps.setInt(1, warningId);
-                        try (ResultSet rs = ps.executeQuery()) {
-                            if (rs.next()) {
-                                return createWarningFromResultSet(rs);
-                            }
-                        }
+    public CompletableFuture<Warning> getWarningAsync(int warningId) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT " + WARNING_COLUMNS + " FROM warnings WHERE id = ?";
+            return withReadConnection(null, "get warning", null, connection -> {
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setInt(1, warningId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return createWarningFromResultSet(rs);
                     }
-                } catch (SQLException e) {
-                    plugin.getLogger().warning("Failed to get warning: " + e.getMessage());
-                    e.printStackTrace();
                 }
                 return null;
-            }, executor).get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error getting warning: " + e.getMessage());
-            return null;
+            });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getActiveWarningSeverityAsync(UUID target) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT COALESCE(SUM(severity), 0) FROM warnings WHERE target_uuid = ? AND active = 1";
+            return withReadConnection(target, "get warning level", 0, connection -> {
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, SQLColumns.uuid(target));
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> countActiveWarningsAsync(UUID target, long since) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT COUNT(*) FROM warnings WHERE target_uuid = ? AND active = 1 AND timestamp >= ?";
+            return withReadConnection(target, "count warnings", 0, connection -> {
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, SQLColumns.uuid(target));
+                ps.setLong(2, since);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Warning>> getWarningHistoryAsync(UUID target) {
+        if (target == null) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
         }
+
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT " + WARNING_COLUMNS + " FROM warnings WHERE target_uuid = ? " +
+                    "UNION SELECT " + WARNING_COLUMNS + " FROM warnings_archive WHERE target_uuid = ? ORDER BY timestamp";
+            return withReadConnection(target, "get warning history", new ArrayList<>(), connection -> {
+                List<Warning> warnings = new ArrayList<>();
+                PreparedStatement ps = statements.prepare(connection, sql);
+                ps.setBytes(1, SQLColumns.uuid(target));
+                ps.setBytes(2, SQLColumns.uuid(target));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        warnings.add(createWarningFromResultSet(rs));
+                    }
+                }
+                return warnings;
+            });
+        }, executor);
     }
 
-    private Warning createWarningFromResultSet(ResultSet rs) throws SQLException {
+    /**
+     * Create a Warning from a row selected with {@link #WARNING_COLUMNS}, reading columns by position.
+     */
+    static Warning createWarningFromResultSet(ResultSet rs) throws SQLException {
         return new Warning(
-                rs.getInt("id"),
-                UUID.fromString(rs.getString("target_uuid")),
-                rs.getString("issuer_uuid") != null ? UUID.fromString(rs.getString("issuer_uuid")) : null,
-                rs.getString("reason"),
-                rs.getInt("severity"),
-                rs.getLong("timestamp"),
-                rs.getBoolean("active")
+                rs.getInt(1),
+                SQLColumns.uuid(rs.getBytes(2)),
+                SQLColumns.uuid(rs.getBytes(3)),
+                rs.getString(4),
+                rs.getInt(5),
+                rs.getLong(6),
+                rs.getBoolean(7)
         );
     }
-}
\ No newline at end of file
+
+    // --- Archive Implementation ---
+    @Override
+    public int archiveInactive(long cutoff) {
+        return archiveTable("punishments", PUNISHMENT_COLUMNS, ARCHIVABLE_PUNISHMENTS, 3, cutoff)
+                + archiveTable("warnings", WARNING_COLUMNS, ARCHIVABLE_WARNINGS, 1, cutoff);
+    }
+
+    /**
+     * Move matching rows into the table's {@code _archive} twin in batches. Each
+     * batch is its own task on the executor, so regular queries run in between.
+     * Rows are copied by id and deleted in one transaction, and only rows that
+     * are now in the archive are deleted. A copy that hits an id already in the
+     * archive fails the batch rather than being skipped, since the live row
+     * would otherwise be deleted without a copy; rows whose id is already
+     * archived (left by a copy made before moves were transactional) are not
+     * selected and stay in the live table.
+     *
+     * @return The number of rows moved
+     */
+    private int archiveTable(String table, String columns, String condition, int cutoffParameters, long cutoff) {
+        int total = 0;
+        while (true) {
+            int moved;
+            try {
+                moved = CompletableFuture.supplyAsync(() -> withConnection("archive " + table, 0, connection -> {
+                    List<Integer> ids = new ArrayList<>();
+                    String select = "SELECT id FROM " + table + " WHERE (" + condition + ") AND NOT EXISTS (SELECT 1 FROM "
+                            + table + "_archive a WHERE a.id = " + table + ".id) LIMIT " + ARCHIVE_BATCH_SIZE;
+                    try (PreparedStatement ps = connection.prepareStatement(select)) {
+                        for (int i = 1; i <= cutoffParameters; i++) {
+                            ps.setLong(i, cutoff);
+                        }
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                ids.add(rs.getInt(1));
+                            }
+                        }
+                    }
+                    if (ids.isEmpty()) {
+                        return 0;
+                    }
+
+                    String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+                    String copySql = "INSERT INTO " + table + "_archive (" + columns + ") SELECT " + columns
+                            + " FROM " + table + " WHERE id IN (" + placeholders + ")";
+                    String deleteSql = "DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table
+                            + "_archive WHERE id IN (" + placeholders + "))";
+                    connection.setAutoCommit(false);
+                    try (PreparedStatement copy = connection.prepareStatement(copySql);
+                         PreparedStatement delete = connection.prepareStatement(deleteSql)) {
+                        for (int i = 0; i < ids.size(); i++) {
+                            copy.setInt(i + 1, ids.get(i));
+                            delete.setInt(i + 1, ids.get(i));
+                        }
+                        int copied = copy.executeUpdate();
+                        int deleted = delete.executeUpdate();
+                        if (copied != ids.size() || deleted != copied) {
+                            throw new SQLException("copied " + copied + " and deleted " + deleted + " of " + ids.size() + " rows");
+                        }
+                        connection.commit();
+                    } catch (SQLException | RuntimeException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                    return ids.size();
+                }), executor).get(30, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                plugin.getLogger().severe("Error archiving " + table + ": " + e.getMessage());
+                return total;
+            }
+
+            total += moved;
+            if (moved < ARCHIVE_BATCH_SIZE) {
+                return total;
+            }
+        }
+    }
+}
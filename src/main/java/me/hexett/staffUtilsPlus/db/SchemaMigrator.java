@@ -0,0 +1,114 @@
+package me.hexett.staffUtilsPlus.db;
+
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Brings the SQL schema up to date by applying numbered migrations in order.
+ * <p>
+ * The {@code schema_version} table records every migration that has been
+ * applied; on connect only the ones above the highest recorded version run.
+ * A migration is recorded once it has finished, so one that was interrupted
+ * runs again from the start on the next connect, and must therefore be safe
+ * to repeat.
+ *
+ * @author Hexett
+ */
+final class SchemaMigrator {
+
+    /**
+     * One step of the schema.
+     *
+     * @param version The schema version after this step; versions are applied in ascending order
+     * @param description What the step changes, for the log and the version table
+     * @param step The change itself
+     */
+    record Migration(int version, String description, Step step) {
+    }
+
+    /**
+     * Applies a migration on the given connection.
+     */
+    @FunctionalInterface
+    interface Step {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    private final Plugin plugin;
+
+    SchemaMigrator(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Apply every migration newer than the schema's current version.
+     *
+     * @param connection The connection to migrate on
+     * @param migrations Every migration, in ascending version order
+     * @throws SQLException If a migration fails, or the schema is newer than any migration
+     */
+    void migrate(Connection connection, List<Migration> migrations) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    description VARCHAR(255) NOT NULL,
+                    applied_at BIGINT NOT NULL
+                )
+                """);
+        }
+
+        int current = currentVersion(connection);
+        int latest = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+        if (current > latest) {
+            throw new SQLException("Database schema is at version " + current + " but this plugin only knows up to "
+                    + latest + "; update the plugin");
+        }
+
+        for (Migration migration : migrations) {
+            if (migration.version() <= current) {
+                continue;
+            }
+            plugin.getLogger().info("Migrating database schema to version " + migration.version()
+                    + " (" + migration.description() + ")");
+            long start = System.currentTimeMillis();
+            migration.step().apply(connection);
+
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+                ps.setInt(1, migration.version());
+                ps.setString(2, migration.description());
+                ps.setLong(3, System.currentTimeMillis());
+                ps.executeUpdate();
+            }
+            current = migration.version();
+            plugin.getLogger().info("Database schema is now at version " + current + " (took "
+                    + (System.currentTimeMillis() - start) + "ms)");
+        }
+    }
+
+    /**
+     * Turn a MySQL table definition into one for H2. H2 runs in MySQL mode, but
+     * index names are global there rather than per table, so the indexes are
+     * left out and created separately, and {@code TEXT} would become a CLOB.
+     *
+     * @param mysql The MySQL {@code CREATE TABLE} statement
+     * @return The H2 statement
+     */
+    static String forH2(String mysql) {
+        return mysql.replaceAll(",\\s*INDEX \\w+ \\([^)]*\\)", "").replace(" TEXT", " VARCHAR");
+    }
+
+    private int currentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package me.hexett.staffUtilsPlus.db;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * One append-only segment file of the sharded local store.
+ * <p>
+ * Every write appends a blob {@code [int length][long msb][long lsb][payload]}
+ * holding the player's complete {@link PlayerRecords}; the newest blob for a
+ * UUID wins and an empty payload is a tombstone. The only per-player state kept
+ * in memory is the position of that newest blob, packed into one long and
+ * held in a {@link UUIDMap}. Once
+ * superseded blobs take up more than half of the file it is rewritten.
+ *
+ * @author Hexett
+ */
+final class ShardSegment implements Closeable {
+
+    private static final int BLOB_HEADER_BYTES = Integer.BYTES + 2 * Long.BYTES;
+    private static final int MAX_PAYLOAD_BYTES = (1 << 24) - 1;
+    private static final long MIN_COMPACT_BYTES = 1 << 20;
+
+    /**
+     * Receives each player's current record while a segment is opened.
+     */
+    @FunctionalInterface
+    interface Visitor {
+        void visit(UUID uuid, PlayerRecords records);
+    }
+
+    private final File file;
+    private final Logger logger;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // payload offset << 24 | payload length
+    private Map<UUID, Long> positions = new UUIDMap<>();
+    private FileChannel channel;
+    private long liveBytes;
+
+    ShardSegment(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Open the segment, index its blobs and pass every current record to the visitor.
+     * A torn blob at the end of the file (an interrupted append) is cut off.
+     *
+     * @param visitor Receives each player's current record
+     * @throws IOException If the file cannot be read
+     */
+    void open(Visitor visitor) throws IOException {
+        lock.writeLock().lock();
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(BLOB_HEADER_BYTES);
+            while (position + BLOB_HEADER_BYTES <= size) {
+                header.clear();
+                readFully(header, position);
+                header.flip();
+                int length = header.getInt();
+                UUID uuid = new UUID(header.getLong(), header.getLong());
+                long payload = position + BLOB_HEADER_BYTES;
+                if (length < 0 || length > MAX_PAYLOAD_BYTES || payload + length > size) {
+                    break;
+                }
+                if (length == 0) {
+                    positions.remove(uuid);
+                } else {
+                    positions.put(uuid, pack(payload, length));
+                }
+                position = payload + length;
+            }
+            if (position < size) {
+                logger.warning("Truncating " + file.getName() + " at a torn record (" + (size - position) + " bytes)");
+                channel.truncate(position);
+            }
+
+            liveBytes = 0;
+            for (Map.Entry<UUID, Long> entry : positions.entrySet()) {
+                liveBytes += BLOB_HEADER_BYTES + length(entry.getValue());
+                visitor.visit(entry.getKey(), readPayload(entry.getKey(), entry.getValue()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Read one player's record from disk.
+     *
+     * @param uuid The player
+     * @return The stored record, or {@link PlayerRecords#EMPTY} if there is none
+     * @throws IOException If the record cannot be read
+     */
+    PlayerRecords read(UUID uuid) throws IOException {
+        lock.readLock().lock();
+        try {
+            Long position = positions.get(uuid);
+            return position != null ? readPayload(uuid, position) : PlayerRecords.EMPTY;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Append a player's complete record, superseding the previous one.
+     *
+     * @param uuid The player
+     * @param records The record to store; an empty record removes the player
+     * @throws IOException If the record cannot be written
+     */
+    void write(UUID uuid, PlayerRecords records) throws IOException {
+        byte[] payload = records.isEmpty() ? new byte[0] : records.encode();
+        if (payload.length > MAX_PAYLOAD_BYTES) {
+            throw new IOException("Record for " + uuid + " is too large (" + payload.length + " bytes)");
+        }
+
+        lock.writeLock().lock();
+        try {
+            long position = channel.size();
+            ByteBuffer blob = ByteBuffer.allocate(BLOB_HEADER_BYTES + payload.length);
+            blob.putInt(payload.length);
+            blob.putLong(uuid.getMostSignificantBits());
+            blob.putLong(uuid.getLeastSignificantBits());
+            blob.put(payload);
+            blob.flip();
+            while (blob.hasRemaining()) {
+                channel.write(blob, position + blob.position());
+            }
+
+            Long previous = payload.length == 0
+                    ? positions.remove(uuid)
+                    : positions.put(uuid, pack(position + BLOB_HEADER_BYTES, payload.length));
+            if (previous != null) {
+                liveBytes -= BLOB_HEADER_BYTES + length(previous);
+            }
+            if (payload.length > 0) {
+                liveBytes += BLOB_HEADER_BYTES + payload.length;
+            }
+
+            long size = channel.size();
+            if (size >= MIN_COMPACT_BYTES && liveBytes * 2 < size) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of players stored in this segment.
+     *
+     * @return The player count
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return positions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the players stored in this segment.
+     *
+     * @return A snapshot of the stored UUIDs
+     */
+    List<UUID> players() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(positions.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copy every current blob into a fresh file and swap it in. Caller holds the write lock.
+     */
+    private void compact() throws IOException {
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        Map<UUID, Long> moved = new UUIDMap<>(positions.size());
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            List<Map.Entry<UUID, Long>> entries = new ArrayList<>(positions.entrySet());
+            entries.sort(Map.Entry.comparingByValue());
+            for (Map.Entry<UUID, Long> entry : entries) {
+                int length = length(entry.getValue());
+                long from = offset(entry.getValue()) - BLOB_HEADER_BYTES;
+                long copied = 0;
+                while (copied < BLOB_HEADER_BYTES + length) {
+                    copied += channel.transferTo(from + copied, BLOB_HEADER_BYTES + length - copied, out);
+                }
+                moved.put(entry.getKey(), pack(position + BLOB_HEADER_BYTES, length));
+                position += BLOB_HEADER_BYTES + length;
+            }
+            out.force(true);
+        }
+
+        channel.close();
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        positions = moved;
+    }
+
+    private PlayerRecords readPayload(UUID uuid, long position) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(length(position));
+        readFully(payload, offset(position));
+        payload.flip();
+        return PlayerRecords.decode(uuid, payload);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException(file.getName() + " ended unexpectedly");
+            }
+        }
+    }
+
+    private static long pack(long offset, int length) {
+        return offset << 24 | length;
+    }
+
+    private static long offset(long position) {
+        return position >>> 24;
+    }
+
+    private static int length(long position) {
+        return (int) (position & MAX_PAYLOAD_BYTES);
+    }
+}
@@ -0,0 +1,1124 @@
+package me.hexett.staffUtilsPlus.db;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import me.hexett.staffUtilsPlus.service.notes.Note;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.warnings.Warning;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Local database that keeps each player's records on disk and only caches
+ * recently used players in memory.
+ * <p>
+ * Records are grouped per player and spread over 256 {@link ShardSegment}
+ * files by the first byte of the UUID. Looking up a player that is not cached
+ * costs one positional read of that player's blob; a bounded Caffeine cache
+ * keeps hot players (online players, recent targets) resident and evicts cold
+ * ones. Only small lookup indexes stay in heap: blob positions, the issue
+ * time and target of each punishment per issuer, IP to player mappings, and
+ * note/warning id owners.
+ * <p>
+ * On first start the existing single-file store is imported and left in place
+ * as a backup. Archived records go to the same {@link RecordArchive} as the
+ * single-file layout, so switching layouts keeps them.
+ * <p>
+ * The {@link AsyncDatabase} reads of a cached player answer on the calling
+ * thread; anything that may touch disk runs in order on a single I/O thread.
+ *
+ * @author Hexett
+ */
+public class ShardedLocalDatabase implements Database, AsyncDatabase {
+
+    private static final int SEGMENT_COUNT = 256;
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+    private static final UUID FIRST_UUID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final UUID LAST_UUID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * Where to find a punishment an issuer handed out, ordered the way pages
+     * of them are read.
+     */
+    private record Issued(long issuedAt, long id, UUID target) {
+
+        static final Comparator<Issued> ORDER = Comparator.comparingLong(Issued::issuedAt)
+                .thenComparingLong(Issued::id).thenComparing(Issued::target);
+
+        static Issued of(Punishment punishment) {
+            return new Issued(punishment.getIssuedAt(), Page.localId(punishment), punishment.getTarget());
+        }
+    }
+
+    private final Plugin plugin;
+    private final File directory;
+    private final LocalDatabase legacy;
+    private final ShardSegment[] segments = new ShardSegment[SEGMENT_COUNT];
+    private final LoadingCache<UUID, PlayerRecords> cache;
+    private final RecordArchive archive;
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private volatile boolean connected;
+    private final ExecutorService io;
+
+    // Compact indexes, rebuilt while the segments are opened
+    private final Map<UUID, NavigableSet<Issued>> punishmentsByIssuer = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> targetsByActiveIP = new ConcurrentHashMap<>();
+    private final Map<Punishment.Type, Set<UUID>> targetsByActiveType = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> playersByIP = new ConcurrentHashMap<>();
+    private final Map<Integer, UUID> noteOwners = new ConcurrentHashMap<>();
+    private final Map<Integer, UUID> warningOwners = new ConcurrentHashMap<>();
+    private final AtomicInteger nextNoteId = new AtomicInteger(1);
+    private final AtomicInteger nextWarningId = new AtomicInteger(1);
+
+    /**
+     * Create a new sharded local database.
+     *
+     * @param plugin The plugin instance
+     * @param cacheSize The maximum number of players kept in memory
+     * @param legacy The single-file store to import from on first start
+     */
+    public ShardedLocalDatabase(Plugin plugin, int cacheSize, LocalDatabase legacy) {
+        this.plugin = plugin;
+        this.directory = new File(plugin.getDataFolder(), "shards");
+        this.legacy = legacy;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(100, cacheSize))
+                .expireAfterAccess(Duration.ofMinutes(15))
+                .build(this::readFromDisk);
+        this.archive = new RecordArchive(new File(plugin.getDataFolder(), "archive"), plugin.getLogger());
+        this.io = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "StaffUtilsPlus-LocalIO");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new ShardSegment(new File(directory, String.format("%02x.seg", i)), plugin.getLogger());
+        }
+    }
+
+    @Override
+    public void connect() {
+        connected = true;
+        Thread loader = new Thread(() -> {
+            try {
+                initialize();
+            } finally {
+                ready.countDown();
+            }
+        }, "StaffUtilsPlus-LocalLoad");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitReady(long timeout, TimeUnit unit) {
+        try {
+            return ready.await(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public Map<String, String> getStatus() {
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("Backend", "Local (sharded)");
+        status.put("Loaded", isReady() ? "yes" : "loading");
+        status.put("Cached players", String.valueOf(cache.estimatedSize()));
+        return status;
+    }
+
+    @Override
+    public void close() {
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for queued local writes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Never connected means nothing was opened; a load still running after the timeout
+        // is left to die with the server rather than hanging the shutdown
+        if (connected && !awaitReady(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            plugin.getLogger().warning("Timed out waiting for the local database to load, closing without it");
+            return;
+        }
+        cache.invalidateAll();
+        for (ShardSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to close segment: " + e.getMessage());
+            }
+        }
+        try {
+            archive.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to close archive: " + e.getMessage());
+        }
+        plugin.getLogger().info("Local database closed successfully");
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                    PUNISHMENT OPERATIONS                            │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    @Override
+    public void insertPunishment(Punishment punishment) {
+        if (punishment == null) {
+            return;
+        }
+
+        try {
+            update(punishment.getTarget(), records -> records.withPunishment(punishment));
+            indexPunishment(punishment);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to insert punishment: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public List<Punishment> getPunishments(UUID target) {
+        if (target == null) {
+            return Collections.emptyList();
+        }
+
+        List<Punishment> activeOnly = new ArrayList<>();
+        for (Punishment p : records(target).punishments) {
+            if (p.isActive()) {
+                activeOnly.add(p);
+            }
+        }
+        return activeOnly;
+    }
+
+    @Override
+    public List<Punishment> getPunishmentHistory(UUID target) {
+        if (target == null) {
+            return Collections.emptyList();
+        }
+        return RecordArchive.mergePunishments(records(target).punishments, archived(target).punishments);
+    }
+
+    /**
+     * The page is read from the player's live and archived punishments from
+     * the cursor on, without merging the two first. Each is one player's
+     * records, normally already in order, so putting them in page order is a
+     * single pass.
+     */
+    @Override
+    public Page<Punishment> getPunishmentHistoryPage(UUID target, Page.Cursor cursor, int limit) {
+        if (target == null) {
+            return Page.slice(List.of(), Punishment::getIssuedAt, Page::localId, cursor, limit);
+        }
+        List<Punishment> live = new ArrayList<>(records(target).punishments);
+        List<Punishment> archived = new ArrayList<>(archived(target).punishments);
+        live.sort(Page.LOCAL_ORDER);
+        archived.sort(Page.LOCAL_ORDER);
+        return Page.slice(List.of(live, archived), Punishment::getIssuedAt, Page::localId, cursor, limit);
+    }
+
+    @Override
+    public PunishmentCounts countPunishmentHistory(UUID target) {
+        if (target == null) {
+            return PunishmentCounts.NONE;
+        }
+        return RecordArchive.countPunishments(records(target).punishments, archived(target).punishments);
+    }
+
+    @Override
+    public List<Punishment> getPunishmentsByIssuer(UUID issuer) {
+        waitUntilReady();
+        if (issuer == null) {
+            return Collections.emptyList();
+        }
+
+        Set<UUID> targets = new HashSet<>();
+        for (Issued key : punishmentsByIssuer.getOrDefault(issuer, Collections.emptyNavigableSet())) {
+            targets.add(key.target());
+        }
+        List<Punishment> issued = new ArrayList<>();
+        for (UUID target : targets) {
+            for (Punishment p : records(target).punishments) {
+                if (issuer.equals(p.getIssuer())) {
+                    issued.add(p);
+                }
+            }
+        }
+        return issued;
+    }
+
+    /**
+     * Walks the issuer's index from the cursor, so only the players the page's
+     * punishments were issued to are read. Index entries whose punishment is
+     * no longer there are skipped.
+     */
+    @Override
+    public Page<Punishment> getPunishmentsByIssuerPage(UUID issuer, Page.Cursor cursor, int limit) {
+        waitUntilReady();
+        NavigableSet<Issued> index = issuer != null ? punishmentsByIssuer.get(issuer) : null;
+        List<Page.Keyed<Punishment>> fetched = new ArrayList<>(Math.min(limit + 1, 16));
+        if (index == null) {
+            return Page.assemble(fetched, cursor, limit);
+        }
+
+        NavigableSet<Issued> from;
+        if (cursor == null) {
+            from = index.descendingSet();
+        } else if (cursor.towardsNewer()) {
+            from = index.tailSet(new Issued(cursor.issuedAt(), cursor.id(), LAST_UUID), false);
+        } else {
+            from = index.headSet(new Issued(cursor.issuedAt(), cursor.id(), FIRST_UUID), false).descendingSet();
+        }
+        for (Issued key : from) {
+            if (fetched.size() > limit) {
+                break;
+            }
+            Punishment punishment = find(issuer, key);
+            if (punishment != null) {
+                fetched.add(new Page.Keyed<>(punishment, key.issuedAt(), key.id()));
+            }
+        }
+        return Page.assemble(fetched, cursor, limit);
+    }
+
+    private Punishment find(UUID issuer, Issued key) {
+        for (Punishment p : records(key.target()).punishments) {
+            if (p.getIssuedAt() == key.issuedAt() && issuer.equals(p.getIssuer()) && Page.localId(p) == key.id()) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Only players indexed with an active punishment of one of the types are
+     * read; entries left behind by archiving are filtered out here.
+     */
+    @Override
+    public List<Punishment> getActivePunishments(Set<Punishment.Type> types, int offset, int limit) {
+        waitUntilReady();
+        if (types == null || types.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Set<UUID> targets = new HashSet<>();
+        for (Punishment.Type type : types) {
+            targets.addAll(targetsByActiveType.getOrDefault(type, Collections.emptySet()));
+        }
+
+        long now = System.currentTimeMillis();
+        List<Punishment> matching = new ArrayList<>();
+        for (UUID target : targets) {
+            for (Punishment p : records(target).punishments) {
+                if (p.isActive() && types.contains(p.getType()) && (p.getExpiresAt() <= 0 || p.getExpiresAt() > now)) {
+                    matching.add(p);
+                }
+            }
+        }
+        matching.sort(Comparator.comparingLong(Punishment::getExpiresAt).thenComparingLong(Punishment::getIssuedAt));
+        int from = Math.min(Math.max(0, offset), matching.size());
+        int to = (int) Math.min(matching.size(), (long) from + limit);
+        return new ArrayList<>(matching.subList(from, to));
+    }
+
+    @Override
+    public List<Punishment> getPunishmentsByIP(String ipAddress) {
+        waitUntilReady();
+        if (ipAddress == null) {
+            return Collections.emptyList();
+        }
+
+        List<Punishment> ipPunishments = new ArrayList<>();
+        for (UUID target : targetsByActiveIP.getOrDefault(ipAddress, Collections.emptySet())) {
+            for (Punishment p : records(target).punishments) {
+                if (p.isActive() && ipAddress.equals(p.getIpAddress())) {
+                    ipPunishments.add(p);
+                }
+            }
+        }
+        return ipPunishments;
+    }
+
+    @Override
+    public void deactivatePunishment(UUID target, Punishment.Type type) {
+        if (target == null || type == null) {
+            return;
+        }
+
+        try {
+            deactivate(target, p -> p.getType() == type);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to deactivate punishment: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads each player indexed with an active punishment of the type, as
+     * shards keep no index by expiry.
+     */
+    @Override
+    public void deactivateExpiredPunishments(Punishment.Type type, long before) {
+        waitUntilReady();
+        if (type == null) {
+            return;
+        }
+
+        try {
+            for (UUID target : new ArrayList<>(targetsByActiveType.getOrDefault(type, Collections.emptySet()))) {
+                deactivate(target, p -> p.getType() == type && p.getExpiresAt() > 0 && p.getExpiresAt() <= before);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to deactivate expired punishments: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void deactivateIPBan(String ipAddress) {
+        waitUntilReady();
+        if (ipAddress == null) {
+            return;
+        }
+
+        try {
+            for (UUID target : new ArrayList<>(targetsByActiveIP.getOrDefault(ipAddress, Collections.emptySet()))) {
+                deactivate(target, p -> p.getType() == Punishment.Type.IP_BAN && ipAddress.equals(p.getIpAddress()));
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to deactivate IP ban: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                      NOTES OPERATIONS                               │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    @Override
+    public void insertNote(Note note) {
+        waitUntilReady();
+        if (note == null) return;
+        try {
+            Note stored = note.id() > 0 ? note : new Note(nextNoteId.getAndIncrement(), note.target(), note.issuer(), note.content(), note.timestamp());
+            update(stored.target(), records -> records.withNote(stored));
+            indexNote(stored);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to insert note: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void removeNote(UUID target, int noteId) {
+        waitUntilReady();
+        if (target == null || !target.equals(noteOwners.get(noteId))) {
+            return;
+        }
+
+        try {
+            update(target, records -> records.withoutNote(noteId));
+            noteOwners.remove(noteId);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to remove note: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public List<Note> getNotes(UUID target) {
+        if (target == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(records(target).notes);
+    }
+
+    @Override
+    public Note getNote(int noteId) {
+        waitUntilReady();
+        UUID owner = noteOwners.get(noteId);
+        if (owner == null) {
+            return null;
+        }
+        for (Note note : records(owner).notes) {
+            if (note.id() == noteId) {
+                return note;
+            }
+        }
+        return null;
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                    WARNINGS OPERATIONS                              │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    @Override
+    public void insertWarning(Warning warning) {
+        waitUntilReady();
+        if (warning == null) return;
+        try {
+            Warning stored = warning.getId() > 0 ? warning : new Warning(nextWarningId.getAndIncrement(), warning.getTarget(),
+                    warning.getIssuer(), warning.getReason(), warning.getSeverity(), warning.getTimestamp(), warning.isActive());
+            update(stored.getTarget(), records -> records.withWarning(stored));
+            indexWarning(stored);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to insert warning: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void removeWarning(UUID target, int warningId) {
+        waitUntilReady();
+        if (target == null || !target.equals(warningOwners.get(warningId))) {
+            return;
+        }
+
+        try {
+            update(target, records -> records.withWarningDeactivated(warningId));
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to remove warning: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public List<Warning> getWarnings(UUID target) {
+        if (target == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(records(target).warnings);
+    }
+
+    @Override
+    public Warning getWarning(int warningId) {
+        waitUntilReady();
+        UUID owner = warningOwners.get(warningId);
+        if (owner == null) {
+            return null;
+        }
+        for (Warning warning : records(owner).warnings) {
+            if (warning.getId() == warningId) {
+                return warning;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getActiveWarningSeverity(UUID target) {
+        if (target == null) {
+            return 0;
+        }
+        int severity = 0;
+        for (Warning warning : records(target).warnings) {
+            if (warning.isActive()) {
+                severity += warning.getSeverity();
+            }
+        }
+        return severity;
+    }
+
+    @Override
+    public int countActiveWarnings(UUID target, long since) {
+        if (target == null) {
+            return 0;
+        }
+        int count = 0;
+        for (Warning warning : records(target).warnings) {
+            if (warning.isActive() && warning.getTimestamp() >= since) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<Warning> getWarningHistory(UUID target) {
+        if (target == null) {
+            return Collections.emptyList();
+        }
+        return RecordArchive.mergeWarnings(records(target).warnings, archived(target).warnings);
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                  ALT ACCOUNT OPERATIONS                             │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    @Override
+    public String getPlayerIP(UUID uuid) {
+        return uuid != null ? records(uuid).ip : null;
+    }
+
+    @Override
+    public List<UUID> getPlayersByIP(String ipAddress) {
+        waitUntilReady();
+        if (ipAddress == null) {
+            return Collections.emptyList();
+        }
+        Set<UUID> players = playersByIP.get(ipAddress);
+        return players != null ? new ArrayList<>(players) : Collections.emptyList();
+    }
+
+    @Override
+    public void recordPlayerIP(UUID uuid, String ipAddress) {
+        if (uuid == null || ipAddress == null) {
+            return;
+        }
+
+        try {
+            String[] previous = new String[1];
+            boolean changed = update(uuid, records -> {
+                previous[0] = records.ip;
+                return ipAddress.equals(records.ip) ? records : records.withIP(ipAddress);
+            });
+            if (changed) {
+                if (previous[0] != null) {
+                    removeFromIndex(playersByIP, previous[0], uuid);
+                }
+                playersByIP.computeIfAbsent(ipAddress, k -> ConcurrentHashMap.newKeySet()).add(uuid);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to record player IP: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                      ASYNC OPERATIONS                               │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    @Override
+    public CompletableFuture<Void> insertPunishmentAsync(Punishment punishment) {
+        return mutate(() -> insertPunishment(punishment));
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsAsync(UUID target) {
+        return query(target, () -> getPunishments(target));
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentHistoryAsync(UUID target) {
+        return CompletableFuture.supplyAsync(() -> getPunishmentHistory(target), io);
+    }
+
+    @Override
+    public CompletableFuture<Page<Punishment>> getPunishmentHistoryPageAsync(UUID target, Page.Cursor cursor, int limit) {
+        return CompletableFuture.supplyAsync(() -> getPunishmentHistoryPage(target, cursor, limit), io);
+    }
+
+    @Override
+    public CompletableFuture<PunishmentCounts> countPunishmentHistoryAsync(UUID target) {
+        return CompletableFuture.supplyAsync(() -> countPunishmentHistory(target), io);
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsByIssuerAsync(UUID issuer) {
+        return CompletableFuture.supplyAsync(() -> getPunishmentsByIssuer(issuer), io);
+    }
+
+    @Override
+    public CompletableFuture<Page<Punishment>> getPunishmentsByIssuerPageAsync(UUID issuer, Page.Cursor cursor, int limit) {
+        return CompletableFuture.supplyAsync(() -> getPunishmentsByIssuerPage(issuer, cursor, limit), io);
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getActivePunishmentsAsync(Set<Punishment.Type> types, int offset, int limit) {
+        return CompletableFuture.supplyAsync(() -> getActivePunishments(types, offset, limit), io);
+    }
+
+    @Override
+    public CompletableFuture<Void> deactivatePunishmentAsync(UUID target, Punishment.Type type) {
+        return mutate(() -> deactivatePunishment(target, type));
+    }
+
+    @Override
+    public CompletableFuture<Void> deactivateExpiredPunishmentsAsync(Punishment.Type type, long before) {
+        return mutate(() -> deactivateExpiredPunishments(type, before));
+    }
+
+    @Override
+    public CompletableFuture<List<Punishment>> getPunishmentsByIPAsync(String ipAddress) {
+        return CompletableFuture.supplyAsync(() -> getPunishmentsByIP(ipAddress), io);
+    }
+
+    @Override
+    public CompletableFuture<Void> deactivateIPBanAsync(String ipAddress) {
+        return mutate(() -> deactivateIPBan(ipAddress));
+    }
+
+    @Override
+    public CompletableFuture<Void> insertNoteAsync(Note note) {
+        return mutate(() -> insertNote(note));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeNoteAsync(UUID target, int noteId) {
+        return mutate(() -> removeNote(target, noteId));
+    }
+
+    @Override
+    public CompletableFuture<List<Note>> getNotesAsync(UUID target) {
+        return query(target, () -> getNotes(target));
+    }
+
+    @Override
+    public CompletableFuture<Note> getNoteAsync(int noteId) {
+        return CompletableFuture.supplyAsync(() -> getNote(noteId), io);
+    }
+
+    @Override
+    public CompletableFuture<Void> insertWarningAsync(Warning warning) {
+        return mutate(() -> insertWarning(warning));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeWarningAsync(UUID target, int warningId) {
+        return mutate(() -> removeWarning(target, warningId));
+    }
+
+    @Override
+    public CompletableFuture<List<Warning>> getWarningsAsync(UUID target) {
+        return query(target, () -> getWarnings(target));
+    }
+
+    @Override
+    public CompletableFuture<Warning> getWarningAsync(int warningId) {
+        return CompletableFuture.supplyAsync(() -> getWarning(warningId), io);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getActiveWarningSeverityAsync(UUID target) {
+        return query(target, () -> getActiveWarningSeverity(target));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countActiveWarningsAsync(UUID target, long since) {
+        return query(target, () -> countActiveWarnings(target, since));
+    }
+
+    @Override
+    public CompletableFuture<List<Warning>> getWarningHistoryAsync(UUID target) {
+        return CompletableFuture.supplyAsync(() -> getWarningHistory(target), io);
+    }
+
+    @Override
+    public CompletableFuture<String> getPlayerIPAsync(UUID uuid) {
+        return query(uuid, () -> getPlayerIP(uuid));
+    }
+
+    @Override
+    public CompletableFuture<List<UUID>> getPlayersByIPAsync(String ipAddress) {
+        if (isReady()) {
+            return CompletableFuture.completedFuture(getPlayersByIP(ipAddress));
+        }
+        return CompletableFuture.supplyAsync(() -> getPlayersByIP(ipAddress), io);
+    }
+
+    @Override
+    public CompletableFuture<Void> recordPlayerIPAsync(UUID uuid, String ipAddress) {
+        return mutate(() -> recordPlayerIP(uuid, ipAddress));
+    }
+
+    /**
+     * Answer a read about one player on the calling thread if that player is
+     * cached, otherwise on the I/O thread, behind any queued writes.
+     */
+    private <T> CompletableFuture<T> query(UUID player, Supplier<T> read) {
+        if (isReady() && player != null && cache.getIfPresent(player) != null) {
+            return CompletableFuture.completedFuture(read.get());
+        }
+        return CompletableFuture.supplyAsync(read, io);
+    }
+
+    /**
+     * Queue a mutation on the I/O thread, which applies mutations in the order
+     * they were submitted and writes each to disk before its future completes.
+     */
+    private CompletableFuture<Void> mutate(Runnable mutation) {
+        return CompletableFuture.runAsync(mutation, io);
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                      ARCHIVE OPERATIONS                             │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    /**
+     * Archive one segment at a time while holding its update monitor, reading
+     * players straight from disk so the scan does not churn the cache.
+     */
+    @Override
+    public int archiveInactive(long cutoff) {
+        waitUntilReady();
+        int count = 0;
+        for (ShardSegment segment : segments) {
+            try {
+                count += archiveSegment(segment, cutoff);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to archive records: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return count;
+    }
+
+    private int archiveSegment(ShardSegment segment, long cutoff) throws IOException {
+        synchronized (segment) {
+            Map<UUID, PlayerRecords> batch = new HashMap<>();
+            Map<UUID, PlayerRecords> kept = new HashMap<>();
+            int count = 0;
+            for (UUID uuid : segment.players()) {
+                PlayerRecords current = segment.read(uuid);
+                PlayerRecords archivable = current.archivable(cutoff);
+                if (!archivable.isEmpty()) {
+                    batch.put(uuid, archivable);
+                    kept.put(uuid, current.withoutArchivable(cutoff));
+                    count += archivable.punishments.size() + archivable.warnings.size();
+                }
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            archive.append(batch);
+            for (Map.Entry<UUID, PlayerRecords> entry : kept.entrySet()) {
+                segment.write(entry.getKey(), entry.getValue());
+                // Also drops a load that read the old blob while this segment was being written
+                cache.invalidate(entry.getKey());
+            }
+            for (PlayerRecords archived : batch.values()) {
+                for (Punishment punishment : archived.punishments) {
+                    unindexIssued(punishment);
+                }
+                for (Warning warning : archived.warnings) {
+                    warningOwners.remove(warning.getId());
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Read a player's archived records, treating an unreadable archive as empty.
+     */
+    private PlayerRecords archived(UUID target) {
+        waitUntilReady();
+        try {
+            return archive.read(target);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to read archived records for " + target + ": " + e.getMessage());
+            return PlayerRecords.EMPTY;
+        }
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                    RECORD ACCESS                                    │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    private ShardSegment segment(UUID uuid) {
+        return segments[(int) (uuid.getMostSignificantBits() >>> 56)];
+    }
+
+    /**
+     * Get a player's records from the cache, reading them from disk on a miss.
+     * A record that cannot be read is reported and treated as empty.
+     */
+    private PlayerRecords records(UUID uuid) {
+        waitUntilReady();
+        try {
+            return cache.get(uuid);
+        } catch (UncheckedIOException e) {
+            plugin.getLogger().warning("Failed to read records for " + uuid + ": " + e.getMessage());
+            return PlayerRecords.EMPTY;
+        }
+    }
+
+    private PlayerRecords readFromDisk(UUID uuid) {
+        try {
+            return segment(uuid).read(uuid);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Apply a change to one player's records and append the result to disk.
+     * Changes within a segment are serialized; cache loads never take this
+     * monitor, so loading and updating cannot deadlock.
+     *
+     * @param uuid The player
+     * @param change Returns the new records, or the same instance for no change
+     * @return true if anything was written
+     */
+    private boolean update(UUID uuid, UnaryOperator<PlayerRecords> change) throws IOException {
+        waitUntilReady();
+        ShardSegment segment = segment(uuid);
+        synchronized (segment) {
+            PlayerRecords current = cache.get(uuid);
+            PlayerRecords updated = change.apply(current);
+            if (updated == current) {
+                return false;
+            }
+            segment.write(uuid, updated);
+            cache.put(uuid, updated);
+            return true;
+        }
+    }
+
+    /**
+     * Deactivate a player's active punishments matching the filter and drop
+     * IP and type index entries that no longer point at an active punishment.
+     * The cached punishments are replaced by inactive copies once the change
+     * is on disk, never modified in place.
+     */
+    private void deactivate(UUID target, Predicate<Punishment> filter) throws IOException {
+        Set<String> touchedIPs = new HashSet<>();
+        Set<Punishment.Type> touchedTypes = new HashSet<>();
+        update(target, records -> {
+            for (Punishment p : records.punishments) {
+                if (p.isActive() && filter.test(p)) {
+                    if (p.getIpAddress() != null) {
+                        touchedIPs.add(p.getIpAddress());
+                    }
+                    touchedTypes.add(p.getType());
+                }
+            }
+            return records.withDeactivated(filter);
+        });
+
+        for (Punishment.Type type : touchedTypes) {
+            boolean stillActive = false;
+            for (Punishment p : records(target).punishments) {
+                if (p.isActive() && p.getType() == type) {
+                    stillActive = true;
+                    break;
+                }
+            }
+            if (!stillActive && type != null) {
+                removeFromIndex(targetsByActiveType, type, target);
+            }
+        }
+
+        for (String ipAddress : touchedIPs) {
+            boolean stillActive = false;
+            for (Punishment p : records(target).punishments) {
+                if (p.isActive() && ipAddress.equals(p.getIpAddress())) {
+                    stillActive = true;
+                    break;
+                }
+            }
+            if (!stillActive) {
+                removeFromIndex(targetsByActiveIP, ipAddress, target);
+            }
+        }
+    }
+
+    // ┌─────────────────────────────────────────────────────────────────────┐
+    // │                    STARTUP AND INDEXES                              │
+    // └─────────────────────────────────────────────────────────────────────┘
+
+    private void initialize() {
+        long start = System.nanoTime();
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Could not create " + directory.getPath());
+            }
+
+            // Segments are independent, so open them in parallel
+            AtomicInteger players = new AtomicInteger();
+            ExecutorService openers = Executors.newFixedThreadPool(Math.min(4, Runtime.getRuntime().availableProcessors()), runnable -> {
+                Thread thread = new Thread(runnable, "StaffUtilsPlus-LocalLoad");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                CompletableFuture<?>[] opens = new CompletableFuture<?>[SEGMENT_COUNT];
+                for (int i = 0; i < SEGMENT_COUNT; i++) {
+                    ShardSegment segment = segments[i];
+                    opens[i] = CompletableFuture.runAsync(() -> {
+                        try {
+                            segment.open((uuid, records) -> {
+                                indexPlayer(uuid, records);
+                                players.incrementAndGet();
+                            });
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, openers);
+                }
+                CompletableFuture.allOf(opens).join();
+            } finally {
+                openers.shutdown();
+            }
+
+            File imported = new File(directory, ".imported");
+            if (!imported.exists()) {
+                players.addAndGet(importLegacy());
+                imported.createNewFile();
+            }
+
+            plugin.getLogger().info("Local database connected successfully (sharded, " + players.get() + " players) in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to initialize local database: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Copy the single-file store into the segments. The old files are kept.
+     * Players that already have a record (from an interrupted earlier import)
+     * are skipped.
+     *
+     * @return The number of players imported
+     */
+    private int importLegacy() throws IOException {
+        legacy.connect();
+        int count = 0;
+        try {
+            for (Map.Entry<UUID, PlayerRecords> entry : legacy.exportPlayers().entrySet()) {
+                ShardSegment segment = segment(entry.getKey());
+                if (segment.read(entry.getKey()) != PlayerRecords.EMPTY) {
+                    continue;
+                }
+                PlayerRecords records = assignMissingIds(entry.getValue());
+                segment.write(entry.getKey(), records);
+                indexPlayer(entry.getKey(), records);
+                count++;
+            }
+        } finally {
+            legacy.close();
+        }
+        if (count > 0) {
+            plugin.getLogger().info("Imported " + count + " players into " + directory.getName()
+                    + "/; the previous data files were kept as a backup");
+        }
+        return count;
+    }
+
+    private PlayerRecords assignMissingIds(PlayerRecords records) {
+        List<Note> notes = new ArrayList<>(records.notes.size());
+        for (Note note : records.notes) {
+            notes.add(note.id() > 0 ? note : new Note(nextNoteId.getAndIncrement(), note.target(), note.issuer(), note.content(), note.timestamp()));
+        }
+        List<Warning> warnings = new ArrayList<>(records.warnings.size());
+        for (Warning warning : records.warnings) {
+            warnings.add(warning.getId() > 0 ? warning : new Warning(nextWarningId.getAndIncrement(), warning.getTarget(),
+                    warning.getIssuer(), warning.getReason(), warning.getSeverity(), warning.getTimestamp(), warning.isActive()));
+        }
+        return new PlayerRecords(records.ip, new ArrayList<>(records.punishments), notes, warnings);
+    }
+
+    private void indexPlayer(UUID uuid, PlayerRecords records) {
+        if (records.ip != null) {
+            playersByIP.computeIfAbsent(records.ip, k -> ConcurrentHashMap.newKeySet()).add(uuid);
+        }
+        for (Punishment punishment : records.punishments) {
+            indexPunishment(punishment);
+        }
+        for (Note note : records.notes) {
+            indexNote(note);
+        }
+        for (Warning warning : records.warnings) {
+            indexWarning(warning);
+        }
+    }
+
+    private void indexPunishment(Punishment punishment) {
+        if (punishment.getIssuer() != null) {
+            // Added inside compute, so a concurrent unindexIssued cannot drop the set it lands in
+            punishmentsByIssuer.compute(punishment.getIssuer(), (k, issued) -> {
+                NavigableSet<Issued> set = issued != null ? issued : new ConcurrentSkipListSet<>(Issued.ORDER);
+                set.add(Issued.of(punishment));
+                return set;
+            });
+        }
+        if (punishment.getIpAddress() != null && punishment.isActive()) {
+            targetsByActiveIP.computeIfAbsent(punishment.getIpAddress(), k -> ConcurrentHashMap.newKeySet()).add(punishment.getTarget());
+        }
+        if (punishment.getType() != null && punishment.isActive()) {
+            targetsByActiveType.computeIfAbsent(punishment.getType(), k -> ConcurrentHashMap.newKeySet()).add(punishment.getTarget());
+        }
+    }
+
+    private void unindexIssued(Punishment punishment) {
+        if (punishment.getIssuer() != null) {
+            punishmentsByIssuer.computeIfPresent(punishment.getIssuer(), (k, issued) -> {
+                issued.remove(Issued.of(punishment));
+                return issued.isEmpty() ? null : issued;
+            });
+        }
+    }
+
+    private void indexNote(Note note) {
+        if (note.id() > 0) {
+            noteOwners.put(note.id(), note.target());
+            nextNoteId.accumulateAndGet(note.id() + 1, Math::max);
+        }
+    }
+
+    private void indexWarning(Warning warning) {
+        if (warning.getId() > 0) {
+            warningOwners.put(warning.getId(), warning.getTarget());
+            nextWarningId.accumulateAndGet(warning.getId() + 1, Math::max);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<UUID>> index, K key, UUID uuid) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(uuid);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void waitUntilReady() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                ready.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
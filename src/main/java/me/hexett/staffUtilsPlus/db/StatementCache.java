@@ -0,0 +1,128 @@
+package me.hexett.staffUtilsPlus.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps prepared statements open per physical connection so each query is
+ * parsed and planned once per connection instead of once per call.
+ * <p>
+ * Statements are prepared on the connection underneath the pool's proxy, so
+ * the pool does not close them when the connection is returned; they are
+ * closed when evicted or when the pool retires the physical connection.
+ * Connections are held strongly, since each cached statement refers back to
+ * its connection anyway, and the entries of closed connections are dropped
+ * whenever a new physical connection is first seen, so the cache holds at most
+ * the pool's open connections plus those retired since it last opened one.
+ * A pooled connection is only ever used by one thread at a time, so the
+ * cached statements themselves need no locking.
+ *
+ * @author Hexett
+ */
+final class StatementCache {
+
+    private final int capacity;
+    private final Map<Connection, Map<String, PreparedStatement>> byConnection = new IdentityHashMap<>();
+
+    /**
+     * @param capacity Statements kept per connection; 0 disables caching
+     */
+    StatementCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get an open statement for the SQL on this connection. The caller must
+     * not close it and must set every parameter before executing it.
+     *
+     * @param connection A connection borrowed from the pool
+     * @param sql The statement text; should be a constant, not built from values
+     * @return A prepared statement, cached unless caching is disabled
+     * @throws SQLException If the statement cannot be prepared
+     */
+    PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        if (capacity <= 0) {
+            return connection.prepareStatement(sql);
+        }
+
+        Connection physical = connection.isWrapperFor(Connection.class) ? connection.unwrap(Connection.class) : connection;
+        Map<String, PreparedStatement> statements;
+        synchronized (byConnection) {
+            statements = byConnection.get(physical);
+            if (statements == null) {
+                // A new physical connection usually replaces one the pool retired
+                dropClosed();
+                statements = newLru();
+                byConnection.put(physical, statements);
+            }
+        }
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = physical.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Check whether statements returned by {@link #prepare} are owned by the cache.
+     *
+     * @return true if callers must leave the statements open
+     */
+    boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * Get the number of physical connections with cached statements.
+     *
+     * @return The connections tracked
+     */
+    int connections() {
+        synchronized (byConnection) {
+            return byConnection.size();
+        }
+    }
+
+    /**
+     * Forget the connections the pool has closed. Their statements were
+     * closed along with them.
+     */
+    private void dropClosed() {
+        Iterator<Connection> connections = byConnection.keySet().iterator();
+        while (connections.hasNext()) {
+            Connection connection = connections.next();
+            boolean closed;
+            try {
+                closed = connection.isClosed();
+            } catch (SQLException e) {
+                closed = true;
+            }
+            if (closed) {
+                connections.remove();
+            }
+        }
+    }
+
+    private Map<String, PreparedStatement> newLru() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                try {
+                    eldest.getValue().close();
+                } catch (SQLException ignored) {
+                    // The statement is discarded either way
+                }
+                return true;
+            }
+        };
+    }
+}
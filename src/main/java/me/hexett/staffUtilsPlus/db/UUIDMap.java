@@ -0,0 +1,311 @@
+package me.hexett.staffUtilsPlus.db;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Open-addressing hash map keyed by {@link UUID}.
+ * <p>
+ * Keys are stored as their two {@code long} halves in parallel arrays, so an
+ * entry costs two longs and a reference instead of a {@code HashMap} node plus
+ * a boxed UUID. Lookups use linear probing and removals shift later entries
+ * back, so there are no tombstones. Null keys and values are not allowed.
+ * <p>
+ * Not safe for concurrent writers. A single writer may run alongside readers
+ * that validate their result afterwards (a {@code StampedLock} optimistic
+ * read): readers always see one consistent set of arrays, at worst a stale or
+ * half-written slot, and never throw or loop forever.
+ *
+ * @author Hexett
+ */
+final class UUIDMap<V> extends AbstractMap<UUID, V> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_LOAD_PERCENT = 60;
+
+    private static final class Table {
+        final long[] most;
+        final long[] least;
+        final Object[] values;
+        final int mask;
+
+        Table(int capacity) {
+            this.most = new long[capacity];
+            this.least = new long[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    private volatile Table table;
+    private int size;
+    private int modCount;
+    private Set<Entry<UUID, V>> entrySet;
+
+    UUIDMap() {
+        this(0);
+    }
+
+    UUIDMap(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (!(key instanceof UUID uuid)) {
+            return null;
+        }
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        Table t = table;
+        int index = hash(most, least) & t.mask;
+        for (int probes = 0; probes <= t.mask; probes++) {
+            Object value = t.values[index];
+            if (value == null) {
+                return null;
+            }
+            if (t.most[index] == most && t.least[index] == least) {
+                return (V) value;
+            }
+            index = (index + 1) & t.mask;
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(UUID key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        long most = key.getMostSignificantBits();
+        long least = key.getLeastSignificantBits();
+        Table t = table;
+        int index = hash(most, least) & t.mask;
+        while (t.values[index] != null) {
+            if (t.most[index] == most && t.least[index] == least) {
+                Object previous = t.values[index];
+                t.values[index] = value;
+                return (V) previous;
+            }
+            index = (index + 1) & t.mask;
+        }
+
+        t.most[index] = most;
+        t.least[index] = least;
+        t.values[index] = value;
+        size++;
+        modCount++;
+        if (size * 100L > (long) t.values.length * MAX_LOAD_PERCENT) {
+            resize(t.values.length << 1);
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (!(key instanceof UUID uuid)) {
+            return null;
+        }
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        Table t = table;
+        int index = hash(most, least) & t.mask;
+        while (t.values[index] != null) {
+            if (t.most[index] == most && t.least[index] == least) {
+                Object previous = t.values[index];
+                deleteAt(t, index);
+                size--;
+                modCount++;
+                return (V) previous;
+            }
+            index = (index + 1) & t.mask;
+        }
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        table = new Table(MIN_CAPACITY);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Entry<UUID, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * Empty a slot and move back any following entries that probed past it.
+     */
+    private static void deleteAt(Table t, int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & t.mask;
+            if (t.values[index] == null) {
+                break;
+            }
+            int home = hash(t.most[index], t.least[index]) & t.mask;
+            // Entries whose home slot lies cyclically in (hole, index] are already reachable
+            boolean reachable = hole <= index ? hole < home && home <= index : hole < home || home <= index;
+            if (reachable) {
+                continue;
+            }
+            t.most[hole] = t.most[index];
+            t.least[hole] = t.least[index];
+            t.values[hole] = t.values[index];
+            hole = index;
+        }
+        t.values[hole] = null;
+    }
+
+    private void resize(int capacity) {
+        Table old = table;
+        Table resized = new Table(capacity);
+        for (int i = 0; i < old.values.length; i++) {
+            Object value = old.values[i];
+            if (value == null) {
+                continue;
+            }
+            int index = hash(old.most[i], old.least[i]) & resized.mask;
+            while (resized.values[index] != null) {
+                index = (index + 1) & resized.mask;
+            }
+            resized.most[index] = old.most[i];
+            resized.least[index] = old.least[i];
+            resized.values[index] = value;
+        }
+        // Published only once fully built, so concurrent readers see either table whole
+        table = resized;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) expectedSize * 100 / MAX_LOAD_PERCENT + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(long most, long least) {
+        long h = most ^ least;
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<UUID, V>> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Entry<UUID, V>> iterator() {
+            return new EntryIterator();
+        }
+    }
+
+    /**
+     * Walks the slots of the table current at creation. Values may be replaced
+     * through {@link Entry#setValue}; removing entries while iterating is not supported.
+     */
+    private final class EntryIterator implements Iterator<Entry<UUID, V>> {
+        private final Table t = table;
+        private final int expectedModCount = modCount;
+        private int next = advance(0);
+
+        private int advance(int from) {
+            int index = from;
+            while (index < t.values.length && t.values[index] == null) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < t.values.length;
+        }
+
+        @Override
+        public Entry<UUID, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = next;
+            next = advance(index + 1);
+            return new SlotEntry(t, index);
+        }
+    }
+
+    private final class SlotEntry implements Entry<UUID, V> {
+        private final Table t;
+        private final int index;
+        private final UUID key;
+
+        SlotEntry(Table t, int index) {
+            this.t = t;
+            this.index = index;
+            this.key = new UUID(t.most[index], t.least[index]);
+        }
+
+        @Override
+        public UUID getKey() {
+            return key;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) t.values[index];
+        }
+
+        @Override
+        public V setValue(V value) {
+            V previous = getValue();
+            t.values[index] = Objects.requireNonNull(value, "value");
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> e && key.equals(e.getKey()) && getValue().equals(e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package me.hexett.staffUtilsPlus.db;
+
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects inserts and upserts and writes them as JDBC batches, one
+ * transaction per batch, instead of one statement and commit per call.
+ * <p>
+ * Queued writes are written once the flush interval has passed since the
+ * queue was last empty, or straight away once a full batch is waiting. A
+ * write queued under a key replaces the queued write with the same key, so
+ * only the latest value for that key reaches the database. Only one batch is
+ * written at a time, so writes for a key are never applied out of order.
+ * <p>
+ * Each write's future completes once its batch has been committed. A batch
+ * that fails is rolled back and its writes are retried one at a time, so a
+ * bad row only loses itself. A write that fails because the database cannot
+ * be reached, or while the {@link CircuitBreaker} is open, is handed to its
+ * lost callback instead of being dropped.
+ *
+ * @author Hexett
+ */
+final class WriteQueue {
+
+    /**
+     * Opens a connection for a batch.
+     */
+    @FunctionalInterface
+    interface Connector {
+        Connection connect() throws SQLException;
+    }
+
+    /**
+     * Sets the parameters of one queued write.
+     */
+    @FunctionalInterface
+    interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    private static final class Write {
+        private final String sql;
+        private final Object key;
+        private final String action;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private Binder binder;
+        private Runnable lost;
+
+        private Write(String sql, Object key, String action, Binder binder, Runnable lost) {
+            this.sql = sql;
+            this.key = key;
+            this.action = action;
+            this.binder = binder;
+            this.lost = lost;
+        }
+    }
+
+    private final Plugin plugin;
+    private final Connector connector;
+    private final StatementCache statements;
+    private final CircuitBreaker breaker;
+    private final Executor executor;
+    private final Executor delayed;
+    private final int batchSize;
+
+    private final Object lock = new Object();
+    private final List<Write> pending = new ArrayList<>();
+    private final Map<Object, Write> pendingByKey = new HashMap<>();
+    private List<Write> writing = List.of();
+    private boolean draining;
+
+    /**
+     * @param plugin The plugin, for logging
+     * @param connector Opens the connection each batch is written on
+     * @param statements The statement cache to prepare the batch statements with
+     * @param breaker Reports whether the database is reachable, and is told how each batch went
+     * @param executor The database worker threads batches are written on
+     * @param batchSize Most writes per batch; 1 or less writes each call on its own
+     * @param flushIntervalMillis How long a write may wait for others to join its batch
+     */
+    WriteQueue(Plugin plugin, Connector connector, StatementCache statements, CircuitBreaker breaker, Executor executor,
+               int batchSize, long flushIntervalMillis) {
+        this.plugin = plugin;
+        this.connector = connector;
+        this.statements = statements;
+        this.breaker = breaker;
+        this.executor = executor;
+        this.delayed = CompletableFuture.delayedExecutor(Math.max(0, flushIntervalMillis), TimeUnit.MILLISECONDS, executor);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Queue a write.
+     *
+     * @param sql The statement; writes with the same text share a batch statement
+     * @param key Identifies writes that replace each other, or null if none do
+     * @param action What the write does, for the log (e.g. "insert note")
+     * @param binder Sets the statement parameters; must not read mutable state
+     * @param lost Run instead of logging if the database cannot be reached, or null to log
+     * @return Completes once the write is committed, or has failed and been logged or handed over
+     */
+    CompletableFuture<Void> enqueue(String sql, Object key, String action, Binder binder, Runnable lost) {
+        Write write = new Write(sql, key, action, binder, lost);
+        if (batchSize <= 1) {
+            executor.execute(() -> writeOne(write));
+            return write.done;
+        }
+
+        int queued;
+        synchronized (lock) {
+            if (key != null) {
+                Write existing = pendingByKey.get(key);
+                if (existing != null) {
+                    existing.binder = binder;
+                    existing.lost = lost;
+                    return existing.done;
+                }
+                pendingByKey.put(key, write);
+            }
+            pending.add(write);
+            queued = pending.size();
+        }
+
+        if (queued == batchSize) {
+            executor.execute(this::drain);
+        } else if (queued == 1) {
+            delayed.execute(this::drain);
+        }
+        return write.done;
+    }
+
+    /**
+     * Write everything queued so far without waiting for the flush interval.
+     *
+     * @return Completes once every write queued before this call is committed
+     */
+    CompletableFuture<Void> flush() {
+        List<CompletableFuture<Void>> waiting = new ArrayList<>();
+        synchronized (lock) {
+            for (Write write : writing) {
+                waiting.add(write.done);
+            }
+            for (Write write : pending) {
+                waiting.add(write.done);
+            }
+        }
+        if (waiting.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        executor.execute(this::drain);
+        return CompletableFuture.allOf(waiting.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Get the number of writes waiting to be written.
+     *
+     * @return The queued and in-flight writes
+     */
+    int size() {
+        synchronized (lock) {
+            return pending.size() + writing.size();
+        }
+    }
+
+    /**
+     * Write batches until the queue is empty. Returns at once if another
+     * thread is already doing so.
+     */
+    private void drain() {
+        synchronized (lock) {
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+
+        boolean emptied = false;
+        try {
+            while (true) {
+                List<Write> batch;
+                synchronized (lock) {
+                    if (pending.isEmpty()) {
+                        // Stop draining under the same lock, so a write queued now schedules a new drain
+                        writing = List.of();
+                        draining = false;
+                        emptied = true;
+                        return;
+                    }
+                    int size = Math.min(batchSize, pending.size());
+                    batch = new ArrayList<>(pending.subList(0, size));
+                    pending.subList(0, size).clear();
+                    for (Write write : batch) {
+                        if (write.key != null) {
+                            pendingByKey.remove(write.key, write);
+                        }
+                    }
+                    writing = batch;
+                }
+                writeBatch(batch);
+            }
+        } finally {
+            if (!emptied) {
+                synchronized (lock) {
+                    writing = List.of();
+                    draining = false;
+                }
+            }
+        }
+    }
+
+    private void writeBatch(List<Write> batch) {
+        try (Connection connection = connect()) {
+            connection.setAutoCommit(false);
+            try {
+                Map<String, List<Write>> bySql = new LinkedHashMap<>();
+                for (Write write : batch) {
+                    bySql.computeIfAbsent(write.sql, k -> new ArrayList<>()).add(write);
+                }
+
+                for (Map.Entry<String, List<Write>> entry : bySql.entrySet()) {
+                    PreparedStatement ps = statements.prepare(connection, entry.getKey());
+                    try {
+                        for (Write write : entry.getValue()) {
+                            write.binder.bind(ps);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    } catch (SQLException e) {
+                        // A cached statement must not carry the failed rows into its next use
+                        ps.clearBatch();
+                        throw e;
+                    }
+                }
+                connection.commit();
+                breaker.success();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            batch.forEach(write -> write.done.complete(null));
+        } catch (SQLException | RuntimeException e) {
+            plugin.getLogger().warning("Failed to write a batch of " + batch.size() + " changes, retrying them one at a time: "
+                    + e.getMessage());
+            batch.forEach(this::writeOne);
+        } finally {
+            // Never leave a caller waiting, even if a binder threw
+            batch.forEach(write -> write.done.complete(null));
+        }
+    }
+
+    private void writeOne(Write write) {
+        try (Connection connection = connect()) {
+            PreparedStatement ps = statements.prepare(connection, write.sql);
+            write.binder.bind(ps);
+            ps.executeUpdate();
+            breaker.success();
+        } catch (SQLException e) {
+            boolean unreachable = SQLDatabase.isConnectionFailure(e);
+            if (unreachable) {
+                breaker.failure();
+            } else {
+                // The server answered, so it is up even though the write was refused
+                breaker.success();
+            }
+            if (unreachable && write.lost != null) {
+                write.lost.run();
+                return;
+            }
+            plugin.getLogger().warning("Failed to " + write.action + ": " + e.getMessage());
+            e.printStackTrace();
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Failed to " + write.action + ": " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            write.done.complete(null);
+        }
+    }
+
+    /**
+     * Open a connection, or fail at once while the circuit breaker is open.
+     */
+    private Connection connect() throws SQLException {
+        if (!breaker.allowRequest()) {
+            throw new SQLTransientConnectionException("The database is unreachable, not trying again yet");
+        }
+        return connector.connect();
+    }
+}
@@ -0,0 +1,235 @@
+package me.hexett.staffUtilsPlus.db;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.logging.Logger;
+
+/**
+ * Append-only file of writes that could not reach the SQL database, kept
+ * until they can be replayed against it.
+ * <p>
+ * Writes are recorded as {@link JournalEntry} JSON lines, one per write, and
+ * replayed oldest first. While anything is spooled, or a replay is running,
+ * new writes join the end of the spool rather than going straight to the
+ * database, so a write never overtakes one that was spooled before it.
+ * Each replayed write appends a {@value #REPLAYED} line, which removes the
+ * oldest write when the file is read back, and every {@link #SAVE_EVERY}
+ * writes the file is rewritten without them. Every line is forced to disk
+ * before the call that wrote it returns, so if the server stops mid-replay
+ * only the write that was being replayed can be replayed twice.
+ *
+ * @author Hexett
+ */
+final class WriteSpool implements Closeable {
+
+    private static final int SAVE_EVERY = 100;
+    private static final String REPLAYED = "replayed";
+
+    private final File file;
+    private final Gson gson;
+    private final Logger logger;
+
+    private final Deque<JournalEntry> entries = new ArrayDeque<>();
+    private Writer writer;
+    private FileChannel channel;
+    private boolean replaying;
+    private int replayedSinceSave;
+
+    /**
+     * @param file The spool file
+     * @param gson The Gson instance used to encode entries (should not pretty-print)
+     * @param logger The logger for read and write failures
+     */
+    WriteSpool(File file, Gson gson, Logger logger) {
+        this.file = file;
+        this.gson = gson;
+        this.logger = logger;
+    }
+
+    /**
+     * Read the writes left in the spool by a previous run. Reading stops at
+     * the first line that cannot be parsed, which is what a write interrupted
+     * by a crash looks like.
+     *
+     * @return The number of spooled writes
+     */
+    synchronized int open() {
+        entries.clear();
+        if (file.exists() && file.length() > 0) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    if (REPLAYED.equals(line)) {
+                        entries.pollFirst();
+                        continue;
+                    }
+                    JournalEntry entry = gson.fromJson(line, JournalEntry.class);
+                    if (entry != null && entry.op != null) {
+                        entries.add(entry);
+                    }
+                }
+            } catch (IOException | JsonParseException e) {
+                logger.warning("Stopped reading " + file.getName() + " at a torn entry: " + e.getMessage());
+            }
+        }
+        return entries.size();
+    }
+
+    /**
+     * Spool a write if the database cannot take it directly: while it is
+     * unreachable, or while earlier writes are still spooled.
+     *
+     * @param entry The write
+     * @param unreachable Whether the database is currently unreachable
+     * @return true if the write was spooled, false if it should go to the database
+     */
+    synchronized boolean offer(JournalEntry entry, boolean unreachable) {
+        if (!unreachable && entries.isEmpty() && !replaying) {
+            return false;
+        }
+        append(entry);
+        return true;
+    }
+
+    /**
+     * Spool a write that failed because the database could not be reached.
+     *
+     * @param entry The write
+     */
+    synchronized void append(JournalEntry entry) {
+        entries.add(entry);
+        // Still replayed from memory if the server keeps running
+        writeLine(gson.toJson(entry));
+    }
+
+    /**
+     * Start replaying, unless a replay is already running or nothing is spooled.
+     *
+     * @return true if the caller should now replay with {@link #next()}
+     */
+    synchronized boolean startReplay() {
+        if (replaying || entries.isEmpty()) {
+            return false;
+        }
+        replaying = true;
+        return true;
+    }
+
+    /**
+     * Get the oldest spooled write. Ends the replay if the spool is empty, in
+     * the same step, so a write spooled concurrently is never left behind.
+     *
+     * @return The write to replay next, or null if the replay is finished
+     */
+    synchronized JournalEntry next() {
+        if (entries.isEmpty()) {
+            replaying = false;
+            return null;
+        }
+        return entries.peekFirst();
+    }
+
+    /**
+     * Remove the write returned by {@link #next()} once it has been replayed.
+     */
+    synchronized void replayed() {
+        entries.pollFirst();
+        if (entries.isEmpty() || ++replayedSinceSave >= SAVE_EVERY) {
+            save();
+        } else {
+            writeLine(REPLAYED);
+        }
+    }
+
+    /**
+     * Stop replaying because the database became unreachable again. The
+     * write that failed stays at the head of the spool.
+     */
+    synchronized void pause() {
+        replaying = false;
+        save();
+    }
+
+    /**
+     * Get the number of spooled writes.
+     *
+     * @return The writes waiting to be replayed
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            channel = null;
+        }
+    }
+
+    /**
+     * Append a line and force it to disk.
+     */
+    private void writeLine(String line) {
+        try {
+            if (writer == null) {
+                FileOutputStream out = new FileOutputStream(file, true);
+                channel = out.getChannel();
+                writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            }
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+            channel.force(false);
+        } catch (IOException e) {
+            logger.warning("Failed to write " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrite the file with only the writes still waiting, replacing it in one step.
+     */
+    private void save() {
+        replayedSinceSave = 0;
+        try {
+            close();
+            if (entries.isEmpty()) {
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+            File temp = new File(file.getPath() + ".tmp");
+            try (FileOutputStream stream = new FileOutputStream(temp, false);
+                 Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8))) {
+                for (JournalEntry entry : entries) {
+                    out.write(gson.toJson(entry));
+                    out.write('\n');
+                }
+                out.flush();
+                stream.getChannel().force(false);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Failed to save replay progress to " + file.getName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package me.hexett.staffUtilsPlus.impl;
 
+import me.hexett.staffUtilsPlus.db.AsyncDatabase;
 import me.hexett.staffUtilsPlus.db.Database;
 import me.hexett.staffUtilsPlus.service.ServiceRegistry;
 import me.hexett.staffUtilsPlus.service.alts.AltAccountService;
+import me.hexett.staffUtilsPlus.utils.MainThread;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -13,6 +15,7 @@ import org.bukkit.plugin.Plugin;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Implementation of AltAccountService for tracking and managing alternative accounts.
@@ -25,6 +28,8 @@ public class AltAccountServiceImpl implements AltAccountService, Listener {
 
     private final Plugin plugin;
     private final Database database;
+    private final AsyncDatabase async;
+    private final Executor mainThread;
 
     public AltAccountServiceImpl(Plugin plugin) {
         this.plugin = plugin;
@@ -33,6 +38,8 @@ public class AltAccountServiceImpl implements AltAccountService, Listener {
         if (database == null) {
             throw new IllegalStateException("Database service must be registered before AltAccountService");
         }
+        this.async = AsyncDatabase.of(database);
+        this.mainThread = MainThread.executor(plugin);
 
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
         plugin.getLogger().info("AltAccountService initialized with database backend");
@@ -51,6 +58,8 @@ public class AltAccountServiceImpl implements AltAccountService, Listener {
         if (this.database == null) {
             throw new IllegalArgumentException("database must not be null");
         }
+        this.async = AsyncDatabase.of(database);
+        this.mainThread = MainThread.executor(plugin);
 
         if (this.plugin != null) {
             try {
@@ -67,6 +76,11 @@ public class AltAccountServiceImpl implements AltAccountService, Listener {
         return database.getPlayerIP(uuid);
     }
 
+    @Override
+    public CompletableFuture<String> getPlayerIPAsync(UUID uuid) {
+        return async.getPlayerIPAsync(uuid);
+    }
+
     @Override
     public List<UUID> getAltAccounts(UUID uuid) {
         String ip = database.getPlayerIP(uuid);
@@ -82,6 +96,11 @@ public class AltAccountServiceImpl implements AltAccountService, Listener {
         return database.getPlayersByIP(ipAddress);
     }
 
+    @Override
+    public CompletableFuture<List<UUID>> getPlayersByIPAsync(String ipAddress) {
+        return async.getPlayersByIPAsync(ipAddress);
+    }
+
     /**
      * Handle player join events to track IPs and notify staff of alts.
      */
@@ -91,20 +110,16 @@ public class AltAccountServiceImpl implements AltAccountService, Listener {
         String ipAddress = player.getAddress().getAddress().getHostAddress();
         UUID uuid = player.getUniqueId();
 
-        // Check for existing alts and record IP asynchronously
-        CompletableFuture.runAsync(() -> {
-            // Get existing alts before recording the new IP
-            List<UUID> existingAlts = database.getPlayersByIP(ipAddress);
-            boolean hasAlts = existingAlts.size() > 0 && !existingAlts.stream().allMatch(u -> u.equals(uuid));
-
-            // Record the player's IP address
-            database.recordPlayerIP(uuid, ipAddress);
-
+        // Get existing alts before recording the new IP, then record it
+        async.getPlayersByIPAsync(ipAddress).thenCompose(existingAlts ->
+                async.recordPlayerIPAsync(uuid, ipAddress).thenApply(ignored -> existingAlts)
+        ).thenAcceptAsync(existingAlts -> {
             // Notify staff if player has alts (on main thread)
+            boolean hasAlts = existingAlts.size() > 0 && !existingAlts.stream().allMatch(u -> u.equals(uuid));
             if (hasAlts) {
-                Bukkit.getScheduler().runTask(plugin, () -> notifyStaffOfAlts(player, existingAlts));
+                notifyStaffOfAlts(player, existingAlts);
             }
-        }).exceptionally(throwable -> {
+        }, mainThread).exceptionally(throwable -> {
             plugin.getLogger().warning("Error checking alts for " + player.getName() + ": " + throwable.getMessage());
             throwable.printStackTrace();
             return null;
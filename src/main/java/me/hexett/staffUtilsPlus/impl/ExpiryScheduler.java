@@ -0,0 +1,198 @@
+package me.hexett.staffUtilsPlus.impl;
+
+import me.hexett.staffUtilsPlus.db.AsyncDatabase;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Deactivates temporary bans and mutes once they lapse.
+ * <p>
+ * Upcoming expiries wait in a queue ordered by expiry time, loaded a window
+ * at a time from the database's active punishments, soonest first. A tick only
+ * looks at the head of the queue, and the punishments that have lapsed are
+ * deactivated together with one range update per type, so a tick costs as
+ * much as the number of punishments expiring rather than the number active.
+ * The next window is loaded while the current one still has
+ * {@link #RELOAD_BELOW} expiries left, and the window is reloaded at least
+ * every {@link #RELOAD_EVERY_MILLIS} to pick up punishments that other
+ * servers sharing the database issued, which {@link #schedule} never sees.
+ * <p>
+ * Each load also deactivates anything that lapsed without being queued, such
+ * as punishments that expired while the server was down.
+ *
+ * @author Hexett
+ */
+final class ExpiryScheduler {
+
+    /**
+     * The types of punishment that expire.
+     */
+    static final Set<Punishment.Type> TYPES = Collections.unmodifiableSet(
+            EnumSet.of(Punishment.Type.TEMP_BAN, Punishment.Type.TEMP_MUTE));
+
+    private static final int WINDOW = 1000;
+    private static final int RELOAD_BELOW = WINDOW / 4;
+    static final long RELOAD_EVERY_MILLIS = 60_000;
+
+    /**
+     * A punishment waiting to expire.
+     *
+     * @param target The punished player
+     * @param type The type of punishment
+     * @param expiresAt When it expires
+     */
+    record Expiry(UUID target, Punishment.Type type, long expiresAt) {
+
+        static Expiry of(Punishment punishment) {
+            return new Expiry(punishment.getTarget(), punishment.getType(), punishment.getExpiresAt());
+        }
+    }
+
+    private final AsyncDatabase async;
+
+    private final PriorityQueue<Expiry> queue = new PriorityQueue<>(Comparator.comparingLong(Expiry::expiresAt));
+    private final Set<Expiry> queued = new HashSet<>();
+    private final List<Expiry> issuedWhileLoading = new ArrayList<>();
+    // Expiries up to this time issued on this server are all queued; -1 before the first load
+    private long horizon = -1;
+    private long loadedAt;
+    private boolean loading;
+    private boolean busy;
+
+    /**
+     * @param async The database to load expiries from and deactivate them in
+     */
+    ExpiryScheduler(AsyncDatabase async) {
+        this.async = async;
+    }
+
+    /**
+     * Queue a punishment that was just issued, if it expires within the
+     * loaded window. Later ones are picked up when their window is loaded.
+     *
+     * @param punishment The punishment
+     */
+    synchronized void schedule(Punishment punishment) {
+        if (!TYPES.contains(punishment.getType()) || punishment.getExpiresAt() <= 0) {
+            return;
+        }
+        Expiry expiry = Expiry.of(punishment);
+        if (loading) {
+            // The load may have read the database before this was stored
+            issuedWhileLoading.add(expiry);
+        } else if (expiry.expiresAt() <= horizon) {
+            add(expiry);
+        }
+    }
+
+    /**
+     * Deactivate the punishments that have lapsed, and load the next window
+     * of expiries if the queue is running low. Does nothing while the previous
+     * tick is still running.
+     *
+     * @param now The current time
+     * @return The punishments deactivated by this tick
+     */
+    CompletableFuture<List<Expiry>> tick(long now) {
+        List<Expiry> due = new ArrayList<>();
+        boolean load;
+        synchronized (this) {
+            if (busy) {
+                return CompletableFuture.completedFuture(due);
+            }
+            while (!queue.isEmpty() && queue.peek().expiresAt() <= now) {
+                Expiry expiry = queue.poll();
+                queued.remove(expiry);
+                due.add(expiry);
+            }
+            load = (horizon < Long.MAX_VALUE && queue.size() < RELOAD_BELOW)
+                    || now - loadedAt >= RELOAD_EVERY_MILLIS;
+            if (due.isEmpty() && !load) {
+                return CompletableFuture.completedFuture(due);
+            }
+            busy = true;
+            loading = load;
+            if (load) {
+                loadedAt = now;
+            }
+        }
+
+        CompletableFuture<List<Expiry>> work = load
+                ? deactivate(TYPES, now).thenCompose(v -> load()).thenApply(v -> due)
+                : deactivate(typesOf(due), now).thenApply(v -> due);
+        return work.whenComplete((expired, e) -> {
+            synchronized (this) {
+                busy = false;
+                if (loading) {
+                    loading = false;
+                    issuedWhileLoading.clear();
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the number of expiries waiting in the queue.
+     *
+     * @return The queued expiries
+     */
+    synchronized int size() {
+        return queue.size();
+    }
+
+    private CompletableFuture<Void> load() {
+        return async.getActivePunishmentsAsync(TYPES, 0, WINDOW).thenAccept(punishments -> {
+            synchronized (this) {
+                long last = punishments.isEmpty() ? 0 : punishments.get(punishments.size() - 1).getExpiresAt();
+                // Expiries sharing the last time may run past the window, so leave them for the next one.
+                // A short window holds every expiry so far; later ones from other servers wait for the next reload
+                horizon = punishments.size() < WINDOW ? Long.MAX_VALUE
+                        : last > punishments.get(0).getExpiresAt() ? last - 1 : last;
+                for (Punishment punishment : punishments) {
+                    if (punishment.getExpiresAt() > 0 && punishment.getExpiresAt() <= horizon) {
+                        add(Expiry.of(punishment));
+                    }
+                }
+                for (Expiry expiry : issuedWhileLoading) {
+                    if (expiry.expiresAt() <= horizon) {
+                        add(expiry);
+                    }
+                }
+                issuedWhileLoading.clear();
+                loading = false;
+            }
+        });
+    }
+
+    private void add(Expiry expiry) {
+        if (queued.add(expiry)) {
+            queue.add(expiry);
+        }
+    }
+
+    private CompletableFuture<Void> deactivate(Set<Punishment.Type> types, long before) {
+        List<CompletableFuture<Void>> updates = new ArrayList<>(types.size());
+        for (Punishment.Type type : types) {
+            updates.add(async.deactivateExpiredPunishmentsAsync(type, before));
+        }
+        return CompletableFuture.allOf(updates.toArray(new CompletableFuture[0]));
+    }
+
+    private static Set<Punishment.Type> typesOf(List<Expiry> expiries) {
+        Set<Punishment.Type> types = EnumSet.noneOf(Punishment.Type.class);
+        for (Expiry expiry : expiries) {
+            types.add(expiry.type());
+        }
+        return types;
+    }
+}
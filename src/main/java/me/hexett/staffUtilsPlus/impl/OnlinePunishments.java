@@ -0,0 +1,134 @@
+package me.hexett.staffUtilsPlus.impl;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The active bans and mutes of one online player, held in memory for as long
+ * as they are online so chat and ban checks never reach the database.
+ * <p>
+ * Each type of ban or mute has one slot holding the active punishment of that
+ * type, read without locking. Changes made while the punishments are being
+ * loaded bump a version, and a load that started before a change is thrown
+ * away and retried rather than overwriting it. The punishments may be loaded
+ * again while they are being read, to pick up changes made by other servers;
+ * each slot is replaced in one step, so a reader never sees it empty.
+ *
+ * @author Hexett
+ */
+final class OnlinePunishments {
+
+    private final AtomicReferenceArray<Punishment> active = new AtomicReferenceArray<>(Punishment.Type.values().length);
+    private int version;
+    private volatile boolean loaded;
+
+    /**
+     * Check whether punishments of a type are held here.
+     *
+     * @param type The type of punishment
+     * @return true for bans and mutes
+     */
+    static boolean tracks(Punishment.Type type) {
+        return type == Punishment.Type.BAN || type == Punishment.Type.TEMP_BAN
+                || type == Punishment.Type.MUTE || type == Punishment.Type.TEMP_MUTE;
+    }
+
+    /**
+     * Get the version to pass to {@link #load(List, int)}, taken before
+     * reading the punishments from the database.
+     *
+     * @return The current version
+     */
+    synchronized int version() {
+        return version;
+    }
+
+    /**
+     * Fill in the punishments read from the database, unless they changed
+     * while they were being read.
+     *
+     * @param punishments The player's active punishments
+     * @param seen The version taken before reading them
+     * @return true if loaded, false if the caller should read them again
+     */
+    synchronized boolean load(List<Punishment> punishments, int seen) {
+        if (version != seen) {
+            return false;
+        }
+        Punishment[] loadedActive = new Punishment[active.length()];
+        for (Punishment punishment : punishments) {
+            int slot = punishment.getType().ordinal();
+            if (tracks(punishment.getType()) && outlasts(punishment, loadedActive[slot])) {
+                loadedActive[slot] = punishment;
+            }
+        }
+        for (int i = 0; i < loadedActive.length; i++) {
+            active.set(i, loadedActive[i]);
+        }
+        loaded = true;
+        return true;
+    }
+
+    /**
+     * Check whether the punishments have been loaded and can be read.
+     *
+     * @return true once loaded
+     */
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Record a punishment that was just issued.
+     *
+     * @param punishment The punishment
+     */
+    synchronized void add(Punishment punishment) {
+        version++;
+        if (tracks(punishment.getType())) {
+            active.set(punishment.getType().ordinal(), punishment);
+        }
+    }
+
+    /**
+     * Record punishments that were just lifted.
+     *
+     * @param first The first type lifted
+     * @param second The second type lifted
+     */
+    synchronized void remove(Punishment.Type first, Punishment.Type second) {
+        version++;
+        active.set(first.ordinal(), null);
+        active.set(second.ordinal(), null);
+    }
+
+    /**
+     * Get the active punishment of a type.
+     *
+     * @param type The type of punishment, one that is {@linkplain #tracks tracked}
+     * @param now The current time
+     * @return The punishment, or null if there is none or it has expired
+     */
+    Punishment get(Punishment.Type type, long now) {
+        Punishment punishment = active.get(type.ordinal());
+        return punishment != null && (punishment.isPermanent() || punishment.getExpiresAt() > now) ? punishment : null;
+    }
+
+    boolean isBanned(long now) {
+        return get(Punishment.Type.BAN, now) != null || get(Punishment.Type.TEMP_BAN, now) != null;
+    }
+
+    boolean isMuted(long now) {
+        return get(Punishment.Type.MUTE, now) != null || get(Punishment.Type.TEMP_MUTE, now) != null;
+    }
+
+    /**
+     * Check whether a punishment lasts longer than the one already held.
+     */
+    private static boolean outlasts(Punishment punishment, Punishment held) {
+        return held == null || punishment.isPermanent()
+                || (!held.isPermanent() && punishment.getExpiresAt() > held.getExpiresAt());
+    }
+}
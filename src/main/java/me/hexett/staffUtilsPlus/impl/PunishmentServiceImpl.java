@@ -1,10 +1,10 @@
 package me.hexett.staffUtilsPlus.impl;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import me.hexett.staffUtilsPlus.db.AsyncDatabase;
 import me.hexett.staffUtilsPlus.db.Database;
 import me.hexett.staffUtilsPlus.service.punishments.Punishment;
 import me.hexett.staffUtilsPlus.service.punishments.PunishmentService;
+import me.hexett.staffUtilsPlus.utils.MainThread;
 import me.hexett.staffUtilsPlus.utils.MessagesConfig;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -13,12 +13,26 @@ import org.bukkit.plugin.Plugin;
 
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * Implementation of the PunishmentService interface.
  * Handles all punishment-related operations including bans, mutes, and kicks.
+ * Actions run their checks and writes on the database's threads and only come
+ * back to the server thread to kick players and send messages.
+ * <p>
+ * The bans and mutes of online players are held in memory from pre-login
+ * until they quit, and kept up to date by the actions here, so checking them
+ * needs no database query. Players who are not loaded are checked against the
+ * database as before. When the database is shared with other servers,
+ * {@link #refreshOnlinePlayers()} re-reads them on a timer so bans and mutes
+ * issued or lifted elsewhere apply here too.
+ * <p>
+ * Temporary bans and mutes are deactivated as they lapse by an
+ * {@link ExpiryScheduler}, driven by {@link #expirePunishments()}.
  * 
  * @author Hexett
  */
@@ -27,8 +41,12 @@ public class PunishmentServiceImpl implements PunishmentService {
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm");
     private static final String CONSOLE_NAME = "Console";
     
+    private final Plugin plugin;
     private final Database database;
-    private final Cache<UUID, List<Punishment>> cache;
+    private final AsyncDatabase async;
+    private final Executor mainThread;
+    private final Map<UUID, OnlinePunishments> online = new ConcurrentHashMap<>();
+    private final ExpiryScheduler expiry;
 
     /**
      * Create a new PunishmentServiceImpl.
@@ -37,96 +55,198 @@ public class PunishmentServiceImpl implements PunishmentService {
      * @param plugin The plugin instance
      */
     public PunishmentServiceImpl(Database database, Plugin plugin) {
+        this.plugin = plugin;
         this.database = database;
-        this.cache = Caffeine.newBuilder()
-                .expireAfterWrite(5, TimeUnit.MINUTES)
-                .build();
+        this.async = AsyncDatabase.of(database);
+        this.mainThread = MainThread.executor(plugin);
+        this.expiry = new ExpiryScheduler(async);
     }
 
-    @Override
-    public void ban(UUID issuer, UUID target, String reason, long expiresAt) {
-        if (isBanned(target)) {
-            sendToIssuer(issuer, MessagesConfig.get("punishments.ban.already-banned")
-                    .replace("%target%", getName(target)));
-            return;
-        }
+    /**
+     * Deactivate the temporary bans and mutes that have lapsed, and tell
+     * players whose mute ran out that they can chat again. Meant to run every
+     * second on a timer off the server thread.
+     */
+    public void expirePunishments() {
+        expiry.tick(System.currentTimeMillis()).thenAccept(expired -> {
+            if (!expired.isEmpty()) {
+                mainThread.execute(() -> notifyExpired(expired));
+            }
+        }).exceptionally(e -> logFailure("expiring punishments", e));
+    }
 
-        Punishment punishment = new Punishment(target, 
-                expiresAt == -1 ? Punishment.Type.BAN : Punishment.Type.TEMP_BAN, 
-                reason, System.currentTimeMillis(), expiresAt, issuer);
-        
-        database.insertPunishment(punishment);
-        cache.invalidate(target);
-
-        // Kick online player if present
-        Player onlinePlayer = Bukkit.getPlayer(target);
-        if (onlinePlayer != null) {
-            String kickMessage = buildKickMessage(reason, expiresAt);
-            onlinePlayer.kickPlayer(kickMessage);
+    private void notifyExpired(List<ExpiryScheduler.Expiry> expired) {
+        long now = System.currentTimeMillis();
+        for (ExpiryScheduler.Expiry lapsed : expired) {
+            if (lapsed.type() != Punishment.Type.TEMP_MUTE) {
+                continue;
+            }
+            Player player = Bukkit.getPlayer(lapsed.target());
+            OnlinePunishments state = loaded(lapsed.target());
+            if (player != null && (state == null || !state.isMuted(now))) {
+                player.sendMessage(MessagesConfig.get("punishments.mute.expired"));
+            }
         }
+    }
 
-        // Broadcast ban notification
-        String notification = MessagesConfig.get("punishments.ban.notify")
-                .replace("%target%", getName(target))
-                .replace("%issuer%", issuer != null ? getName(issuer) : CONSOLE_NAME)
-                .replace("%reason%", reason);
-        Bukkit.broadcast(notification, "staffutils.notify.ban");
-
-        // Send success message to issuer
-        String successMessage = MessagesConfig.get("punishments.ban.success")
-                .replace("%target%", getName(target))
-                .replace("%reason%", reason);
-        sendToIssuer(issuer, successMessage);
+    /**
+     * Re-read the bans and mutes of every loaded player from the database, so
+     * changes made by other servers sharing it are picked up. A player changed
+     * here while being re-read keeps the local change and is refreshed on the
+     * next run. Meant to run on a timer off the server thread.
+     *
+     * @return A future that completes once every player has been re-read
+     */
+    public CompletableFuture<Void> refreshOnlinePlayers() {
+        List<CompletableFuture<Void>> reads = new ArrayList<>();
+        for (Map.Entry<UUID, OnlinePunishments> entry : online.entrySet()) {
+            OnlinePunishments state = entry.getValue();
+            if (!state.isLoaded()) {
+                continue;
+            }
+            int seen = state.version();
+            reads.add(async.getPunishmentsAsync(entry.getKey())
+                    .thenAccept(punishments -> state.load(punishments, seen))
+                    .exceptionally(e -> logFailure("refreshing punishments of " + entry.getKey(), e)));
+        }
+        return CompletableFuture.allOf(reads.toArray(new CompletableFuture[0]));
     }
 
     @Override
-    public void unban(UUID issuer, UUID target) {
-        if (!isBanned(target)) {
-            sendToIssuer(issuer, MessagesConfig.get("punishments.unban.not-banned")
-                    .replace("%target%", getName(target)));
-            return;
+    public void loadPlayer(UUID target) {
+        OnlinePunishments state = new OnlinePunishments();
+        online.put(target, state);
+        try {
+            int seen;
+            do {
+                seen = state.version();
+            } while (!state.load(database.getPunishments(target), seen));
+        } catch (RuntimeException e) {
+            online.remove(target, state);
+            throw e;
         }
-        
-        database.deactivatePunishment(target, Punishment.Type.BAN);
-        database.deactivatePunishment(target, Punishment.Type.TEMP_BAN);
-        cache.invalidate(target);
-        
-        sendToIssuer(issuer, MessagesConfig.get("punishments.unban.success")
-                .replace("%target%", getName(target)));
     }
 
     @Override
-    public boolean isBanned(UUID target) {
-        return getActivePunishment(target, Punishment.Type.BAN).isPresent() ||
-                getActivePunishment(target, Punishment.Type.TEMP_BAN).isPresent();
+    public void unloadPlayer(UUID target) {
+        online.remove(target);
+    }
+
+    /**
+     * Get the in-memory punishments of a player.
+     *
+     * @param target The player's UUID
+     * @return The punishments, or null if the player is not loaded
+     */
+    private OnlinePunishments loaded(UUID target) {
+        OnlinePunishments state = online.get(target);
+        return state != null && state.isLoaded() ? state : null;
     }
 
     @Override
-    public void kick(UUID issuer, UUID target, String reason) {
-        Punishment punishment = new Punishment(target, Punishment.Type.KICK, reason, System.currentTimeMillis(), issuer);
+    public CompletableFuture<Void> ban(UUID issuer, UUID target, String reason, long expiresAt) {
+        return isBannedAsync(target).thenCompose(banned -> {
+            if (banned) {
+                return CompletableFuture.runAsync(() -> sendToIssuer(issuer, MessagesConfig.get("punishments.ban.already-banned")
+                        .replace("%target%", getName(target))), mainThread);
+            }
 
-        database.insertPunishment(punishment);
-        cache.invalidate(target);
+            Punishment punishment = new Punishment(target,
+                    expiresAt == -1 ? Punishment.Type.BAN : Punishment.Type.TEMP_BAN,
+                    reason, System.currentTimeMillis(), expiresAt, issuer);
+
+            return async.insertPunishmentAsync(punishment).thenRunAsync(() -> {
+                expiry.schedule(punishment);
+                OnlinePunishments state = online.get(target);
+                if (state != null) {
+                    state.add(punishment);
+                }
+
+                // Kick online player if present
+                Player onlinePlayer = Bukkit.getPlayer(target);
+                if (onlinePlayer != null) {
+                    String kickMessage = buildKickMessage(reason, expiresAt);
+                    onlinePlayer.kickPlayer(kickMessage);
+                }
+
+                // Broadcast ban notification
+                String notification = MessagesConfig.get("punishments.ban.notify")
+                        .replace("%target%", getName(target))
+                        .replace("%issuer%", issuer != null ? getName(issuer) : CONSOLE_NAME)
+                        .replace("%reason%", reason);
+                Bukkit.broadcast(notification, "staffutils.notify.ban");
+
+                // Send success message to issuer
+                String successMessage = MessagesConfig.get("punishments.ban.success")
+                        .replace("%target%", getName(target))
+                        .replace("%reason%", reason);
+                sendToIssuer(issuer, successMessage);
+            }, mainThread);
+        }).exceptionally(e -> logFailure("banning " + target, e));
+    }
+
+    @Override
+    public CompletableFuture<Void> unban(UUID issuer, UUID target) {
+        return isBannedAsync(target).thenCompose(banned -> {
+            if (!banned) {
+                return CompletableFuture.runAsync(() -> sendToIssuer(issuer, MessagesConfig.get("punishments.unban.not-banned")
+                        .replace("%target%", getName(target))), mainThread);
+            }
 
-        // Kick online player if present
-        Player onlinePlayer = Bukkit.getPlayer(target);
-        if (onlinePlayer != null) {
-            String kickMessage = buildKickMessage(reason);
-            onlinePlayer.kickPlayer(kickMessage);
+            return CompletableFuture.allOf(
+                    async.deactivatePunishmentAsync(target, Punishment.Type.BAN),
+                    async.deactivatePunishmentAsync(target, Punishment.Type.TEMP_BAN)
+            ).thenRunAsync(() -> {
+                OnlinePunishments state = online.get(target);
+                if (state != null) {
+                    state.remove(Punishment.Type.BAN, Punishment.Type.TEMP_BAN);
+                }
+                sendToIssuer(issuer, MessagesConfig.get("punishments.unban.success")
+                        .replace("%target%", getName(target)));
+            }, mainThread);
+        }).exceptionally(e -> logFailure("unbanning " + target, e));
+    }
+
+    @Override
+    public boolean isBanned(UUID target) {
+        OnlinePunishments state = loaded(target);
+        return state != null ? state.isBanned(System.currentTimeMillis()) : isBanned(database.getPunishments(target));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isBannedAsync(UUID target) {
+        OnlinePunishments state = loaded(target);
+        if (state != null) {
+            return CompletableFuture.completedFuture(state.isBanned(System.currentTimeMillis()));
         }
+        return async.getPunishmentsAsync(target).thenApply(this::isBanned);
+    }
+
+    @Override
+    public CompletableFuture<Void> kick(UUID issuer, UUID target, String reason) {
+        Punishment punishment = new Punishment(target, Punishment.Type.KICK, reason, System.currentTimeMillis(), issuer);
 
-        // Broadcast ban notification
-        String notification = MessagesConfig.get("punishments.kick.notify")
-                .replace("%target%", getName(target))
-                .replace("%issuer%", issuer != null ? getName(issuer) : CONSOLE_NAME)
-                .replace("%reason%", reason);
-        Bukkit.broadcast(notification, "staffutils.notify.kick");
+        return async.insertPunishmentAsync(punishment).thenRunAsync(() -> {
+            // Kick online player if present
+            Player onlinePlayer = Bukkit.getPlayer(target);
+            if (onlinePlayer != null) {
+                String kickMessage = buildKickMessage(reason);
+                onlinePlayer.kickPlayer(kickMessage);
+            }
 
-        // Send success message to issuer
-        String successMessage = MessagesConfig.get("punishments.kick.success")
-                .replace("%target%", getName(target))
-                .replace("%reason%", reason);
-        sendToIssuer(issuer, successMessage);
+            // Broadcast ban notification
+            String notification = MessagesConfig.get("punishments.kick.notify")
+                    .replace("%target%", getName(target))
+                    .replace("%issuer%", issuer != null ? getName(issuer) : CONSOLE_NAME)
+                    .replace("%reason%", reason);
+            Bukkit.broadcast(notification, "staffutils.notify.kick");
+
+            // Send success message to issuer
+            String successMessage = MessagesConfig.get("punishments.kick.success")
+                    .replace("%target%", getName(target))
+                    .replace("%reason%", reason);
+            sendToIssuer(issuer, successMessage);
+        }, mainThread).exceptionally(e -> logFailure("kicking " + target, e));
     }
 
     /**
@@ -142,61 +262,131 @@ public class PunishmentServiceImpl implements PunishmentService {
 
     @Override
     public Optional<Punishment> getActivePunishment(UUID target, Punishment.Type type) {
-        return database.getPunishments(target).stream()
-                .filter(p -> p.getType() == type && 
-                        (p.isPermanent() || p.getExpiresAt() > System.currentTimeMillis()))
-                .findFirst();
+        OnlinePunishments state = loaded(target);
+        if (state != null && OnlinePunishments.tracks(type)) {
+            return Optional.ofNullable(state.get(type, System.currentTimeMillis()));
+        }
+        return findActive(database.getPunishments(target), type);
     }
 
     @Override
-    public void mute(UUID issuer, UUID target, String reason, long expiresAt) {
-        if (isMuted(target)) {
-            sendToIssuer(issuer, MessagesConfig.get("punishments.mute.already-muted")
-                    .replace("%target%", getName(target)));
-            return;
+    public CompletableFuture<Optional<Punishment>> getActivePunishmentAsync(UUID target, Punishment.Type type) {
+        OnlinePunishments state = loaded(target);
+        if (state != null && OnlinePunishments.tracks(type)) {
+            return CompletableFuture.completedFuture(Optional.ofNullable(state.get(type, System.currentTimeMillis())));
         }
-        
-        Punishment punishment = new Punishment(target, 
-                expiresAt == -1 ? Punishment.Type.MUTE : Punishment.Type.TEMP_MUTE, 
-                reason, System.currentTimeMillis(), expiresAt, issuer);
-        
-        database.insertPunishment(punishment);
-        cache.invalidate(target);
+        return async.getPunishmentsAsync(target).thenApply(punishments -> findActive(punishments, type));
+    }
 
-        // Broadcast mute notification
-        String notification = MessagesConfig.get("punishments.mute.notify")
-                .replace("%target%", getName(target))
-                .replace("%issuer%", issuer != null ? getName(issuer) : CONSOLE_NAME)
-                .replace("%reason%", reason);
-        Bukkit.broadcast(notification, "staffutils.notify.mute");
+    @Override
+    public CompletableFuture<Void> mute(UUID issuer, UUID target, String reason, long expiresAt) {
+        return isMutedAsync(target).thenCompose(muted -> {
+            if (muted) {
+                return CompletableFuture.runAsync(() -> sendToIssuer(issuer, MessagesConfig.get("punishments.mute.already-muted")
+                        .replace("%target%", getName(target))), mainThread);
+            }
 
-        // Send success message to issuer
-        String successMessage = MessagesConfig.get("punishments.mute.success")
-                .replace("%target%", getName(target))
-                .replace("%reason%", reason);
-        sendToIssuer(issuer, successMessage);
+            Punishment punishment = new Punishment(target,
+                    expiresAt == -1 ? Punishment.Type.MUTE : Punishment.Type.TEMP_MUTE,
+                    reason, System.currentTimeMillis(), expiresAt, issuer);
+
+            return async.insertPunishmentAsync(punishment).thenRunAsync(() -> {
+                expiry.schedule(punishment);
+                OnlinePunishments state = online.get(target);
+                if (state != null) {
+                    state.add(punishment);
+                }
+
+                // Broadcast mute notification
+                String notification = MessagesConfig.get("punishments.mute.notify")
+                        .replace("%target%", getName(target))
+                        .replace("%issuer%", issuer != null ? getName(issuer) : CONSOLE_NAME)
+                        .replace("%reason%", reason);
+                Bukkit.broadcast(notification, "staffutils.notify.mute");
+
+                // Send success message to issuer
+                String successMessage = MessagesConfig.get("punishments.mute.success")
+                        .replace("%target%", getName(target))
+                        .replace("%reason%", reason);
+                sendToIssuer(issuer, successMessage);
+            }, mainThread);
+        }).exceptionally(e -> logFailure("muting " + target, e));
     }
 
     @Override
-    public void unmute(UUID issuer, UUID target) {
-        if (!isMuted(target)) {
-            sendToIssuer(issuer, MessagesConfig.get("punishments.unmute.not-muted")
-                    .replace("%target%", getName(target)));
-            return;
-        }
-        
-        database.deactivatePunishment(target, Punishment.Type.MUTE);
-        database.deactivatePunishment(target, Punishment.Type.TEMP_MUTE);
-        cache.invalidate(target);
-        
-        sendToIssuer(issuer, MessagesConfig.get("punishments.unmute.success")
-                .replace("%target%", getName(target)));
+    public CompletableFuture<Void> unmute(UUID issuer, UUID target) {
+        return isMutedAsync(target).thenCompose(muted -> {
+            if (!muted) {
+                return CompletableFuture.runAsync(() -> sendToIssuer(issuer, MessagesConfig.get("punishments.unmute.not-muted")
+                        .replace("%target%", getName(target))), mainThread);
+            }
+
+            return CompletableFuture.allOf(
+                    async.deactivatePunishmentAsync(target, Punishment.Type.MUTE),
+                    async.deactivatePunishmentAsync(target, Punishment.Type.TEMP_MUTE)
+            ).thenRunAsync(() -> {
+                OnlinePunishments state = online.get(target);
+                if (state != null) {
+                    state.remove(Punishment.Type.MUTE, Punishment.Type.TEMP_MUTE);
+                }
+                sendToIssuer(issuer, MessagesConfig.get("punishments.unmute.success")
+                        .replace("%target%", getName(target)));
+            }, mainThread);
+        }).exceptionally(e -> logFailure("unmuting " + target, e));
     }
 
     @Override
     public boolean isMuted(UUID target) {
-        return getActivePunishment(target, Punishment.Type.MUTE).isPresent() ||
-                getActivePunishment(target, Punishment.Type.TEMP_MUTE).isPresent();
+        OnlinePunishments state = loaded(target);
+        return state != null ? state.isMuted(System.currentTimeMillis()) : isMuted(database.getPunishments(target));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isMutedAsync(UUID target) {
+        OnlinePunishments state = loaded(target);
+        if (state != null) {
+            return CompletableFuture.completedFuture(state.isMuted(System.currentTimeMillis()));
+        }
+        return async.getPunishmentsAsync(target).thenApply(this::isMuted);
+    }
+
+    /**
+     * Find the first unexpired punishment of a type.
+     *
+     * @param punishments The active punishments for a player or IP
+     * @param type The type of punishment to look for
+     * @return Optional containing the punishment, or empty if none found
+     */
+    private Optional<Punishment> findActive(List<Punishment> punishments, Punishment.Type type) {
+        return punishments.stream()
+                .filter(p -> p.getType() == type &&
+                        (p.isPermanent() || p.getExpiresAt() > System.currentTimeMillis()))
+                .findFirst();
+    }
+
+    private boolean isBanned(List<Punishment> punishments) {
+        return findActive(punishments, Punishment.Type.BAN).isPresent() ||
+                findActive(punishments, Punishment.Type.TEMP_BAN).isPresent();
+    }
+
+    private boolean isMuted(List<Punishment> punishments) {
+        return findActive(punishments, Punishment.Type.MUTE).isPresent() ||
+                findActive(punishments, Punishment.Type.TEMP_MUTE).isPresent();
+    }
+
+    /**
+     * Log a failed punishment action. The issuer gets no reply, the same as
+     * when a blocking database call failed.
+     *
+     * @param action What was being done, for the log
+     * @param e The failure
+     * @return null, so it can end a future chain
+     */
+    private Void logFailure(String action, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        plugin.getLogger().warning("Failed " + action + ": " + cause.getMessage());
+        cause.printStackTrace();
+        return null;
     }
 
     /**
@@ -264,89 +454,68 @@ public class PunishmentServiceImpl implements PunishmentService {
 
     @Override
     public List<Punishment> getActiveTempBans() {
-        List<Punishment> tempBans = new ArrayList<>();
-        
-        // Get all players from the database and check for active temp bans
-        // This is a simplified implementation - in a real database, you'd want
-        // a more efficient query that filters by type and expiration
-        for (UUID playerUUID : getAllPlayerUUIDs()) {
-            Optional<Punishment> tempBan = getActivePunishment(playerUUID, Punishment.Type.TEMP_BAN);
-            if (tempBan.isPresent()) {
-                tempBans.add(tempBan.get());
-            }
-        }
-        
-        return tempBans;
-    }
-    
-    /**
-     * Get all player UUIDs from the database.
-     * This is a placeholder - implement based on your database structure.
-     */
-    private Set<UUID> getAllPlayerUUIDs() {
-        // For now, return online players
-        // In a real implementation, you'd query the database for all players
-        return Bukkit.getOnlinePlayers().stream()
-                .map(Player::getUniqueId)
-                .collect(Collectors.toSet());
+        return database.getActivePunishments(EnumSet.of(Punishment.Type.TEMP_BAN), 0, Integer.MAX_VALUE);
     }
 
     @Override
-    public void ipBan(UUID issuer, UUID target, String ipAddress, String reason, long expiresAt) {
-        if (isIPBanned(ipAddress)) {
-            sendToIssuer(issuer, MessagesConfig.get("punishments.ipban.already-banned")
-                    .replace("%ip%", ipAddress));
-            return;
-        }
+    public CompletableFuture<List<Punishment>> getActiveTempBansAsync(int offset, int limit) {
+        return async.getActivePunishmentsAsync(EnumSet.of(Punishment.Type.TEMP_BAN), offset, limit);
+    }
 
-        Punishment punishment = new Punishment(target,
-                Punishment.Type.IP_BAN,
-                reason, System.currentTimeMillis(), expiresAt, issuer, ipAddress);
-        
-        database.insertPunishment(punishment);
-        cache.invalidate(target);
-
-        // Kick online players with this IP if present
-        for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
-            if (onlinePlayer != null && onlinePlayer.getAddress() != null && 
-                onlinePlayer.getAddress().getAddress() != null &&
-                onlinePlayer.getAddress().getAddress().getHostAddress().equals(ipAddress)) {
-                String kickMessage = buildIPBanKickMessage(reason, expiresAt);
-                onlinePlayer.kickPlayer(kickMessage);
+    @Override
+    public CompletableFuture<Void> ipBan(UUID issuer, UUID target, String ipAddress, String reason, long expiresAt) {
+        return getActiveIPBanAsync(ipAddress).thenCompose(existing -> {
+            if (existing.isPresent()) {
+                return CompletableFuture.runAsync(() -> sendToIssuer(issuer, MessagesConfig.get("punishments.ipban.already-banned")
+                        .replace("%ip%", ipAddress)), mainThread);
             }
-        }
 
-        // Broadcast IP ban notification
-        String notification = MessagesConfig.get("punishments.ipban.notify")
-                .replace("%target%", getName(target))
-                .replace("%ip%", ipAddress)
-                .replace("%issuer%", issuer != null ? getName(issuer) : CONSOLE_NAME)
-                .replace("%reason%", reason);
-        Bukkit.broadcast(notification, "staffutils.notify.ipban");
-
-        // Send success message to issuer
-        String successMessage = MessagesConfig.get("punishments.ipban.success")
-                .replace("%target%", getName(target))
-                .replace("%ip%", ipAddress)
-                .replace("%reason%", reason);
-        sendToIssuer(issuer, successMessage);
+            Punishment punishment = new Punishment(target,
+                    Punishment.Type.IP_BAN,
+                    reason, System.currentTimeMillis(), expiresAt, issuer, ipAddress);
+
+            return async.insertPunishmentAsync(punishment).thenRunAsync(() -> {
+                // Kick online players with this IP if present
+                for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
+                    if (onlinePlayer != null && onlinePlayer.getAddress() != null &&
+                        onlinePlayer.getAddress().getAddress() != null &&
+                        onlinePlayer.getAddress().getAddress().getHostAddress().equals(ipAddress)) {
+                        String kickMessage = buildIPBanKickMessage(reason, expiresAt);
+                        onlinePlayer.kickPlayer(kickMessage);
+                    }
+                }
+
+                // Broadcast IP ban notification
+                String notification = MessagesConfig.get("punishments.ipban.notify")
+                        .replace("%target%", getName(target))
+                        .replace("%ip%", ipAddress)
+                        .replace("%issuer%", issuer != null ? getName(issuer) : CONSOLE_NAME)
+                        .replace("%reason%", reason);
+                Bukkit.broadcast(notification, "staffutils.notify.ipban");
+
+                // Send success message to issuer
+                String successMessage = MessagesConfig.get("punishments.ipban.success")
+                        .replace("%target%", getName(target))
+                        .replace("%ip%", ipAddress)
+                        .replace("%reason%", reason);
+                sendToIssuer(issuer, successMessage);
+            }, mainThread);
+        }).exceptionally(e -> logFailure("IP banning " + ipAddress, e));
     }
 
     @Override
-    public void unbanIP(UUID issuer, String ipAddress) {
-        if (!isIPBanned(ipAddress)) {
-            sendToIssuer(issuer, MessagesConfig.get("punishments.unbanip.not-banned")
-                    .replace("%ip%", ipAddress));
-            return;
-        }
-        
-        database.deactivateIPBan(ipAddress);
-        
-        // Invalidate cache for all players (IP bans affect multiple players)
-        cache.invalidateAll();
-        
-        sendToIssuer(issuer, MessagesConfig.get("punishments.unbanip.success")
-                .replace("%ip%", ipAddress));
+    public CompletableFuture<Void> unbanIP(UUID issuer, String ipAddress) {
+        return getActiveIPBanAsync(ipAddress).thenCompose(existing -> {
+            if (existing.isEmpty()) {
+                return CompletableFuture.runAsync(() -> sendToIssuer(issuer, MessagesConfig.get("punishments.unbanip.not-banned")
+                        .replace("%ip%", ipAddress)), mainThread);
+            }
+
+            return async.deactivateIPBanAsync(ipAddress).thenRunAsync(() -> {
+                sendToIssuer(issuer, MessagesConfig.get("punishments.unbanip.success")
+                        .replace("%ip%", ipAddress));
+            }, mainThread);
+        }).exceptionally(e -> logFailure("unbanning IP " + ipAddress, e));
     }
 
     @Override
@@ -356,10 +525,13 @@ public class PunishmentServiceImpl implements PunishmentService {
 
     @Override
     public Optional<Punishment> getActiveIPBan(String ipAddress) {
-        return database.getPunishmentsByIP(ipAddress).stream()
-                .filter(p -> p.getType() == Punishment.Type.IP_BAN && 
-                        (p.isPermanent() || p.getExpiresAt() > System.currentTimeMillis()))
-                .findFirst();
+        return findActive(database.getPunishmentsByIP(ipAddress), Punishment.Type.IP_BAN);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Punishment>> getActiveIPBanAsync(String ipAddress) {
+        return async.getPunishmentsByIPAsync(ipAddress)
+                .thenApply(punishments -> findActive(punishments, Punishment.Type.IP_BAN));
     }
 
     /**
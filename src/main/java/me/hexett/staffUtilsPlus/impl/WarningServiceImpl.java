@@ -44,11 +44,7 @@ public class WarningServiceImpl implements WarningService {
 
     @Override
     public int getWarningLevel(UUID target) {
-        List<Warning> warnings = getWarnings(target);
-        return warnings.stream()
-                .filter(Warning::isActive)
-                .mapToInt(Warning::getSeverity)
-                .sum();
+        return database.getActiveWarningSeverity(target);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package me.hexett.staffUtilsPlus.listeners;
 
+import me.hexett.staffUtilsPlus.db.Database;
 import me.hexett.staffUtilsPlus.impl.PunishmentServiceImpl;
 import me.hexett.staffUtilsPlus.service.ServiceRegistry;
 import me.hexett.staffUtilsPlus.service.punishments.Punishment;
@@ -7,20 +8,31 @@ import me.hexett.staffUtilsPlus.service.punishments.PunishmentService;
 import me.hexett.staffUtilsPlus.utils.ColorUtils;
 import me.hexett.staffUtilsPlus.utils.MessagesConfig;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Listener for handling player login attempts and checking for active bans.
  * Prevents banned players and IP banned players from joining the server.
+ * Loads each joining player's bans and mutes into memory, and drops them when
+ * the player leaves or is refused.
  * 
  * @author Hexett
  */
 public class BanLoginListener implements Listener {
 
+    /**
+     * How long a login waits for the database to finish loading at startup.
+     */
+    private static final long LOAD_WAIT_SECONDS = 10;
+
     /**
      * Handle player pre-login events to check for active bans.
      * 
@@ -38,6 +50,17 @@ public class BanLoginListener implements Listener {
                 return;
             }
 
+            // Only blocks while the database is still loading at startup
+            Database database = ServiceRegistry.get(Database.class);
+            if (database != null && !database.isReady() && !database.awaitReady(LOAD_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                        ColorUtils.translateColorCodes(MessagesConfig.get("errors.database.loading")));
+                return;
+            }
+
+            // Later checks for this player are answered from memory
+            service.loadPlayer(uuid);
+
             // Check for regular bans
             Optional<Punishment> activeBan = service.getActivePunishment(uuid, Punishment.Type.BAN);
             if (activeBan.isEmpty()) {
@@ -64,6 +87,49 @@ public class BanLoginListener implements Listener {
         }
     }
 
+    /**
+     * Drop the punishments loaded for a player refused at pre-login, by this
+     * or any other plugin.
+     *
+     * @param event The pre-login event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLoginResult(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            unload(event.getUniqueId());
+        }
+    }
+
+    /**
+     * Drop the punishments loaded for a player refused at login, e.g. because
+     * the server is full.
+     *
+     * @param event The login event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLoginResult(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            unload(event.getPlayer().getUniqueId());
+        }
+    }
+
+    /**
+     * Drop the punishments loaded for a player who leaves.
+     *
+     * @param event The quit event
+     */
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        unload(event.getPlayer().getUniqueId());
+    }
+
+    private void unload(UUID uuid) {
+        PunishmentService service = ServiceRegistry.get(PunishmentService.class);
+        if (service != null) {
+            service.unloadPlayer(uuid);
+        }
+    }
+
     /**
      * Build a kick message for banned players.
      * 
@@ -2,6 +2,7 @@ package me.hexett.staffUtilsPlus.service.alts;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for tracking and managing alternative accounts.
@@ -18,6 +19,14 @@ public interface AltAccountService {
      */
     String getPlayerIP(UUID uuid);
 
+    /**
+     * Get the IP address associated with a player without blocking.
+     *
+     * @param uuid The player's UUID
+     * @return The IP address, or null if not found
+     */
+    CompletableFuture<String> getPlayerIPAsync(UUID uuid);
+
     /**
      * Get all alternative accounts for a player (including the player themselves).
      *
@@ -33,4 +42,12 @@ public interface AltAccountService {
      * @return List of UUIDs
      */
     List<UUID> getPlayersByIP(String ipAddress);
+
+    /**
+     * Get all players who have joined from a specific IP address without blocking.
+     *
+     * @param ipAddress The IP address
+     * @return List of UUIDs
+     */
+    CompletableFuture<List<UUID>> getPlayersByIPAsync(String ipAddress);
 }
\ No newline at end of file
@@ -3,10 +3,15 @@ package me.hexett.staffUtilsPlus.service.punishments;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for managing player punishments.
  * Provides methods for banning, muting, and kicking players.
+ * Actions never block the caller: they return a future that completes once the
+ * change is stored and the issuer has been told the outcome. The {@code Async}
+ * queries are for callers on the server thread; the blocking queries are for
+ * callers already on another thread that must answer before returning.
  * 
  * @author Hexett
  */
@@ -19,16 +24,18 @@ public interface PunishmentService {
      * @param target The UUID of the player to ban
      * @param reason The reason for the ban
      * @param expiresAt When the ban expires (timestamp), or -1 for permanent
+     * @return Completes once the ban is stored and the issuer has been told
      */
-    void ban(UUID issuer, UUID target, String reason, long expiresAt);
+    CompletableFuture<Void> ban(UUID issuer, UUID target, String reason, long expiresAt);
     
     /**
      * Unban a previously banned player.
      * 
      * @param issuer The UUID of the player issuing the unban, or null for console
      * @param target The UUID of the player to unban
+     * @return Completes once the ban is lifted and the issuer has been told
      */
-    void unban(UUID issuer, UUID target);
+    CompletableFuture<Void> unban(UUID issuer, UUID target);
     
     /**
      * Check if a player is currently banned.
@@ -38,7 +45,23 @@ public interface PunishmentService {
      */
     boolean isBanned(UUID target);
 
-    void kick(UUID issuer, UUID target, String reason);
+    /**
+     * Check if a player is currently banned without blocking.
+     *
+     * @param target The UUID of the player to check
+     * @return true if the player is banned, false otherwise
+     */
+    CompletableFuture<Boolean> isBannedAsync(UUID target);
+
+    /**
+     * Kick a player and record the kick.
+     *
+     * @param issuer The UUID of the player issuing the kick, or null for console
+     * @param target The UUID of the player to kick
+     * @param reason The reason for the kick
+     * @return Completes once the kick is stored and the issuer has been told
+     */
+    CompletableFuture<Void> kick(UUID issuer, UUID target, String reason);
     
     /**
      * Get the active punishment of a specific type for a player.
@@ -48,6 +71,15 @@ public interface PunishmentService {
      * @return Optional containing the active punishment, or empty if none found
      */
     Optional<Punishment> getActivePunishment(UUID target, Punishment.Type type);
+
+    /**
+     * Get the active punishment of a specific type for a player without blocking.
+     *
+     * @param target The UUID of the player
+     * @param type The type of punishment to check
+     * @return Optional containing the active punishment, or empty if none found
+     */
+    CompletableFuture<Optional<Punishment>> getActivePunishmentAsync(UUID target, Punishment.Type type);
     
     /**
      * Mute a player permanently or temporarily.
@@ -56,16 +88,18 @@ public interface PunishmentService {
      * @param target The UUID of the player to mute
      * @param reason The reason for the mute
      * @param expiresAt When the mute expires (timestamp), or -1 for permanent
+     * @return Completes once the mute is stored and the issuer has been told
      */
-    void mute(UUID issuer, UUID target, String reason, long expiresAt);
+    CompletableFuture<Void> mute(UUID issuer, UUID target, String reason, long expiresAt);
     
     /**
      * Unmute a previously muted player.
      * 
      * @param issuer The UUID of the player issuing the unmute, or null for console
      * @param target The UUID of the player to unmute
+     * @return Completes once the mute is lifted and the issuer has been told
      */
-    void unmute(UUID issuer, UUID target);
+    CompletableFuture<Void> unmute(UUID issuer, UUID target);
     
     /**
      * Check if a player is currently muted.
@@ -75,6 +109,31 @@ public interface PunishmentService {
      */
     boolean isMuted(UUID target);
 
+    /**
+     * Check if a player is currently muted without blocking.
+     *
+     * @param target The UUID of the player to check
+     * @return true if the player is muted, false otherwise
+     */
+    CompletableFuture<Boolean> isMutedAsync(UUID target);
+
+    /**
+     * Load a joining player's bans and mutes into memory, so checks on them
+     * are answered without the database until {@link #unloadPlayer(UUID)}.
+     * Blocks on the database, so call it from the pre-login thread.
+     *
+     * @param target The UUID of the joining player
+     */
+    void loadPlayer(UUID target);
+
+    /**
+     * Drop a player's bans and mutes from memory once they leave or are
+     * refused at login.
+     *
+     * @param target The UUID of the player
+     */
+    void unloadPlayer(UUID target);
+
     /**
      * IP ban a player permanently or temporarily.
      * 
@@ -83,16 +142,18 @@ public interface PunishmentService {
      * @param ipAddress The IP address to ban
      * @param reason The reason for the IP ban
      * @param expiresAt When the IP ban expires (timestamp), or -1 for permanent
+     * @return Completes once the IP ban is stored and the issuer has been told
      */
-    void ipBan(UUID issuer, UUID target, String ipAddress, String reason, long expiresAt);
+    CompletableFuture<Void> ipBan(UUID issuer, UUID target, String ipAddress, String reason, long expiresAt);
     
     /**
      * Unban an IP address.
      * 
      * @param issuer The UUID of the player issuing the unban, or null for console
      * @param ipAddress The IP address to unban
+     * @return Completes once the IP ban is lifted and the issuer has been told
      */
-    void unbanIP(UUID issuer, String ipAddress);
+    CompletableFuture<Void> unbanIP(UUID issuer, String ipAddress);
     
     /**
      * Check if an IP address is currently banned.
@@ -110,5 +171,28 @@ public interface PunishmentService {
      */
     Optional<Punishment> getActiveIPBan(String ipAddress);
 
+    /**
+     * Get the active IP ban for an IP address without blocking.
+     *
+     * @param ipAddress The IP address to check
+     * @return Optional containing the active IP ban, or empty if not banned
+     */
+    CompletableFuture<Optional<Punishment>> getActiveIPBanAsync(String ipAddress);
+
+    /**
+     * Get every active temporary ban that has not expired, across all players,
+     * soonest to expire first.
+     *
+     * @return The active temporary bans
+     */
     List<Punishment> getActiveTempBans();
+
+    /**
+     * Get one page of the active temporary bans without blocking.
+     *
+     * @param offset The number of temporary bans to skip
+     * @param limit The maximum number of temporary bans to return
+     * @return The page of active temporary bans, soonest to expire first
+     */
+    CompletableFuture<List<Punishment>> getActiveTempBansAsync(int offset, int limit);
 }
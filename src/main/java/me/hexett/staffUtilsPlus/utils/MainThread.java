@@ -0,0 +1,34 @@
+package me.hexett.staffUtilsPlus.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Utility for getting back onto the server thread from database callbacks.
+ *
+ * @author Hexett
+ */
+public final class MainThread {
+
+    private MainThread() {
+    }
+
+    /**
+     * Get an executor that runs tasks on the server thread. Tasks handed over
+     * while already on the server thread run immediately instead of waiting a tick.
+     *
+     * @param plugin The plugin scheduling the tasks
+     * @return The executor
+     */
+    public static Executor executor(Plugin plugin) {
+        return task -> {
+            if (Bukkit.isPrimaryThread()) {
+                task.run();
+            } else {
+                Bukkit.getScheduler().runTask(plugin, task);
+            }
+        };
+    }
+}
@@ -0,0 +1,175 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.notes.Note;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.warnings.Warning;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BinarySnapshotCodec.
+ * Tests that every field of each kind of record survives a round trip,
+ * including null issuers, reasons and IPs, that the sequence number can be
+ * read from the header, and that files from a newer version, of another
+ * kind, or cut short are rejected.
+ */
+public class BinarySnapshotCodecTest {
+
+    @TempDir
+    File folder;
+
+    private File file;
+    private UUID player;
+    private UUID staff;
+
+    @BeforeEach
+    public void setUp() {
+        file = new File(folder, "punishments.bin");
+        player = UUID.randomUUID();
+        staff = UUID.randomUUID();
+    }
+
+    private Map<UUID, List<Punishment>> punishments() {
+        Punishment ban = new Punishment(player, Punishment.Type.TEMP_BAN, "Griefing", 1_000L, 2_000L, staff, "10.0.0.1");
+        Punishment kick = new Punishment(player, Punishment.Type.KICK, null, 3_000L, -1, null, null);
+        kick.setActive(false);
+        return Map.of(player, List.of(ban, kick));
+    }
+
+    @Test
+    public void testPunishmentsRoundTrip() throws IOException {
+        // Arrange
+        BinarySnapshotCodec.writePunishments(file, punishments(), 1);
+
+        // Act
+        List<Punishment> read = BinarySnapshotCodec.readPunishments(file, new HashMap<>()).get(player);
+
+        // Assert
+        assertEquals(2, read.size());
+        Punishment ban = read.get(0);
+        assertEquals(player, ban.getTarget());
+        assertEquals(Punishment.Type.TEMP_BAN, ban.getType());
+        assertEquals("Griefing", ban.getReason());
+        assertEquals(1_000L, ban.getIssuedAt());
+        assertEquals(2_000L, ban.getExpiresAt());
+        assertEquals(staff, ban.getIssuer());
+        assertEquals("10.0.0.1", ban.getIpAddress());
+        assertTrue(ban.isActive());
+        Punishment kick = read.get(1);
+        assertEquals(Punishment.Type.KICK, kick.getType());
+        assertNull(kick.getReason());
+        assertNull(kick.getIssuer());
+        assertNull(kick.getIpAddress());
+        assertEquals(-1, kick.getExpiresAt());
+        assertFalse(kick.isActive());
+    }
+
+    @Test
+    public void testNotesWarningsAndIPsRoundTrip() throws IOException {
+        // Arrange
+        File notesFile = new File(folder, "notes.bin");
+        File warningsFile = new File(folder, "warnings.bin");
+        File ipsFile = new File(folder, "player-ips.bin");
+        Note note = new Note(7, player, null, "Watch chat", 4_000L);
+        Warning warning = new Warning(9, player, null, null, 3, 5_000L, false);
+        BinarySnapshotCodec.writeNotes(notesFile, Map.of(player, List.of(note)), 1);
+        BinarySnapshotCodec.writeWarnings(warningsFile, Map.of(player, List.of(warning)), 1);
+        BinarySnapshotCodec.writePlayerIPs(ipsFile, Map.of(player, "2001:db8::1"), 1);
+
+        // Act
+        List<Note> notes = BinarySnapshotCodec.readNotes(notesFile, new HashMap<>()).get(player);
+        List<Warning> warnings = BinarySnapshotCodec.readWarnings(warningsFile, new HashMap<>()).get(player);
+        Map<UUID, String> ips = BinarySnapshotCodec.readPlayerIPs(ipsFile, new HashMap<>());
+
+        // Assert
+        assertEquals(List.of(note), notes);
+        Warning read = warnings.get(0);
+        assertEquals(9, read.getId());
+        assertEquals(player, read.getTarget());
+        assertNull(read.getIssuer());
+        assertNull(read.getReason());
+        assertEquals(3, read.getSeverity());
+        assertEquals(5_000L, read.getTimestamp());
+        assertFalse(read.isActive());
+        assertEquals(Map.of(player, "2001:db8::1"), ips);
+    }
+
+    @Test
+    public void testReadsSequenceFromHeader() throws IOException {
+        // Arrange
+        BinarySnapshotCodec.writePunishments(file, punishments(), 42);
+
+        // Act
+        long sequence = BinarySnapshotCodec.readSequence(file);
+
+        // Assert
+        assertEquals(42, sequence);
+        assertEquals(2, BinarySnapshotCodec.readPunishments(file, new HashMap<>()).get(player).size());
+    }
+
+    @Test
+    public void testRejectsNewerVersion() throws IOException {
+        // Arrange: the version follows the 4-byte magic
+        BinarySnapshotCodec.writePunishments(file, punishments(), 1);
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(4);
+            raw.writeShort(Short.MAX_VALUE);
+        }
+
+        // Act
+        IOException e = assertThrows(IOException.class, () -> BinarySnapshotCodec.readPunishments(file, new HashMap<>()));
+
+        // Assert
+        assertTrue(e.getMessage().contains("newer version"));
+    }
+
+    @Test
+    public void testRejectsOtherKind() throws IOException {
+        // Arrange
+        BinarySnapshotCodec.writePlayerIPs(file, Map.of(player, "10.0.0.1"), 1);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> BinarySnapshotCodec.readPunishments(file, new HashMap<>()));
+    }
+
+    @Test
+    public void testRejectsTruncatedFile() throws IOException {
+        // Arrange
+        BinarySnapshotCodec.writePunishments(file, punishments(), 1);
+        long length = file.length();
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(length - 3);
+        }
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> BinarySnapshotCodec.readPunishments(file, new HashMap<>()));
+    }
+
+    @Test
+    public void testReadFileCanBeReplaced() throws IOException {
+        // Arrange
+        BinarySnapshotCodec.writePunishments(file, punishments(), 1);
+        BinarySnapshotCodec.readPunishments(file, new HashMap<>());
+        File replacement = new File(folder, "punishments.bin.tmp");
+        BinarySnapshotCodec.writePunishments(replacement, Map.of(), 1);
+
+        // Act
+        Files.move(replacement.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Assert
+        assertTrue(BinarySnapshotCodec.readPunishments(file, new HashMap<>()).isEmpty());
+    }
+}
@@ -0,0 +1,61 @@
+package me.hexett.staffUtilsPlus.db;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CircuitBreaker.
+ * Tests opening after repeated failures, failing fast while open, and the
+ * trial query that closes or reopens it.
+ */
+public class CircuitBreakerTest {
+
+    private final List<CircuitBreaker.State> changes = new ArrayList<>();
+
+    @Test
+    public void testOpensAfterFailuresInARow() {
+        // Arrange
+        CircuitBreaker breaker = new CircuitBreaker(3, 60_000, (from, to) -> changes.add(to));
+
+        // Act
+        breaker.failure();
+        breaker.failure();
+        breaker.success();
+        breaker.failure();
+        breaker.failure();
+        boolean allowedBeforeOpening = breaker.allowRequest();
+        breaker.failure();
+
+        // Assert
+        assertTrue(allowedBeforeOpening);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.allowRequest());
+        assertEquals(List.of(CircuitBreaker.State.OPEN), changes);
+    }
+
+    @Test
+    public void testTrialClosesOrReopens() {
+        // Arrange: no retry delay, so the next request is a trial
+        CircuitBreaker breaker = new CircuitBreaker(1, 0, (from, to) -> changes.add(to));
+        breaker.failure();
+
+        // Act
+        boolean firstTrial = breaker.allowRequest();
+        breaker.failure();
+        boolean secondTrial = breaker.allowRequest();
+        breaker.success();
+
+        // Assert
+        assertTrue(firstTrial);
+        assertTrue(secondTrial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0, breaker.openForMillis());
+        assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.OPEN,
+                CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED), changes);
+    }
+}
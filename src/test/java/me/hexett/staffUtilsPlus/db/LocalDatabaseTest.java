@@ -0,0 +1,201 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for LocalDatabase in journal mode against real files.
+ * Tests that writes survive a crash in both snapshot formats, that a
+ * journal already folded into its snapshot is not replayed a second time,
+ * that history and issuer pages do not shift when records are archived, and
+ * that archiving in write-behind mode leaves a snapshot that loads.
+ */
+public class LocalDatabaseTest {
+
+    @TempDir
+    File dataFolder;
+
+    private Plugin plugin;
+    private UUID player;
+    private final List<LocalDatabase> opened = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        plugin = mock(Plugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("StaffUtilsPlus"));
+        player = UUID.randomUUID();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (LocalDatabase database : opened) {
+            database.close();
+        }
+    }
+
+    private LocalDatabase open(LocalDatabase.SnapshotFormat format, int compactThreshold) {
+        LocalDatabase database = new LocalDatabase(plugin, LocalDatabase.SaveMode.JOURNAL, format, compactThreshold, 1000, 500);
+        database.connect();
+        assertTrue(database.awaitReady(10, TimeUnit.SECONDS));
+        return database;
+    }
+
+    private Punishment ban(String reason) {
+        return new Punishment(player, Punishment.Type.TEMP_BAN, reason, System.currentTimeMillis(), Long.MAX_VALUE, null);
+    }
+
+    @Test
+    public void testJournaledWritesSurviveCrash() {
+        // Arrange: the first instance is abandoned without closing, as if the server died
+        LocalDatabase crashed = open(LocalDatabase.SnapshotFormat.JSON, 1000);
+        crashed.insertPunishment(ban("Griefing"));
+        crashed.insertPunishment(ban("Cheating"));
+
+        // Act
+        LocalDatabase reopened = open(LocalDatabase.SnapshotFormat.JSON, 1000);
+        opened.add(reopened);
+
+        // Assert
+        assertEquals(2, reopened.getPunishmentHistory(player).size());
+    }
+
+    @Test
+    public void testJournaledWritesSurviveCrashInBinaryFormat() {
+        // Arrange
+        LocalDatabase crashed = open(LocalDatabase.SnapshotFormat.BINARY, 1000);
+        crashed.insertPunishment(ban("Griefing"));
+
+        // Act
+        LocalDatabase reopened = open(LocalDatabase.SnapshotFormat.BINARY, 1000);
+        opened.add(reopened);
+
+        // Assert
+        assertEquals(1, reopened.getPunishmentHistory(player).size());
+    }
+
+    @Test
+    public void testReplayedJournalIsNotReplayedAgain() {
+        // Arrange: the second instance replays and compacts, then crashes too
+        LocalDatabase first = open(LocalDatabase.SnapshotFormat.JSON, 1000);
+        first.insertPunishment(ban("Griefing"));
+        open(LocalDatabase.SnapshotFormat.JSON, 1000);
+
+        // Act
+        LocalDatabase third = open(LocalDatabase.SnapshotFormat.JSON, 1000);
+        opened.add(third);
+
+        // Assert
+        assertEquals(1, third.getPunishmentHistory(player).size());
+    }
+
+    @Test
+    public void testJournalFoldedIntoSnapshotIsDiscarded() throws IOException {
+        // Arrange: keep a copy of the journal from before compaction, then put it
+        // back, as if the process died between writing the snapshot and resetting it
+        File journal = new File(dataFolder, "punishments.journal");
+        File copy = new File(dataFolder, "punishments.journal.copy");
+        LocalDatabase crashed = open(LocalDatabase.SnapshotFormat.JSON, 2);
+        crashed.insertPunishment(ban("Griefing"));
+        Files.copy(journal.toPath(), copy.toPath());
+        crashed.insertPunishment(ban("Cheating"));
+        Files.copy(copy.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        // Act
+        LocalDatabase reopened = open(LocalDatabase.SnapshotFormat.JSON, 2);
+        opened.add(reopened);
+
+        // Assert
+        assertEquals(2, reopened.getPunishmentHistory(player).size());
+    }
+
+    @Test
+    public void testCleanShutdownDoesNotReplay() {
+        // Arrange
+        LocalDatabase first = open(LocalDatabase.SnapshotFormat.JSON, 1000);
+        first.insertPunishment(ban("Griefing"));
+        first.close();
+
+        // Act
+        LocalDatabase reopened = open(LocalDatabase.SnapshotFormat.JSON, 1000);
+        opened.add(reopened);
+
+        // Assert
+        assertEquals(1, reopened.getPunishmentHistory(player).size());
+    }
+
+    @Test
+    public void testPagesDoNotShiftWhenArchived() {
+        // Arrange: five kicks, the oldest archived after the first page
+        LocalDatabase database = open(LocalDatabase.SnapshotFormat.JSON, 1000);
+        opened.add(database);
+        UUID staff = UUID.randomUUID();
+        long old = System.currentTimeMillis() - 400L * 24 * 3_600_000L;
+        for (int i = 0; i < 5; i++) {
+            database.insertPunishment(new Punishment(player, Punishment.Type.KICK, "Kick " + i, old + i * 3_600_000L, -1, staff));
+        }
+        Page<Punishment> history = database.getPunishmentHistoryPage(player, null, 2);
+        Page<Punishment> issued = database.getPunishmentsByIssuerPage(staff, null, 2);
+
+        // Act
+        database.archiveInactive(old + 3_600_000L);
+        Page<Punishment> olderHistory = database.getPunishmentHistoryPage(player, history.older(), 2);
+        Page<Punishment> olderIssued = database.getPunishmentsByIssuerPage(staff, issued.older(), 2);
+        Page<Punishment> oldestHistory = database.getPunishmentHistoryPage(player, olderHistory.older(), 2);
+
+        // Assert
+        assertEquals(List.of("Kick 2", "Kick 1"), reasons(olderHistory));
+        assertEquals(List.of("Kick 0"), reasons(oldestHistory));
+        assertEquals(List.of("Kick 2", "Kick 1"), reasons(olderIssued));
+        assertNull(olderIssued.older());
+        assertEquals(5, database.countPunishmentHistory(player).total());
+    }
+
+    private static List<String> reasons(Page<Punishment> page) {
+        return page.items().stream().map(Punishment::getReason).toList();
+    }
+
+    @Test
+    public void testWriteBehindArchiveLeavesLoadableSnapshot() {
+        // Arrange: flush after every mutation, so the flusher runs while archiving
+        LocalDatabase database = new LocalDatabase(plugin, LocalDatabase.SaveMode.WRITE_BEHIND, LocalDatabase.SnapshotFormat.JSON, 1000, 1, 1);
+        database.connect();
+        assertTrue(database.awaitReady(10, TimeUnit.SECONDS));
+        long old = System.currentTimeMillis() - 400L * 24 * 3_600_000L;
+        for (int i = 0; i < 200; i++) {
+            database.insertPunishment(new Punishment(player, Punishment.Type.KICK, "Kick " + i, old + i, -1, null));
+        }
+
+        // Act
+        int archived = database.archiveInactive(old + 100);
+        database.insertPunishment(ban("Griefing"));
+        database.close();
+        LocalDatabase reopened = new LocalDatabase(plugin, LocalDatabase.SaveMode.WRITE_BEHIND, LocalDatabase.SnapshotFormat.JSON, 1000, 1, 1);
+        reopened.connect();
+        assertTrue(reopened.awaitReady(10, TimeUnit.SECONDS));
+        opened.add(reopened);
+
+        // Assert
+        assertEquals(100, archived);
+        assertEquals(201, reopened.getPunishmentHistory(player).size());
+        assertEquals(1, reopened.getPunishments(player).stream().filter(p -> p.getType() == Punishment.Type.TEMP_BAN).count());
+    }
+}
@@ -0,0 +1,124 @@
+package me.hexett.staffUtilsPlus.db;
+
+import com.google.gson.Gson;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LocalJournal.
+ * Tests replaying entries written before a crash, discarding a journal that
+ * was already folded into a newer snapshot, and stopping at a torn entry.
+ */
+public class LocalJournalTest {
+
+    @TempDir
+    File folder;
+
+    private File file;
+    private LocalJournal journal;
+    private UUID player;
+
+    @BeforeEach
+    public void setUp() {
+        file = new File(folder, "punishments.journal");
+        journal = new LocalJournal(file, new Gson(), Logger.getLogger("StaffUtilsPlus"));
+        player = UUID.randomUUID();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        journal.close();
+    }
+
+    private JournalEntry ban(String reason) {
+        return JournalEntry.insertPunishment(new Punishment(player, Punishment.Type.BAN, reason, 1_000L, -1, null));
+    }
+
+    private List<JournalEntry> replay(long sequence) throws IOException {
+        List<JournalEntry> replayed = new ArrayList<>();
+        new LocalJournal(file, new Gson(), Logger.getLogger("StaffUtilsPlus")).replay(sequence, replayed::add);
+        return replayed;
+    }
+
+    @Test
+    public void testReplaysEntriesWrittenBeforeCrash() throws IOException {
+        // Arrange: the journal is never closed or compacted
+        journal.reset(3);
+        journal.append(ban("Griefing"));
+        journal.append(ban("Cheating"));
+
+        // Act
+        List<JournalEntry> replayed = replay(3);
+
+        // Assert
+        assertEquals(2, replayed.size());
+        assertEquals(JournalEntry.Op.INSERT_PUNISHMENT, replayed.get(0).op);
+        assertEquals("Griefing", replayed.get(0).punishment.getReason());
+        assertEquals("Cheating", replayed.get(1).punishment.getReason());
+        assertEquals(2, journal.size());
+    }
+
+    @Test
+    public void testDiscardsJournalFoldedIntoNewerSnapshot() throws IOException {
+        // Arrange: the snapshot was rewritten as sequence 4 before the journal was reset
+        journal.reset(3);
+        journal.append(ban("Griefing"));
+
+        // Act
+        List<JournalEntry> replayed = replay(4);
+
+        // Assert
+        assertTrue(replayed.isEmpty());
+    }
+
+    @Test
+    public void testResetStartsAnEmptyJournal() throws IOException {
+        // Arrange
+        journal.reset(3);
+        journal.append(ban("Griefing"));
+
+        // Act
+        journal.reset(4);
+
+        // Assert
+        assertEquals(0, journal.size());
+        assertTrue(replay(4).isEmpty());
+        assertTrue(replay(3).isEmpty());
+    }
+
+    @Test
+    public void testStopsAtTornEntry() throws IOException {
+        // Arrange: a write cut short by a crash
+        journal.reset(1);
+        journal.append(ban("Griefing"));
+        Files.writeString(file.toPath(), "{\"op\":\"INSERT_PUNISHMENT\",\"punishment\":{\"tar", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        // Act
+        List<JournalEntry> replayed = replay(1);
+
+        // Assert
+        assertEquals(1, replayed.size());
+    }
+
+    @Test
+    public void testAppendBeforeResetFails() {
+        // Act & Assert
+        assertThrows(IOException.class, () -> journal.append(ban("Griefing")));
+    }
+}
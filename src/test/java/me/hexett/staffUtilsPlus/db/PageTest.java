@@ -0,0 +1,141 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Page.
+ * Tests paging through in-memory lists in both directions, records issued
+ * at the same time, records removed between pages, merging lists, local ids
+ * and cursor encoding.
+ */
+public class PageTest {
+
+    // Issue times of records "a" to "f"; "c" and "d" share one
+    private static final List<Long> TIMES = List.of(10L, 20L, 30L, 30L, 40L, 50L);
+    private static final List<String> RECORDS = List.of("a", "b", "c", "d", "e", "f");
+
+    private static Page<String> slice(List<List<String>> sources, Page.Cursor cursor, int limit) {
+        // Each record's id is its letter
+        return Page.slice(sources, record -> TIMES.get(RECORDS.indexOf(record)), record -> record.charAt(0), cursor, limit);
+    }
+
+    private static Page<String> slice(Page.Cursor cursor, int limit) {
+        return slice(List.of(RECORDS), cursor, limit);
+    }
+
+    @Test
+    public void testPagesOlderUntilTheEnd() {
+        // Act
+        Page<String> first = slice(null, 2);
+        Page<String> second = slice(first.older(), 2);
+        Page<String> third = slice(second.older(), 2);
+
+        // Assert
+        assertEquals(List.of("f", "e"), first.items());
+        assertNull(first.newer());
+        assertEquals(List.of("d", "c"), second.items());
+        assertEquals(List.of("b", "a"), third.items());
+        assertNull(third.older());
+    }
+
+    @Test
+    public void testPagesBackTowardsNewer() {
+        // Arrange
+        Page<String> second = slice(slice(null, 2).older(), 2);
+        Page<String> third = slice(second.older(), 2);
+
+        // Act
+        Page<String> back = slice(third.newer(), 2);
+        Page<String> newest = slice(back.newer(), 2);
+
+        // Assert
+        assertEquals(List.of("d", "c"), back.items());
+        assertEquals(List.of("f", "e"), newest.items());
+        assertNull(newest.newer());
+        assertNotNull(newest.older());
+    }
+
+    @Test
+    public void testSplitsRecordsIssuedTogether() {
+        // Act
+        Page<String> first = slice(null, 3);
+        Page<String> second = slice(first.older(), 3);
+
+        // Assert
+        assertEquals(List.of("f", "e", "d"), first.items());
+        assertEquals(List.of("c", "b", "a"), second.items());
+    }
+
+    @Test
+    public void testRemovingRecordsDoesNotShiftPages() {
+        // Arrange
+        Page<String> first = slice(null, 2);
+        List<String> archived = new ArrayList<>(RECORDS);
+        archived.remove("a");
+        archived.remove("e");
+
+        // Act
+        Page<String> second = slice(List.of(archived), first.older(), 2);
+
+        // Assert
+        assertEquals(List.of("d", "c"), second.items());
+    }
+
+    @Test
+    public void testMergesListsAndListsDuplicatesOnce() {
+        // Arrange: "c" is in both, as a record is while its archiving is interrupted
+        List<String> live = List.of("c", "e", "f");
+        List<String> archived = List.of("a", "b", "c", "d");
+
+        // Act
+        Page<String> first = slice(List.of(live, archived), null, 4);
+        Page<String> second = slice(List.of(live, archived), first.older(), 4);
+        Page<String> back = slice(List.of(live, archived), second.newer(), 4);
+
+        // Assert
+        assertEquals(List.of("f", "e", "d", "c"), first.items());
+        assertEquals(List.of("b", "a"), second.items());
+        assertNull(second.older());
+        assertEquals(first.items(), back.items());
+    }
+
+    @Test
+    public void testLocalIdIgnoresActiveFlag() {
+        // Arrange
+        UUID player = UUID.randomUUID();
+        Punishment ban = new Punishment(player, Punishment.Type.BAN, "Griefing", 1_000L, -1, null, null);
+        Punishment kick = new Punishment(player, Punishment.Type.KICK, "Griefing", 1_000L, -1, null, null);
+        long id = Page.localId(ban);
+
+        // Act
+        ban.setActive(false);
+
+        // Assert
+        assertEquals(id, Page.localId(ban));
+        assertNotEquals(id, Page.localId(kick));
+        assertTrue(id >= 0);
+    }
+
+    @Test
+    public void testCursorEncoding() {
+        // Arrange
+        Page.Cursor cursor = new Page.Cursor(1_700_000_000_000L, 42, false);
+
+        // Act
+        Page.Cursor decoded = Page.Cursor.decode(cursor.encode());
+
+        // Assert
+        assertEquals(cursor, decoded);
+        assertEquals("older:1700000000000:42", cursor.encode());
+        assertNull(Page.Cursor.decode("2"));
+        assertNull(Page.Cursor.decode("newer:x:1"));
+        assertNull(Page.Cursor.decode(null));
+    }
+}
@@ -0,0 +1,70 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SQLColumns.
+ * Tests that UUIDs, punishment types and IP addresses survive the round trip
+ * through their column formats, and that malformed addresses are rejected.
+ */
+public class SQLColumnsTest {
+
+    @Test
+    public void testUuidRoundTrip() {
+        // Arrange
+        UUID player = UUID.randomUUID();
+
+        // Act
+        byte[] bytes = SQLColumns.uuid(player);
+
+        // Assert
+        assertEquals(16, bytes.length);
+        assertEquals(player, SQLColumns.uuid(bytes));
+        assertNull(SQLColumns.uuid((UUID) null));
+        assertNull(SQLColumns.uuid((byte[]) null));
+    }
+
+    @Test
+    public void testTypeRoundTrip() {
+        for (Punishment.Type type : Punishment.Type.values()) {
+            assertEquals(type, SQLColumns.type(SQLColumns.type(type)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> SQLColumns.type(Punishment.Type.values().length));
+    }
+
+    @Test
+    public void testIpv4RoundTrip() {
+        // Act
+        byte[] bytes = SQLColumns.ip("192.168.1.100");
+
+        // Assert
+        assertArrayEquals(new byte[]{(byte) 192, (byte) 168, 1, 100}, bytes);
+        assertEquals("192.168.1.100", SQLColumns.ip(bytes));
+    }
+
+    @Test
+    public void testIpv6RoundTrip() {
+        // Act
+        byte[] bytes = SQLColumns.ip("2001:db8:0:0:0:0:0:1%eth0");
+
+        // Assert
+        assertEquals(16, bytes.length);
+        assertEquals("2001:db8:0:0:0:0:0:1", SQLColumns.ip(bytes));
+    }
+
+    @Test
+    public void testMalformedIpIsRejected() {
+        assertNull(SQLColumns.ip("256.1.1.1"));
+        assertNull(SQLColumns.ip("1.2.3"));
+        assertNull(SQLColumns.ip("1.2.3.4.5"));
+        assertNull(SQLColumns.ip("1..2.3"));
+        assertNull(SQLColumns.ip("example.com"));
+        assertNull(SQLColumns.ip(""));
+        assertNull(SQLColumns.ip((String) null));
+    }
+}
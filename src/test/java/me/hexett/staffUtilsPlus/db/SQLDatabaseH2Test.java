@@ -0,0 +1,417 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.notes.Note;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.warnings.Warning;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for SQLDatabase against an embedded H2 database file.
+ * Tests the schema migrations, punishments, IP tracking, notes, warnings and
+ * archiving, paging and counting end to end through real SQL.
+ */
+public class SQLDatabaseH2Test {
+
+    private static final long HOUR = 3_600_000L;
+
+    @TempDir
+    File dataFolder;
+
+    private Plugin plugin;
+    private SQLDatabase database;
+    private UUID player;
+    private UUID staff;
+
+    @BeforeEach
+    public void setUp() {
+        plugin = mock(Plugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("StaffUtilsPlus"));
+        database = connect();
+        player = UUID.randomUUID();
+        staff = UUID.randomUUID();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.close();
+    }
+
+    private SQLDatabase connect() {
+        SQLDatabase db = new SQLDatabase(plugin, "h2", "", 0, "", "", "");
+        db.connect();
+        return db;
+    }
+
+    @Test
+    public void testInsertAndGetPunishments() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        Punishment ban = new Punishment(player, Punishment.Type.TEMP_BAN, "Griefing", now, now + HOUR, staff, "10.0.0.1");
+
+        // Act
+        database.insertPunishmentAsync(ban).join();
+        List<Punishment> active = database.getPunishments(player);
+
+        // Assert
+        assertEquals(1, active.size());
+        Punishment stored = active.get(0);
+        assertEquals(player, stored.getTarget());
+        assertEquals(Punishment.Type.TEMP_BAN, stored.getType());
+        assertEquals("Griefing", stored.getReason());
+        assertEquals(staff, stored.getIssuer());
+        assertEquals(now + HOUR, stored.getExpiresAt());
+        assertEquals("10.0.0.1", stored.getIpAddress());
+        assertTrue(stored.isActive());
+        assertEquals(1, database.getPunishmentsByIssuer(staff).size());
+    }
+
+    @Test
+    public void testDeactivatePunishmentKeepsHistory() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.MUTE, "Spam", now, -1, null)).join();
+
+        // Act
+        database.deactivatePunishmentAsync(player, Punishment.Type.MUTE).join();
+
+        // Assert
+        assertTrue(database.getPunishments(player).isEmpty());
+        List<Punishment> history = database.getPunishmentHistory(player);
+        assertEquals(1, history.size());
+        assertFalse(history.get(0).isActive());
+        assertNull(history.get(0).getIssuer());
+    }
+
+    @Test
+    public void testDeactivateExpiredOnlyTouchesLapsedPunishmentsOfType() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.TEMP_MUTE, "Lapsed", now - 2 * HOUR, now - HOUR, staff)).join();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.TEMP_MUTE, "Running", now, now + HOUR, staff)).join();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.TEMP_BAN, "Other type", now - 2 * HOUR, now - HOUR, staff)).join();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.MUTE, "Permanent", now, -1, staff)).join();
+
+        // Act
+        database.deactivateExpiredPunishmentsAsync(Punishment.Type.TEMP_MUTE, now).join();
+
+        // Assert
+        assertEquals(List.of("Other type", "Permanent", "Running"),
+                database.getPunishments(player).stream().map(Punishment::getReason).sorted().toList());
+        assertEquals(4, database.getPunishmentHistory(player).size());
+    }
+
+    @Test
+    public void testIPBanLookupAndRemoval() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.IP_BAN, "Alts", now, -1, staff, "2001:db8::1")).join();
+
+        // Act
+        List<Punishment> bans = database.getPunishmentsByIP("2001:db8:0:0:0:0:0:1");
+        database.deactivateIPBanAsync("2001:db8::1").join();
+
+        // Assert
+        assertEquals(1, bans.size());
+        assertEquals(Punishment.Type.IP_BAN, bans.get(0).getType());
+        assertTrue(database.getPunishmentsByIP("2001:db8::1").isEmpty());
+    }
+
+    @Test
+    public void testActivePunishmentsByTypePagesInExpiryOrder() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        UUID other = UUID.randomUUID();
+        UUID lifted = UUID.randomUUID();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.TEMP_BAN, "Later", now, now + 2 * HOUR, staff)).join();
+        database.insertPunishmentAsync(new Punishment(other, Punishment.Type.TEMP_BAN, "Sooner", now, now + HOUR, staff)).join();
+        database.insertPunishmentAsync(new Punishment(other, Punishment.Type.TEMP_MUTE, "Spam", now, now + HOUR, staff)).join();
+        database.insertPunishmentAsync(new Punishment(staff, Punishment.Type.TEMP_BAN, "Expired", now - 2 * HOUR, now - HOUR, null)).join();
+        database.insertPunishmentAsync(new Punishment(lifted, Punishment.Type.TEMP_BAN, "Lifted", now, now + HOUR, staff)).join();
+        database.deactivatePunishmentAsync(lifted, Punishment.Type.TEMP_BAN).join();
+
+        // Act
+        List<Punishment> all = database.getActivePunishments(EnumSet.of(Punishment.Type.TEMP_BAN), 0, 10);
+        List<Punishment> secondPage = database.getActivePunishments(EnumSet.of(Punishment.Type.TEMP_BAN), 1, 1);
+        List<Punishment> withMutes = database.getActivePunishments(EnumSet.of(Punishment.Type.TEMP_BAN, Punishment.Type.TEMP_MUTE), 0, 10);
+
+        // Assert
+        assertEquals(List.of("Sooner", "Later"), all.stream().map(Punishment::getReason).toList());
+        assertEquals(1, secondPage.size());
+        assertEquals("Later", secondPage.get(0).getReason());
+        assertEquals(3, withMutes.size());
+    }
+
+    @Test
+    public void testRecordPlayerIPReplacesAddress() {
+        // Arrange
+        UUID alt = UUID.randomUUID();
+
+        // Act
+        database.recordPlayerIPAsync(player, "192.168.1.100").join();
+        database.recordPlayerIPAsync(alt, "192.168.1.100").join();
+        database.recordPlayerIPAsync(player, "192.168.1.101").join();
+
+        // Assert
+        assertEquals("192.168.1.101", database.getPlayerIP(player));
+        assertEquals(List.of(alt), database.getPlayersByIP("192.168.1.100"));
+        assertTrue(database.getPlayersByIP("not an address").isEmpty());
+    }
+
+    @Test
+    public void testNotes() {
+        // Act
+        database.insertNoteAsync(new Note(player, staff, "First")).join();
+        database.insertNoteAsync(new Note(player, staff, "Second")).join();
+        List<Note> notes = database.getNotes(player);
+
+        // Assert
+        assertEquals(2, notes.size());
+        Note first = database.getNote(notes.get(0).id());
+        assertEquals("First", first.content());
+        assertEquals(staff, first.issuer());
+
+        database.removeNoteAsync(player, first.id()).join();
+        assertEquals(1, database.getNotes(player).size());
+        assertNull(database.getNote(first.id()));
+    }
+
+    @Test
+    public void testWarnings() {
+        // Act
+        database.insertWarningAsync(new Warning(player, staff, "Language", 2)).join();
+        Warning warning = database.getWarnings(player).get(0);
+        database.removeWarningAsync(player, warning.getId()).join();
+
+        // Assert
+        assertEquals(2, warning.getSeverity());
+        assertFalse(database.getWarning(warning.getId()).isActive());
+        assertEquals(1, database.getWarningHistory(player).size());
+    }
+
+    @Test
+    public void testBlockingWritesAreReadBack() {
+        // Act: the blocking API, as WarningsCommand and BanLoginListener use it
+        database.insertWarning(new Warning(player, staff, "Language", 4));
+        int severity = database.getActiveWarningSeverity(player);
+        database.insertPunishment(new Punishment(player, Punishment.Type.MUTE, "Spam", System.currentTimeMillis(), -1, staff));
+        List<Punishment> punishments = database.getPunishments(player);
+        database.insertNote(new Note(player, staff, "Watch chat"));
+        List<Note> notes = database.getNotes(player);
+
+        // Assert
+        assertEquals(4, severity);
+        assertEquals(1, punishments.size());
+        assertEquals(1, notes.size());
+    }
+
+    @Test
+    public void testWarningAggregatesCountActiveWarningsOnly() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        database.insertWarningAsync(new Warning(0, player, staff, "Old", 3, now - 48 * HOUR, true)).join();
+        database.insertWarningAsync(new Warning(0, player, staff, "Recent", 2, now - HOUR, true)).join();
+        database.insertWarningAsync(new Warning(0, player, staff, "Removed", 5, now, true)).join();
+        Warning removed = database.getWarnings(player).stream()
+                .filter(warning -> warning.getReason().equals("Removed")).findFirst().orElseThrow();
+        database.removeWarningAsync(player, removed.getId()).join();
+
+        // Act
+        int severity = database.getActiveWarningSeverity(player);
+        int all = database.countActiveWarnings(player, 0);
+        int lastDay = database.countActiveWarnings(player, now - 24 * HOUR);
+
+        // Assert
+        assertEquals(5, severity);
+        assertEquals(2, all);
+        assertEquals(1, lastDay);
+        assertEquals(0, database.getActiveWarningSeverity(staff));
+    }
+
+    @Test
+    public void testArchiveMovesOldRecordsToHistory() {
+        // Arrange
+        long old = System.currentTimeMillis() - 400L * 24 * HOUR;
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.KICK, "Old kick", old, -1, staff)).join();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.BAN, "Current ban", old, -1, staff)).join();
+
+        // Act
+        int moved = database.archiveInactive(System.currentTimeMillis() - 24 * HOUR);
+
+        // Assert
+        assertEquals(1, moved);
+        assertEquals(1, database.getPunishments(player).size());
+        assertEquals(2, database.getPunishmentsByIssuer(staff).size());
+        assertEquals(2, database.getPunishmentsByIssuerPage(staff, null, 10).items().size());
+        assertEquals(2, database.getPunishmentHistory(player).size());
+        assertEquals(0, database.archiveInactive(System.currentTimeMillis() - 24 * HOUR));
+    }
+
+    @Test
+    public void testHistoryPagesAcrossArchive() {
+        // Arrange: five kicks, the oldest two archived, then two issued in the same millisecond
+        long old = System.currentTimeMillis() - 400L * 24 * HOUR;
+        for (int i = 0; i < 5; i++) {
+            database.insertPunishmentAsync(new Punishment(player, Punishment.Type.KICK, "Kick " + i, old + i * HOUR, -1, staff)).join();
+            if (i == 1) {
+                database.archiveInactive(old + 2 * HOUR);
+            }
+        }
+        long now = System.currentTimeMillis();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.KICK, "Kick 5", now, -1, staff)).join();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.KICK, "Kick 6", now, -1, staff)).join();
+
+        // Act
+        Page<Punishment> first = database.getPunishmentHistoryPage(player, null, 3);
+        Page<Punishment> second = database.getPunishmentHistoryPage(player, first.older(), 3);
+        Page<Punishment> last = database.getPunishmentHistoryPage(player, second.older(), 3);
+        Page<Punishment> back = database.getPunishmentHistoryPage(player, last.newer(), 3);
+
+        // Assert
+        assertEquals(List.of("Kick 6", "Kick 5", "Kick 4"), reasons(first));
+        assertNull(first.newer());
+        assertEquals(List.of("Kick 3", "Kick 2", "Kick 1"), reasons(second));
+        assertEquals(List.of("Kick 0"), reasons(last));
+        assertNull(last.older());
+        assertEquals(reasons(second), reasons(back));
+        assertNotNull(back.newer());
+    }
+
+    @Test
+    public void testBlamePagesNewestFirst() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            database.insertPunishmentAsync(new Punishment(UUID.randomUUID(), Punishment.Type.BAN, "Ban " + i, now + i, -1, staff)).join();
+        }
+
+        // Act
+        Page<Punishment> first = database.getPunishmentsByIssuerPage(staff, null, 2);
+        Page<Punishment> second = database.getPunishmentsByIssuerPage(staff, Page.Cursor.decode(first.older().encode()), 2);
+
+        // Assert
+        assertEquals(List.of("Ban 3", "Ban 2"), reasons(first));
+        assertEquals(List.of("Ban 1", "Ban 0"), reasons(second));
+        assertNull(second.older());
+        assertTrue(database.getPunishmentsByIssuerPage(player, null, 2).items().isEmpty());
+    }
+
+    @Test
+    public void testCompactMigrationKeepsRowsItCannotConvert() throws Exception {
+        // Arrange: a version 1 punishments table holding one row with a malformed UUID
+        database.close();
+        File legacyFolder = new File(dataFolder, "legacy");
+        when(plugin.getDataFolder()).thenReturn(legacyFolder);
+        String url = "jdbc:h2:file:" + new File(legacyFolder, "data-h2").getAbsolutePath() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE punishments (id INTEGER PRIMARY KEY AUTO_INCREMENT,"
+                    + " target_uuid VARCHAR(36) NOT NULL, type VARCHAR(20) NOT NULL, reason VARCHAR, issuer_uuid VARCHAR(36),"
+                    + " issued_at BIGINT, expires_at BIGINT, ip_address VARCHAR(45), active BOOLEAN DEFAULT 1)");
+            statement.executeUpdate("CREATE INDEX idx_punishments_target_active ON punishments(target_uuid, active)");
+            statement.executeUpdate("INSERT INTO punishments (target_uuid, type, reason, issued_at, expires_at, active) VALUES ('"
+                    + player + "', 'BAN', 'Cheating', 1, -1, 1), ('not-a-uuid', 'BAN', 'Broken', 2, -1, 1)");
+        }
+
+        // Act
+        database = connect();
+        List<Punishment> converted = database.getPunishments(player);
+        database.close();
+        long kept;
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM punishments_legacy")) {
+            rs.next();
+            kept = rs.getLong(1);
+        }
+        database = connect();
+
+        // Assert
+        assertEquals(List.of("Cheating"), converted.stream().map(Punishment::getReason).toList());
+        assertEquals(2, kept);
+    }
+
+    @Test
+    public void testCountsHistoryAcrossArchive() {
+        // Arrange
+        long old = System.currentTimeMillis() - 400L * 24 * HOUR;
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.TEMP_BAN, "Old ban", old, old + HOUR, staff)).join();
+        database.deactivatePunishmentAsync(player, Punishment.Type.TEMP_BAN).join();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.BAN, "Current ban", old, -1, staff)).join();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.KICK, "New kick", System.currentTimeMillis(), -1, staff)).join();
+        assertEquals(1, database.archiveInactive(System.currentTimeMillis() - 24 * HOUR));
+
+        // Act
+        PunishmentCounts counts = database.countPunishmentHistory(player);
+
+        // Assert
+        assertEquals(3, counts.total());
+        assertEquals(2, counts.active());
+        assertEquals(1, counts.inactive());
+        assertEquals(PunishmentCounts.NONE, database.countPunishmentHistory(staff));
+    }
+
+    private static List<String> reasons(Page<Punishment> page) {
+        return page.items().stream().map(Punishment::getReason).toList();
+    }
+
+    @Test
+    public void testVirtualThreadsServeConcurrentLookups() {
+        // Arrange
+        database.close();
+        SQLDatabase.PoolSettings d = SQLDatabase.PoolSettings.DEFAULTS;
+        database = new SQLDatabase(plugin, "h2", "", 0, "", "", "", new SQLDatabase.PoolSettings(d.minimumIdle(), 4,
+                d.idleTimeoutMillis(), d.maxLifetimeMillis(), d.validationIntervalMillis(), d.connectionTimeoutMillis(),
+                d.statementCacheSize(), d.writeBatchSize(), d.writeFlushIntervalMillis(), d.heartbeatIntervalMillis(), true));
+        database.connect();
+        long now = System.currentTimeMillis();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.BAN, "Cheating", now, -1, staff)).join();
+
+        // Act: far more lookups at once than there are connections
+        List<CompletableFuture<List<Punishment>>> lookups = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lookups.add(database.getPunishmentsAsync(player));
+        }
+
+        // Assert
+        for (CompletableFuture<List<Punishment>> lookup : lookups) {
+            assertEquals(1, lookup.join().size());
+        }
+        assertEquals("0", database.getStatus().get("Queued queries"));
+    }
+
+    @Test
+    public void testReconnectKeepsDataAndSchema() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.BAN, "Cheating", now, -1, staff)).join();
+        database.close();
+
+        // Act
+        database = connect();
+
+        // Assert
+        assertEquals(1, database.getPunishments(player).size());
+        assertEquals("H2", database.getStatus().get("Backend"));
+    }
+}
@@ -0,0 +1,142 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for reading from replicas, using two embedded H2 databases as the
+ * primary and the replica. Nothing copies changes between them, so a row only
+ * in the replica shows which one a read went to.
+ */
+public class SQLDatabaseReplicaTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @TempDir
+    File primaryFolder;
+
+    @TempDir
+    File replicaFolder;
+
+    private SQLDatabase replica;
+    private SQLDatabase database;
+    private String primaryUrl;
+    private String replicaUrl;
+    private UUID player;
+
+    @BeforeEach
+    public void setUp() {
+        replica = new SQLDatabase(plugin(replicaFolder), "h2", "", 0, "", "", "");
+        replica.connect();
+        replicaUrl = "jdbc:h2:file:" + replicaFolder.getAbsolutePath() + "/data-h2"
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE;USER=sa";
+        primaryUrl = "jdbc:h2:file:" + primaryFolder.getAbsolutePath() + "/data-h2"
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE;USER=sa";
+
+        // Checks only run when the test asks for one
+        SQLDatabase.ReplicaSettings settings = new SQLDatabase.ReplicaSettings(List.of(replicaUrl), 3_000, HOUR);
+        database = new SQLDatabase(plugin(primaryFolder), "h2", "", 0, "", "", "",
+                SQLDatabase.PoolSettings.DEFAULTS, settings);
+        database.connect();
+        player = UUID.randomUUID();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.close();
+        replica.close();
+    }
+
+    private static Plugin plugin(File dataFolder) {
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("StaffUtilsPlus"));
+        return plugin;
+    }
+
+    /**
+     * Stand in for replication delivering the primary's heartbeat as if written
+     * at the given time. The heartbeat row is keyed by server, so a check has
+     * to write it to the primary first.
+     */
+    private void replicateHeartbeat(long writtenAt) throws SQLException {
+        database.checkReplicas();
+        int id;
+        try (Connection connection = DriverManager.getConnection(primaryUrl);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id FROM replication_heartbeat")) {
+            assertTrue(rs.next());
+            id = rs.getInt(1);
+        }
+        try (Connection connection = DriverManager.getConnection(replicaUrl);
+             PreparedStatement ps = connection.prepareStatement("MERGE INTO replication_heartbeat KEY(id) VALUES (?, ?)")) {
+            ps.setInt(1, id);
+            ps.setLong(2, writtenAt);
+            ps.executeUpdate();
+        }
+    }
+
+    private static Punishment ban(UUID target) {
+        return new Punishment(target, Punishment.Type.BAN, "Cheating", System.currentTimeMillis(), -1, null);
+    }
+
+    @Test
+    public void testCaughtUpReplicaServesReads() throws SQLException {
+        // Arrange
+        replica.insertPunishmentAsync(ban(player)).join();
+        replicateHeartbeat(System.currentTimeMillis());
+
+        // Act
+        database.checkReplicas();
+
+        // Assert
+        assertEquals(1, database.getPunishments(player).size());
+        assertTrue(database.getStatus().get("Read replicas").contains("in use"));
+    }
+
+    @Test
+    public void testLaggingReplicaIsSkipped() throws SQLException {
+        // Arrange
+        replica.insertPunishmentAsync(ban(player)).join();
+        replicateHeartbeat(System.currentTimeMillis() - 10 * 60_000L);
+
+        // Act
+        database.checkReplicas();
+
+        // Assert
+        assertTrue(database.getPunishments(player).isEmpty());
+        assertTrue(database.getStatus().get("Read replicas").contains("skipped"));
+    }
+
+    @Test
+    public void testReadsOwnWritesFromPrimary() throws SQLException {
+        // Arrange
+        replicateHeartbeat(System.currentTimeMillis());
+        database.checkReplicas();
+
+        // Act
+        database.insertPunishmentAsync(ban(player)).join();
+
+        // Assert
+        assertEquals(1, database.getPunishments(player).size());
+    }
+}
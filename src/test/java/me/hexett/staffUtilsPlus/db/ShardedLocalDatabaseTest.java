@@ -0,0 +1,266 @@
+package me.hexett.staffUtilsPlus.db;
+
+import me.hexett.staffUtilsPlus.service.notes.Note;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.warnings.Warning;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for ShardedLocalDatabase against real segment files.
+ * Tests that records survive a round trip and a reopen, that deactivating
+ * replaces punishments and warnings instead of changing ones already handed
+ * out, that issuer pages are read from the index and do not shift when
+ * records are archived, that history is counted across the archive, that a
+ * segment is compacted once most of it is superseded, that a torn record
+ * at the end of a segment is cut off, and that closing one never connected
+ * does not wait for it to load.
+ */
+public class ShardedLocalDatabaseTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @TempDir
+    File dataFolder;
+
+    private Plugin plugin;
+    private ShardedLocalDatabase database;
+    private UUID player;
+    private UUID staff;
+
+    @BeforeEach
+    public void setUp() {
+        plugin = mock(Plugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("StaffUtilsPlus"));
+        database = connect();
+        player = UUID.randomUUID();
+        staff = UUID.randomUUID();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.close();
+    }
+
+    private ShardedLocalDatabase connect() {
+        ShardedLocalDatabase db = new ShardedLocalDatabase(plugin, 1000, new LocalDatabase(plugin));
+        db.connect();
+        assertTrue(db.awaitReady(10, TimeUnit.SECONDS));
+        return db;
+    }
+
+    private ShardedLocalDatabase reopen() {
+        database.close();
+        database = connect();
+        return database;
+    }
+
+    private File segmentFile(UUID uuid) {
+        return new File(new File(dataFolder, "shards"), String.format("%02x.seg", uuid.getMostSignificantBits() >>> 56));
+    }
+
+    @Test
+    public void testRecordsRoundTrip() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        Punishment ban = new Punishment(player, Punishment.Type.TEMP_BAN, "Griefing", now, now + HOUR, staff, "10.0.0.1");
+
+        // Act
+        database.insertPunishmentAsync(ban).join();
+        database.insertNoteAsync(new Note(player, staff, "Watch chat")).join();
+        database.insertWarningAsync(new Warning(player, staff, "Spam", 2)).join();
+        database.recordPlayerIPAsync(player, "10.0.0.1").join();
+
+        // Assert
+        List<Punishment> active = database.getPunishments(player);
+        assertEquals(1, active.size());
+        assertEquals("Griefing", active.get(0).getReason());
+        assertEquals(staff, active.get(0).getIssuer());
+        assertEquals(1, database.getNotes(player).size());
+        assertEquals(2, database.getActiveWarningSeverity(player));
+        assertEquals("10.0.0.1", database.getPlayerIP(player));
+        assertEquals(List.of(player), database.getPlayersByIP("10.0.0.1"));
+        assertEquals(1, database.getPunishmentsByIssuer(staff).size());
+    }
+
+    @Test
+    public void testRecordsSurviveReopen() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.BAN, "Cheating", now, -1, staff, "10.0.0.1")).join();
+        database.insertNoteAsync(new Note(player, staff, "Watch chat")).join();
+        database.recordPlayerIPAsync(player, "10.0.0.1").join();
+
+        // Act
+        ShardedLocalDatabase reopened = reopen();
+
+        // Assert
+        assertEquals(1, reopened.getPunishments(player).size());
+        assertEquals(1, reopened.getPunishmentsByIP("10.0.0.1").size());
+        assertEquals(1, reopened.getPunishmentsByIssuer(staff).size());
+        int noteId = reopened.getNotes(player).get(0).id();
+        assertEquals("Watch chat", reopened.getNote(noteId).content());
+        assertEquals(List.of(player), reopened.getPlayersByIP("10.0.0.1"));
+    }
+
+    @Test
+    public void testDeactivateReplacesPunishmentsHandedOut() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.BAN, "Cheating", now, -1, staff, "10.0.0.1")).join();
+        Punishment handedOut = database.getPunishments(player).get(0);
+
+        // Act
+        database.deactivatePunishmentAsync(player, Punishment.Type.BAN).join();
+
+        // Assert
+        assertTrue(handedOut.isActive());
+        assertTrue(database.getPunishments(player).isEmpty());
+        assertTrue(database.getPunishmentsByIP("10.0.0.1").isEmpty());
+        assertFalse(database.getPunishmentHistory(player).get(0).isActive());
+        assertFalse(reopen().getPunishmentHistory(player).get(0).isActive());
+    }
+
+    @Test
+    public void testIssuerPagesDoNotShiftWhenArchived() {
+        // Arrange: five kicks to different players, the oldest archived after the first page
+        long old = System.currentTimeMillis() - 400L * 24 * HOUR;
+        for (int i = 0; i < 5; i++) {
+            database.insertPunishmentAsync(new Punishment(UUID.randomUUID(), Punishment.Type.KICK, "Kick " + i, old + i * HOUR, -1, staff)).join();
+        }
+        Page<Punishment> first = database.getPunishmentsByIssuerPage(staff, null, 2);
+
+        // Act
+        database.archiveInactive(old + HOUR);
+        Page<Punishment> second = database.getPunishmentsByIssuerPage(staff, first.older(), 2);
+        Page<Punishment> back = database.getPunishmentsByIssuerPage(staff, second.newer(), 2);
+
+        // Assert
+        assertEquals(List.of("Kick 4", "Kick 3"), reasons(first));
+        assertEquals(List.of("Kick 2", "Kick 1"), reasons(second));
+        assertNull(second.older());
+        assertEquals(reasons(first), reasons(back));
+        assertNull(back.newer());
+    }
+
+    @Test
+    public void testCountsHistoryAcrossArchive() {
+        // Arrange
+        long old = System.currentTimeMillis() - 400L * 24 * HOUR;
+        Punishment lapsed = new Punishment(player, Punishment.Type.TEMP_BAN, "Old ban", old, old + HOUR, staff);
+        lapsed.setActive(false);
+        database.insertPunishmentAsync(lapsed).join();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.BAN, "Current ban", old, -1, staff)).join();
+        assertEquals(1, database.archiveInactive(System.currentTimeMillis() - 24 * HOUR));
+
+        // Act
+        PunishmentCounts counts = database.countPunishmentHistory(player);
+        Page<Punishment> page = database.getPunishmentHistoryPage(player, null, 10);
+
+        // Assert
+        assertEquals(new PunishmentCounts(1, 2), counts);
+        assertEquals(2, page.items().size());
+    }
+
+    private static List<String> reasons(Page<Punishment> page) {
+        return page.items().stream().map(Punishment::getReason).toList();
+    }
+
+    @Test
+    public void testRemoveWarningReplacesWarningsHandedOut() {
+        // Arrange
+        database.insertWarningAsync(new Warning(player, staff, "Spam", 3)).join();
+        Warning handedOut = database.getWarnings(player).get(0);
+
+        // Act
+        database.removeWarningAsync(player, handedOut.getId()).join();
+
+        // Assert
+        assertTrue(handedOut.isActive());
+        assertEquals(0, database.getActiveWarningSeverity(player));
+        assertEquals(0, reopen().getActiveWarningSeverity(player));
+    }
+
+    @Test
+    public void testSegmentCompactsSupersededRecords() throws IOException {
+        // Arrange: rewrite one large record until the superseded copies pass 1 MB
+        String content = "x".repeat(100_000);
+        UUID other = UUID.randomUUID();
+        File file = new File(dataFolder, "compact.seg");
+        PlayerRecords latest = null;
+        try (ShardSegment segment = new ShardSegment(file, plugin.getLogger())) {
+            segment.open((uuid, records) -> { });
+            segment.write(other, PlayerRecords.EMPTY.withIP("10.0.0.2"));
+
+            // Act
+            for (int i = 1; i <= 20; i++) {
+                latest = PlayerRecords.EMPTY.withNote(new Note(i, player, null, content, i));
+                segment.write(player, latest);
+            }
+
+            // Assert
+            assertTrue(file.length() < 1 << 20);
+            assertEquals(20, segment.read(player).notes.get(0).id());
+            assertEquals("10.0.0.2", segment.read(other).ip);
+        }
+        try (ShardSegment reopened = new ShardSegment(file, plugin.getLogger())) {
+            reopened.open((uuid, records) -> { });
+            assertEquals(2, reopened.size());
+            assertEquals(latest.notes, reopened.read(player).notes);
+        }
+    }
+
+    @Test
+    public void testTornRecordIsCutOff() throws IOException {
+        // Arrange: a blob header promising more bytes than were written before a crash
+        long now = System.currentTimeMillis();
+        database.insertPunishmentAsync(new Punishment(player, Punishment.Type.BAN, "Cheating", now, -1, staff)).join();
+        database.close();
+        File segment = segmentFile(player);
+        long intact = segment.length();
+        try (RandomAccessFile raw = new RandomAccessFile(segment, "rw")) {
+            raw.seek(intact);
+            raw.writeInt(1000);
+            raw.writeLong(player.getMostSignificantBits());
+            raw.writeLong(player.getLeastSignificantBits());
+            raw.write(new byte[10]);
+        }
+
+        // Act
+        database = connect();
+
+        // Assert
+        assertEquals(1, database.getPunishments(player).size());
+        assertEquals(intact, segment.length());
+    }
+
+    @Test
+    public void testCloseWithoutConnectDoesNotWait() {
+        // Arrange
+        ShardedLocalDatabase unconnected = new ShardedLocalDatabase(plugin, 1000, new LocalDatabase(plugin));
+        long start = System.nanoTime();
+
+        // Act
+        unconnected.close();
+
+        // Assert
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+        assertFalse(unconnected.isReady());
+    }
+}
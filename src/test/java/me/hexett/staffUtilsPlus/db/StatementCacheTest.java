@@ -0,0 +1,67 @@
+package me.hexett.staffUtilsPlus.db;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StatementCache.
+ * Tests reusing statements per connection and forgetting connections the pool retired.
+ */
+public class StatementCacheTest {
+
+    private static Connection connection() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        return connection;
+    }
+
+    @Test
+    public void testReusesStatementOnSameConnection() throws Exception {
+        // Arrange
+        StatementCache cache = new StatementCache(4);
+        Connection connection = connection();
+
+        // Act
+        PreparedStatement first = cache.prepare(connection, "SELECT 1");
+        PreparedStatement second = cache.prepare(connection, "SELECT 1");
+
+        // Assert
+        assertSame(first, second);
+        verify(connection, times(1)).prepareStatement("SELECT 1");
+    }
+
+    @Test
+    public void testDropsRetiredConnections() throws Exception {
+        // Arrange
+        StatementCache cache = new StatementCache(4);
+        Connection retired = connection();
+        cache.prepare(retired, "SELECT 1");
+        when(retired.isClosed()).thenReturn(true);
+
+        // Act
+        cache.prepare(connection(), "SELECT 1");
+
+        // Assert
+        assertEquals(1, cache.connections());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedStatement() throws Exception {
+        // Arrange
+        StatementCache cache = new StatementCache(1);
+        Connection connection = connection();
+        PreparedStatement evicted = cache.prepare(connection, "SELECT 1");
+
+        // Act
+        cache.prepare(connection, "SELECT 2");
+
+        // Assert
+        verify(evicted).close();
+    }
+}
@@ -0,0 +1,122 @@
+package me.hexett.staffUtilsPlus.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UUIDMap.
+ * Tests lookups, replacement, removal with back-shifting and resizing against HashMap.
+ */
+public class UUIDMapTest {
+
+    private UUIDMap<String> map;
+
+    @BeforeEach
+    public void setUp() {
+        map = new UUIDMap<>();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        // Arrange
+        UUID player = UUID.randomUUID();
+
+        // Act
+        map.put(player, "192.168.1.100");
+
+        // Assert
+        assertEquals("192.168.1.100", map.get(player));
+        assertEquals(1, map.size());
+        assertNull(map.get(UUID.randomUUID()));
+        assertNull(map.get("not a uuid"));
+    }
+
+    @Test
+    public void testPutReplacesValue() {
+        // Arrange
+        UUID player = UUID.randomUUID();
+        map.put(player, "10.0.0.1");
+
+        // Act
+        String previous = map.put(player, "10.0.0.2");
+
+        // Assert
+        assertEquals("10.0.0.1", previous);
+        assertEquals("10.0.0.2", map.get(player));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testRejectsNulls() {
+        assertThrows(NullPointerException.class, () -> map.put(null, "10.0.0.1"));
+        assertThrows(NullPointerException.class, () -> map.put(UUID.randomUUID(), null));
+    }
+
+    @Test
+    public void testMatchesHashMapUnderRandomOperations() {
+        // Arrange
+        Random random = new Random(42);
+        Map<UUID, String> expected = new HashMap<>();
+        List<UUID> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            keys.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+
+        // Act
+        for (int i = 0; i < 50_000; i++) {
+            UUID key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        // Assert
+        assertEquals(expected.size(), map.size());
+        for (UUID key : keys) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected, new HashMap<>(map));
+    }
+
+    @Test
+    public void testEntrySetValueUpdatesMap() {
+        // Arrange
+        UUID player = UUID.randomUUID();
+        map.put(player, "old");
+
+        // Act
+        for (Map.Entry<UUID, String> entry : map.entrySet()) {
+            entry.setValue("new");
+        }
+
+        // Assert
+        assertEquals("new", map.get(player));
+    }
+
+    @Test
+    public void testClear() {
+        // Arrange
+        for (int i = 0; i < 100; i++) {
+            map.put(UUID.randomUUID(), "value");
+        }
+
+        // Act
+        map.clear();
+
+        // Assert
+        assertTrue(map.isEmpty());
+        assertFalse(map.entrySet().iterator().hasNext());
+    }
+}
@@ -0,0 +1,110 @@
+package me.hexett.staffUtilsPlus.db;
+
+import com.google.gson.Gson;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WriteSpool.
+ * Tests that writes queue behind spooled ones, survive a restart, and are
+ * removed from the file as they are replayed, even if the server stops
+ * mid-replay.
+ */
+public class WriteSpoolTest {
+
+    @TempDir
+    File folder;
+
+    private File file;
+    private UUID player;
+
+    @BeforeEach
+    public void setUp() {
+        file = new File(folder, "sql-spool.journal");
+        player = UUID.randomUUID();
+    }
+
+    private WriteSpool open() {
+        WriteSpool spool = new WriteSpool(file, new Gson(), Logger.getLogger("StaffUtilsPlus"));
+        spool.open();
+        return spool;
+    }
+
+    @Test
+    public void testWritesQueueBehindSpooledWrites() throws Exception {
+        // Arrange
+        WriteSpool spool = open();
+
+        // Act
+        boolean whileReachable = spool.offer(JournalEntry.recordIP(player, "10.0.0.1"), false);
+        boolean whileUnreachable = spool.offer(JournalEntry.deactivatePunishment(player, Punishment.Type.MUTE), true);
+        boolean afterwards = spool.offer(JournalEntry.recordIP(player, "10.0.0.2"), false);
+        spool.close();
+
+        // Assert
+        assertFalse(whileReachable);
+        assertTrue(whileUnreachable);
+        assertTrue(afterwards);
+        assertEquals(2, spool.size());
+    }
+
+    @Test
+    public void testReplaysInOrderAcrossRestarts() throws Exception {
+        // Arrange
+        WriteSpool spool = open();
+        spool.append(JournalEntry.deactivatePunishment(player, Punishment.Type.BAN));
+        spool.append(JournalEntry.recordIP(player, "10.0.0.1"));
+        spool.close();
+
+        // Act
+        WriteSpool reopened = open();
+        assertTrue(reopened.startReplay());
+        JournalEntry first = reopened.next();
+        reopened.replayed();
+        reopened.pause();
+        reopened.close();
+        WriteSpool afterPause = open();
+
+        // Assert
+        assertEquals(JournalEntry.Op.DEACTIVATE_PUNISHMENT, first.op);
+        assertEquals(Punishment.Type.BAN, first.type);
+        assertEquals(1, afterPause.size());
+        assertTrue(afterPause.startReplay());
+        assertEquals("10.0.0.1", afterPause.next().ip);
+        afterPause.replayed();
+        assertNull(afterPause.next());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testReplayProgressSurvivesCrash() throws Exception {
+        // Arrange
+        WriteSpool spool = open();
+        spool.append(JournalEntry.recordIP(player, "10.0.0.1"));
+        spool.append(JournalEntry.recordIP(player, "10.0.0.2"));
+        spool.append(JournalEntry.recordIP(player, "10.0.0.3"));
+        spool.close();
+
+        // Act: replay one write, then stop without pausing
+        WriteSpool replaying = open();
+        assertTrue(replaying.startReplay());
+        replaying.next();
+        replaying.replayed();
+        replaying.append(JournalEntry.recordIP(player, "10.0.0.4"));
+        replaying.close();
+        WriteSpool afterCrash = open();
+
+        // Assert
+        assertEquals(3, afterCrash.size());
+        assertTrue(afterCrash.startReplay());
+        assertEquals("10.0.0.2", afterCrash.next().ip);
+    }
+}
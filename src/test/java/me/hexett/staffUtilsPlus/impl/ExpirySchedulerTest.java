@@ -0,0 +1,116 @@
+package me.hexett.staffUtilsPlus.impl;
+
+import me.hexett.staffUtilsPlus.db.AsyncDatabase;
+import me.hexett.staffUtilsPlus.db.Database;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment;
+import me.hexett.staffUtilsPlus.service.punishments.Punishment.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExpiryScheduler.
+ * Tests the first load, deactivating lapsed punishments, scheduling
+ * punishments issued after the load, and reloading for punishments issued
+ * by other servers.
+ */
+@ExtendWith(MockitoExtension.class)
+@org.mockito.junit.jupiter.MockitoSettings(strictness = org.mockito.quality.Strictness.LENIENT)
+public class ExpirySchedulerTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Mock
+    private Database mockDatabase;
+
+    private ExpiryScheduler scheduler;
+    private UUID testPlayer;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = new ExpiryScheduler(AsyncDatabase.of(mockDatabase));
+        testPlayer = UUID.randomUUID();
+    }
+
+    @Test
+    public void testFirstTickClearsBacklogAndLoads() {
+        // Arrange
+        when(mockDatabase.getActivePunishments(eq(ExpiryScheduler.TYPES), eq(0), anyInt())).thenReturn(List.of(
+                new Punishment(testPlayer, Type.TEMP_MUTE, "Spam", NOW, NOW + 1000, null)));
+
+        // Act
+        List<ExpiryScheduler.Expiry> expired = scheduler.tick(NOW).join();
+
+        // Assert
+        assertTrue(expired.isEmpty());
+        assertEquals(1, scheduler.size());
+        verify(mockDatabase).deactivateExpiredPunishments(Type.TEMP_BAN, NOW);
+        verify(mockDatabase).deactivateExpiredPunishments(Type.TEMP_MUTE, NOW);
+    }
+
+    @Test
+    public void testDeactivatesOnlyOnceLapsed() {
+        // Arrange
+        when(mockDatabase.getActivePunishments(eq(ExpiryScheduler.TYPES), eq(0), anyInt())).thenReturn(List.of(
+                new Punishment(testPlayer, Type.TEMP_MUTE, "Spam", NOW, NOW + 1000, null)));
+        scheduler.tick(NOW).join();
+
+        // Act
+        List<ExpiryScheduler.Expiry> early = scheduler.tick(NOW + 999).join();
+        List<ExpiryScheduler.Expiry> lapsed = scheduler.tick(NOW + 1000).join();
+
+        // Assert
+        assertTrue(early.isEmpty());
+        assertEquals(List.of(new ExpiryScheduler.Expiry(testPlayer, Type.TEMP_MUTE, NOW + 1000)), lapsed);
+        assertEquals(0, scheduler.size());
+        verify(mockDatabase).deactivateExpiredPunishments(Type.TEMP_MUTE, NOW + 1000);
+        verify(mockDatabase, never()).deactivateExpiredPunishments(Type.TEMP_BAN, NOW + 1000);
+    }
+
+    @Test
+    public void testSchedulesPunishmentsIssuedAfterLoad() {
+        // Arrange
+        when(mockDatabase.getActivePunishments(eq(ExpiryScheduler.TYPES), eq(0), anyInt())).thenReturn(List.of());
+        scheduler.tick(NOW).join();
+
+        // Act
+        scheduler.schedule(new Punishment(testPlayer, Type.TEMP_BAN, "Griefing", NOW, NOW + 500, null));
+        scheduler.schedule(new Punishment(testPlayer, Type.BAN, "Cheating", NOW, -1, null));
+        List<ExpiryScheduler.Expiry> lapsed = scheduler.tick(NOW + 500).join();
+
+        // Assert
+        assertEquals(1, lapsed.size());
+        assertEquals(Type.TEMP_BAN, lapsed.get(0).type());
+        verify(mockDatabase).deactivateExpiredPunishments(Type.TEMP_BAN, NOW + 500);
+    }
+
+    @Test
+    public void testReloadsForPunishmentsFromOtherServers() {
+        // Arrange: the first window holds everything, then another server issues a temp ban
+        long reload = NOW + ExpiryScheduler.RELOAD_EVERY_MILLIS;
+        when(mockDatabase.getActivePunishments(eq(ExpiryScheduler.TYPES), eq(0), anyInt())).thenReturn(List.of());
+        scheduler.tick(NOW).join();
+        when(mockDatabase.getActivePunishments(eq(ExpiryScheduler.TYPES), eq(0), anyInt())).thenReturn(List.of(
+                new Punishment(testPlayer, Type.TEMP_BAN, "Griefing", NOW, reload + 1000, null)));
+
+        // Act
+        scheduler.tick(reload - 1).join();
+        int beforeReload = scheduler.size();
+        scheduler.tick(reload).join();
+        int afterReload = scheduler.size();
+
+        // Assert
+        assertEquals(0, beforeReload);
+        assertEquals(1, afterReload);
+        verify(mockDatabase, times(2)).getActivePunishments(eq(ExpiryScheduler.TYPES), eq(0), anyInt());
+    }
+}
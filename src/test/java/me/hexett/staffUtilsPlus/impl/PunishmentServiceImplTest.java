@@ -47,6 +47,7 @@ public class PunishmentServiceImplTest {
         testIssuer = UUID.randomUUID();
         // Mock static Bukkit methods to avoid NPEs in unit tests
         mockedBukkit = mockStatic(Bukkit.class);
+        mockedBukkit.when(Bukkit::isPrimaryThread).thenReturn(true);
         mockedBukkit.when(() -> Bukkit.getPlayer(any(UUID.class))).thenReturn(null);
         org.bukkit.OfflinePlayer mockOffline = mock(org.bukkit.OfflinePlayer.class);
         when(mockOffline.getName()).thenReturn("OfflineName");
@@ -150,6 +151,80 @@ public class PunishmentServiceImplTest {
         assertEquals(Type.TEMP_BAN, result.get().getType());
     }
 
+    @Test
+    public void testLoadedPlayerIsCheckedInMemory() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        when(mockDatabase.getPunishments(testPlayer)).thenReturn(java.util.List.of(
+                new Punishment(testPlayer, Type.TEMP_MUTE, "Spam", now, now + 3600000, testIssuer)));
+        punishmentService.loadPlayer(testPlayer);
+
+        // Act
+        boolean muted = punishmentService.isMuted(testPlayer);
+        boolean banned = punishmentService.isBanned(testPlayer);
+        Optional<Punishment> mute = punishmentService.getActivePunishment(testPlayer, Type.TEMP_MUTE);
+
+        // Assert
+        assertTrue(muted);
+        assertFalse(banned);
+        assertTrue(mute.isPresent());
+        verify(mockDatabase, times(1)).getPunishments(testPlayer);
+    }
+
+    @Test
+    public void testActionsUpdateLoadedPlayer() {
+        // Arrange
+        when(mockDatabase.getPunishments(testPlayer)).thenReturn(java.util.List.of());
+        punishmentService.loadPlayer(testPlayer);
+
+        // Act
+        punishmentService.mute(testIssuer, testPlayer, "Spam", -1);
+        boolean mutedAfterMute = punishmentService.isMuted(testPlayer);
+        punishmentService.unmute(testIssuer, testPlayer);
+        boolean mutedAfterUnmute = punishmentService.isMuted(testPlayer);
+
+        // Assert
+        assertTrue(mutedAfterMute);
+        assertFalse(mutedAfterUnmute);
+        verify(mockDatabase, times(1)).getPunishments(testPlayer);
+    }
+
+    @Test
+    public void testRefreshPicksUpChangesFromOtherServers() {
+        // Arrange
+        when(mockDatabase.getPunishments(testPlayer)).thenReturn(java.util.List.of());
+        punishmentService.loadPlayer(testPlayer);
+        when(mockDatabase.getPunishments(testPlayer)).thenReturn(java.util.List.of(
+                new Punishment(testPlayer, Type.MUTE, "Spam", System.currentTimeMillis(), -1, testIssuer)));
+
+        // Act
+        boolean mutedBefore = punishmentService.isMuted(testPlayer);
+        ((PunishmentServiceImpl) punishmentService).refreshOnlinePlayers().join();
+        boolean mutedAfter = punishmentService.isMuted(testPlayer);
+
+        // Assert
+        assertFalse(mutedBefore);
+        assertTrue(mutedAfter);
+        verify(mockDatabase, times(2)).getPunishments(testPlayer);
+    }
+
+    @Test
+    public void testUnloadedPlayerIsCheckedInDatabase() {
+        // Arrange
+        when(mockDatabase.getPunishments(testPlayer)).thenReturn(java.util.List.of());
+        punishmentService.loadPlayer(testPlayer);
+        punishmentService.unloadPlayer(testPlayer);
+        when(mockDatabase.getPunishments(testPlayer)).thenReturn(java.util.List.of(
+                new Punishment(testPlayer, Type.MUTE, "Spam", System.currentTimeMillis(), -1, testIssuer)));
+
+        // Act
+        boolean muted = punishmentService.isMuted(testPlayer);
+
+        // Assert
+        assertTrue(muted);
+        verify(mockDatabase, times(2)).getPunishments(testPlayer);
+    }
+
     @Test
     public void testBanCheckWithNullDatabase() {
         // This test verifies the service handles null database gracefully